@@ -20,9 +20,14 @@ package org.apache.atlas.authorize.simple;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import org.apache.atlas.ApplicationProperties;
@@ -33,9 +38,9 @@ import org.apache.atlas.model.discovery.AtlasSearchResult;
 import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasFullTextResult;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.utils.AtlasJson;
+import org.apache.atlas.utils.LruCache;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +50,13 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
     private final static String WILDCARD_ASTERISK = "*";
 
-    private AtlasSimpleAuthzPolicy authzPolicy;
+    public static final String DECISION_CACHE_SIZE_PROPERTY = "atlas.authorizer.simple.decision.cache.size";
+    public static final int    DEFAULT_DECISION_CACHE_SIZE  = 10000;
+
+    private AtlasSimpleAuthzPolicy                     authzPolicy;
+    private Map<List<String>, AtlasSimpleAuthzMatcher> patternMatchers;
+    private boolean                                    isEntityIdMatchAll;
+    private Map<EntityAccessDecisionKey, Boolean>      entityAccessDecisions;
 
 
     public AtlasSimpleAuthorizer() {
@@ -60,7 +71,14 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         try {
             inputStream = ApplicationProperties.getFileAsInputStream(ApplicationProperties.get(), "atlas.authorizer.simple.authz.policy.file", "atlas-simple-authz-policy.json");
 
-            authzPolicy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+            AtlasSimpleAuthzPolicy policy    = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+            int                    cacheSize = ApplicationProperties.get().getInt(DECISION_CACHE_SIZE_PROPERTY, DEFAULT_DECISION_CACHE_SIZE);
+
+            // decisions cached for the earlier policy are discarded along with the earlier cache
+            patternMatchers       = compilePatterns(policy);
+            isEntityIdMatchAll    = isEntityIdMatchAll(policy, patternMatchers);
+            entityAccessDecisions = cacheSize > 0 ? Collections.synchronizedMap(new LruCache<>(cacheSize, 0)) : null;
+            authzPolicy           = policy;
         } catch (IOException | AtlasException e) {
             LOG.error("SimpleAtlasAuthorizer.init(): initialization failed", e);
 
@@ -82,7 +100,9 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
     public void cleanUp() {
         LOG.info("==> SimpleAtlasAuthorizer.cleanUp()");
 
-        authzPolicy = null;
+        authzPolicy           = null;
+        patternMatchers       = null;
+        entityAccessDecisions = null;
 
         LOG.info("<== SimpleAtlasAuthorizer.cleanUp()");
     }
@@ -223,6 +243,18 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({})", request);
         }
 
+        final Map<EntityAccessDecisionKey, Boolean> decisions = entityAccessDecisions;
+        final EntityAccessDecisionKey               cacheKey  = decisions != null ? new EntityAccessDecisionKey(request, isEntityIdMatchAll) : null;
+        final Boolean                               decision  = cacheKey != null ? decisions.get(cacheKey) : null;
+
+        if (decision != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {} (cached)", request, decision);
+            }
+
+            return decision;
+        }
+
         final String      action         = request.getAction() != null ? request.getAction().getType() : null;
         final Set<String> entityTypes    = request.getEntityTypeAndAllSuperTypes();
         final String      entityId       = request.getEntityId();
@@ -269,6 +301,10 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
         boolean ret = hasEntityAccess && hasClassificationsAccess;
 
+        if (cacheKey != null) {
+            decisions.put(cacheKey.copy(), ret);
+        }
+
         if (LOG.isDebugEnabled()) {
             if (!ret) {
                 LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz);
@@ -397,14 +433,10 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
         if (value == null) {
             ret = true;
-        } if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String pattern : patterns) {
-                if (isMatch(value, pattern)) {
-                    ret = true;
+        } else if (CollectionUtils.isNotEmpty(patterns)) {
+            AtlasSimpleAuthzMatcher matcher = getMatcher(patterns);
 
-                    break;
-                }
-            }
+            ret = matcher != null && matcher.isMatch(value);
         }
 
         if (!ret && LOG.isDebugEnabled()) {
@@ -436,18 +468,99 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         return ret;
     }
 
-    private boolean isMatch(String value, String pattern) {
-        boolean ret;
+    private AtlasSimpleAuthzMatcher getMatcher(List<String> patterns) {
+        Map<List<String>, AtlasSimpleAuthzMatcher> matchers = patternMatchers;
+        AtlasSimpleAuthzMatcher                    ret      = matchers != null ? matchers.get(patterns) : null;
 
-        if (value == null) {
-            ret = true;
-        } else {
-            ret = StringUtils.equalsIgnoreCase(value, pattern) || value.matches(pattern);
+        if (ret == null) { // not expected, as matchers are compiled for all pattern lists in the policy
+            ret = AtlasSimpleAuthzMatcher.compile(patterns);
         }
 
         return ret;
     }
 
+    /**
+     * Compiles pattern lists in the policy; matchers are looked up by identity of the pattern list in the policy.
+     */
+    private static Map<List<String>, AtlasSimpleAuthzMatcher> compilePatterns(AtlasSimpleAuthzPolicy policy) {
+        Map<List<String>, AtlasSimpleAuthzMatcher> ret      = new IdentityHashMap<>();
+        Map<List<String>, AtlasSimpleAuthzMatcher> compiled = new HashMap<>(); // to share matchers of identical lists
+
+        if (policy != null && policy.getRoles() != null) {
+            for (AtlasAuthzRole role : policy.getRoles().values()) {
+                if (role == null) {
+                    continue;
+                }
+
+                if (role.getAdminPermissions() != null) {
+                    for (AtlasAdminPermission permission : role.getAdminPermissions()) {
+                        addMatcher(ret, compiled, permission.getPrivileges());
+                    }
+                }
+
+                if (role.getTypePermissions() != null) {
+                    for (AtlasTypePermission permission : role.getTypePermissions()) {
+                        addMatcher(ret, compiled, permission.getPrivileges());
+                        addMatcher(ret, compiled, permission.getTypeCategories());
+                        addMatcher(ret, compiled, permission.getTypeNames());
+                    }
+                }
+
+                if (role.getEntityPermissions() != null) {
+                    for (AtlasEntityPermission permission : role.getEntityPermissions()) {
+                        addMatcher(ret, compiled, permission.getPrivileges());
+                        addMatcher(ret, compiled, permission.getEntityTypes());
+                        addMatcher(ret, compiled, permission.getEntityIds());
+                        addMatcher(ret, compiled, permission.getClassifications());
+                        addMatcher(ret, compiled, permission.getLabels());
+                        addMatcher(ret, compiled, permission.getBusinessMetadata());
+                        addMatcher(ret, compiled, permission.getAttributes());
+                    }
+                }
+
+                if (role.getRelationshipPermissions() != null) {
+                    for (AtlasRelationshipPermission permission : role.getRelationshipPermissions()) {
+                        addMatcher(ret, compiled, permission.getPrivileges());
+                        addMatcher(ret, compiled, permission.getRelationshipTypes());
+                        addMatcher(ret, compiled, permission.getEnd1EntityType());
+                        addMatcher(ret, compiled, permission.getEnd1EntityId());
+                        addMatcher(ret, compiled, permission.getEnd1EntityClassification());
+                        addMatcher(ret, compiled, permission.getEnd2EntityType());
+                        addMatcher(ret, compiled, permission.getEnd2EntityId());
+                        addMatcher(ret, compiled, permission.getEnd2EntityClassification());
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addMatcher(Map<List<String>, AtlasSimpleAuthzMatcher> matchers, Map<List<String>, AtlasSimpleAuthzMatcher> compiled, List<String> patterns) {
+        if (CollectionUtils.isNotEmpty(patterns)) {
+            matchers.put(patterns, compiled.computeIfAbsent(patterns, AtlasSimpleAuthzMatcher::compile));
+        }
+    }
+
+    // when all entity permissions match every entity-id, access decisions don't depend on the entity-id
+    private static boolean isEntityIdMatchAll(AtlasSimpleAuthzPolicy policy, Map<List<String>, AtlasSimpleAuthzMatcher> matchers) {
+        if (policy != null && policy.getRoles() != null) {
+            for (AtlasAuthzRole role : policy.getRoles().values()) {
+                if (role != null && role.getEntityPermissions() != null) {
+                    for (AtlasEntityPermission permission : role.getEntityPermissions()) {
+                        AtlasSimpleAuthzMatcher matcher = CollectionUtils.isEmpty(permission.getEntityIds()) ? null : matchers.get(permission.getEntityIds());
+
+                        if (matcher == null || !matcher.isMatchAll()) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
     private void checkAccessAndScrub(AtlasEntityHeader entity, AtlasSearchResultScrubRequest request) throws AtlasAuthorizationException {
         if (entity != null && request != null) {
             final AtlasEntityAccessRequest entityAccessRequest = new AtlasEntityAccessRequest(request.getTypeRegistry(), AtlasPrivilege.ENTITY_READ, entity, request.getUser(), request.getUserGroups());
@@ -467,6 +580,88 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
     private boolean isBusinessMetadataMatch(AtlasEntityAccessRequest request, AtlasEntityPermission permission) {
         return AtlasPrivilege.ENTITY_UPDATE_BUSINESS_METADATA.equals(request.getAction()) ? isMatch(request.getBusinessMetadata(), permission.getBusinessMetadata()) : true;
     }
-}
 
+    /**
+     * Inputs of an entity access decision. Entity-id is left out when the policy grants access irrespective of it,
+     * so that decisions are shared by all entities of a type - as in scrubbing search results.
+     */
+    private static final class EntityAccessDecisionKey {
+        private final String                   user;
+        private final Set<String>              userGroups;
+        private final String                   action;
+        private final Set<String>              entityTypes;
+        private final String                   entityId;
+        private final String                   classification;
+        private final String                   attribute;
+        private final String                   label;
+        private final String                   businessMetadata;
+        private final Map<String, Set<String>> entityClassifications;
+        private final int                      hashCode;
+
+        EntityAccessDecisionKey(AtlasEntityAccessRequest request, boolean ignoreEntityId) {
+            this.user                  = request.getUser();
+            this.userGroups            = request.getUserGroups();
+            this.action                = request.getAction() != null ? request.getAction().getType() : null;
+            this.entityTypes           = request.getEntityTypeAndAllSuperTypes();
+            this.entityId              = ignoreEntityId ? null : request.getEntityId();
+            this.classification        = request.getClassification() != null ? request.getClassification().getTypeName() : null;
+            this.attribute             = request.getAttributeName();
+            this.label                 = request.getLabel();
+            this.businessMetadata      = request.getBusinessMetadata();
+            this.entityClassifications = new HashMap<>();
+
+            for (String entityClassification : request.getEntityClassifications()) {
+                entityClassifications.put(entityClassification, request.getClassificationTypeAndAllSuperTypes(entityClassification));
+            }
+
+            this.hashCode = Objects.hash(user, userGroups, action, entityTypes, entityId, classification, attribute, label, businessMetadata, entityClassifications);
+        }
+
+        private EntityAccessDecisionKey(EntityAccessDecisionKey other) {
+            this.user                  = other.user;
+            this.userGroups            = other.userGroups != null ? new HashSet<>(other.userGroups) : null;
+            this.action                = other.action;
+            this.entityTypes           = other.entityTypes != null ? new HashSet<>(other.entityTypes) : null;
+            this.entityId              = other.entityId;
+            this.classification        = other.classification;
+            this.attribute             = other.attribute;
+            this.label                 = other.label;
+            this.businessMetadata      = other.businessMetadata;
+            this.entityClassifications = other.entityClassifications;
+            this.hashCode              = other.hashCode;
+        }
+
+        // copy to store in the cache, so that later changes to sets in the request don't affect the cached key
+        EntityAccessDecisionKey copy() {
+            return new EntityAccessDecisionKey(this);
+        }
 
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof EntityAccessDecisionKey)) {
+                return false;
+            }
+
+            EntityAccessDecisionKey other = (EntityAccessDecisionKey) obj;
+
+            return hashCode == other.hashCode &&
+                   Objects.equals(user, other.user) &&
+                   Objects.equals(action, other.action) &&
+                   Objects.equals(entityId, other.entityId) &&
+                   Objects.equals(classification, other.classification) &&
+                   Objects.equals(attribute, other.attribute) &&
+                   Objects.equals(label, other.label) &&
+                   Objects.equals(businessMetadata, other.businessMetadata) &&
+                   Objects.equals(userGroups, other.userGroups) &&
+                   Objects.equals(entityTypes, other.entityTypes) &&
+                   Objects.equals(entityClassifications, other.entityClassifications);
+        }
+    }
+}
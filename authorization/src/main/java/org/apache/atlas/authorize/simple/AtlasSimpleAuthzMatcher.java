@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled form of a list of patterns in the simple authorizer policy. A value matches a pattern if it is equal to
+ * the pattern ignoring case, or if it matches the pattern as a regular expression. Patterns are compiled once into:
+ * <ul>
+ *   <li>a hash set of case-folded patterns, for the equals-ignore-case match</li>
+ *   <li>a flag for the match-all pattern .*</li>
+ *   <li>a prefix trie for patterns of form literal.*</li>
+ *   <li>compiled regular expressions, for all other patterns</li>
+ * </ul>
+ */
+final class AtlasSimpleAuthzMatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasSimpleAuthzMatcher.class);
+
+    private static final String MATCH_ALL        = ".*";
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final String LINE_TERMINATORS = "\n\r\u0085\u2028\u2029";
+
+    private final List<String>  patterns;
+    private final Set<String>   foldedPatterns = new HashSet<>();
+    private final PrefixTrie    prefixes       = new PrefixTrie();
+    private final List<Pattern> regexes        = new ArrayList<>();
+    private       boolean       isMatchAll     = false;
+
+    private AtlasSimpleAuthzMatcher(List<String> patterns) {
+        this.patterns = patterns;
+
+        for (String pattern : patterns) {
+            if (pattern == null) {
+                continue;
+            }
+
+            foldedPatterns.add(foldCase(pattern));
+
+            if (pattern.equals(MATCH_ALL)) {
+                isMatchAll = true;
+            } else if (isLiteral(pattern)) {
+                // regex match of a literal is an exact match, which is covered by the equals-ignore-case match
+            } else if (pattern.endsWith(MATCH_ALL) && isLiteral(pattern.substring(0, pattern.length() - MATCH_ALL.length()))) {
+                prefixes.add(pattern.substring(0, pattern.length() - MATCH_ALL.length()));
+            } else {
+                try {
+                    regexes.add(Pattern.compile(pattern));
+                } catch (PatternSyntaxException excp) {
+                    LOG.warn("invalid regular expression in authorization policy: {}. It will only be matched as a literal", pattern, excp);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return matcher for the given patterns; null if there are no patterns, in which case no value matches
+     */
+    static AtlasSimpleAuthzMatcher compile(List<String> patterns) {
+        return CollectionUtils.isEmpty(patterns) ? null : new AtlasSimpleAuthzMatcher(patterns);
+    }
+
+    boolean isMatchAll() {
+        return isMatchAll;
+    }
+
+    boolean isMatch(String value) {
+        if (value == null) {
+            return true;
+        }
+
+        if (hasLineTerminator(value)) { // '.' doesn't match line terminators, hence .* and prefix matches don't apply
+            return isMatchUncompiled(value);
+        }
+
+        if (isMatchAll || foldedPatterns.contains(foldCase(value)) || prefixes.hasPrefixOf(value)) {
+            return true;
+        }
+
+        for (Pattern regex : regexes) {
+            if (regex.matcher(value).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isMatchUncompiled(String value) {
+        for (String pattern : patterns) {
+            try {
+                if (pattern != null && (pattern.equalsIgnoreCase(value) || value.matches(pattern))) {
+                    return true;
+                }
+            } catch (PatternSyntaxException excp) {
+                // ignore; logged when the matcher was compiled
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasLineTerminator(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (LINE_TERMINATORS.indexOf(str.charAt(i)) != -1) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // two strings are equal after folding if and only if String.equalsIgnoreCase() returns true for them
+    private static String foldCase(String str) {
+        char[] chars = str.toCharArray();
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+
+        return new String(chars);
+    }
+
+    private static boolean isLiteral(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(str.charAt(i)) != -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final class PrefixTrie {
+        private final Map<Character, PrefixTrie> children = new HashMap<>();
+        private       boolean                    isEnd    = false;
+
+        void add(String prefix) {
+            PrefixTrie node = this;
+
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new PrefixTrie());
+            }
+
+            node.isEnd = true;
+        }
+
+        boolean hasPrefixOf(String value) {
+            PrefixTrie node = this;
+
+            for (int i = 0; !node.isEnd && i < value.length(); i++) {
+                node = node.children.get(value.charAt(i));
+
+                if (node == null) {
+                    return false;
+                }
+            }
+
+            return node.isEnd;
+        }
+    }
+}
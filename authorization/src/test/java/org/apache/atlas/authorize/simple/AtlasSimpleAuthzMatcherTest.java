@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasSimpleAuthzMatcherTest {
+    private static final List<String> PATTERNS = Arrays.asList("entity-read", "hive_.*", "hdfs_path", "(kafka|hbase)_[a-z]+", "Sales.*", "*invalid");
+    private static final List<String> VALUES   = Arrays.asList("entity-read", "ENTITY-READ", "entity-update", "hive_table", "hive_", "HIVE_table", "hive",
+                                                               "hdfs_path", "HDFS_PATH", "hdfs_path_2", "kafka_topic", "hbase_table", "kafka_", "kafka_Topic",
+                                                               "Sales", "SalesData", "sales", "sales.*", "*invalid", "*INVALID", "hive_table\nline2", "");
+
+    @Test
+    public void testMatchesAsRegexOrIgnoreCase() {
+        AtlasSimpleAuthzMatcher matcher = AtlasSimpleAuthzMatcher.compile(PATTERNS);
+
+        for (String value : VALUES) {
+            assertEquals(matcher.isMatch(value), isMatchUncompiled(value, PATTERNS), "value=" + value);
+        }
+    }
+
+    @Test
+    public void testMatchAll() {
+        AtlasSimpleAuthzMatcher matcher = AtlasSimpleAuthzMatcher.compile(Collections.singletonList(".*"));
+
+        assertTrue(matcher.isMatchAll());
+        assertTrue(matcher.isMatch("anything"));
+        assertTrue(matcher.isMatch(""));
+        assertTrue(matcher.isMatch(null));
+        assertFalse(matcher.isMatch("line1\nline2"));
+        assertFalse(AtlasSimpleAuthzMatcher.compile(PATTERNS).isMatchAll());
+    }
+
+    @Test
+    public void testNoPatterns() {
+        assertNull(AtlasSimpleAuthzMatcher.compile(null));
+        assertNull(AtlasSimpleAuthzMatcher.compile(Collections.emptyList()));
+    }
+
+    // matching as done before patterns were compiled, except that invalid regular expressions don't match
+    private static boolean isMatchUncompiled(String value, List<String> patterns) {
+        for (String pattern : patterns) {
+            try {
+                if (value.equalsIgnoreCase(pattern) || value.matches(pattern)) {
+                    return true;
+                }
+            } catch (PatternSyntaxException excp) {
+                // ignore
+            }
+        }
+
+        return false;
+    }
+}
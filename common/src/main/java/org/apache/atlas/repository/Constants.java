@@ -94,6 +94,7 @@ public final class Constants {
     public static final String PROPAGATED_CLASSIFICATION_NAMES_KEY  = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "propagatedClassificationNames");
     public static final String CUSTOM_ATTRIBUTES_PROPERTY_KEY       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "customAttributes");
     public static final String LABELS_PROPERTY_KEY                  = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "labels");
+    public static final String ENTITY_FINGERPRINT_PROPERTY_KEY      = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "fingerprint");
 
     /**
      * Patch vertices property keys.
@@ -104,6 +105,18 @@ public final class Constants {
     public static final String PATCH_ACTION_PROPERTY_KEY      = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "patch.action");
     public static final String PATCH_STATE_PROPERTY_KEY       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "patch.state");
 
+    /**
+     * Task vertices property keys.
+     */
+    public static final String TASK_GUID_PROPERTY_KEY          = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.guid");
+    public static final String TASK_TYPE_PROPERTY_KEY          = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.type");
+    public static final String TASK_STATUS_PROPERTY_KEY        = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.status");
+    public static final String TASK_PARAMETERS_PROPERTY_KEY    = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.parameters");
+    public static final String TASK_ATTEMPT_COUNT_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.attemptCount");
+    public static final String TASK_ERROR_MESSAGE_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.errorMessage");
+    public static final String TASK_START_TIME_PROPERTY_KEY    = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.startTime");
+    public static final String TASK_END_TIME_PROPERTY_KEY      = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.endTime");
+
     /**
      * The homeId field is used when saving into Atlas a copy of an object that is being imported from another
      * repository. The homeId will be set to a String that identifies the other repository. The specific format
@@ -33,6 +33,7 @@ public class AggregationContext {
     private final Map<String, String>  indexFieldNameCache;
     private final boolean              excludeDeletedEntities;
     private final boolean              includeSubTypes;
+    private final Integer              facetLimit;
 
     /**
      * @param queryString the query string whose aggregation metrics need to be retrieved.
@@ -49,6 +50,23 @@ public class AggregationContext {
                               Map<String, String>  indexFieldNameCache,
                               boolean              excludeDeletedEntities,
                               boolean              includeSubTypes) {
+        this(queryString, filterCriteria, searchForEntityType, aggregationFieldNames, aggregationAttributes, indexFieldNameCache,
+             excludeDeletedEntities, includeSubTypes, null);
+    }
+
+    /**
+     * @param facetLimit maximum number of values to return for each aggregation field; -1 for all values,
+     *                   null for the default of the index backend
+     */
+    public AggregationContext(String               queryString,
+                              FilterCriteria       filterCriteria,
+                              Set<AtlasEntityType> searchForEntityType,
+                              Set<String>          aggregationFieldNames,
+                              Set<AtlasAttribute>  aggregationAttributes,
+                              Map<String, String>  indexFieldNameCache,
+                              boolean              excludeDeletedEntities,
+                              boolean              includeSubTypes,
+                              Integer              facetLimit) {
         this.queryString            = queryString;
         this.filterCriteria         = filterCriteria;
         this.searchForEntityTypes   = searchForEntityType;
@@ -57,6 +75,7 @@ public class AggregationContext {
         this.indexFieldNameCache    = indexFieldNameCache;
         this.excludeDeletedEntities = excludeDeletedEntities;
         this.includeSubTypes        = includeSubTypes;
+        this.facetLimit             = facetLimit;
     }
 
     public String getQueryString() {
@@ -90,4 +109,8 @@ public class AggregationContext {
     public boolean isIncludeSubTypes() {
         return includeSubTypes;
     }
+
+    public Integer getFacetLimit() {
+        return facetLimit;
+    }
 }
@@ -26,6 +26,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -160,6 +161,14 @@ public interface AtlasGraph<V, E> {
 
     AtlasGraphTraversal<AtlasVertex, AtlasEdge> E(Object ... edgeIds);
 
+    /**
+     * Loads properties of the given vertices from the backend store in bulk, into the current transaction. Subsequent
+     * reads of properties of these vertices, in the current transaction, don't need further calls to the store.
+     *
+     * @param vertices vertices whose properties are to be loaded
+     */
+    void loadVertexProperties(Collection<? extends AtlasVertex> vertices);
+
     /**
      * Creates an index query.
      *
@@ -61,6 +61,7 @@ import org.janusgraph.core.Cardinality;
 import org.janusgraph.core.JanusGraph;
 import org.janusgraph.core.JanusGraphFactory;
 import org.janusgraph.core.JanusGraphIndexQuery;
+import org.janusgraph.core.JanusGraphVertex;
 import org.janusgraph.core.PropertyKey;
 import org.janusgraph.core.SchemaViolationException;
 import org.janusgraph.core.schema.JanusGraphIndex;
@@ -76,6 +77,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -318,6 +320,28 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         return GraphDbObjectFactory.createVertex(this, vertex);
     }
 
+    @Override
+    public void loadVertexProperties(Collection<? extends AtlasVertex> vertices) {
+        if (vertices == null || vertices.isEmpty()) {
+            return;
+        }
+
+        List<JanusGraphVertex> janusVertices = new ArrayList<>(vertices.size());
+
+        for (AtlasVertex vertex : vertices) {
+            Object wrappedVertex = vertex.getWrappedElement();
+
+            if (wrappedVertex instanceof JanusGraphVertex) {
+                janusVertices.add((JanusGraphVertex) wrappedVertex);
+            }
+        }
+
+        if (!janusVertices.isEmpty()) {
+            // multi-query fetches properties of all vertices in a batch and caches them in the transaction
+            getGraph().multiQuery(janusVertices).properties();
+        }
+    }
+
     @Override
     public Iterable<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> getVertices(String key, Object value) {
         AtlasGraphQuery<AtlasJanusVertex, AtlasJanusEdge> query = query();
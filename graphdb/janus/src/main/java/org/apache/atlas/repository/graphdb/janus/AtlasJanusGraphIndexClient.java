@@ -216,6 +216,10 @@ public class AtlasJanusGraphIndexClient implements AtlasGraphIndexClient {
 
             solrQuery.setFacetMinCount(MIN_FACET_COUNT_REQUIRED);
 
+            if (aggregationContext.getFacetLimit() != null) {
+                solrQuery.setFacetLimit(aggregationContext.getFacetLimit());
+            }
+
             QueryResponse    queryResponse = solrClient.query(VERTEX_INDEX, solrQuery, SolrRequest.METHOD.POST);
             List<FacetField> facetFields   = queryResponse == null ? null : queryResponse.getFacetFields();
 
@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -85,6 +86,7 @@ import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.zookeeper.KeeperException;
 import org.janusgraph.core.Cardinality;
@@ -646,7 +648,11 @@ public class Solr6Index implements IndexProvider {
         } else {
             solrQuery.setRows(batchSize);
         }
-        return executeQuery(query.hasLimit() ? query.getLimit() : null, 0, collection, solrQuery,
+        // results that need more than one batch are read using cursorMark, instead of paging with start/rows
+        if (!query.hasLimit() || query.getLimit() > batchSize) {
+            solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, CursorMarkParams.CURSOR_MARK_START);
+        }
+        return executeQuery(query.hasLimit() ? query.getLimit() : null, 0, collection, solrQuery, keyIdField,
                 doc -> doc.getFieldValue(keyIdField).toString());
     }
 
@@ -659,10 +665,20 @@ public class Solr6Index implements IndexProvider {
     }
 
     private <E> Stream<E> executeQuery(Integer limit, int offset, String collection, SolrQuery solrQuery,
-                                       Function<SolrDocument, E> function) throws PermanentBackendException {
+                                       String keyIdField, Function<SolrDocument, E> function) throws PermanentBackendException {
         try {
-            final SolrResultIterator<E> resultIterator = new SolrResultIterator<>(solrClient, limit, offset,
-                    solrQuery.getRows(), collection, solrQuery, function);
+            final Iterator<E> resultIterator;
+            if (solrQuery.get(CursorMarkParams.CURSOR_MARK_PARAM) != null) {
+                // cursorMark requires the unique key as the last sort clause
+                if (solrQuery.getSorts().stream().noneMatch(sort -> keyIdField.equals(sort.getItem()))) {
+                    solrQuery.addSort(keyIdField, SolrQuery.ORDER.asc);
+                }
+                resultIterator = new SolrCursorResultIterator<>(solrClient, limit, offset, collection, solrQuery,
+                        function);
+            } else {
+                resultIterator = new SolrResultIterator<>(solrClient, limit, offset, solrQuery.getRows(),
+                        collection, solrQuery, function);
+            }
             return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED),
                     false);
         } catch (final IOException | UncheckedIOException e) {
@@ -706,7 +722,7 @@ public class Solr6Index implements IndexProvider {
         final String collection = query.getStore();
         final String keyIdField = getKeyFieldId(collection);
         return executeQuery(query.hasLimit() ? query.getLimit() : null, query.getOffset(), collection,
-                runCommonQuery(query, information, tx, collection, keyIdField), doc -> {
+                runCommonQuery(query, information, tx, collection, keyIdField), keyIdField, doc -> {
                     final double score = Double.parseDouble(doc.getFieldValue("score").toString());
                     return new RawQuery.Result<>(doc.getFieldValue(keyIdField).toString(), score);
                 });
@@ -718,8 +734,10 @@ public class Solr6Index implements IndexProvider {
         try {
             final String collection = query.getStore();
             final String keyIdField = getKeyFieldId(collection);
-            final QueryResponse response = solrClient.query(collection, runCommonQuery(query, information, tx,
-                    collection, keyIdField));
+            final SolrQuery solrQuery = runCommonQuery(query, information, tx, collection, keyIdField);
+            // count doesn't need the cursor; cursorMark would also require a sort on the unique key
+            solrQuery.remove(CursorMarkParams.CURSOR_MARK_PARAM);
+            final QueryResponse response = solrClient.query(collection, solrQuery);
             logger.debug("Executed query [{}] in {} ms", query.getQuery(), response.getElapsedTime());
             return response.getResults().getNumFound();
         } catch (final IOException e) {
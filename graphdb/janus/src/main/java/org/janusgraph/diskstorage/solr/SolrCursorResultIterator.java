@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.janusgraph.diskstorage.solr;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Iterates over results of a Solr query using cursorMark. Unlike SolrResultIterator, which reads successive batches
+ * with start=offset, each batch continues from where the previous one stopped - hence Solr doesn't have to collect and
+ * sort offset + rows documents in every shard to return a batch deep in the results.
+ *
+ * The query must be sorted on the unique key field, as the last sort clause. As cursorMark requires start=0, results
+ * before the given offset are read and skipped.
+ */
+public class SolrCursorResultIterator<E> implements Iterator<E> {
+    private final SolrClient                solrClient;
+    private final Integer                   limit;
+    private final String                    collection;
+    private final SolrQuery                 solrQuery;
+    private final Function<SolrDocument, E> function;
+    private Iterator<SolrDocument>          batch = Collections.emptyIterator();
+    private String                          cursorMark;
+    private boolean                         isLastBatch;
+    private int                             toSkip;
+    private int                             count;
+
+    public SolrCursorResultIterator(SolrClient solrClient, Integer limit, int offset, String collection, SolrQuery solrQuery,
+                                    Function<SolrDocument, E> function) throws SolrServerException, IOException {
+        this.solrClient = solrClient;
+        this.limit      = limit;
+        this.collection = collection;
+        this.solrQuery  = solrQuery;
+        this.function   = function;
+        this.cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        this.toSkip     = offset;
+
+        solrQuery.setStart(0);
+
+        fetchNextBatch();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (limit != null && count >= limit) {
+            return false;
+        }
+
+        while (!batch.hasNext() && !isLastBatch) {
+            try {
+                fetchNextBatch();
+            } catch (SolrServerException e) {
+                throw new UncheckedIOException(new IOException(e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return batch.hasNext();
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        count++;
+
+        return function.apply(batch.next());
+    }
+
+    private void fetchNextBatch() throws SolrServerException, IOException {
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+
+        QueryResponse    response       = solrClient.query(collection, solrQuery);
+        SolrDocumentList documents      = response.getResults();
+        String           nextCursorMark = response.getNextCursorMark();
+        int              skip           = Math.min(toSkip, documents.size());
+
+        // Solr returns the same cursorMark once all results have been read
+        isLastBatch = documents.size() < solrQuery.getRows() || nextCursorMark == null || nextCursorMark.equals(cursorMark);
+        cursorMark  = nextCursorMark;
+        toSkip     -= skip;
+        batch       = documents.subList(skip, documents.size()).iterator();
+    }
+}
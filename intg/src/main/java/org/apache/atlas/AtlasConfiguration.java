@@ -47,6 +47,7 @@ public enum AtlasConfiguration {
     NOTIFICATION_MESSAGE_COMPRESSION_ENABLED("atlas.notification.message.compression.enabled", true),
     NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS("atlas.notification.split.message.segments.wait.time.seconds", 15 * 60),
     NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS("atlas.notification.split.message.buffer.purge.interval.seconds", 5 * 60),
+    NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES("atlas.notification.split.message.buffer.max.bytes", 256L * 1024 * 1024),
 
     NOTIFICATION_CREATE_SHELL_ENTITY_FOR_NON_EXISTING_REF("atlas.notification.consumer.create.shell.entity.for.non-existing.ref", true),
     REST_API_CREATE_SHELL_ENTITY_FOR_NON_EXISTING_REF("atlas.rest.create.shell.entity.for.non-existing.ref", false),
@@ -58,9 +59,22 @@ public enum AtlasConfiguration {
 
     CLASSIFICATION_PROPAGATION_DEFAULT("atlas.classification.propagation.default", true),
 
+    // deferred execution of classification propagation in the background
+    TASKS_USE_ENABLED("atlas.tasks.enabled", false),
+    TASKS_EXECUTOR_THREADS("atlas.tasks.executor.threads", 4),
+    TASKS_MAX_ATTEMPTS("atlas.tasks.max.attempts", 3),
+    TASKS_RETRY_INITIAL_DELAY_MS("atlas.tasks.retry.initial.delay.ms", 1000),
+    TASKS_RETRY_MAX_DELAY_MS("atlas.tasks.retry.max.delay.ms", 60000),
+    TASKS_COMPLETED_RETENTION_MS("atlas.tasks.completed.retention.ms", 86400000),
+    TASKS_PURGE_INTERVAL_MS("atlas.tasks.purge.interval.ms", 3600000),
+    TASKS_CLASSIFICATION_PROPAGATION_BATCH_SIZE("atlas.tasks.classification.propagation.batch.size", 1000),
+
     //search configuration
     SEARCH_MAX_LIMIT("atlas.search.maxlimit", 10000),
     SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100),
+    SEARCH_CURSOR_MAX_ENTRIES("atlas.search.cursor.max.entries", 1000),
+    SEARCH_CURSOR_MAX_ENTRIES_PER_USER("atlas.search.cursor.max.entries.per.user", 100),
+    SEARCH_CURSOR_TTL_SECS("atlas.search.cursor.ttlInSecs", 600),
 
     CUSTOM_ATTRIBUTE_KEY_MAX_LENGTH("atlas.custom.attribute.key.max.length", 50),
     CUSTOM_ATTRIBUTE_VALUE_MAX_LENGTH("atlas.custom.attribute.value.max.length", 500),
@@ -68,8 +82,37 @@ public enum AtlasConfiguration {
 
     LABEL_MAX_LENGTH("atlas.entity.label.max.length", 50),
     IMPORT_TEMP_DIRECTORY("atlas.import.temp.directory", ""),
+    IMPORT_ZIP_SOURCE_INDEXED("atlas.import.zip.source.indexed", false),
+    IMPORT_ZIP_SOURCE_CACHE_SIZE("atlas.import.zip.source.cache.size", 1000),
+    EXPORT_NUM_WORKERS("atlas.export.num.workers", 1),
+    EXPORT_WRITER_QUEUE_SIZE("atlas.export.writer.queue.size", 100),
+    EXPORT_VISITED_SET_MAX_IN_MEMORY("atlas.export.visited.set.max.in.memory", 1000000),
+    EXPORT_TEMP_DIRECTORY("atlas.export.temp.directory", ""),
     MIGRATION_IMPORT_START_POSITION("atlas.migration.import.start.position", 0),
     LINEAGE_USING_GREMLIN("atlas.lineage.query.use.gremlin", false),
+    LINEAGE_MAX_NODES("atlas.lineage.max.nodes", 10000),
+    LINEAGE_MAX_EDGES("atlas.lineage.max.edges", 20000),
+    LINEAGE_TRAVERSAL_BATCH_SIZE("atlas.lineage.traversal.batch.size", 500),
+    LINEAGE_CONTINUATION_MAX_ENTRIES("atlas.lineage.continuation.max.entries", 1000),
+    LINEAGE_CONTINUATION_TTL_SECS("atlas.lineage.continuation.ttl.secs", 600),
+    LINEAGE_CACHE_ENABLED("atlas.lineage.cache.enabled", false),
+    LINEAGE_CACHE_MAX_NODES("atlas.lineage.cache.max.nodes", 1000000),
+    ENTITY_AUDIT_ASYNC_ENABLED("atlas.entity.audit.async.enabled", false),
+    ENTITY_AUDIT_ASYNC_WAL_DIR("atlas.entity.audit.async.wal.dir", ""),
+    ENTITY_AUDIT_ASYNC_WAL_FSYNC("atlas.entity.audit.async.wal.fsync", true),
+    ENTITY_AUDIT_ASYNC_WAL_SEGMENT_MAX_BYTES("atlas.entity.audit.async.wal.segment.max.bytes", 64L * 1024 * 1024),
+    ENTITY_AUDIT_ASYNC_QUEUE_SIZE("atlas.entity.audit.async.queue.size", 10000),
+    ENTITY_AUDIT_ASYNC_BATCH_SIZE("atlas.entity.audit.async.batch.size", 1000),
+    ENTITY_AUDIT_ASYNC_RETRY_MAX_INTERVAL_MS("atlas.entity.audit.async.retry.max.interval.ms", 60 * 1000),
+    ENTITY_UNIQUE_ATTRIBUTE_CACHE_ENABLED("atlas.entity.unique.attribute.cache.enabled", true),
+    ENTITY_UNIQUE_ATTRIBUTE_CACHE_MAX_ENTRIES("atlas.entity.unique.attribute.cache.max.entries", 100000),
+    GLOSSARY_CACHE_ENABLED("atlas.glossary.cache.enabled", true),
+    GLOSSARY_CACHE_MAX_SIZE_MB("atlas.glossary.cache.max.size.mb", 64),
+    ENTITY_FINGERPRINT_ENABLED("atlas.entity.fingerprint.enabled", true),
+    DSL_QUERY_USE_GREMLIN("atlas.dsl.query.use.gremlin", false),
+    DSL_QUERY_PLAN_CACHE_ENABLED("atlas.dsl.query.plan.cache.enabled", true),
+    METRIC_QUERY_USE_FACETS("atlas.metric.query.use.facets", true),
+    METRIC_QUERY_CACHE_TTL_SECS("atlas.metric.query.cache.ttlInSecs", 900),
 
     HTTP_HEADER_SERVER_VALUE("atlas.http.header.server.value","Apache Atlas");
 
@@ -170,6 +170,7 @@ public enum AtlasErrorCode {
     INVALID_FILE_TYPE(400, "ATLAS-400-00-098", "The provided file type {0} is not supported."),
     INVALID_BUSINESS_ATTRIBUTES_IMPORT_DATA(400, "ATLAS-400-00-099","The uploaded file was not processed due to following errors : {0}"),
     ATTRIBUTE_NAME_INVALID_CHARS(400, "ATLAS-400-00-09A", "{0}: invalid name. Attribute names must begin with a letter followed by a sequence of letters, numbers, or '_' characters"),
+    INVALID_LINEAGE_CONTINUATION_TOKEN(400, "ATLAS-400-00-09B", "Invalid lineage continuation token: {0}"),
 
     UNAUTHORIZED_ACCESS(403, "ATLAS-403-00-001", "{0} is not authorized to perform {1}"),
 
@@ -195,6 +196,8 @@ public enum AtlasErrorCode {
     NO_PROPAGATED_CLASSIFICATIONS_FOUND_FOR_ENTITY(404, "ATLAS-404-00-013", "No propagated classifications associated with entity: {0}"),
     NO_DATA_FOUND(404, "ATLAS-404-00-014", "No data found in the uploaded file"),
     FILE_NAME_NOT_FOUND(404, "ATLAS-404-00-015", "File name should not be blank"),
+    TASK_NOT_FOUND(404, "ATLAS-404-00-016", "Given task guid {0} is invalid/not found"),
+    SEARCH_CURSOR_NOT_FOUND(404, "ATLAS-404-00-017", "Search cursor {0} is invalid or has expired"),
 
     // All data conflict errors go here
     TYPE_ALREADY_EXISTS(409, "ATLAS-409-00-001", "Given type {0} already exists"),
@@ -46,6 +46,7 @@ public class AtlasLineageInfo implements Serializable {
     private int                            lineageDepth;
     private Map<String, AtlasEntityHeader> guidEntityMap;
     private Set<LineageRelation>           relations;
+    private String                         continuationToken;
 
     public AtlasLineageInfo() {}
 
@@ -109,6 +110,18 @@ public class AtlasLineageInfo implements Serializable {
         this.lineageDepth = lineageDepth;
     }
 
+    /**
+     * @return token to fetch the rest of the lineage, when the lineage was truncated to the maximum number of
+     * entities/relations; null when the lineage is complete
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -118,12 +131,13 @@ public class AtlasLineageInfo implements Serializable {
                 Objects.equals(baseEntityGuid, that.baseEntityGuid) &&
                 lineageDirection == that.lineageDirection &&
                 Objects.equals(guidEntityMap, that.guidEntityMap) &&
-                Objects.equals(relations, that.relations);
+                Objects.equals(relations, that.relations) &&
+                Objects.equals(continuationToken, that.continuationToken);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(baseEntityGuid, lineageDirection, lineageDepth, guidEntityMap, relations);
+        return Objects.hash(baseEntityGuid, lineageDirection, lineageDepth, guidEntityMap, relations, continuationToken);
     }
 
     @Override
@@ -134,6 +148,7 @@ public class AtlasLineageInfo implements Serializable {
                 ", relations=" + relations +
                 ", lineageDirection=" + lineageDirection +
                 ", lineageDepth=" + lineageDepth +
+                ", continuationToken=" + continuationToken +
                 '}';
     }
 
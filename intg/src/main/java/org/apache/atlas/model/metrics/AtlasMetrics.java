@@ -56,6 +56,7 @@ public class AtlasMetrics {
     public static final String STAT_NOTIFY_START_TIME_CURR_HOUR        = PREFIX_NOTIFICATION + "currentHourStartTime";
     public static final String STAT_NOTIFY_LAST_MESSAGE_PROCESSED_TIME = PREFIX_NOTIFICATION + "lastMessageProcessedTime";
     public static final String STAT_NOTIFY_TOPIC_DETAILS               = PREFIX_NOTIFICATION + "topicDetails";
+    public static final String STAT_NOTIFY_QUEUE_DETAILS               = PREFIX_NOTIFICATION + "queueDetails";
     public static final String STAT_NOTIFY_COUNT_PREV_DAY              = PREFIX_NOTIFICATION + "previousDay";
     public static final String STAT_NOTIFY_AVG_TIME_PREV_DAY           = PREFIX_NOTIFICATION + "previousDayAvgTime";
     public static final String STAT_NOTIFY_CREATES_COUNT_PREV_DAY      = PREFIX_NOTIFICATION + "previousDayEntityCreates";
@@ -75,6 +76,8 @@ public class AtlasMetrics {
     public static final String STAT_NOTIFY_DELETES_COUNT_TOTAL         = PREFIX_NOTIFICATION + "totalDeletes";
     public static final String STAT_NOTIFY_FAILED_COUNT_TOTAL          = PREFIX_NOTIFICATION + "totalFailed";
     public static final String STAT_SERVER_ACTIVE_TIMESTAMP            = PREFIX_SERVER + "activeTimeStamp";
+    public static final String STAT_SERVER_AUDIT_WRITER_DETAILS        = PREFIX_SERVER + "auditWriterDetails";
+    public static final String STAT_SERVER_CACHE_DETAILS               = PREFIX_SERVER + "cacheDetails";
     public static final String STAT_SERVER_START_TIMESTAMP             = PREFIX_SERVER + "startTimeStamp";
     public static final String STAT_SERVER_STATUS_BACKEND_STORE        = PREFIX_SERVER + "statusBackendStore";
     public static final String STAT_SERVER_STATUS_INDEX_STORE          = PREFIX_SERVER + "statusIndexStore";
@@ -27,6 +27,7 @@ import org.apache.commons.lang.StringUtils;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Map;
 
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
@@ -35,7 +36,10 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_
 @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class MigrationImportStatus extends MigrationStatus {
-    private String name;
+    private String            name;
+    private long              entitiesPerSecond;
+    private long              stallTimeInMs;
+    private Map<String, Long> typeCounts;
 
     public MigrationImportStatus() {
     }
@@ -52,10 +56,37 @@ public class MigrationImportStatus extends MigrationStatus {
         this.name = name;
     }
 
+    public long getEntitiesPerSecond() {
+        return entitiesPerSecond;
+    }
+
+    public void setEntitiesPerSecond(long entitiesPerSecond) {
+        this.entitiesPerSecond = entitiesPerSecond;
+    }
+
+    public long getStallTimeInMs() {
+        return stallTimeInMs;
+    }
+
+    public void setStallTimeInMs(long stallTimeInMs) {
+        this.stallTimeInMs = stallTimeInMs;
+    }
+
+    public Map<String, Long> getTypeCounts() {
+        return typeCounts;
+    }
+
+    public void setTypeCounts(Map<String, Long> typeCounts) {
+        this.typeCounts = typeCounts;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(", name=").append(name);
+        sb.append(", entitiesPerSecond=").append(entitiesPerSecond);
+        sb.append(", stallTimeInMs=").append(stallTimeInMs);
+        sb.append(", typeCounts=").append(typeCounts);
         sb.append(super.toString());
         return sb.toString();
     }
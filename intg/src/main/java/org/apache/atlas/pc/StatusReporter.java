@@ -34,6 +34,8 @@ public class StatusReporter<T, U> {
     private Set<T> processedSet = new HashSet<>();
     private long timeoutDuration;
     private long lastAck;
+    private long ackedCount;
+    private long timedOutCount;
 
     public StatusReporter() {
         this.timeoutDuration = -1;
@@ -85,6 +87,7 @@ public class StatusReporter<T, U> {
 
         if (hasTimeoutDurationReached(System.currentTimeMillis())) {
             LOG.warn("Ack: Timeout: {} - {}", lookFor.getKey(), lookFor.getValue());
+            timedOutCount++;
             return acknowledged(lookFor);
         }
 
@@ -99,6 +102,7 @@ public class StatusReporter<T, U> {
         U ack = lookFor.getValue();
         producedItems.remove(lookFor.getKey());
         processedSet.remove(lookFor.getKey());
+        ackedCount++;
         return ack;
     }
 
@@ -115,4 +119,12 @@ public class StatusReporter<T, U> {
     public int getProcessedCount() {
         return this.processedSet.size();
     }
+
+    public long getAckedCount() {
+        return this.ackedCount;
+    }
+
+    public long getTimedOutCount() {
+        return this.timedOutCount;
+    }
 }
@@ -48,7 +48,13 @@ public abstract class WorkItemConsumer<T> implements Runnable {
     public void run() {
         try {
             while (!Thread.currentThread().isInterrupted()) {
-                T item = queue.poll(POLLING_DURATION_SECONDS, TimeUnit.SECONDS);
+                T item = queue.poll();
+
+                if (item == null) {
+                    onQueueEmpty();
+
+                    item = queue.poll(POLLING_DURATION_SECONDS, TimeUnit.SECONDS);
+                }
 
                 if (item == null) {
                     LOG.debug("WorkItemConsumer.run(): no more items found in the queue. Will exit after committing");
@@ -97,6 +103,13 @@ public abstract class WorkItemConsumer<T> implements Runnable {
         isDirty.set(false);
     }
 
+    /**
+     * Called when no item is available in the queue, before waiting for more items. Consumers that buffer items
+     * can commit here, so that the producer waiting on results of the buffered items isn't held up.
+     */
+    protected void onQueueEmpty() {
+    }
+
     protected abstract void doCommit();
 
     protected abstract void processItem(T item);
@@ -85,6 +85,8 @@ public class StatusReporterTest {
 
         assertEquals(statusReporter.getProducedCount(), 0);
         assertEquals(statusReporter.getProcessedCount(), 0);
+        assertEquals(statusReporter.getAckedCount(), maxItems);
+        assertEquals(statusReporter.getTimedOutCount(), 0);
     }
 
     private void extractResults(WorkItemManager<Integer, WorkItemConsumer> wi, StatusReporter<Integer, Integer> statusReporter) {
@@ -111,5 +113,7 @@ public class StatusReporterTest {
         ack = statusReporter.ack();
         assertNotNull(ack);
         assertEquals(ack, Integer.valueOf(200));
+        assertEquals(statusReporter.getAckedCount(), 2);
+        assertEquals(statusReporter.getTimedOutCount(), 1);
     }
 }
@@ -22,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasConstants;
+import org.apache.atlas.hook.HookNotificationBuffer.BackpressurePolicy;
 import org.apache.atlas.kafka.NotificationProvider;
 import org.apache.atlas.model.notification.HookNotification;
 import org.apache.atlas.notification.NotificationException;
@@ -34,9 +35,12 @@ import org.apache.hadoop.util.ShutdownHookManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.security.PrivilegedExceptionAction;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -54,6 +58,14 @@ public abstract class AtlasHook {
     public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_MAX_THREADS        = "atlas.notification.hook.asynchronous.maxThreads";
     public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_KEEP_ALIVE_TIME_MS = "atlas.notification.hook.asynchronous.keepAliveTimeMs";
     public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_QUEUE_SIZE         = "atlas.notification.hook.asynchronous.queueSize";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_BATCHING_ENABLED   = "atlas.notification.hook.asynchronous.batching.enabled";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_BATCH_SIZE         = "atlas.notification.hook.asynchronous.batchSize";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_LINGER_MS          = "atlas.notification.hook.asynchronous.lingerMs";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_MAX_INFLIGHT       = "atlas.notification.hook.asynchronous.maxInFlightBatches";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_BACKPRESSURE       = "atlas.notification.hook.asynchronous.backpressurePolicy";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_BLOCK_TIMEOUT_MS   = "atlas.notification.hook.asynchronous.blockTimeoutMs";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_SPILL_FILE         = "atlas.notification.hook.asynchronous.spillFile";
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS_STATS_INTERVAL_MS  = "atlas.notification.hook.asynchronous.statsLogIntervalMs";
     public static final String ATLAS_NOTIFICATION_MAX_RETRIES                     = "atlas.notification.hook.retry.maxRetries";
     public static final String ATLAS_NOTIFICATION_RETRY_INTERVAL                  = "atlas.notification.hook.retry.interval";
     public static final String ATLAS_NOTIFICATION_FAILED_MESSAGES_FILENAME_KEY    = "atlas.notification.failed.messages.filename";
@@ -66,13 +78,14 @@ public abstract class AtlasHook {
     protected static Configuration         atlasProperties;
     protected static NotificationInterface notificationInterface;
 
-    private static final String               metadataNamespace;
-    private static final int                  SHUTDOWN_HOOK_WAIT_TIME_MS = 3000;
-    private static final boolean              logFailedMessages;
-    private static final FailedMessagesLogger failedMessagesLogger;
-    private static final int                  notificationMaxRetries;
-    private static final int                  notificationRetryInterval;
-    private static       ExecutorService      executor = null;
+    private static final String                 metadataNamespace;
+    private static final int                    SHUTDOWN_HOOK_WAIT_TIME_MS = 3000;
+    private static final boolean                logFailedMessages;
+    private static final FailedMessagesLogger   failedMessagesLogger;
+    private static final int                    notificationMaxRetries;
+    private static final int                    notificationRetryInterval;
+    private static       ExecutorService        executor           = null;
+    private static       HookNotificationBuffer notificationBuffer = null;
 
 
     static {
@@ -110,7 +123,26 @@ public abstract class AtlasHook {
 
         boolean isAsync = atlasProperties.getBoolean(ATLAS_NOTIFICATION_ASYNCHRONOUS, Boolean.TRUE);
 
-        if (isAsync) {
+        boolean isBatching = atlasProperties.getBoolean(ATLAS_NOTIFICATION_ASYNCHRONOUS_BATCHING_ENABLED, Boolean.FALSE);
+
+        if (isAsync && isBatching) {
+            notificationBuffer = createNotificationBuffer(atlasProperties);
+
+            notificationBuffer.start();
+
+            ShutdownHookManager.get().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        LOG.info("==> Shutdown of Atlas Hook");
+
+                        notificationBuffer.stop(SHUTDOWN_HOOK_WAIT_TIME_MS);
+                    } finally {
+                        LOG.info("<== Shutdown of Atlas Hook");
+                    }
+                }
+            }, AtlasConstants.ATLAS_SHUTDOWN_HOOK_PRIORITY);
+        } else if (isAsync) {
             int  minThreads      = atlasProperties.getInt(ATLAS_NOTIFICATION_ASYNCHRONOUS_MIN_THREADS, 1);
             int  maxThreads      = atlasProperties.getInt(ATLAS_NOTIFICATION_ASYNCHRONOUS_MAX_THREADS, 1);
             long keepAliveTimeMs = atlasProperties.getLong(ATLAS_NOTIFICATION_ASYNCHRONOUS_KEEP_ALIVE_TIME_MS, 10000);
@@ -151,7 +183,9 @@ public abstract class AtlasHook {
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries) {
-        if (executor == null) { // send synchronously
+        if (notificationBuffer != null) { // send asynchronously in batches; failed messages are not retried here
+            notificationBuffer.add(messages, ugi);
+        } else if (executor == null) { // send synchronously
             notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger);
         } else {
             executor.submit(new Runnable() {
@@ -281,6 +315,54 @@ public abstract class AtlasHook {
         }
     }
 
+    /**
+     * @return statistics of the asynchronous batching send path - like queue depth, batch size and send latency;
+     *         empty if batching is not enabled
+     */
+    public static Map<String, Object> getNotificationStats() {
+        return notificationBuffer != null ? notificationBuffer.getStats() : Collections.emptyMap();
+    }
+
+    private static HookNotificationBuffer createNotificationBuffer(Configuration config) {
+        String policyName      = config.getString(ATLAS_NOTIFICATION_ASYNCHRONOUS_BACKPRESSURE, BackpressurePolicy.BLOCK.name());
+        int    queueSize       = config.getInt(ATLAS_NOTIFICATION_ASYNCHRONOUS_QUEUE_SIZE, 10000);
+        int    batchSize       = config.getInt(ATLAS_NOTIFICATION_ASYNCHRONOUS_BATCH_SIZE, 100);
+        long   lingerMs        = config.getLong(ATLAS_NOTIFICATION_ASYNCHRONOUS_LINGER_MS, 50);
+        int    maxInFlight     = config.getInt(ATLAS_NOTIFICATION_ASYNCHRONOUS_MAX_INFLIGHT, 5);
+        long   blockTimeoutMs  = config.getLong(ATLAS_NOTIFICATION_ASYNCHRONOUS_BLOCK_TIMEOUT_MS, 10000);
+        long   statsIntervalMs = config.getLong(ATLAS_NOTIFICATION_ASYNCHRONOUS_STATS_INTERVAL_MS, 5 * 60 * 1000);
+        String spillFileName   = config.getString(ATLAS_NOTIFICATION_ASYNCHRONOUS_SPILL_FILE);
+
+        BackpressurePolicy policy;
+
+        try {
+            policy = BackpressurePolicy.valueOf(policyName.trim().toUpperCase());
+        } catch (IllegalArgumentException excp) {
+            LOG.warn("{}: invalid value {}; using {}", ATLAS_NOTIFICATION_ASYNCHRONOUS_BACKPRESSURE, policyName, BackpressurePolicy.BLOCK);
+
+            policy = BackpressurePolicy.BLOCK;
+        }
+
+        // spill file is not defaulted: a file shared by hooks in different processes would let one replay notifications of another
+        if (policy == BackpressurePolicy.SPILL && StringUtils.isBlank(spillFileName)) {
+            LOG.warn("{}: {} requires {} to be set; using {}", ATLAS_NOTIFICATION_ASYNCHRONOUS_BACKPRESSURE, policy, ATLAS_NOTIFICATION_ASYNCHRONOUS_SPILL_FILE, BackpressurePolicy.BLOCK);
+
+            policy = BackpressurePolicy.BLOCK;
+        }
+
+        File spillFile = StringUtils.isNotBlank(spillFileName) ? new File(spillFileName) : null;
+
+        try {
+            return new HookNotificationBuffer(notificationInterface, logFailedMessages ? failedMessagesLogger : null, policy, queueSize,
+                                              batchSize, lingerMs, blockTimeoutMs, maxInFlight, spillFile, statsIntervalMs);
+        } catch (IllegalArgumentException excp) {
+            LOG.error("{}: unusable spill file {}; using {}", ATLAS_NOTIFICATION_ASYNCHRONOUS_BACKPRESSURE, spillFile, BackpressurePolicy.BLOCK, excp);
+
+            return new HookNotificationBuffer(notificationInterface, logFailedMessages ? failedMessagesLogger : null, BackpressurePolicy.BLOCK, queueSize,
+                                              batchSize, lingerMs, blockTimeoutMs, maxInFlight, null, statsIntervalMs);
+        }
+    }
+
     private static String getMetadataNamespace(Configuration config) {
         return config.getString(CONF_METADATA_NAMESPACE, getClusterName(config));
     }
@@ -0,0 +1,789 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hook;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.NotificationException;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.NotificationInterface.NotificationType;
+import org.apache.atlas.notification.NotificationSendCallback;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded buffer of hook notifications, sent to Atlas in batches by a background thread without waiting for the
+ * messaging system to acknowledge each message. This keeps the round-trip to the messaging system out of the
+ * critical path of the host component (Hive, HBase, Storm, ..).
+ *
+ * When the buffer is full, the backpressure policy decides what happens to a new notification:
+ * <ul>
+ *   <li>block: the caller waits, up to the configured timeout, for space in the buffer</li>
+ *   <li>drop_oldest: the oldest notification in the buffer is dropped to make room</li>
+ *   <li>spill: the notification is written to a local file; spilled notifications are sent a batch at a time,
+ *       alongside notifications in the buffer</li>
+ * </ul>
+ * New notifications are added to the buffer whenever it has room, hence notifications spilled earlier can be sent
+ * after them. Writes to the spill file are buffered, and flushed by the background thread.
+ *
+ * The spill file is created readable and writable only by its owner; an existing spill file is used only if it is
+ * owned by the user of this process and is not writable by others. A spilled notification is sent under the user it
+ * was added by, only if it was spilled by this instance; others are sent under the user of this process.
+ * Notifications that could not be sent, or were dropped, are written to FailedMessagesLogger.
+ */
+public class HookNotificationBuffer {
+    private static final Logger LOG = LoggerFactory.getLogger(HookNotificationBuffer.class);
+
+    public enum BackpressurePolicy { BLOCK, DROP_OLDEST, SPILL }
+
+    private static final long   POLL_INTERVAL_MS       = 1000;
+    private static final String SPILL_REPLAY_EXTENSION = ".replay";
+    private static final String SPILL_TMP_EXTENSION    = ".tmp";
+    private static final char   SPILL_USER_SEPARATOR   = '\t';
+
+    private static final Set<PosixFilePermission> SPILL_FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+
+    private final    NotificationInterface                    notificationInterface;
+    private final    FailedMessagesLogger                     failedMessagesLogger;
+    private final    BackpressurePolicy                       backpressurePolicy;
+    private final    int                                      queueSize;
+    private final    int                                      batchSize;
+    private final    long                                     lingerMs;
+    private final    long                                     blockTimeoutMs;
+    private final    int                                      maxInFlightBatches;
+    private final    long                                     statsLogIntervalMs;
+    private final    File                                     spillFile;
+    private final    File                                     spillReplayFile;
+    private final    LinkedBlockingDeque<PendingNotification> queue;
+    private final    Semaphore                                inFlightBatches;
+    private final    Thread                                   flusher;
+    private final    Object                                   spillLock          = new Object();
+    private final    Map<String, UserGroupInformation>         spilledUgis        = new HashMap<>(); // user -> ugi of notifications spilled by this instance, guarded by spillLock
+    private final    AtomicLong                               countEnqueued      = new AtomicLong();
+    private final    AtomicLong                               countSent          = new AtomicLong();
+    private final    AtomicLong                               countFailed        = new AtomicLong();
+    private final    AtomicLong                               countDropped       = new AtomicLong();
+    private final    AtomicLong                               countSpilled       = new AtomicLong();
+    private final    AtomicLong                               countBatches       = new AtomicLong();
+    private final    AtomicLong                               maxBatchSize       = new AtomicLong();
+    private final    AtomicLong                               totalSendLatencyMs = new AtomicLong();
+    private final    AtomicLong                               maxSendLatencyMs   = new AtomicLong();
+    private          BufferedWriter                           spillWriter        = null;  // guarded by spillLock; open while notifications are spilled after the last replay started
+    private          BufferedReader                           replayReader       = null;  // used only by the flusher
+    private volatile boolean                                  isStopped          = false;
+    private volatile boolean                                  hasSpilledMessages = false;
+
+    public HookNotificationBuffer(NotificationInterface notificationInterface, FailedMessagesLogger failedMessagesLogger,
+                                  BackpressurePolicy backpressurePolicy, int queueSize, int batchSize, long lingerMs,
+                                  long blockTimeoutMs, int maxInFlightBatches, File spillFile, long statsLogIntervalMs) {
+        this.notificationInterface = notificationInterface;
+        this.failedMessagesLogger  = failedMessagesLogger;
+        this.backpressurePolicy    = backpressurePolicy;
+        this.queueSize             = Math.max(queueSize, 1);
+        this.batchSize             = Math.max(batchSize, 1);
+        this.lingerMs              = Math.max(lingerMs, 0);
+        this.blockTimeoutMs        = Math.max(blockTimeoutMs, 0);
+        this.maxInFlightBatches    = Math.max(maxInFlightBatches, 1);
+        this.statsLogIntervalMs    = statsLogIntervalMs;
+        this.spillFile             = spillFile;
+        this.spillReplayFile       = spillFile != null ? new File(spillFile.getPath() + SPILL_REPLAY_EXTENSION) : null;
+        this.queue                 = new LinkedBlockingDeque<>(this.queueSize);
+        this.inFlightBatches       = new Semaphore(this.maxInFlightBatches);
+        this.flusher               = new Thread(this::flushLoop, "Atlas Notifier Flusher");
+
+        if (backpressurePolicy == BackpressurePolicy.SPILL && spillFile == null) {
+            throw new IllegalArgumentException("spill file must be specified for backpressure policy " + backpressurePolicy);
+        }
+
+        if (spillFile != null) {
+            checkSpillFile(spillFile);
+            checkSpillFile(spillReplayFile);
+        }
+
+        // notifications spilled by an earlier instance, that were not sent before it stopped
+        this.hasSpilledMessages = spillFile != null && (spillFile.length() > 0 || spillReplayFile.exists());
+
+        this.flusher.setDaemon(true);
+
+        LOG.info("HookNotificationBuffer: backpressurePolicy={}, queueSize={}, batchSize={}, lingerMs={}, blockTimeoutMs={}, maxInFlightBatches={}, spillFile={}",
+                 backpressurePolicy, this.queueSize, this.batchSize, this.lingerMs, this.blockTimeoutMs, this.maxInFlightBatches, spillFile);
+    }
+
+    public void start() {
+        flusher.start();
+    }
+
+    /**
+     * Adds the given notifications to the buffer. Returns without waiting for the notifications to be sent, except
+     * when the buffer is full and the backpressure policy is block.
+     */
+    public void add(List<HookNotification> messages, UserGroupInformation ugi) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+
+        PendingNotification notification = new PendingNotification(messages, ugi);
+
+        countEnqueued.addAndGet(messages.size());
+
+        if (isStopped) {
+            if (backpressurePolicy == BackpressurePolicy.SPILL) {
+                spill(notification);
+                flushSpillWriter();
+            } else {
+                LOG.warn("HookNotificationBuffer is stopped; {} messages will not be sent", messages.size());
+
+                onDropped(notification);
+            }
+
+            return;
+        }
+
+        if (queue.offer(notification)) {
+            return;
+        }
+
+        switch (backpressurePolicy) {
+            case BLOCK: {
+                boolean isQueued = false;
+
+                try {
+                    isQueued = queue.offer(notification, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+
+                if (!isQueued) {
+                    LOG.warn("Notification buffer is full: timed out after {} ms waiting for space; {} messages will not be sent", blockTimeoutMs, messages.size());
+
+                    onDropped(notification);
+                }
+            }
+            break;
+
+            case DROP_OLDEST: {
+                while (!queue.offer(notification)) {
+                    PendingNotification oldest = queue.pollFirst();
+
+                    if (oldest != null) {
+                        LOG.warn("Notification buffer is full: dropping {} oldest messages", oldest.messages.size());
+
+                        onDropped(oldest);
+                    }
+                }
+            }
+            break;
+
+            case SPILL:
+                spill(notification);
+            break;
+        }
+    }
+
+    /**
+     * Stops accepting notifications and waits for buffered notifications to be sent. Notifications that are not sent
+     * before the timeout are spilled (when the policy is spill) or written to FailedMessagesLogger.
+     */
+    public void stop(long timeoutMs) {
+        long waitUntil = System.currentTimeMillis() + timeoutMs;
+
+        isStopped = true;
+
+        try {
+            flusher.join(timeoutMs);
+
+            long waitTime = waitUntil - System.currentTimeMillis();
+
+            if (waitTime > 0 && inFlightBatches.tryAcquire(maxInFlightBatches, waitTime, TimeUnit.MILLISECONDS)) {
+                inFlightBatches.release(maxInFlightBatches);
+            } else {
+                LOG.warn("HookNotificationBuffer.stop(): timed out waiting for sent messages to be acknowledged");
+            }
+        } catch (InterruptedException excp) {
+            LOG.info("HookNotificationBuffer.stop(): interrupted", excp);
+
+            Thread.currentThread().interrupt();
+        }
+
+        if (backpressurePolicy == BackpressurePolicy.SPILL) {
+            List<PendingNotification> unsent = new ArrayList<>();
+
+            queue.drainTo(unsent);
+
+            spillUnsent(unsent);
+            closeSpillWriter();
+        } else {
+            for (PendingNotification notification = queue.pollFirst(); notification != null; notification = queue.pollFirst()) {
+                onDropped(notification);
+            }
+        }
+
+        logStats();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> ret        = new LinkedHashMap<>();
+        long                countBatch = countBatches.get();
+
+        ret.put("queueDepth", queue.size());
+        ret.put("queueSize", queueSize);
+        ret.put("inFlightBatches", maxInFlightBatches - inFlightBatches.availablePermits());
+        ret.put("enqueued", countEnqueued.get());
+        ret.put("sent", countSent.get());
+        ret.put("failed", countFailed.get());
+        ret.put("dropped", countDropped.get());
+        ret.put("spilled", countSpilled.get());
+        ret.put("batches", countBatch);
+        ret.put("avgBatchSize", countBatch > 0 ? (countSent.get() + countFailed.get()) / countBatch : 0);
+        ret.put("maxBatchSize", maxBatchSize.get());
+        ret.put("avgSendLatencyMs", countBatch > 0 ? totalSendLatencyMs.get() / countBatch : 0);
+        ret.put("maxSendLatencyMs", maxSendLatencyMs.get());
+
+        return ret;
+    }
+
+    @VisibleForTesting
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void flushLoop() {
+        long nextStatsLogTime = System.currentTimeMillis() + statsLogIntervalMs;
+
+        while (!isStopped || !queue.isEmpty()) {
+            try {
+                List<PendingNotification> batch = nextBatch();
+
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                }
+
+                if (hasSpilledMessages && !isStopped) {
+                    replaySpilledBatch();
+                }
+
+                flushSpillWriter();
+
+                if (statsLogIntervalMs > 0 && System.currentTimeMillis() >= nextStatsLogTime) {
+                    logStats();
+
+                    nextStatsLogTime = System.currentTimeMillis() + statsLogIntervalMs;
+                }
+            } catch (InterruptedException excp) {
+                LOG.info("HookNotificationBuffer: flusher interrupted");
+
+                break;
+            } catch (Throwable t) {
+                LOG.error("HookNotificationBuffer: unexpected error in flusher", t);
+            }
+        }
+
+        retainUnreplayed();
+    }
+
+    // waits for a notification, then collects notifications for up to lingerMs or until batchSize messages are collected
+    private List<PendingNotification> nextBatch() throws InterruptedException {
+        List<PendingNotification> ret   = new ArrayList<>();
+        PendingNotification       first = queue.pollFirst(isStopped || replayReader != null ? 0 : POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        if (first != null) {
+            int  msgCount  = first.messages.size();
+            long waitUntil = System.currentTimeMillis() + lingerMs;
+
+            ret.add(first);
+
+            while (msgCount < batchSize) {
+                long                waitTime = waitUntil - System.currentTimeMillis();
+                PendingNotification next     = waitTime > 0 ? queue.pollFirst(waitTime, TimeUnit.MILLISECONDS) : queue.pollFirst();
+
+                if (next == null) {
+                    break;
+                }
+
+                ret.add(next);
+
+                msgCount += next.messages.size();
+            }
+        }
+
+        return ret;
+    }
+
+    // notifications are sent under the ugi of the caller; consecutive notifications with the same ugi are sent together
+    private void sendBatch(List<PendingNotification> batch) throws InterruptedException {
+        List<HookNotification> messages = new ArrayList<>();
+        UserGroupInformation   ugi      = batch.get(0).ugi;
+
+        for (PendingNotification notification : batch) {
+            if (notification.ugi != ugi) {
+                send(messages, ugi);
+
+                messages = new ArrayList<>();
+                ugi      = notification.ugi;
+            }
+
+            messages.addAll(notification.messages);
+        }
+
+        send(messages, ugi);
+    }
+
+    private void send(List<HookNotification> messages, UserGroupInformation ugi) throws InterruptedException {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        inFlightBatches.acquire();
+
+        final long                     startTime = System.currentTimeMillis();
+        final NotificationSendCallback callback  = new NotificationSendCallback() {
+            @Override
+            public void onCompletion(NotificationException excp) {
+                onSendComplete(messages, startTime, excp);
+            }
+        };
+
+        try {
+            if (ugi == null) {
+                notificationInterface.sendAsync(NotificationType.HOOK, messages, callback);
+            } else {
+                ugi.doAs(new PrivilegedExceptionAction<Object>() {
+                    @Override
+                    public Object run() {
+                        notificationInterface.sendAsync(NotificationType.HOOK, messages, callback);
+
+                        return messages;
+                    }
+                });
+            }
+        } catch (Exception excp) {
+            onSendComplete(messages, startTime, excp);
+        }
+    }
+
+    private void onSendComplete(List<HookNotification> messages, long startTime, Exception excp) {
+        try {
+            long latencyMs = System.currentTimeMillis() - startTime;
+
+            countBatches.incrementAndGet();
+            totalSendLatencyMs.addAndGet(latencyMs);
+            maxSendLatencyMs.accumulateAndGet(latencyMs, Math::max);
+            maxBatchSize.accumulateAndGet(messages.size(), Math::max);
+
+            if (excp == null) {
+                countSent.addAndGet(messages.size());
+            } else {
+                List<String> failedMessages = excp instanceof NotificationException ? ((NotificationException) excp).getFailedMessages() : null;
+
+                if (failedMessages == null) { // failed before the messages were sent, for example in serialization
+                    failedMessages = toJson(messages);
+                }
+
+                countSent.addAndGet(Math.max(messages.size() - failedMessages.size(), 0));
+                countFailed.addAndGet(Math.min(failedMessages.size(), messages.size()));
+
+                LOG.error("Failed to send {} of {} notifications to Atlas", failedMessages.size(), messages.size(), excp);
+
+                logFailedMessages(failedMessages);
+            }
+        } finally {
+            inFlightBatches.release();
+        }
+    }
+
+    private void onDropped(PendingNotification notification) {
+        countDropped.addAndGet(notification.messages.size());
+
+        logFailedMessages(toJson(notification.messages));
+    }
+
+    private void spill(PendingNotification notification) {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    spillWriter = openSpillFile(spillFile, true);
+                }
+
+                writeSpillRecords(spillWriter, notification);
+
+                countSpilled.addAndGet(notification.messages.size());
+
+                hasSpilledMessages = true;
+            } catch (IOException excp) {
+                LOG.error("Failed to spill {} notifications to file {}", notification.messages.size(), spillFile, excp);
+
+                closeSpillWriter();
+
+                onDropped(notification);
+            }
+        }
+    }
+
+    private void flushSpillWriter() {
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.flush();
+                } catch (IOException excp) {
+                    LOG.error("Failed to write spilled notifications to file {}", spillFile, excp);
+                }
+            }
+        }
+    }
+
+    private void closeSpillWriter() {
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.close();
+                } catch (IOException excp) {
+                    LOG.error("Failed to write spilled notifications to file {}", spillFile, excp);
+                }
+
+                spillWriter = null;
+            }
+        }
+    }
+
+    // notifications left in the buffer on stop are older than the ones already spilled, hence are written ahead of them
+    private void spillUnsent(List<PendingNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        if (flusher.isAlive()) { // flusher could still be reading the replay file
+            LOG.warn("HookNotificationBuffer.stop(): flusher is still running; {} unsent notifications will be spilled after earlier spilled notifications", notifications.size());
+
+            notifications.forEach(this::spill);
+
+            return;
+        }
+
+        synchronized (spillLock) {
+            File tmpFile = new File(spillReplayFile.getPath() + SPILL_TMP_EXTENSION);
+
+            try (BufferedWriter writer = openSpillFile(tmpFile, false)) {
+                for (PendingNotification notification : notifications) {
+                    writeSpillRecords(writer, notification);
+
+                    countSpilled.addAndGet(notification.messages.size());
+                }
+
+                if (spillReplayFile.exists()) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(spillReplayFile), StandardCharsets.UTF_8))) {
+                        copyRecords(reader, writer);
+                    }
+                }
+            } catch (IOException excp) {
+                LOG.error("Failed to spill {} unsent notifications to file {}", notifications.size(), tmpFile, excp);
+
+                notifications.forEach(this::onDropped);
+
+                return;
+            }
+
+            if ((spillReplayFile.exists() && !spillReplayFile.delete()) || !tmpFile.renameTo(spillReplayFile)) {
+                LOG.error("Failed to rename file {} to {}; unsent notifications will be sent when this file is renamed", tmpFile, spillReplayFile);
+            }
+
+            hasSpilledMessages = true;
+        }
+    }
+
+    // each record is a notification, prefixed with the name of the user it was added by
+    private void writeSpillRecords(BufferedWriter writer, PendingNotification notification) throws IOException {
+        String userName = notification.ugi != null ? notification.ugi.getUserName() : "";
+
+        if (notification.ugi != null) {
+            spilledUgis.put(userName, notification.ugi);
+        }
+
+        for (String msgJson : toJson(notification.messages)) {
+            writer.write(userName);
+            writer.write(SPILL_USER_SEPARATOR);
+            writer.write(msgJson);
+            writer.newLine();
+        }
+    }
+
+    // ugi of the user a spilled notification was added by, if spilled by this instance; otherwise null i.e. the user of this process
+    private UserGroupInformation getSpilledUgi(String record) {
+        int idx = record.indexOf(SPILL_USER_SEPARATOR);
+
+        if (idx <= 0) {
+            return null;
+        }
+
+        synchronized (spillLock) {
+            return spilledUgis.get(record.substring(0, idx));
+        }
+    }
+
+    private static String getSpilledMessage(String record) {
+        int idx = record.indexOf(SPILL_USER_SEPARATOR);
+
+        return idx >= 0 ? record.substring(idx + 1) : null;
+    }
+
+    // sends up to batchSize spilled notifications; the replay file is read across calls, until all its notifications are sent
+    private void replaySpilledBatch() throws InterruptedException {
+        if (replayReader == null) {
+            synchronized (spillLock) {
+                if (!spillReplayFile.exists()) {
+                    closeSpillWriter();
+
+                    if (spillFile.length() == 0 || !spillFile.renameTo(spillReplayFile)) {
+                        hasSpilledMessages = spillFile.length() > 0;
+
+                        return;
+                    }
+                }
+
+                hasSpilledMessages = true;
+            }
+
+            try {
+                replayReader = new BufferedReader(new InputStreamReader(new FileInputStream(spillReplayFile), StandardCharsets.UTF_8));
+            } catch (IOException excp) {
+                LOG.error("Failed to read spilled notifications from file {}", spillReplayFile, excp);
+
+                return;
+            }
+
+            LOG.info("Sending notifications spilled to file {}", spillReplayFile);
+        }
+
+        List<HookNotification> messages = new ArrayList<>();
+        UserGroupInformation   ugi      = null;
+        String                 record   = null;
+        int                    msgCount = 0;
+
+        try {
+            while (msgCount < batchSize && (record = replayReader.readLine()) != null) {
+                if (record.isEmpty()) {
+                    continue;
+                }
+
+                String               msgJson    = getSpilledMessage(record);
+                UserGroupInformation messageUgi = getSpilledUgi(record);
+                HookNotification     message    = null;
+
+                try {
+                    message = msgJson != null ? (HookNotification) NotificationType.HOOK.getDeserializer().deserialize(msgJson) : null;
+                } catch (Exception excp) {
+                    LOG.warn("Failed to read spilled notification", excp);
+                }
+
+                if (message == null) {
+                    logFailedMessages(Collections.singletonList(msgJson != null ? msgJson : record));
+
+                    continue;
+                }
+
+                if (messageUgi != ugi) {
+                    send(messages, ugi);
+
+                    messages = new ArrayList<>();
+                    ugi      = messageUgi;
+                }
+
+                messages.add(message);
+
+                msgCount++;
+            }
+        } catch (IOException excp) {
+            LOG.error("Failed to read spilled notifications from file {}", spillReplayFile, excp);
+
+            record = null;
+        }
+
+        send(messages, ugi);
+
+        if (record == null) { // all notifications in the replay file are sent
+            closeReplayReader();
+
+            synchronized (spillLock) {
+                if (!spillReplayFile.delete()) {
+                    LOG.warn("Failed to delete file {}", spillReplayFile);
+                }
+
+                hasSpilledMessages = spillWriter != null || spillFile.length() > 0;
+
+                if (!hasSpilledMessages) {
+                    spilledUgis.clear();
+                }
+            }
+        }
+    }
+
+    // on stop, notifications in the replay file that are not yet sent are retained, to be sent by the next instance
+    private void retainUnreplayed() {
+        if (replayReader == null) {
+            return;
+        }
+
+        synchronized (spillLock) {
+            File tmpFile = new File(spillReplayFile.getPath() + SPILL_TMP_EXTENSION);
+
+            try (BufferedWriter writer = openSpillFile(tmpFile, false)) {
+                copyRecords(replayReader, writer);
+            } catch (IOException excp) {
+                LOG.error("Failed to retain unsent spilled notifications in file {}", spillReplayFile, excp);
+
+                return;
+            } finally {
+                closeReplayReader();
+            }
+
+            if (!spillReplayFile.delete() || !tmpFile.renameTo(spillReplayFile)) {
+                LOG.error("Failed to rename file {} to {}; unsent spilled notifications will be sent when this file is renamed", tmpFile, spillReplayFile);
+            }
+        }
+    }
+
+    private void closeReplayReader() {
+        try {
+            replayReader.close();
+        } catch (IOException excp) {
+            LOG.warn("Failed to close file {}", spillReplayFile, excp);
+        }
+
+        replayReader = null;
+    }
+
+    private static void copyRecords(BufferedReader reader, BufferedWriter writer) throws IOException {
+        for (String record = reader.readLine(); record != null; record = reader.readLine()) {
+            writer.write(record);
+            writer.newLine();
+        }
+    }
+
+    // creates the file, if it doesn't exist, readable and writable only by its owner
+    private static BufferedWriter openSpillFile(File file, boolean append) throws IOException {
+        Path path = file.toPath();
+
+        if (!append) {
+            Files.deleteIfExists(path);
+        }
+
+        if (!file.exists()) {
+            if (isPosix()) {
+                Files.createFile(path, PosixFilePermissions.asFileAttribute(SPILL_FILE_PERMISSIONS));
+            } else {
+                Files.createFile(path);
+            }
+        }
+
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.UTF_8));
+    }
+
+    // notifications in the spill file are sent as their recorded users: the file must not be writable by others
+    private static void checkSpillFile(File file) {
+        if (!file.exists()) {
+            return;
+        }
+
+        Path   path        = file.toPath();
+        String processUser = System.getProperty("user.name");
+
+        try {
+            String owner = Files.getOwner(path).getName();
+
+            if (!StringUtils.equals(owner, processUser)) {
+                throw new IllegalArgumentException("spill file " + file + " is owned by " + owner + ", not by " + processUser);
+            }
+
+            if (isPosix()) {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+
+                if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                    throw new IllegalArgumentException("spill file " + file + " is writable by others: " + PosixFilePermissions.toString(permissions));
+                }
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException("failed to read attributes of spill file " + file, excp);
+        }
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    private void logFailedMessages(List<String> messages) {
+        if (failedMessagesLogger != null) {
+            for (String msg : messages) {
+                failedMessagesLogger.log(msg);
+            }
+        }
+    }
+
+    private void logStats() {
+        LOG.info("HookNotificationBuffer stats: {}", getStats());
+    }
+
+    private static List<String> toJson(List<HookNotification> messages) {
+        List<String> ret = new ArrayList<>(messages.size());
+
+        for (HookNotification message : messages) {
+            ret.add(AbstractNotification.getMessageJson(message));
+        }
+
+        return ret;
+    }
+
+    private static class PendingNotification {
+        final List<HookNotification> messages;
+        final UserGroupInformation   ugi;
+
+        PendingNotification(List<HookNotification> messages, UserGroupInformation ugi) {
+            this.messages = messages;
+            this.ugi      = ugi;
+        }
+    }
+}
@@ -24,12 +24,14 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.notification.AbstractNotification;
 import org.apache.atlas.notification.NotificationConsumer;
 import org.apache.atlas.notification.NotificationException;
+import org.apache.atlas.notification.NotificationSendCallback;
 import org.apache.atlas.service.Service;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationConverter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -45,6 +47,8 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.apache.atlas.security.SecurityProperties.TRUSTSTORE_PASSWORD_KEY;
 import static org.apache.atlas.security.SecurityProperties.TLS_ENABLED;
@@ -259,21 +263,40 @@ public class KafkaNotification extends AbstractNotification implements Service {
     // ----- AbstractNotification --------------------------------------------
     @Override
     public void sendInternal(NotificationType notificationType, List<String> messages) throws NotificationException {
+        sendInternal(notificationType, messages, null);
+    }
+
+    @Override
+    public void sendInternal(NotificationType notificationType, List<String> messages, List<String> messageKeys) throws NotificationException {
+        KafkaProducer producer = getOrCreateProducer(notificationType);
+
+        sendInternalToProducer(producer, notificationType, messages, messageKeys);
+    }
+
+    @Override
+    protected void sendInternalAsync(NotificationType notificationType, List<String> messages, List<String> messageKeys, NotificationSendCallback callback) {
         KafkaProducer producer = getOrCreateProducer(notificationType);
 
-        sendInternalToProducer(producer, notificationType, messages);
+        sendInternalToProducerAsync(producer, notificationType, messages, messageKeys, callback);
     }
 
     @VisibleForTesting
     void sendInternalToProducer(Producer p, NotificationType notificationType, List<String> messages) throws NotificationException {
+        sendInternalToProducer(p, notificationType, messages, null);
+    }
+
+    @VisibleForTesting
+    void sendInternalToProducer(Producer p, NotificationType notificationType, List<String> messages, List<String> messageKeys) throws NotificationException {
         String               topic           = PRODUCER_TOPIC_MAP.get(notificationType);
         List<MessageContext> messageContexts = new ArrayList<>();
 
-        for (String message : messages) {
-            ProducerRecord record = new ProducerRecord(topic, message);
+        for (int i = 0; i < messages.size(); i++) {
+            String         message = messages.get(i);
+            String         key     = messageKeys != null && messageKeys.size() > i ? messageKeys.get(i) : null;
+            ProducerRecord record  = new ProducerRecord(topic, key, message);
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Sending message for topic {}: {}", topic, message);
+                LOG.debug("Sending message for topic {}: key={}, message={}", topic, key, message);
             }
 
             Future future = p.send(record);
@@ -303,6 +326,50 @@ public class KafkaNotification extends AbstractNotification implements Service {
         }
     }
 
+    @VisibleForTesting
+    void sendInternalToProducerAsync(Producer p, NotificationType notificationType, List<String> messages, List<String> messageKeys, NotificationSendCallback callback) {
+        if (messages.isEmpty()) {
+            callback.onCompletion(null);
+
+            return;
+        }
+
+        String                     topic          = PRODUCER_TOPIC_MAP.get(notificationType);
+        AtomicInteger              pendingCount   = new AtomicInteger(messages.size());
+        List<String>               failedMessages = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<Exception> lastFailure    = new AtomicReference<>();
+
+        for (int i = 0; i < messages.size(); i++) {
+            String         message = messages.get(i);
+            String         key     = messageKeys != null && messageKeys.size() > i ? messageKeys.get(i) : null;
+            ProducerRecord record  = new ProducerRecord(topic, key, message);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Sending message asynchronously for topic {}: key={}, message={}", topic, key, message);
+            }
+
+            Callback onSendComplete = (response, excp) -> {
+                if (excp != null) {
+                    lastFailure.set(excp);
+
+                    failedMessages.add(message);
+                } else if (LOG.isDebugEnabled()) {
+                    LOG.debug("Sent message for topic - {}, partition - {}, offset - {}", response.topic(), response.partition(), response.offset());
+                }
+
+                if (pendingCount.decrementAndGet() == 0) {
+                    callback.onCompletion(failedMessages.isEmpty() ? null : new NotificationException(lastFailure.get(), new ArrayList<>(failedMessages)));
+                }
+            };
+
+            try {
+                p.send(record, onSendComplete);
+            } catch (Exception excp) { // for example, when the producer is closed or the record is too large
+                onSendComplete.onCompletion(null, excp);
+            }
+        }
+    }
+
     // Get properties for consumer request
     @VisibleForTesting
     public Properties getConsumerProperties(NotificationType notificationType) {
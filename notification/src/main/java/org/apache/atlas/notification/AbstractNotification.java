@@ -57,6 +57,16 @@ public abstract class AbstractNotification implements NotificationInterface {
 
     public static final int MAX_BYTES_PER_CHAR = 4;  // each char can encode upto 4 bytes in UTF-8
 
+    /**
+     * Determines the key for messages sent: none (default), entity, database or name of a class that implements
+     * NotificationMessageKeyExtractor. Messages with the same key are written to the same partition.
+     */
+    public static final String PROPERTY_MESSAGE_KEY_EXTRACTOR = "atlas.notification.message.key.extractor";
+
+    private static final String MESSAGE_KEY_EXTRACTOR_NONE     = "none";
+    private static final String MESSAGE_KEY_EXTRACTOR_ENTITY   = "entity";
+    private static final String MESSAGE_KEY_EXTRACTOR_DATABASE = "database";
+
     /**
      * IP address of the host in which this process has started
      */
@@ -67,13 +77,17 @@ public abstract class AbstractNotification implements NotificationInterface {
      */
     private static String currentUser = "";
 
+    private final NotificationMessageKeyExtractor messageKeyExtractor;
+
     // ----- Constructors ----------------------------------------------------
 
     public AbstractNotification(Configuration applicationProperties) throws AtlasException {
+        this.messageKeyExtractor = createMessageKeyExtractor(applicationProperties);
     }
 
     @VisibleForTesting
     protected AbstractNotification() {
+        this.messageKeyExtractor = null;
     }
 
     // ----- NotificationInterface -------------------------------------------
@@ -81,12 +95,21 @@ public abstract class AbstractNotification implements NotificationInterface {
     @Override
     public <T> void send(NotificationType type, List<T> messages) throws NotificationException {
         List<String> strMessages = new ArrayList<>(messages.size());
+        List<String> msgKeys     = new ArrayList<>(messages.size());
 
-        for (int index = 0; index < messages.size(); index++) {
-            createNotificationMessages(messages.get(index), strMessages);
-        }
+        createNotificationMessages(messages, strMessages, msgKeys);
+
+        sendInternal(type, strMessages, msgKeys);
+    }
+
+    @Override
+    public <T> void sendAsync(NotificationType type, List<T> messages, NotificationSendCallback callback) {
+        List<String> strMessages = new ArrayList<>(messages.size());
+        List<String> msgKeys     = new ArrayList<>(messages.size());
+
+        createNotificationMessages(messages, strMessages, msgKeys);
 
-        sendInternal(type, strMessages);
+        sendInternalAsync(type, strMessages, msgKeys, callback);
     }
 
     @Override
@@ -110,9 +133,62 @@ public abstract class AbstractNotification implements NotificationInterface {
      */
     protected abstract void sendInternal(NotificationType type, List<String> messages) throws NotificationException;
 
+    /**
+     * Send the given messages, with the given keys. Implementations that don't support message keys ignore the keys.
+     *
+     * @param type         the message type
+     * @param messages     the messages to send
+     * @param messageKeys  key for each message in messages; a key can be null
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    protected void sendInternal(NotificationType type, List<String> messages, List<String> messageKeys) throws NotificationException {
+        sendInternal(type, messages);
+    }
+
+    /**
+     * Send the given messages, with the given keys, without waiting for the messaging system to acknowledge them.
+     * Implementations that don't support asynchronous send, send the messages synchronously.
+     *
+     * @param type         the message type
+     * @param messages     the messages to send
+     * @param messageKeys  key for each message in messages; a key can be null
+     * @param callback     invoked after all messages are sent, or on failure
+     */
+    protected void sendInternalAsync(NotificationType type, List<String> messages, List<String> messageKeys, NotificationSendCallback callback) {
+        NotificationException failure = null;
+
+        try {
+            sendInternal(type, messages, messageKeys);
+        } catch (NotificationException excp) {
+            failure = excp;
+        }
+
+        callback.onCompletion(failure);
+    }
+
 
     // ----- utility methods -------------------------------------------------
 
+    private <T> void createNotificationMessages(List<T> messages, List<String> strMessages, List<String> msgKeys) {
+        for (int index = 0; index < messages.size(); index++) {
+            T      message  = messages.get(index);
+            int    startIdx = strMessages.size();
+            String msgKey   = messageKeyExtractor != null ? messageKeyExtractor.getKey(message) : null;
+
+            createNotificationMessages(message, strMessages);
+
+            // all parts of a split message should be written to the same partition, so that they are consumed together
+            if (msgKey == null && (strMessages.size() - startIdx) > 1) {
+                msgKey = getNextMessageId();
+            }
+
+            for (int i = startIdx; i < strMessages.size(); i++) {
+                msgKeys.add(msgKey);
+            }
+        }
+    }
+
     public static String getMessageJson(Object message) {
         AtlasNotificationMessage<?> notificationMsg = new AtlasNotificationMessage<>(CURRENT_MESSAGE_VERSION, message);
 
@@ -214,6 +290,26 @@ public abstract class AbstractNotification implements NotificationInterface {
         }
     }
 
+    private static NotificationMessageKeyExtractor createMessageKeyExtractor(Configuration applicationProperties) throws AtlasException {
+        String extractorClass = applicationProperties != null ? applicationProperties.getString(PROPERTY_MESSAGE_KEY_EXTRACTOR) : null;
+
+        if (StringUtils.isEmpty(extractorClass) || StringUtils.equalsIgnoreCase(extractorClass, MESSAGE_KEY_EXTRACTOR_NONE)) {
+            return null;
+        } else if (StringUtils.equalsIgnoreCase(extractorClass, MESSAGE_KEY_EXTRACTOR_ENTITY)) {
+            extractorClass = EntityNameMessageKeyExtractor.class.getName();
+        } else if (StringUtils.equalsIgnoreCase(extractorClass, MESSAGE_KEY_EXTRACTOR_DATABASE)) {
+            extractorClass = DatabaseNameMessageKeyExtractor.class.getName();
+        }
+
+        LOG.info("{}={}", PROPERTY_MESSAGE_KEY_EXTRACTOR, extractorClass);
+
+        try {
+            return (NotificationMessageKeyExtractor) Class.forName(extractorClass).newInstance();
+        } catch (Exception e) {
+            throw new AtlasException("Failed to create message key extractor of type " + extractorClass, e);
+        }
+    }
+
     private static String getNextMessageId() {
         String nextMsgIdPrefix = msgIdPrefix;
         int    nextMsgIdSuffix = msgIdSuffix.getAndIncrement();
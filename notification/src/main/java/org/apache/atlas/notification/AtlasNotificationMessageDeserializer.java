@@ -30,12 +30,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES;
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS;
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS;
 
@@ -56,9 +59,10 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     private final Logger                                     notificationLogger;
 
 
-    private final Map<String, SplitMessageAggregator> splitMsgBuffer = new HashMap<>();
+    private final Map<String, SplitMessageAggregator> splitMsgBuffer = new LinkedHashMap<>(); // in the order of arrival of first part
     private final long                                splitMessageBufferPurgeIntervalMs;
     private final long                                splitMessageSegmentsWaitTimeMs;
+    private final long                                splitMessageBufferMaxBytes;
     private long                                      splitMessagesLastPurgeTime    = System.currentTimeMillis();
     private final AtomicLong                          messageCountTotal             = new AtomicLong(0);
     private final AtomicLong                          messageCountSinceLastInterval = new AtomicLong(0);
@@ -84,12 +88,25 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
                                                 Logger notificationLogger,
                                                 long splitMessageSegmentsWaitTimeMs,
                                                 long splitMessageBufferPurgeIntervalMs) {
+        this(messageType, notificationMessageType, expectedVersion, notificationLogger,
+             splitMessageSegmentsWaitTimeMs, splitMessageBufferPurgeIntervalMs,
+             NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES.getLong());
+    }
+
+    public AtlasNotificationMessageDeserializer(TypeReference<T> messageType,
+                                                TypeReference<AtlasNotificationMessage<T>> notificationMessageType,
+                                                MessageVersion expectedVersion,
+                                                Logger notificationLogger,
+                                                long splitMessageSegmentsWaitTimeMs,
+                                                long splitMessageBufferPurgeIntervalMs,
+                                                long splitMessageBufferMaxBytes) {
         this.messageType                       = messageType;
         this.notificationMessageType           = notificationMessageType;
         this.expectedVersion                   = expectedVersion;
         this.notificationLogger                = notificationLogger;
         this.splitMessageSegmentsWaitTimeMs    = splitMessageSegmentsWaitTimeMs;
         this.splitMessageBufferPurgeIntervalMs = splitMessageBufferPurgeIntervalMs;
+        this.splitMessageBufferMaxBytes        = splitMessageBufferMaxBytes;
     }
 
     public TypeReference<T> getMessageType() {
@@ -113,7 +130,8 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
         if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
             ret = AtlasType.fromV1Json(messageJson, messageType);
         } else  {
-            String msgJson = messageJson;
+            String                      msgJson              = messageJson;
+            AtlasNotificationMessage<T> splitNotificationMsg = null;
 
             if (msg.getMsgSplitCount() > 1) { // multi-part message
                 AtlasNotificationStringMessage splitMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
@@ -156,48 +174,25 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
                         if (isReady) { // last message
                             splitMsgBuffer.remove(msgId);
 
-                            boolean isValidMessage = true;
-
-                            StringBuilder sb = new StringBuilder();
+                            int missingSplitIdx = splitMsgs.getMissingSplitIdx();
 
-                            for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
-                                splitMsg = splitMsgs.get(i);
-
-                                if (splitMsg == null) {
-                                    LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
-
-                                    isValidMessage = false;
+                            if (missingSplitIdx != -1) {
+                                LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, missingSplitIdx + 1, splitCount);
+                            } else {
+                                // decode, uncompress and parse the parts as a stream, without building the whole message in memory
+                                try (InputStream msgStream = splitMsgs.getMessageStream()) {
+                                    splitNotificationMsg = AtlasType.fromV1Json(msgStream, notificationMessageType);
 
-                                    break;
+                                    LOG.info("Received msgID={}: splitCount={}, compressionKind={}, length={} bytes", msgId, splitCount, splitMsgs.getCompressionKind(), splitMsgs.getBufferedBytes());
+                                } catch (IOException excp) {
+                                    LOG.error("MsgID={}: failed to read message from {} parts. Ignoring message", msgId, splitCount, excp);
                                 }
-
-                                sb.append(splitMsg.getMessage());
                             }
 
-                            if (isValidMessage) {
-                                msgJson = sb.toString();
-
-                                if (CompressionKind.GZIP.equals(splitMsg.getMsgCompressionKind())) {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
-
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
-
-                                    LOG.info("Received msgID={}: splitCount={}, compressed={} bytes, uncompressed={} bytes", msgId, splitCount, encodedBytes.length, bytes.length);
-                                } else {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64(encodedBytes);
-
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
-
-                                    LOG.info("Received msgID={}: splitCount={}, length={} bytes", msgId, splitCount, bytes.length);
-                                }
-
-                                msg = AtlasType.fromV1Json(msgJson, AtlasNotificationBaseMessage.class);
-                            } else {
-                                msg = null;
-                            }
+                            msg = null;
                         } else { // more messages to arrive
+                            purgeMessagesOverBudget(splitMsgBuffer, splitMessageBufferMaxBytes, msgId);
+
                             msg = null;
                         }
                     }
@@ -221,6 +216,10 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
                 checkVersion(atlasNotificationMessage, msgJson);
 
                 ret = atlasNotificationMessage.getMessage();
+            } else if (splitNotificationMsg != null) {
+                checkVersion(splitNotificationMsg, "msgID=" + splitNotificationMsg.getMsgId());
+
+                ret = splitNotificationMsg.getMessage();
             } else {
                 ret = null;
             }
@@ -275,6 +274,47 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
         }
     }
 
+    /**
+     * Evicts partially received messages, oldest first, until the bytes held by the buffer are within the budget.
+     * The message currently being received is evicted last.
+     */
+    @VisibleForTesting
+    static void purgeMessagesOverBudget(Map<String, SplitMessageAggregator> splitMsgBuffer, long maxBytes, String currentMsgId) {
+        long bufferedBytes = 0;
+
+        for (SplitMessageAggregator aggregator : splitMsgBuffer.values()) {
+            bufferedBytes += aggregator.getBufferedBytes();
+        }
+
+        if (bufferedBytes <= maxBytes) {
+            return;
+        }
+
+        List<SplitMessageAggregator> evictionList = new ArrayList<>();
+
+        for (SplitMessageAggregator aggregator : splitMsgBuffer.values()) {
+            if (bufferedBytes <= maxBytes) {
+                break;
+            }
+
+            if (!StringUtils.equals(aggregator.getMsgId(), currentMsgId)) {
+                evictionList.add(aggregator);
+
+                bufferedBytes -= aggregator.getBufferedBytes();
+            }
+        }
+
+        if (bufferedBytes > maxBytes && splitMsgBuffer.containsKey(currentMsgId)) {
+            evictionList.add(splitMsgBuffer.get(currentMsgId));
+        }
+
+        for (SplitMessageAggregator aggregator : evictionList) {
+            LOG.error("evicting notification msgID={}, totalSplitCount={}, receivedSplitCount={}, bufferedBytes={}: split message buffer exceeds {} bytes", aggregator.getMsgId(), aggregator.getTotalSplitCount(), aggregator.getReceivedSplitCount(), aggregator.getBufferedBytes(), maxBytes);
+
+            splitMsgBuffer.remove(aggregator.getMsgId());
+        }
+    }
+
     // ----- helper methods --------------------------------------------------
 
     /**
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Uses the database portion of qualifiedName of the top-level entity in the message as the key. For example,
+ * qualifiedNames default.sales@cl1 and default.sales.id@cl1 both result in the key default@cl1; hence all messages
+ * for entities of a database are written to the same partition.
+ */
+public class DatabaseNameMessageKeyExtractor extends EntityNameMessageKeyExtractor {
+    private static final char QNAME_SEP_ENTITY_NAME        = '.';
+    private static final char QNAME_SEP_METADATA_NAMESPACE = '@';
+
+    @Override
+    protected String toKey(String qualifiedName) {
+        int idxNamespaceSep  = qualifiedName.lastIndexOf(QNAME_SEP_METADATA_NAMESPACE);
+        int idxEntityNameSep = qualifiedName.indexOf(QNAME_SEP_ENTITY_NAME);
+
+        if (idxEntityNameSep == -1 || (idxNamespaceSep != -1 && idxEntityNameSep > idxNamespaceSep)) {
+            return qualifiedName;
+        }
+
+        String dbName    = qualifiedName.substring(0, idxEntityNameSep);
+        String namespace = idxNamespaceSep != -1 ? qualifiedName.substring(idxNamespaceSep) : StringUtils.EMPTY;
+
+        return dbName + namespace;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.EntityNotification.EntityNotificationV2;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.EntityNotificationV1;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uses qualifiedName of the top-level entity in the message as the key i.e. the first entity in create/update
+ * requests, the entity being updated or deleted, and the entity in entity-notifications.
+ */
+public class EntityNameMessageKeyExtractor implements NotificationMessageKeyExtractor {
+    protected static final String ATTRIBUTE_QUALIFIED_NAME = "qualifiedName";
+
+    @Override
+    public String getKey(Object message) {
+        String qualifiedName = getTopLevelEntityQualifiedName(message);
+
+        return StringUtils.isNotEmpty(qualifiedName) ? toKey(qualifiedName) : null;
+    }
+
+    protected String toKey(String qualifiedName) {
+        return qualifiedName;
+    }
+
+    protected String getTopLevelEntityQualifiedName(Object message) {
+        final Object ret;
+
+        if (message instanceof EntityCreateRequest) { // EntityUpdateRequest extends EntityCreateRequest
+            List<Referenceable> entities = ((EntityCreateRequest) message).getEntities();
+
+            ret = entities != null && !entities.isEmpty() && entities.get(0) != null ? entities.get(0).get(ATTRIBUTE_QUALIFIED_NAME) : null;
+        } else if (message instanceof EntityPartialUpdateRequest) {
+            EntityPartialUpdateRequest request = (EntityPartialUpdateRequest) message;
+
+            ret = StringUtils.equals(request.getAttribute(), ATTRIBUTE_QUALIFIED_NAME) ? request.getAttributeValue() : null;
+        } else if (message instanceof EntityDeleteRequest) {
+            EntityDeleteRequest request = (EntityDeleteRequest) message;
+
+            ret = StringUtils.equals(request.getAttribute(), ATTRIBUTE_QUALIFIED_NAME) ? request.getAttributeValue() : null;
+        } else if (message instanceof EntityCreateRequestV2) {
+            ret = getFirstEntityQualifiedName(((EntityCreateRequestV2) message).getEntities());
+        } else if (message instanceof EntityUpdateRequestV2) {
+            ret = getFirstEntityQualifiedName(((EntityUpdateRequestV2) message).getEntities());
+        } else if (message instanceof EntityPartialUpdateRequestV2) {
+            ret = getQualifiedName(((EntityPartialUpdateRequestV2) message).getEntityId());
+        } else if (message instanceof EntityDeleteRequestV2) {
+            List<AtlasObjectId> entities = ((EntityDeleteRequestV2) message).getEntities();
+
+            ret = entities != null && !entities.isEmpty() ? getQualifiedName(entities.get(0)) : null;
+        } else if (message instanceof EntityNotificationV1) {
+            Referenceable entity = ((EntityNotificationV1) message).getEntity();
+
+            ret = entity != null ? entity.get(ATTRIBUTE_QUALIFIED_NAME) : null;
+        } else if (message instanceof EntityNotificationV2) {
+            AtlasEntityHeader entity = ((EntityNotificationV2) message).getEntity();
+
+            ret = entity != null ? entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME) : null;
+        } else {
+            ret = null;
+        }
+
+        return ret != null ? ret.toString() : null;
+    }
+
+    private Object getFirstEntityQualifiedName(AtlasEntitiesWithExtInfo entities) {
+        List<AtlasEntity> entityList = entities != null ? entities.getEntities() : null;
+        AtlasEntity       entity     = entityList != null && !entityList.isEmpty() ? entityList.get(0) : null;
+
+        return entity != null ? entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME) : null;
+    }
+
+    private Object getQualifiedName(AtlasObjectId objectId) {
+        Map<String, Object> uniqueAttributes = objectId != null ? objectId.getUniqueAttributes() : null;
+
+        return uniqueAttributes != null ? uniqueAttributes.get(ATTRIBUTE_QUALIFIED_NAME) : null;
+    }
+}
@@ -98,6 +98,27 @@ public interface NotificationInterface {
      */
     <T> void send(NotificationType type, List<T> messages) throws NotificationException;
 
+    /**
+     * Send the given messages without waiting for the messaging system to acknowledge them. Implementations that
+     * don't support asynchronous send, send the messages synchronously before invoking the callback.
+     *
+     * @param type      the message type
+     * @param messages  the list of messages to send
+     * @param callback  invoked after all messages are sent, or on failure
+     * @param <T>       the message type
+     */
+    default <T> void sendAsync(NotificationType type, List<T> messages, NotificationSendCallback callback) {
+        NotificationException failure = null;
+
+        try {
+            send(type, messages);
+        } catch (NotificationException excp) {
+            failure = excp;
+        }
+
+        callback.onCompletion(failure);
+    }
+
     /**
      * Shutdown any notification producers and consumers associated with this interface instance.
      */
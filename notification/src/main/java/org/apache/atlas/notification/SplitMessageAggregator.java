@@ -18,17 +18,36 @@
 package org.apache.atlas.notification;
 
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
+import org.apache.commons.codec.binary.Base64InputStream;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Collects parts of a split message until all parts arrive. Payload of each part, which is base64 encoded, is held in
+ * a direct buffer so that large messages waiting for remaining parts don't add to the heap.
+ */
 public class SplitMessageAggregator {
-    private final String                           msgId;
-    private final AtlasNotificationStringMessage[] splitMessagesBuffer;
-    private final long                             firstSplitTimestamp;
+    private final String          msgId;
+    private final ByteBuffer[]    splitPayloads;
+    private final long            firstSplitTimestamp;
+    private       CompressionKind compressionKind;
+    private       long            bufferedBytes;
 
     public SplitMessageAggregator(AtlasNotificationStringMessage message) {
         msgId               = message.getMsgId();
-        splitMessagesBuffer = new AtlasNotificationStringMessage[message.getMsgSplitCount()];
+        splitPayloads       = new ByteBuffer[message.getMsgSplitCount()];
         firstSplitTimestamp = System.currentTimeMillis();
+        compressionKind     = message.getMsgCompressionKind();
 
         add(message);
     }
@@ -38,13 +57,13 @@ public class SplitMessageAggregator {
     }
 
     public long getTotalSplitCount() {
-        return splitMessagesBuffer.length;
+        return splitPayloads.length;
     }
 
     public long getReceivedSplitCount() {
         long ret = 0;
 
-        for (AtlasNotificationStringMessage split : splitMessagesBuffer) {
+        for (ByteBuffer split : splitPayloads) {
             if (split != null) {
                 ret++;
             }
@@ -57,15 +76,108 @@ public class SplitMessageAggregator {
         return firstSplitTimestamp;
     }
 
+    /**
+     * @return number of bytes held in buffers for the parts received so far
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes;
+    }
+
+    public CompressionKind getCompressionKind() {
+        return compressionKind;
+    }
+
     public boolean add(AtlasNotificationStringMessage message) {
-        if (message.getMsgSplitIdx() < splitMessagesBuffer.length) {
-            splitMessagesBuffer[message.getMsgSplitIdx()] = message;
+        int splitIdx = message.getMsgSplitIdx();
+
+        if (splitIdx < splitPayloads.length) {
+            String     payload = message.getMessage();
+            byte[]     bytes   = payload != null ? payload.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            ByteBuffer buffer  = ByteBuffer.allocateDirect(bytes.length);
+
+            buffer.put(bytes);
+            buffer.flip();
+
+            if (splitPayloads[splitIdx] != null) {
+                bufferedBytes -= splitPayloads[splitIdx].capacity();
+            }
+
+            splitPayloads[splitIdx] = buffer;
+            bufferedBytes          += bytes.length;
+
+            if (message.getMsgCompressionKind() != null) {
+                compressionKind = message.getMsgCompressionKind();
+            }
+        }
+
+        return splitIdx == (message.getMsgSplitCount() - 1);
+    }
+
+    /**
+     * @return index of the first part not yet received; -1 if all parts have been received
+     */
+    public int getMissingSplitIdx() {
+        for (int i = 0; i < splitPayloads.length; i++) {
+            if (splitPayloads[i] == null) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a stream of the original message, after base64 decoding and uncompressing the parts in sequence; the
+     * parts are not concatenated into a single buffer. Should be called only after all parts are received.
+     */
+    public InputStream getMessageStream() throws IOException {
+        List<InputStream> partStreams = new ArrayList<>(splitPayloads.length);
+
+        for (ByteBuffer payload : splitPayloads) {
+            partStreams.add(new ByteBufferInputStream(payload.duplicate()));
+        }
+
+        InputStream ret = new Base64InputStream(new SequenceInputStream(Collections.enumeration(partStreams)));
+
+        if (CompressionKind.GZIP.equals(compressionKind)) {
+            ret = new GZIPInputStream(ret);
         }
 
-        return message.getMsgSplitIdx() == (message.getMsgSplitCount() - 1);
+        return ret;
     }
 
-    public AtlasNotificationStringMessage get(int i) {
-        return splitMessagesBuffer[i];
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int ret = Math.min(length, buffer.remaining());
+
+            buffer.get(bytes, offset, ret);
+
+            return ret;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
     }
 }
@@ -0,0 +1,314 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hook;
+
+import org.apache.atlas.hook.HookNotificationBuffer.BackpressurePolicy;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.NotificationConsumer;
+import org.apache.atlas.notification.NotificationException;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.NotificationSendCallback;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HookNotificationBufferTest {
+    @Mock
+    private FailedMessagesLogger failedMessagesLogger;
+
+    @BeforeMethod
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testNotificationsAreSentInBatches() throws Exception {
+        RecordingNotification  notification = new RecordingNotification(1, null);
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.BLOCK, 100, 10, 5000, 1000, 2, null, 0);
+
+        for (int i = 0; i < 10; i++) {
+            buffer.add(Collections.singletonList(message("db" + i)), null);
+        }
+
+        buffer.start();
+
+        assertTrue(notification.sent.await(10, TimeUnit.SECONDS));
+        assertEquals(notification.batches.size(), 1);
+        assertEquals(notification.batches.get(0).size(), 10);
+
+        buffer.stop(1000);
+
+        assertEquals(buffer.getStats().get("sent"), 10L);
+        assertEquals(buffer.getStats().get("maxBatchSize"), 10L);
+    }
+
+    @Test
+    public void testFailedMessagesAreLogged() throws Exception {
+        RecordingNotification  notification = new RecordingNotification(1, new NotificationException(new Exception("send failed"), Collections.singletonList("msg1")));
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.BLOCK, 100, 10, 0, 1000, 2, null, 0);
+
+        buffer.start();
+        buffer.add(Collections.singletonList(message("db1")), null);
+
+        assertTrue(notification.sent.await(10, TimeUnit.SECONDS));
+
+        buffer.stop(1000);
+
+        verify(failedMessagesLogger).log("msg1");
+        assertEquals(buffer.getStats().get("failed"), 1L);
+    }
+
+    @Test
+    public void testDropOldestWhenBufferIsFull() {
+        RecordingNotification  notification = new RecordingNotification(1, null);
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.DROP_OLDEST, 2, 10, 0, 1000, 2, null, 0);
+
+        // flusher is not started, so that the buffer fills up
+        buffer.add(Collections.singletonList(message("db1")), null);
+        buffer.add(Collections.singletonList(message("db2")), null);
+        buffer.add(Collections.singletonList(message("db3")), null);
+
+        assertEquals(buffer.getQueueDepth(), 2);
+        assertEquals(buffer.getStats().get("dropped"), 1L);
+        verify(failedMessagesLogger, times(1)).log(anyString());
+    }
+
+    @Test
+    public void testSpilledNotificationsAreSentAfterBufferDrains() throws Exception {
+        File spillFile = File.createTempFile("atlas-hook-spill", ".json");
+
+        spillFile.deleteOnExit();
+
+        RecordingNotification  notification = new RecordingNotification(2, null);
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.SPILL, 1, 10, 0, 1000, 2, spillFile, 0);
+
+        buffer.add(Collections.singletonList(message("db1")), null);
+        buffer.add(Collections.singletonList(message("db2")), null);
+
+        assertEquals(buffer.getStats().get("spilled"), 1L);
+
+        buffer.start();
+
+        assertTrue(notification.sent.await(10, TimeUnit.SECONDS));
+
+        buffer.stop(1000);
+
+        assertEquals(notification.batches.size(), 2);
+        assertEquals(((EntityDeleteRequestV2) notification.batches.get(1).get(0)).getEntities().get(0).getUniqueAttributes().get("qualifiedName"), "db2@cl1");
+        assertFalse(new File(spillFile.getPath() + ".replay").exists());
+    }
+
+    @Test
+    public void testNotificationsAreBufferedWhileSpilledNotificationsArePending() throws Exception {
+        File spillFile = File.createTempFile("atlas-hook-spill", ".json");
+
+        spillFile.deleteOnExit();
+
+        // notification spilled by an earlier instance
+        Files.write(spillFile.toPath(), Collections.singletonList("hive\t" + AbstractNotification.getMessageJson(message("db1"))), StandardCharsets.UTF_8);
+
+        RecordingNotification  notification = new RecordingNotification(2, null);
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.SPILL, 10, 10, 0, 1000, 2, spillFile, 0);
+
+        buffer.add(Collections.singletonList(message("db2")), null);
+
+        assertEquals(buffer.getQueueDepth(), 1);
+        assertEquals(buffer.getStats().get("spilled"), 0L);
+
+        buffer.start();
+
+        assertTrue(notification.sent.await(10, TimeUnit.SECONDS));
+
+        buffer.stop(1000);
+
+        Map<String, String> sentDbUsers = new HashMap<>();
+
+        for (int i = 0; i < notification.batches.size(); i++) {
+            for (HookNotification message : notification.batches.get(i)) {
+                sentDbUsers.put((String) ((EntityDeleteRequestV2) message).getEntities().get(0).getUniqueAttributes().get("qualifiedName"), notification.users.get(i));
+            }
+        }
+
+        // user recorded in a spill file written by another instance is not trusted
+        String processUser = UserGroupInformation.getCurrentUser().getUserName();
+
+        assertEquals(sentDbUsers.keySet(), new HashSet<>(Arrays.asList("db1@cl1", "db2@cl1")));
+        assertEquals(sentDbUsers.get("db1@cl1"), processUser);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSpillFileWritableByOthersIsRejected() throws Exception {
+        File spillFile = File.createTempFile("atlas-hook-spill", ".json");
+
+        spillFile.deleteOnExit();
+
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            throw new SkipException("posix file permissions are not supported");
+        }
+
+        Files.setPosixFilePermissions(spillFile.toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+
+        new HookNotificationBuffer(new RecordingNotification(1, null), failedMessagesLogger, BackpressurePolicy.SPILL, 1, 10, 0, 1000, 2, spillFile, 0);
+    }
+
+    @Test
+    public void testSpillFileIsCreatedForOwnerOnly() throws Exception {
+        File spillFile = new File(Files.createTempDirectory("atlas-hook-spill").toFile(), "spill.json");
+
+        spillFile.deleteOnExit();
+        spillFile.getParentFile().deleteOnExit();
+
+        HookNotificationBuffer buffer = new HookNotificationBuffer(new RecordingNotification(1, null), failedMessagesLogger, BackpressurePolicy.SPILL, 1, 10, 0, 1000, 2, spillFile, 0);
+
+        buffer.add(Collections.singletonList(message("db1")), null);
+        buffer.add(Collections.singletonList(message("db2")), null);
+
+        assertTrue(spillFile.exists());
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(spillFile.toPath())), "rw-------");
+        }
+    }
+
+    @Test
+    public void testSpilledNotificationsAreSentAsUser() throws Exception {
+        File spillFile = File.createTempFile("atlas-hook-spill", ".json");
+
+        spillFile.deleteOnExit();
+
+        RecordingNotification  notification = new RecordingNotification(2, null);
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.SPILL, 1, 10, 0, 1000, 2, spillFile, 0);
+        UserGroupInformation   ugi          = UserGroupInformation.createRemoteUser("hive");
+
+        buffer.add(Collections.singletonList(message("db1")), null);
+        buffer.add(Collections.singletonList(message("db2")), ugi);
+
+        assertEquals(buffer.getStats().get("spilled"), 1L);
+
+        buffer.start();
+
+        assertTrue(notification.sent.await(10, TimeUnit.SECONDS));
+
+        buffer.stop(1000);
+
+        assertEquals(notification.users.get(1), "hive");
+    }
+
+    @Test
+    public void testUnsentNotificationsAreSpilledAheadOfSpilledNotifications() throws Exception {
+        File spillFile = File.createTempFile("atlas-hook-spill", ".json");
+
+        spillFile.deleteOnExit();
+
+        RecordingNotification  notification = new RecordingNotification(1, null);
+        HookNotificationBuffer buffer       = new HookNotificationBuffer(notification, failedMessagesLogger, BackpressurePolicy.SPILL, 1, 10, 0, 1000, 2, spillFile, 0);
+
+        // flusher is not started: db1 stays in the buffer, db2 is spilled
+        buffer.add(Collections.singletonList(message("db1")), null);
+        buffer.add(Collections.singletonList(message("db2")), null);
+
+        buffer.stop(0);
+
+        File         replayFile = new File(spillFile.getPath() + ".replay");
+        List<String> records    = Files.readAllLines(replayFile.toPath(), StandardCharsets.UTF_8);
+
+        replayFile.deleteOnExit();
+
+        assertEquals(records.size(), 1);
+        assertTrue(records.get(0).contains("db1@cl1"));
+        assertTrue(Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8).get(0).contains("db2@cl1"));
+    }
+
+    private static HookNotification message(String dbName) {
+        return new EntityDeleteRequestV2("test", Collections.singletonList(new AtlasObjectId("hive_db", "qualifiedName", dbName + "@cl1")));
+    }
+
+    private static class RecordingNotification implements NotificationInterface {
+        final List<List<HookNotification>> batches = Collections.synchronizedList(new ArrayList<>());
+        final List<String>                 users   = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch               sent;
+        final NotificationException        failure;
+
+        RecordingNotification(int expectedBatches, NotificationException failure) {
+            this.sent    = new CountDownLatch(expectedBatches);
+            this.failure = failure;
+        }
+
+        @Override
+        public void setCurrentUser(String user) { }
+
+        @Override
+        public <T> List<NotificationConsumer<T>> createConsumers(NotificationType notificationType, int numConsumers) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public <T> void send(NotificationType type, T... messages) { }
+
+        @Override
+        public <T> void send(NotificationType type, List<T> messages) { }
+
+        @Override
+        public <T> void sendAsync(NotificationType type, List<T> messages, NotificationSendCallback callback) {
+            batches.add(new ArrayList<>((List<HookNotification>) messages));
+
+            try {
+                users.add(UserGroupInformation.getCurrentUser().getUserName());
+            } catch (IOException excp) {
+                users.add(null);
+            }
+
+            callback.onCompletion(failure);
+
+            sent.countDown();
+        }
+
+        @Override
+        public void close() { }
+    }
+}
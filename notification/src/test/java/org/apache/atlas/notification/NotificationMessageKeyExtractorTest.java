@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.model.notification.HookNotification.HookNotificationType;
+import org.apache.atlas.notification.NotificationInterface.NotificationType;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.commons.configuration.Configuration;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class NotificationMessageKeyExtractorTest {
+    private final NotificationMessageKeyExtractor entityKeyExtractor   = new EntityNameMessageKeyExtractor();
+    private final NotificationMessageKeyExtractor databaseKeyExtractor = new DatabaseNameMessageKeyExtractor();
+
+    @Test
+    public void testKeyForV2CreateRequest() {
+        AtlasEntity table = new AtlasEntity("hive_table");
+        AtlasEntity db    = new AtlasEntity("hive_db");
+
+        table.setAttribute("qualifiedName", "sales.orders@cl1");
+        db.setAttribute("qualifiedName", "sales@cl1");
+
+        EntityCreateRequestV2 request = new EntityCreateRequestV2("user1", new AtlasEntitiesWithExtInfo(Arrays.asList(table, db)));
+
+        assertEquals(entityKeyExtractor.getKey(request), "sales.orders@cl1");
+        assertEquals(databaseKeyExtractor.getKey(request), "sales@cl1");
+    }
+
+    @Test
+    public void testKeyForV1Requests() {
+        Referenceable column = new Referenceable("hive_column");
+
+        column.set("qualifiedName", "sales.orders.id@cl1");
+
+        EntityCreateRequest createRequest = new EntityCreateRequest("user1", column);
+        EntityDeleteRequest deleteRequest = new EntityDeleteRequest("user1", "hive_table", "qualifiedName", "sales.orders@cl1");
+        EntityDeleteRequest deleteByName  = new EntityDeleteRequest("user1", "hive_table", "name", "orders");
+
+        assertEquals(entityKeyExtractor.getKey(createRequest), "sales.orders.id@cl1");
+        assertEquals(databaseKeyExtractor.getKey(createRequest), "sales@cl1");
+        assertEquals(databaseKeyExtractor.getKey(deleteRequest), "sales@cl1");
+        assertNull(entityKeyExtractor.getKey(deleteByName));
+    }
+
+    @Test
+    public void testKeyForV2DeleteRequest() {
+        AtlasObjectId         objectId = new AtlasObjectId("hbase_table", "qualifiedName", "default:orders@cl1");
+        EntityDeleteRequestV2 request  = new EntityDeleteRequestV2("user1", Collections.singletonList(objectId));
+
+        assertEquals(entityKeyExtractor.getKey(request), "default:orders@cl1");
+        assertEquals(databaseKeyExtractor.getKey(request), "default:orders@cl1");
+    }
+
+    @Test
+    public void testKeyForUnsupportedMessage() {
+        assertNull(entityKeyExtractor.getKey(new AbstractNotificationTest.Test(HookNotificationType.TYPE_CREATE, "user1")));
+        assertNull(databaseKeyExtractor.getKey(null));
+    }
+
+    @Test
+    public void testKeysPassedToSend() throws Exception {
+        Configuration configuration = mock(Configuration.class);
+
+        when(configuration.getString(AbstractNotification.PROPERTY_MESSAGE_KEY_EXTRACTOR)).thenReturn("database");
+
+        KeyCapturingNotification notification = new KeyCapturingNotification(configuration);
+        Referenceable            table1       = new Referenceable("hive_table");
+        Referenceable            table2       = new Referenceable("hive_table");
+
+        table1.set("qualifiedName", "sales.orders@cl1");
+        table2.set("qualifiedName", "hr.employees@cl1");
+
+        notification.send(NotificationType.HOOK, new EntityCreateRequest("user1", table1), new EntityCreateRequest("user1", table2));
+
+        assertEquals(notification.messages.size(), 2);
+        assertEquals(notification.messageKeys, Arrays.asList("sales@cl1", "hr@cl1"));
+    }
+
+    private static class KeyCapturingNotification extends AbstractNotificationTest.TestNotification {
+        private List<String> messages;
+        private List<String> messageKeys;
+
+        KeyCapturingNotification(Configuration applicationProperties) throws Exception {
+            super(applicationProperties);
+        }
+
+        @Override
+        protected void sendInternal(NotificationType type, List<String> messages, List<String> messageKeys) {
+            this.messages    = messages;
+            this.messageKeys = messageKeys;
+        }
+    }
+}
@@ -17,12 +17,20 @@
  */
 package org.apache.atlas.notification;
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class SplitMessageAggregatorTest {
@@ -51,6 +59,69 @@ public class SplitMessageAggregatorTest {
         Assert.assertEquals(map.size(), expectedSize);
     }
 
+    @Test
+    public void verifyEvictionOverBudget() {
+        Map<String, SplitMessageAggregator> map = new LinkedHashMap<>();
+
+        map.put("1", getSplitMessageAggregator("1", 4)); // 20 bytes
+        map.put("2", getSplitMessageAggregator("2", 4)); // 20 bytes
+        map.put("3", getSplitMessageAggregator("3", 2)); // 10 bytes
+
+        AtlasNotificationMessageDeserializer.purgeMessagesOverBudget(map, 50, "3");
+
+        Assert.assertEquals(map.size(), 3);
+
+        AtlasNotificationMessageDeserializer.purgeMessagesOverBudget(map, 35, "1");
+
+        Assert.assertEquals(map.keySet(), new HashSet<>(Arrays.asList("1", "3")));
+
+        AtlasNotificationMessageDeserializer.purgeMessagesOverBudget(map, 5, "1");
+
+        Assert.assertEquals(map.size(), 0);
+    }
+
+    @Test
+    public void verifyMessageStreamOfCompressedMessage() throws IOException {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"qualifiedName\":\"db").append(i).append(".tbl@cl1\"}");
+        }
+
+        String original     = sb.toString();
+        String encodedBytes = AtlasNotificationBaseMessage.getStringUtf8(AtlasNotificationBaseMessage.gzipCompressAndEncodeBase64(AtlasNotificationBaseMessage.getBytesUtf8(original)));
+        int    splitCount   = 3;
+        int    splitLength  = encodedBytes.length() / splitCount + 1;
+
+        SplitMessageAggregator sma = null;
+
+        for (int i = 0; i < splitCount; i++) {
+            String                         part = encodedBytes.substring(i * splitLength, Math.min((i + 1) * splitLength, encodedBytes.length()));
+            AtlasNotificationStringMessage sm   = new AtlasNotificationStringMessage(part, "1", CompressionKind.GZIP, i, splitCount);
+
+            if (sma == null) {
+                sma = new SplitMessageAggregator(sm);
+            } else {
+                Assert.assertEquals(sma.add(sm), i == splitCount - 1);
+            }
+        }
+
+        Assert.assertEquals(sma.getMissingSplitIdx(), -1);
+        Assert.assertEquals(sma.getBufferedBytes(), encodedBytes.length());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (InputStream in = sma.getMessageStream()) {
+            byte[] buffer = new byte[512];
+
+            for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
+                out.write(buffer, 0, len);
+            }
+        }
+
+        Assert.assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), original);
+    }
+
     private Map<String, SplitMessageAggregator> getStringSplitMessageAggregatorMap() {
         Map<String, SplitMessageAggregator> map = new HashMap<>();
 
@@ -51,6 +51,7 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
     private static final ThreadLocal<Boolean>                   isTxnOpen                  = ThreadLocal.withInitial(() -> Boolean.FALSE);
     private static final ThreadLocal<Boolean>                   innerFailure               = ThreadLocal.withInitial(() -> Boolean.FALSE);
     private static final ThreadLocal<Map<String, AtlasVertex>>  guidVertexCache            = ThreadLocal.withInitial(() -> new HashMap<>());
+    private static final ThreadLocal<Long>                      txnStartTime               = new ThreadLocal<>();
 
     private final AtlasGraph graph;
 
@@ -70,6 +71,10 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
         // Outermost txn marks any subsequent transaction as inner
         isTxnOpen.set(Boolean.TRUE);
 
+        if (!isInnerTxn) {
+            txnStartTime.set(System.nanoTime());
+        }
+
         if (LOG.isDebugEnabled() && isInnerTxn) {
             LOG.debug("Txn entry-point {}.{} is inner txn. Commit/Rollback will be ignored", invokingClass, invokedMethodName);
         }
@@ -118,6 +123,7 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
                 isTxnOpen.set(Boolean.FALSE);
                 innerFailure.set(Boolean.FALSE);
                 guidVertexCache.get().clear();
+                txnStartTime.remove();
 
                 List<PostTransactionHook> trxHooks = postTransactionHooks.get();
 
@@ -173,6 +179,14 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
         graph.rollback();
     }
 
+    /**
+     * @return System.nanoTime() at the start of the outermost graph transaction of the current thread; null if no
+     *         transaction is open
+     */
+    public static Long getTxnStartTime() {
+        return txnStartTime.get();
+    }
+
     public static void lockObjectAndReleasePostCommit(final String guid) {
         OBJECT_UPDATE_SYNCHRONIZER.lockObject(guid);
     }
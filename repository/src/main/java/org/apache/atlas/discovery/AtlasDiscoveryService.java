@@ -79,6 +79,29 @@ public interface AtlasDiscoveryService {
      */
     AtlasSearchResult searchWithParameters(SearchParameters searchParameters) throws AtlasBaseException;
 
+    /**
+     * Search for entities matching the search criteria, and keep the position in results to read the next page from
+     * @param searchParameters Search criteria
+     * @return Matching entities; nextCursor is set when more matching entities might be available
+     * @throws AtlasBaseException
+     */
+    AtlasSearchResult searchWithCursor(SearchParameters searchParameters) throws AtlasBaseException;
+
+    /**
+     * Read the next page of a search started with searchWithCursor()
+     * @param cursorId nextCursor returned with the previous page
+     * @return Matching entities; nextCursor is set when more matching entities might be available
+     * @throws AtlasBaseException
+     */
+    AtlasSearchResult searchWithCursor(String cursorId) throws AtlasBaseException;
+
+    /**
+     * Release a search cursor that is no longer needed, terminating its search in progress if any
+     * @param cursorId nextCursor returned with a page
+     * @throws AtlasBaseException
+     */
+    void removeSearchCursor(String cursorId) throws AtlasBaseException;
+
     /**
      *
      * @param guid unique ID of the entity.
@@ -33,8 +33,8 @@ import org.apache.atlas.model.discovery.AtlasSearchResult.AttributeSearchResult;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.profile.AtlasUserSavedSearch;
-import org.apache.atlas.query.AtlasDSL;
-import org.apache.atlas.query.GremlinQuery;
+import org.apache.atlas.query.DSLQueryPlan;
+import org.apache.atlas.query.DSLQueryPlanCache;
 import org.apache.atlas.query.QueryParams;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
@@ -90,13 +90,15 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private final String                          indexSearchPrefix;
     private final UserProfileService              userProfileService;
     private final SuggestionsProvider             suggestionsProvider;
+    private final DSLQueryPlanCache               dslQueryPlanCache;
 
     @Inject
     EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
                            AtlasGraph graph,
                            GraphBackedSearchIndexer indexer,
                            SearchTracker searchTracker,
-                           UserProfileService userProfileService) throws AtlasException {
+                           UserProfileService userProfileService,
+                           DSLQueryPlanCache dslQueryPlanCache) throws AtlasException {
         this.graph                    = graph;
         this.entityRetriever          = new EntityGraphRetriever(this.graph, typeRegistry);
         this.indexer                  = indexer;
@@ -109,20 +111,20 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         this.indexSearchPrefix        = AtlasGraphUtilsV2.getIndexSearchPrefix();
         this.userProfileService       = userProfileService;
         this.suggestionsProvider      = new SuggestionsProviderImpl(graph, typeRegistry);
+        this.dslQueryPlanCache        = dslQueryPlanCache;
     }
 
     @Override
     @GraphTransaction
     public AtlasSearchResult searchUsingDslQuery(String dslQuery, int limit, int offset) throws AtlasBaseException {
-        AtlasSearchResult ret          = new AtlasSearchResult(dslQuery, AtlasQueryType.DSL);
-        GremlinQuery      gremlinQuery = toGremlinQuery(dslQuery, limit, offset);
-        String            queryStr     = gremlinQuery.queryStr();
+        AtlasSearchResult ret       = new AtlasSearchResult(dslQuery, AtlasQueryType.DSL);
+        DSLQueryPlan      queryPlan = toDSLQueryPlan(dslQuery, limit, offset);
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Executing DSL: query={}, gremlinQuery={}", dslQuery, queryStr);
+            LOG.debug("Executing DSL: query={}, queryPlan={}", dslQuery, queryPlan);
         }
 
-        Object result = graph.executeGremlinScript(queryStr, false);
+        Object result = queryPlan.execute(graph);
 
         if (result instanceof List && CollectionUtils.isNotEmpty((List)result)) {
             List   queryResult  = (List) result;
@@ -136,8 +138,8 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
                         LOG.warn("searchUsingDslQuery({}): expected an AtlasVertex; found unexpected entry in result {}", dslQuery, element);
                     }
                 }
-            } else if (gremlinQuery.hasSelectList()) {
-                ret.setAttributes(toAttributesResult(queryResult, gremlinQuery));
+            } else if (queryPlan.hasSelectList()) {
+                ret.setAttributes(toAttributesResult(queryResult));
             } else if (firstElement instanceof Map) {
                 for (Object element : queryResult) {
                     if (element instanceof Map) {
@@ -158,7 +160,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
                     }
                 }
             } else {
-                LOG.warn("searchUsingDslQuery({}/{}): found unexpected entry in result {}", dslQuery, dslQuery, gremlinQuery.queryStr());
+                LOG.warn("searchUsingDslQuery({}/{}): found unexpected entry in result {}", dslQuery, dslQuery, queryPlan);
             }
         }
 
@@ -457,6 +459,67 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return searchWithSearchContext(new SearchContext(searchParameters, typeRegistry, graph, indexer.getVertexIndexKeys()));
     }
 
+    @Override
+    @GraphTransaction
+    public AtlasSearchResult searchWithCursor(SearchParameters searchParameters) throws AtlasBaseException {
+        SearchCursor cursor   = new SearchCursor(searchParameters);
+        String       cursorId = searchTracker.addCursor(cursor);
+
+        return searchWithCursor(cursorId, cursor);
+    }
+
+    @Override
+    @GraphTransaction
+    public AtlasSearchResult searchWithCursor(String cursorId) throws AtlasBaseException {
+        SearchCursor cursor = searchTracker.getCursor(cursorId);
+
+        if (cursor == null) {
+            throw new AtlasBaseException(SEARCH_CURSOR_NOT_FOUND, cursorId);
+        }
+
+        return searchWithCursor(cursorId, cursor);
+    }
+
+    @Override
+    public void removeSearchCursor(String cursorId) throws AtlasBaseException {
+        if (searchTracker.removeCursor(cursorId) == null) {
+            throw new AtlasBaseException(SEARCH_CURSOR_NOT_FOUND, cursorId);
+        }
+    }
+
+    private AtlasSearchResult searchWithCursor(String cursorId, SearchCursor cursor) throws AtlasBaseException {
+        // pages of a cursor are read one at a time, in order
+        synchronized (cursor) {
+            SearchContext     searchContext   = new SearchContext(cursor.getSearchParameters(), typeRegistry, graph, indexer.getVertexIndexKeys(), cursor);
+            AtlasSearchResult ret             = null;
+            int               pageResultCount = 0;
+
+            cursor.onPageStart(searchContext);
+
+            try {
+                ret = searchWithSearchContext(searchContext);
+
+                pageResultCount = ret.getEntities() != null ? ret.getEntities().size() : 0;
+            } finally {
+                cursor.onPageEnd(pageResultCount);
+
+                if (ret == null) {
+                    searchTracker.removeCursor(cursorId);
+                }
+            }
+
+            boolean hasMore = pageResultCount >= searchContext.getSearchParameters().getLimit() && !(cursor.isPositioned() && cursor.isExhausted());
+
+            if (hasMore) {
+                ret.setNextCursor(cursorId);
+            } else {
+                searchTracker.removeCursor(cursorId);
+            }
+
+            return ret;
+        }
+    }
+
     private AtlasSearchResult searchWithSearchContext(SearchContext searchContext) throws AtlasBaseException {
         SearchParameters  searchParameters = searchContext.getSearchParameters();
         AtlasSearchResult ret              = new AtlasSearchResult(searchParameters);
@@ -510,48 +573,43 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
                 }
             }
 
-            for (AtlasVertex atlasVertex : resultList) {
-                AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader(atlasVertex, resultAttributes);
+            // headers of results, and of entities referred by their attributes, are read in bulk to avoid a round
+            // trip to the store per entity
+            List<AtlasEntityHeader> entities      = entityRetriever.toAtlasEntityHeaders(resultList, resultAttributes);
+            Set<String>             referredGuids = new LinkedHashSet<>();
+
+            for (int i = 0; i < resultList.size(); i++) {
+                AtlasEntityHeader entity = entities.get(i);
 
                 if(searchParameters.getIncludeClassificationAttributes()) {
-                    entity.setClassifications(entityRetriever.getAllClassifications(atlasVertex));
+                    entity.setClassifications(entityRetriever.getAllClassifications(resultList.get(i)));
                 }
 
                 ret.addEntity(entity);
 
-                // populate ret.referredEntities
                 for (String entityAttribute : entityAttributes) {
                     Object attrValue = entity.getAttribute(entityAttribute);
 
                     if (attrValue instanceof AtlasObjectId) {
-                        AtlasObjectId objId = (AtlasObjectId) attrValue;
-
-                        if (ret.getReferredEntities() == null) {
-                            ret.setReferredEntities(new HashMap<>());
-                        }
-
-                        if (!ret.getReferredEntities().containsKey(objId.getGuid())) {
-                            ret.getReferredEntities().put(objId.getGuid(), entityRetriever.toAtlasEntityHeader(objId.getGuid()));
-                        }
+                        referredGuids.add(((AtlasObjectId) attrValue).getGuid());
                     } else if (attrValue instanceof Collection) {
-                        Collection objIds = (Collection) attrValue;
-
-                        for (Object obj : objIds) {
+                        for (Object obj : (Collection) attrValue) {
                             if (obj instanceof AtlasObjectId) {
-                                AtlasObjectId objId = (AtlasObjectId) obj;
-
-                                if (ret.getReferredEntities() == null) {
-                                    ret.setReferredEntities(new HashMap<>());
-                                }
-
-                                if (!ret.getReferredEntities().containsKey(objId.getGuid())) {
-                                    ret.getReferredEntities().put(objId.getGuid(), entityRetriever.toAtlasEntityHeader(objId.getGuid()));
-                                }
+                                referredGuids.add(((AtlasObjectId) obj).getGuid());
                             }
                         }
                     }
                 }
             }
+
+            // populate ret.referredEntities; entries are added one at a time, in the order found, as earlier
+            if (!referredGuids.isEmpty()) {
+                ret.setReferredEntities(new HashMap<>());
+
+                for (Map.Entry<String, AtlasEntityHeader> entry : entityRetriever.toAtlasEntityHeaders(referredGuids).entrySet()) {
+                    ret.getReferredEntities().put(entry.getKey(), entry.getValue());
+                }
+            }
         } finally {
             searchTracker.remove(searchID);
         }
@@ -767,15 +825,15 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return ret;
     }
 
-    private GremlinQuery toGremlinQuery(String query, int limit, int offset) throws AtlasBaseException {
-        QueryParams                 params       = QueryParams.getNormalizedParams(limit, offset);
-        GremlinQuery                gremlinQuery = new AtlasDSL.Translator(query, typeRegistry, params.offset(), params.limit()).translate();
+    private DSLQueryPlan toDSLQueryPlan(String query, int limit, int offset) throws AtlasBaseException {
+        QueryParams  params    = QueryParams.getNormalizedParams(limit, offset);
+        DSLQueryPlan queryPlan = dslQueryPlanCache.getQueryPlan(query, params.limit(), params.offset());
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Translated Gremlin Query: {}", gremlinQuery.queryStr());
+            LOG.debug("DSL Query Plan: {}", queryPlan);
         }
 
-        return gremlinQuery;
+        return queryPlan;
     }
 
     private AtlasIndexQuery toAtlasIndexQuery(String fullTextQuery) {
@@ -783,7 +841,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return graph.indexQuery(Constants.FULLTEXT_INDEX, graphQuery);
     }
 
-    private AttributeSearchResult toAttributesResult(List results, GremlinQuery query) {
+    private AttributeSearchResult toAttributesResult(List results) {
         AttributeSearchResult ret = new AttributeSearchResult();
         List<String> names = (List<String>) results.get(0);
         List<List<Object>> values = extractValues(results.subList(1, results.size()));
@@ -18,13 +18,16 @@
 
 package org.apache.atlas.discovery;
 
+import com.google.common.annotations.VisibleForTesting;
 
 import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.authorize.AtlasAuthorizationUtils;
 import org.apache.atlas.authorize.AtlasEntityAccessRequest;
 import org.apache.atlas.authorize.AtlasPrivilege;
+import org.apache.atlas.discovery.LineageAdjacencyCache.LineageGraph;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
@@ -36,6 +39,7 @@ import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphTraversal;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
@@ -55,11 +59,16 @@ import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static org.apache.atlas.AtlasClient.DATA_SET_SUPER_TYPE;
@@ -84,23 +93,41 @@ public class EntityLineageService implements AtlasLineageService {
     private static final String  PROCESS_OUTPUTS_EDGE  = "__Process.outputs";
     private static final String  COLUMNS               = "columns";
     private static final boolean LINEAGE_USING_GREMLIN = AtlasConfiguration.LINEAGE_USING_GREMLIN.getBoolean();
+    private static final int     LINEAGE_TRAVERSAL_BATCH_SIZE = AtlasConfiguration.LINEAGE_TRAVERSAL_BATCH_SIZE.getInt();
+    private static final int     CONTINUATION_TOKEN_MAX_LENGTH = 36; // length of a UUID string
 
     private final AtlasGraph                graph;
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
     private final EntityGraphRetriever      entityRetriever;
     private final AtlasTypeRegistry         atlasTypeRegistry;
+    private final LineageAdjacencyCache     lineageCache;
+
+    // traversal state of truncated lineage, by continuation token, in access order: least recently used state is
+    // dropped when maxContinuations is exceeded. State is kept in the server, so that a client can't alter it
+    private final Map<String, LineageContinuation> continuations       = new LinkedHashMap<>(16, 0.75f, true);
+    private final int                              maxContinuations    = AtlasConfiguration.LINEAGE_CONTINUATION_MAX_ENTRIES.getInt();
+    private final long                             continuationTtlMs   = AtlasConfiguration.LINEAGE_CONTINUATION_TTL_SECS.getLong() * 1000;
+    private       int                              maxNodes            = AtlasConfiguration.LINEAGE_MAX_NODES.getInt();
+    private       int                              maxEdges            = AtlasConfiguration.LINEAGE_MAX_EDGES.getInt();
 
     @Inject
-    EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) {
+    EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph, LineageAdjacencyCache lineageCache) {
         this.graph = atlasGraph;
         this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
         this.entityRetriever = new EntityGraphRetriever(atlasGraph, typeRegistry);
         this.atlasTypeRegistry = typeRegistry;
+        this.lineageCache = lineageCache;
     }
 
     @Override
     @GraphTransaction
     public AtlasLineageInfo getAtlasLineageInfo(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
+        return getAtlasLineageInfo(guid, direction, depth, null);
+    }
+
+    @Override
+    @GraphTransaction
+    public AtlasLineageInfo getAtlasLineageInfo(String guid, LineageDirection direction, int depth, String continuationToken) throws AtlasBaseException {
         AtlasLineageInfo ret;
 
         AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeaderWithClassifications(guid);
@@ -126,7 +153,7 @@ public class EntityLineageService implements AtlasLineageService {
         if (LINEAGE_USING_GREMLIN) {
             ret = getLineageInfoV1(guid, direction, depth, isDataSet);
         } else {
-            ret = getLineageInfoV2(guid, direction, depth, isDataSet);
+            ret = getLineageInfoV2(guid, direction, depth, isDataSet, continuationToken);
         }
 
         return ret;
@@ -251,112 +278,294 @@ public class EntityLineageService implements AtlasLineageService {
         return new AtlasLineageInfo(guid, entities, relations, direction, depth);
     }
 
-    private AtlasLineageInfo getLineageInfoV2(String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
-        AtlasLineageInfo ret = initializeLineageInfo(guid, direction, depth);
+    private AtlasLineageInfo getLineageInfoV2(String guid, LineageDirection direction, int depth, boolean isDataSet, String continuationToken) throws AtlasBaseException {
+        AtlasLineageInfo         ret     = initializeLineageInfo(guid, direction, depth);
+        LineageTraversalContext  context = new LineageTraversalContext(ret);
+        List<LineageTraversalState> states;
 
         if (depth == 0) {
             depth = -1;
         }
 
-        if (isDataSet) {
-            AtlasVertex datasetVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+        if (StringUtils.isNotEmpty(continuationToken)) {
+            states = fromContinuationToken(guid, direction, depth, continuationToken);
+        } else if (lineageCache != null && lineageCache.isEnabled() && getLineageFromCache(ret, guid, direction, depth, isDataSet)) {
+            return ret;
+        } else {
+            states = new ArrayList<>();
+
+            if (isDataSet) {
+                AtlasVertex datasetVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
 
-            if (direction == INPUT || direction == BOTH) {
-                traverseEdges(datasetVertex, true, depth, ret);
-            }
+                if (direction == INPUT || direction == BOTH) {
+                    states.add(new LineageTraversalState(true, depth, Collections.singletonList(getId(datasetVertex))));
+                }
+
+                if (direction == OUTPUT || direction == BOTH) {
+                    states.add(new LineageTraversalState(false, depth, Collections.singletonList(getId(datasetVertex))));
+                }
+            } else {
+                AtlasVertex processVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+
+                // make one hop to the next dataset vertices from process vertex and traverse with 'depth = depth - 1'
+                if (direction == INPUT || direction == BOTH) {
+                    states.add(new LineageTraversalState(true, depth - 1, getProcessDatasets(processVertex, PROCESS_INPUTS_EDGE, context)));
+                }
 
-            if (direction == OUTPUT || direction == BOTH) {
-                traverseEdges(datasetVertex, false, depth, ret);
+                if (direction == OUTPUT || direction == BOTH) {
+                    states.add(new LineageTraversalState(false, depth - 1, getProcessDatasets(processVertex, PROCESS_OUTPUTS_EDGE, context)));
+                }
             }
-        } else  {
-            AtlasVertex processVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+        }
 
-            // make one hop to the next dataset vertices from process vertex and traverse with 'depth = depth - 1'
-            if (direction == INPUT || direction == BOTH) {
-                Iterable<AtlasEdge> processEdges = processVertex.getEdges(AtlasEdgeDirection.OUT, PROCESS_INPUTS_EDGE);
+        List<LineageTraversalState> pendingStates = new ArrayList<>();
 
-                for (AtlasEdge processEdge : processEdges) {
-                    addEdgeToResult(processEdge, ret);
+        for (LineageTraversalState state : states) {
+            traverseEdges(state, context);
 
-                    AtlasVertex datasetVertex = processEdge.getInVertex();
+            if (!state.isComplete()) {
+                pendingStates.add(state);
+            }
+        }
 
-                    traverseEdges(datasetVertex, true, depth - 1, ret);
-                }
+        if (!pendingStates.isEmpty()) {
+            ret.setContinuationToken(toContinuationToken(guid, direction, depth, pendingStates));
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("lineage of {} truncated at {} entities, {} relations", guid, ret.getGuidEntityMap().size(), ret.getRelations().size());
             }
+        }
 
-            if (direction == OUTPUT || direction == BOTH) {
-                Iterable<AtlasEdge> processEdges = processVertex.getEdges(AtlasEdgeDirection.OUT, PROCESS_OUTPUTS_EDGE);
+        return ret;
+    }
 
-                for (AtlasEdge processEdge : processEdges) {
-                    addEdgeToResult(processEdge, ret);
+    /**
+     * Adds lineage from the adjacency cache to the given lineageInfo; only headers of entities in the lineage are
+     * read from the graph. Returns false, without updating lineageInfo, if the lineage is not available in the cache
+     * within the configured limits - in which case the graph should be traversed.
+     */
+    private boolean getLineageFromCache(AtlasLineageInfo lineageInfo, String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
+        AtlasVertex        startVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+        List<LineageGraph> lineages    = new ArrayList<>();
+
+        if (direction == INPUT || direction == BOTH) {
+            lineages.add(lineageCache.getLineage(startVertex, isDataSet, true, depth, maxNodes, maxEdges));
+        }
 
-                    AtlasVertex datasetVertex = processEdge.getInVertex();
+        if (direction == OUTPUT || direction == BOTH) {
+            lineages.add(lineageCache.getLineage(startVertex, isDataSet, false, depth, maxNodes, maxEdges));
+        }
+
+        if (lineages.contains(null)) {
+            return false;
+        }
+
+        Map<String, AtlasEntityHeader> entities = lineageInfo.getGuidEntityMap();
+
+        for (LineageGraph lineage : lineages) {
+            for (Map.Entry<String, Object> entry : lineage.getVertexIds().entrySet()) {
+                if (!entities.containsKey(entry.getKey())) {
+                    AtlasVertex vertex = graph.getVertex(String.valueOf(entry.getValue()));
+
+                    if (vertex == null) { // deleted after the lineage was cached
+                        entities.clear();
+                        lineageInfo.getRelations().clear();
+
+                        return false;
+                    }
 
-                    traverseEdges(datasetVertex, false, depth - 1, ret);
+                    entities.put(entry.getKey(), entityRetriever.toAtlasEntityHeader(vertex));
                 }
             }
+
+            lineageInfo.getRelations().addAll(lineage.getRelations());
+        }
+
+        return true;
+    }
+
+    private List<String> getProcessDatasets(AtlasVertex processVertex, String edgeLabel, LineageTraversalContext context) throws AtlasBaseException {
+        List<String> ret = new ArrayList<>();
+
+        for (AtlasEdge processEdge : processVertex.getEdges(AtlasEdgeDirection.OUT, edgeLabel)) {
+            context.addEdge(processEdge);
+
+            ret.add(getId(processEdge.getInVertex()));
         }
 
         return ret;
     }
 
-    private void traverseEdges(AtlasVertex datasetVertex, boolean isInput, int depth, AtlasLineageInfo ret) throws AtlasBaseException {
-        traverseEdges(datasetVertex, isInput, depth, new HashSet<>(), ret);
+    /**
+     * Breadth-first traversal of lineage from the datasets in the given state, one level at a time. Edges of the
+     * datasets in a level are fetched in batches of LINEAGE_TRAVERSAL_BATCH_SIZE vertices. The traversal stops when
+     * the number of entities or relations in the result reaches the configured maximum; in such case the state
+     * retains the datasets yet to be traversed.
+     */
+    private void traverseEdges(LineageTraversalState state, LineageTraversalContext context) throws AtlasBaseException {
+        while (true) {
+            if (state.getCurrent().isEmpty()) {
+                if (state.getNext().isEmpty()) {
+                    break;
+                }
+
+                state.nextLevel();
+            }
+
+            if (state.getDepth() == 0) {
+                state.getCurrent().clear();
+                state.getNext().clear();
+
+                break;
+            }
+
+            if (context.isLimitReached()) {
+                break;
+            }
+
+            int               batchSize = Math.min(LINEAGE_TRAVERSAL_BATCH_SIZE, state.getCurrent().size());
+            List<String>      batch     = state.getCurrent().subList(0, batchSize);
+            List<AtlasVertex> vertices  = new ArrayList<>(batchSize);
+
+            for (String vertexId : batch) {
+                AtlasVertex vertex = graph.getVertex(vertexId);
+
+                if (vertex != null) {
+                    vertices.add(vertex);
+                }
+            }
+
+            batch.clear();
+
+            traverseLevelBatch(vertices, state, context);
+        }
     }
 
-    private void traverseEdges(AtlasVertex datasetVertex, boolean isInput, int depth, Set<String> visitedVertices, AtlasLineageInfo ret) throws AtlasBaseException {
-        if (depth != 0) {
-            // keep track of visited vertices to avoid circular loop
-            visitedVertices.add(getId(datasetVertex));
+    private void traverseLevelBatch(List<AtlasVertex> datasetVertices, LineageTraversalState state, LineageTraversalContext context) throws AtlasBaseException {
+        boolean                      isInput              = state.isInput();
+        Map<String, AtlasVertex>     processVertices      = new LinkedHashMap<>();
+        Map<String, List<AtlasEdge>> processIncomingEdges = new HashMap<>();
+        Map<String, List<AtlasEdge>> processOutgoingEdges = new HashMap<>();
 
-            Iterable<AtlasEdge> incomingEdges = datasetVertex.getEdges(IN, isInput ? PROCESS_OUTPUTS_EDGE : PROCESS_INPUTS_EDGE);
+        for (AtlasEdge incomingEdge : getEdges(datasetVertices, IN, isInput ? PROCESS_OUTPUTS_EDGE : PROCESS_INPUTS_EDGE)) {
+            AtlasVertex processVertex = incomingEdge.getOutVertex();
+            String      processId     = getId(processVertex);
 
-            for (AtlasEdge incomingEdge : incomingEdges) {
-                AtlasVertex         processVertex = incomingEdge.getOutVertex();
-                Iterable<AtlasEdge> outgoingEdges = processVertex.getEdges(OUT, isInput ? PROCESS_INPUTS_EDGE : PROCESS_OUTPUTS_EDGE);
+            processVertices.putIfAbsent(processId, processVertex);
+            processIncomingEdges.computeIfAbsent(processId, k -> new ArrayList<>()).add(incomingEdge);
+        }
 
-                for (AtlasEdge outgoingEdge : outgoingEdges) {
-                    AtlasVertex entityVertex = outgoingEdge.getInVertex();
+        for (AtlasEdge outgoingEdge : getEdges(processVertices.values(), OUT, isInput ? PROCESS_INPUTS_EDGE : PROCESS_OUTPUTS_EDGE)) {
+            processOutgoingEdges.computeIfAbsent(getId(outgoingEdge.getOutVertex()), k -> new ArrayList<>()).add(outgoingEdge);
+        }
 
-                    if (entityVertex != null) {
-                        addEdgeToResult(incomingEdge, ret);
-                        addEdgeToResult(outgoingEdge, ret);
+        for (String processId : processVertices.keySet()) {
+            List<AtlasEdge> outgoingEdges = processOutgoingEdges.get(processId);
 
-                        if (!visitedVertices.contains(getId(entityVertex))) {
-                            traverseEdges(entityVertex, isInput, depth - 1, visitedVertices, ret);
-                        }
+            if (CollectionUtils.isEmpty(outgoingEdges)) {
+                continue;
+            }
+
+            for (AtlasEdge incomingEdge : processIncomingEdges.get(processId)) {
+                context.addEdge(incomingEdge);
+            }
+
+            for (AtlasEdge outgoingEdge : outgoingEdges) {
+                AtlasVertex entityVertex = outgoingEdge.getInVertex();
+
+                if (entityVertex != null) {
+                    context.addEdge(outgoingEdge);
+
+                    String entityVertexId = getId(entityVertex);
+
+                    if (state.getVisited().add(entityVertexId)) {
+                        state.getNext().add(entityVertexId);
                     }
                 }
             }
         }
     }
 
-    private void addEdgeToResult(AtlasEdge edge, AtlasLineageInfo lineageInfo) throws AtlasBaseException {
-        if (!lineageContainsEdge(lineageInfo, edge)) {
-            processEdge(edge, lineageInfo);
+    private List<AtlasEdge> getEdges(Collection<AtlasVertex> vertices, AtlasEdgeDirection direction, String edgeLabel) {
+        if (vertices.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Object[]            vertexIds = vertices.stream().map(AtlasVertex::getId).toArray();
+        AtlasGraphTraversal traversal = graph.V(vertexIds);
+
+        if (direction == IN) {
+            traversal.inE(edgeLabel);
+        } else {
+            traversal.outE(edgeLabel);
         }
+
+        return traversal.getAtlasEdgeList();
     }
 
-    private boolean lineageContainsEdge(AtlasLineageInfo lineageInfo, AtlasEdge edge) {
-        boolean ret = false;
+    @VisibleForTesting
+    void setLimits(int maxNodes, int maxEdges) {
+        this.maxNodes = maxNodes;
+        this.maxEdges = maxEdges;
+    }
 
-        if (lineageInfo != null && CollectionUtils.isNotEmpty(lineageInfo.getRelations()) && edge != null) {
-            String               relationGuid = AtlasGraphUtilsV2.getEncodedProperty(edge, RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
-            Set<LineageRelation> relations    = lineageInfo.getRelations();
+    private String toContinuationToken(String guid, LineageDirection direction, int depth, List<LineageTraversalState> states) {
+        String ret = UUID.randomUUID().toString();
 
-            for (LineageRelation relation : relations) {
-                if (relation.getRelationshipId().equals(relationGuid)) {
-                    ret = true;
-                    break;
-                }
+        synchronized (continuations) {
+            removeExpiredContinuations();
+
+            continuations.put(ret, new LineageContinuation(guid, direction, depth, RequestContext.getCurrentUser(), states));
+
+            if (continuations.size() > maxContinuations) {
+                Iterator<LineageContinuation> iter = continuations.values().iterator();
+
+                iter.next();
+                iter.remove();
             }
         }
 
         return ret;
     }
 
-    private void processEdge(final AtlasEdge edge, final AtlasLineageInfo lineageInfo) throws AtlasBaseException {
-        processEdge(edge, lineageInfo.getGuidEntityMap(), lineageInfo.getRelations());
+    // a token can be used only once, by the user who received it, to continue the same lineage request
+    private List<LineageTraversalState> fromContinuationToken(String guid, LineageDirection direction, int depth, String continuationToken) throws AtlasBaseException {
+        if (continuationToken.length() > CONTINUATION_TOKEN_MAX_LENGTH) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_LINEAGE_CONTINUATION_TOKEN, StringUtils.abbreviate(continuationToken, CONTINUATION_TOKEN_MAX_LENGTH));
+        }
+
+        LineageContinuation continuation;
+
+        synchronized (continuations) {
+            removeExpiredContinuations();
+
+            continuation = continuations.remove(continuationToken);
+        }
+
+        if (continuation == null || !continuation.isFor(guid, direction, depth, RequestContext.getCurrentUser())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_LINEAGE_CONTINUATION_TOKEN, continuationToken);
+        }
+
+        for (LineageTraversalState state : continuation.getStates()) {
+            if (depth != -1 && (state.getDepth() < 0 || state.getDepth() > depth)) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_LINEAGE_CONTINUATION_TOKEN, continuationToken);
+            }
+        }
+
+        return continuation.getStates();
+    }
+
+    private void removeExpiredContinuations() {
+        long expiryTime = System.currentTimeMillis() - continuationTtlMs;
+
+        // continuations are in access order, hence expired ones are at the head
+        for (Iterator<LineageContinuation> iter = continuations.values().iterator(); iter.hasNext(); ) {
+            if (iter.next().getCreateTime() >= expiryTime) {
+                break;
+            }
+
+            iter.remove();
+        }
     }
 
     private AtlasLineageInfo initializeLineageInfo(String guid, LineageDirection direction, int depth) {
@@ -407,6 +616,93 @@ public class EntityLineageService implements AtlasLineageService {
         }
     }
 
+    private class LineageTraversalContext {
+        private final AtlasLineageInfo lineageInfo;
+        private final Set<String>      visitedEdges = new HashSet<>();
+
+        LineageTraversalContext(AtlasLineageInfo lineageInfo) {
+            this.lineageInfo = lineageInfo;
+        }
+
+        boolean isLimitReached() {
+            return lineageInfo.getGuidEntityMap().size() >= maxNodes || lineageInfo.getRelations().size() >= maxEdges;
+        }
+
+        void addEdge(AtlasEdge edge) throws AtlasBaseException {
+            if (visitedEdges.add(edge.getIdForDisplay())) {
+                processEdge(edge, lineageInfo.getGuidEntityMap(), lineageInfo.getRelations());
+            }
+        }
+    }
+
+    /**
+     * Traversal of lineage in one direction: datasets yet to be traversed in the current level, those found for the
+     * next level, and all datasets found so far - so that a dataset is traversed only once across pages of truncated
+     * lineage. Kept in the server, in the continuation of truncated lineage.
+     */
+    private static class LineageTraversalState {
+        private final boolean     input;
+        private final Set<String> visited;
+        private int               depth;
+        private List<String>      current;
+        private List<String>      next;
+
+        LineageTraversalState(boolean input, int depth, List<String> current) {
+            this.input   = input;
+            this.depth   = depth;
+            this.current = new ArrayList<>(current);
+            this.next    = new ArrayList<>();
+            this.visited = new HashSet<>(current);
+        }
+
+        boolean isInput() { return input; }
+
+        int getDepth() { return depth; }
+
+        List<String> getCurrent() { return current; }
+
+        List<String> getNext() { return next; }
+
+        Set<String> getVisited() { return visited; }
+
+        boolean isComplete() {
+            return current.isEmpty() && next.isEmpty();
+        }
+
+        void nextLevel() {
+            current = next;
+            next    = new ArrayList<>();
+
+            depth--;
+        }
+    }
+
+    private static class LineageContinuation {
+        private final String                      guid;
+        private final LineageDirection            direction;
+        private final int                         depth;
+        private final String                      user;
+        private final List<LineageTraversalState> states;
+        private final long                        createTime;
+
+        LineageContinuation(String guid, LineageDirection direction, int depth, String user, List<LineageTraversalState> states) {
+            this.guid       = guid;
+            this.direction  = direction;
+            this.depth      = depth;
+            this.user       = user;
+            this.states     = states;
+            this.createTime = System.currentTimeMillis();
+        }
+
+        List<LineageTraversalState> getStates() { return states; }
+
+        long getCreateTime() { return createTime; }
+
+        boolean isFor(String guid, LineageDirection direction, int depth, String user) {
+            return StringUtils.equals(this.guid, guid) && this.direction == direction && this.depth == depth && StringUtils.equals(this.user, user);
+        }
+    }
+
     private AtlasLineageInfo getBothLineageInfoV1(String guid, int depth, boolean isDataSet) throws AtlasBaseException {
         AtlasLineageInfo inputLineage  = getLineageInfo(guid, INPUT, depth, isDataSet);
         AtlasLineageInfo outputLineage = getLineageInfo(guid, OUTPUT, depth, isDataSet);
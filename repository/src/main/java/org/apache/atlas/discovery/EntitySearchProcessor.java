@@ -249,6 +249,19 @@ public class EntitySearchProcessor extends SearchProcessor {
             int qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
             int resultIdx = qryOffset;
 
+            final SearchCursor cursor = context.getCursor();
+            boolean isQueryExhausted  = false;
+
+            // continue from where the earlier page of the cursor stopped, instead of reading and filtering results of
+            // earlier pages again; as startIdx has been reached already, no more entries will be ignored
+            if (cursor != null && cursor.isPositioned()) {
+                qryOffset        = cursor.getQueryOffset();
+                resultIdx        = startIdx;
+                isQueryExhausted = cursor.isExhausted();
+
+                collectPendingVertices(ret, limit);
+            }
+
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
             SortOrder sortOrder = context.getSearchParameters().getSortOrder();
@@ -264,7 +277,7 @@ public class EntitySearchProcessor extends SearchProcessor {
 
             if (sortOrder == null) { sortOrder = ASCENDING; }
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            for (; ret.size() < limit && !isQueryExhausted; qryOffset += limit) {
                 entityVertices.clear();
 
                 if (context.terminateSearch()) {
@@ -309,9 +322,15 @@ public class EntitySearchProcessor extends SearchProcessor {
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
                 if (isLastResultPage) {
+                    isQueryExhausted = true;
+
                     break;
                 }
             }
+
+            if (cursor != null) {
+                cursor.setPosition(qryOffset, isQueryExhausted);
+            }
         } finally {
             AtlasPerfTracer.log(perf);
         }
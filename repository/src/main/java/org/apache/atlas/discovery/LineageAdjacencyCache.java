@@ -0,0 +1,843 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphTraversal;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.apache.atlas.AtlasClient.PROCESS_SUPER_TYPE;
+import static org.apache.atlas.repository.Constants.RELATIONSHIP_GUID_PROPERTY_KEY;
+
+/**
+ * In-memory adjacency of lineage: each dataset and process is a node with an int id, having arrays of ids of its
+ * upstream and downstream neighbors along with the guids of the relationships to them. Adjacency of a node is loaded
+ * from the graph on first use, and is dropped when the process (or the relationship) that contributed to it changes.
+ * Lineage queries are answered by traversing the cache; the graph is used only to load adjacency of nodes not yet
+ * in the cache and to hydrate entity headers in the result.
+ *
+ * Number of nodes in the cache is bounded by atlas.lineage.cache.max.nodes; the cache is cleared when the bound is
+ * reached. The cache is also cleared when the server becomes active or passive, as changes made by the other server
+ * while this one was passive are not notified to this cache.
+ */
+@Component
+public class LineageAdjacencyCache implements EntityChangeListenerV2, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(LineageAdjacencyCache.class);
+
+    private static final String   CACHE_NAME           = "lineageAdjacencyCache";
+    private static final String   PROCESS_INPUTS_EDGE  = "__Process.inputs";
+    private static final String   PROCESS_OUTPUTS_EDGE = "__Process.outputs";
+    private static final String   ATTR_INPUTS          = "inputs";
+    private static final String   ATTR_OUTPUTS         = "outputs";
+    private static final int      INITIAL_CAPACITY     = 1024;
+    private static final int[]    NO_IDS               = new int[0];
+    private static final String[] NO_RELATIONS         = new String[0];
+
+    private final AtlasGraph           graph;
+    private final AtlasTypeRegistry    typeRegistry;
+    private final boolean              isEnabled;
+    private final int                  maxNodes;
+    private final ReadWriteLock        lock              = new ReentrantReadWriteLock();
+    private final Map<String, Integer> nodeIdsByGuid     = new HashMap<>();
+    private final AtomicLong           hitCount          = new AtomicLong();
+    private final AtomicLong           missCount         = new AtomicLong();
+    private final AtomicLong           invalidationCount = new AtomicLong();
+    private final AtomicLong           clearCount        = new AtomicLong();
+    private       Node[]               nodes             = new Node[INITIAL_CAPACITY];
+    private       int                  nodeCount         = 0;
+    private       int                  loadedNodeCount   = 0;
+    private       long                 version           = 0; // incremented on every invalidation
+    private       long                 epoch             = 0; // incremented when the cache is cleared
+
+    @Inject
+    public LineageAdjacencyCache(AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil) {
+        this(graph, typeRegistry, metricsUtil, AtlasConfiguration.LINEAGE_CACHE_ENABLED.getBoolean(), AtlasConfiguration.LINEAGE_CACHE_MAX_NODES.getInt());
+    }
+
+    @VisibleForTesting
+    LineageAdjacencyCache(AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil, boolean isEnabled, int maxNodes) {
+        this.graph        = graph;
+        this.typeRegistry = typeRegistry;
+        this.isEnabled    = isEnabled;
+        this.maxNodes     = maxNodes;
+
+        if (isEnabled && metricsUtil != null) {
+            metricsUtil.registerCacheStats(CACHE_NAME, this::getStats);
+        }
+
+        LOG.info("{}: enabled={}, maxNodes={}", CACHE_NAME, isEnabled, maxNodes);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Returns lineage of the given dataset or process, in the given direction. Rounds of depth are counted the same
+     * way as in EntityLineageService: one round covers dataset -> process -> datasets; lineage of a process starts
+     * with its datasets.
+     *
+     * @return lineage graph, or null when the lineage has more than maxEntities entities or maxRelations relations,
+     *         or when the cache is modified while the lineage is being collected. The caller should traverse the
+     *         graph in such case
+     */
+    public LineageGraph getLineage(AtlasVertex startVertex, boolean isDataSet, boolean isUpstream, int depth, int maxEntities, int maxRelations) {
+        String       startGuid = AtlasGraphUtilsV2.getIdFromVertex(startVertex);
+        long         startEpoch;
+        int          startId;
+        LineageGraph ret       = new LineageGraph();
+
+        lock.writeLock().lock();
+
+        try {
+            startId    = getOrAddNode(startGuid, startVertex.getId());
+            startEpoch = epoch;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        BitSet visited  = new BitSet();
+        int[]  frontier = new int[] { startId };
+
+        visited.set(startId);
+
+        if (!isDataSet) {
+            if (!ensureLoaded(startEpoch, frontier)) {
+                return null;
+            }
+
+            lock.readLock().lock();
+
+            try {
+                if (!isLoaded(startEpoch, frontier)) {
+                    return null;
+                }
+
+                frontier = addNeighbors(startId, isUpstream, visited, ret);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            depth--;
+        }
+
+        for (int round = 0; frontier.length > 0 && (depth < 0 || round < depth); round++) {
+            if (!ensureLoaded(startEpoch, frontier)) {
+                return null;
+            }
+
+            int[] processIds;
+
+            lock.readLock().lock();
+
+            try {
+                if (!isLoaded(startEpoch, frontier)) {
+                    return null;
+                }
+
+                processIds = getNeighbors(frontier, isUpstream);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            if (!ensureLoaded(startEpoch, processIds)) {
+                return null;
+            }
+
+            lock.readLock().lock();
+
+            try {
+                if (!isLoaded(startEpoch, frontier) || !isLoaded(startEpoch, processIds)) {
+                    return null;
+                }
+
+                frontier = traverseRound(frontier, isUpstream, visited, ret);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            if (ret.getVertexIds().size() > maxEntities || ret.getRelations().size() > maxRelations) {
+                return null;
+            }
+        }
+
+        return ret;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> ret  = new LinkedHashMap<>();
+        long                hits = hitCount.get();
+        long                miss = missCount.get();
+
+        lock.readLock().lock();
+
+        try {
+            ret.put("nodeCount", nodeCount);
+            ret.put("loadedNodeCount", loadedNodeCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ret.put("maxNodes", maxNodes);
+        ret.put("hitCount", hits);
+        ret.put("missCount", miss);
+        ret.put("hitRatio", (hits + miss) > 0 ? ((double) hits / (hits + miss)) : 0d);
+        ret.put("invalidationCount", invalidationCount.get());
+        ret.put("clearCount", clearCount.get());
+
+        return ret;
+    }
+
+    @Override
+    public void instanceIsActive() {
+        clearAll();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        clearAll();
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.LINEAGE_ADJACENCY_CACHE.getOrder();
+    }
+
+    @VisibleForTesting
+    void invalidate(Collection<String> guids) {
+        boolean isInvalidated = false;
+
+        lock.writeLock().lock();
+
+        try {
+            for (String guid : guids) {
+                Integer nodeId = nodeIdsByGuid.get(guid);
+
+                if (nodeId == null) {
+                    continue;
+                }
+
+                isInvalidated = true;
+
+                Node node = nodes[nodeId];
+
+                for (int i = 0; i < node.referrerCount; i++) {
+                    unload(nodes[node.referrers[i]]);
+                }
+
+                for (int neighborId : node.upstream) {
+                    unload(nodes[neighborId]);
+                }
+
+                for (int neighborId : node.downstream) {
+                    unload(nodes[neighborId]);
+                }
+
+                unload(node);
+            }
+
+            if (isInvalidated) {
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (isInvalidated) {
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) {
+        onLineageChange(getProcessAndDatasetGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) {
+        onLineageChange(getProcessAndDatasetGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) {
+        onLineageChange(getGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesPurged(List<AtlasEntity> entities) {
+        onLineageChange(getGuids(entities));
+    }
+
+    @Override
+    public void onRelationshipsAdded(List<AtlasRelationship> relationships, boolean isImport) {
+        onLineageChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onRelationshipsUpdated(List<AtlasRelationship> relationships, boolean isImport) {
+        onLineageChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onRelationshipsDeleted(List<AtlasRelationship> relationships, boolean isImport) {
+        onLineageChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onRelationshipsPurged(List<AtlasRelationship> relationships) {
+        onLineageChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsAdded(List<AtlasEntity> entities, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsDeleted(List<AtlasEntity> entities, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onTermAdded(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) { }
+
+    @Override
+    public void onTermDeleted(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) { }
+
+    @Override
+    public void onLabelsAdded(AtlasEntity entity, Set<String> labels) { }
+
+    @Override
+    public void onLabelsDeleted(AtlasEntity entity, Set<String> labels) { }
+
+    @Override
+    public void onBusinessAttributesUpdated(AtlasEntity entity, Map<String, Map<String, Object>> updatedBusinessAttributes) { }
+
+    // changes become visible to other transactions only after commit; invalidating earlier could let a concurrent
+    // lineage request load the old adjacency back into the cache
+    private void onLineageChange(Set<String> guids) {
+        if (!isEnabled || guids.isEmpty()) {
+            return;
+        }
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                invalidate(guids);
+            }
+        };
+    }
+
+    // lineage edges are updated via inputs/outputs of processes; changes to datasets need not invalidate the cache
+    private Set<String> getProcessAndDatasetGuids(List<AtlasEntity> entities) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && entities != null) {
+            for (AtlasEntity entity : entities) {
+                AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+
+                if (entityType == null || !entityType.getTypeAndAllSuperTypes().contains(PROCESS_SUPER_TYPE)) {
+                    continue;
+                }
+
+                ret.add(entity.getGuid());
+
+                for (String attrName : new String[] { ATTR_INPUTS, ATTR_OUTPUTS }) {
+                    addObjectIdGuids(entity.getAttribute(attrName), ret);
+                    addObjectIdGuids(entity.getRelationshipAttribute(attrName), ret);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private Set<String> getGuids(List<AtlasEntity> entities) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && entities != null) {
+            for (AtlasEntity entity : entities) {
+                ret.add(entity.getGuid());
+            }
+        }
+
+        return ret;
+    }
+
+    private Set<String> getEndGuids(List<AtlasRelationship> relationships) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && relationships != null) {
+            for (AtlasRelationship relationship : relationships) {
+                if (relationship.getEnd1() != null && relationship.getEnd1().getGuid() != null) {
+                    ret.add(relationship.getEnd1().getGuid());
+                }
+
+                if (relationship.getEnd2() != null && relationship.getEnd2().getGuid() != null) {
+                    ret.add(relationship.getEnd2().getGuid());
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addObjectIdGuids(Object value, Set<String> guids) {
+        if (value instanceof AtlasObjectId) {
+            String guid = ((AtlasObjectId) value).getGuid();
+
+            if (guid != null) {
+                guids.add(guid);
+            }
+        } else if (value instanceof Map) {
+            Object guid = ((Map) value).get(AtlasObjectId.KEY_GUID);
+
+            if (guid != null) {
+                guids.add(guid.toString());
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                addObjectIdGuids(element, guids);
+            }
+        }
+    }
+
+    // caller should hold the read lock
+    private int[] addNeighbors(int nodeId, boolean isUpstream, BitSet visited, LineageGraph lineage) {
+        Node     node      = nodes[nodeId];
+        int[]    neighbors = isUpstream ? node.upstream : node.downstream;
+        String[] relations = isUpstream ? node.upstreamRelations : node.downstreamRelations;
+        IntList  ret       = new IntList();
+
+        for (int i = 0; i < neighbors.length; i++) {
+            int neighborId = neighbors[i];
+
+            lineage.addRelation(node, nodes[neighborId], relations[i], isUpstream);
+
+            if (!visited.get(neighborId)) {
+                visited.set(neighborId);
+
+                ret.add(neighborId);
+            }
+        }
+
+        return ret.toArray();
+    }
+
+    // caller should hold the read lock
+    private int[] getNeighbors(int[] nodeIds, boolean isUpstream) {
+        IntList ret  = new IntList();
+        BitSet  seen = new BitSet();
+
+        for (int nodeId : nodeIds) {
+            Node node = nodes[nodeId];
+
+            for (int neighborId : isUpstream ? node.upstream : node.downstream) {
+                if (!seen.get(neighborId)) {
+                    seen.set(neighborId);
+
+                    ret.add(neighborId);
+                }
+            }
+        }
+
+        return ret.toArray();
+    }
+
+    // one round of lineage: datasets -> processes -> datasets. Like EntityLineageService, a process is added only
+    // when it has datasets in the direction of traversal. Caller should hold the read lock
+    private int[] traverseRound(int[] datasetIds, boolean isUpstream, BitSet visited, LineageGraph lineage) {
+        IntList ret = new IntList();
+
+        for (int datasetId : datasetIds) {
+            Node     dataset   = nodes[datasetId];
+            int[]    processes = isUpstream ? dataset.upstream : dataset.downstream;
+            String[] relations = isUpstream ? dataset.upstreamRelations : dataset.downstreamRelations;
+
+            for (int i = 0; i < processes.length; i++) {
+                Node process = nodes[processes[i]];
+
+                if ((isUpstream ? process.upstream : process.downstream).length == 0) {
+                    continue;
+                }
+
+                lineage.addRelation(dataset, process, relations[i], isUpstream);
+
+                if (!visited.get(process.id)) {
+                    visited.set(process.id);
+
+                    for (int nextId : addNeighbors(process.id, isUpstream, visited, lineage)) {
+                        ret.add(nextId);
+                    }
+                }
+            }
+        }
+
+        return ret.toArray();
+    }
+
+    // loads adjacency of nodes that are not in the cache, with a single graph traversal
+    private boolean ensureLoaded(long startEpoch, int[] nodeIds) {
+        Map<Object, Node> toLoad = new HashMap<>();
+        long              startVersion;
+
+        lock.readLock().lock();
+
+        try {
+            if (epoch != startEpoch) {
+                return false;
+            }
+
+            startVersion = version;
+
+            for (int nodeId : nodeIds) {
+                Node node = nodes[nodeId];
+
+                if (!node.isLoaded) {
+                    toLoad.put(node.vertexId, node);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hitCount.addAndGet(nodeIds.length - toLoad.size());
+
+        if (toLoad.isEmpty()) {
+            return true;
+        }
+
+        missCount.addAndGet(toLoad.size());
+
+        Map<Object, Adjacency> adjacencies = loadAdjacency(toLoad.keySet());
+
+        lock.writeLock().lock();
+
+        try {
+            if (version != startVersion) { // adjacency read from the graph might be stale
+                return false;
+            }
+
+            for (Map.Entry<Object, Adjacency> entry : adjacencies.entrySet()) {
+                Node      node      = toLoad.get(entry.getKey());
+                Adjacency adjacency = entry.getValue();
+
+                if (node.isLoaded) { // loaded by a concurrent request
+                    continue;
+                }
+
+                if (nodeCount + adjacency.size() > maxNodes) {
+                    clear();
+
+                    return false;
+                }
+
+                node.upstream            = adjacency.upstream.toNodeIds();
+                node.upstreamRelations   = adjacency.upstream.getRelations();
+                node.downstream          = adjacency.downstream.toNodeIds();
+                node.downstreamRelations = adjacency.downstream.getRelations();
+                node.isLoaded            = true;
+
+                for (int neighborId : node.upstream) {
+                    nodes[neighborId].addReferrer(node.id);
+                }
+
+                for (int neighborId : node.downstream) {
+                    nodes[neighborId].addReferrer(node.id);
+                }
+
+                loadedNodeCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return true;
+    }
+
+    private Map<Object, Adjacency> loadAdjacency(Set<Object> vertexIds) {
+        Map<Object, Adjacency> ret       = new HashMap<>();
+        AtlasGraphTraversal    traversal = graph.V(vertexIds.toArray());
+
+        for (Object vertexId : vertexIds) {
+            ret.put(vertexId, new Adjacency());
+        }
+
+        traversal.bothE(PROCESS_INPUTS_EDGE, PROCESS_OUTPUTS_EDGE);
+
+        List<AtlasEdge> edges = traversal.getAtlasEdgeList();
+
+        for (AtlasEdge edge : edges) {
+            boolean     isInputEdge = PROCESS_INPUTS_EDGE.equals(edge.getLabel());
+            AtlasVertex upstream    = isInputEdge ? edge.getInVertex() : edge.getOutVertex();
+            AtlasVertex downstream  = isInputEdge ? edge.getOutVertex() : edge.getInVertex();
+            String      relation    = AtlasGraphUtilsV2.getEncodedProperty(edge, RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
+            Adjacency   upAdjacency = ret.get(upstream.getId());
+            Adjacency   dnAdjacency = ret.get(downstream.getId());
+
+            if (upAdjacency != null) {
+                upAdjacency.downstream.add(downstream, relation);
+            }
+
+            if (dnAdjacency != null) {
+                dnAdjacency.upstream.add(upstream, relation);
+            }
+        }
+
+        return ret;
+    }
+
+    // caller should hold the write lock
+    private int getOrAddNode(String guid, Object vertexId) {
+        Integer ret = nodeIdsByGuid.get(guid);
+
+        if (ret == null) {
+            if (nodeCount >= maxNodes) {
+                clear();
+            }
+
+            if (nodeCount == nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+
+            ret = nodeCount++;
+
+            nodes[ret] = new Node(ret, guid, vertexId);
+
+            nodeIdsByGuid.put(guid, ret);
+        }
+
+        return ret;
+    }
+
+    // caller should hold the write lock
+    private void unload(Node node) {
+        if (node.isLoaded) {
+            node.isLoaded            = false;
+            node.upstream            = NO_IDS;
+            node.upstreamRelations   = NO_RELATIONS;
+            node.downstream          = NO_IDS;
+            node.downstreamRelations = NO_RELATIONS;
+
+            loadedNodeCount--;
+        }
+    }
+
+    private void clearAll() {
+        lock.writeLock().lock();
+
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller should hold the write lock
+    private void clear() {
+        LOG.info("{}: clearing {} nodes", CACHE_NAME, nodeCount);
+
+        nodeIdsByGuid.clear();
+
+        nodes           = new Node[INITIAL_CAPACITY];
+        nodeCount       = 0;
+        loadedNodeCount = 0;
+
+        version++;
+        epoch++;
+
+        clearCount.incrementAndGet();
+    }
+
+    // caller should hold the read lock
+    private boolean isLoaded(long startEpoch, int[] nodeIds) {
+        if (epoch != startEpoch) {
+            return false;
+        }
+
+        for (int nodeId : nodeIds) {
+            if (!nodes[nodeId].isLoaded) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private class Adjacency {
+        final Neighbors upstream   = new Neighbors();
+        final Neighbors downstream = new Neighbors();
+
+        int size() {
+            return upstream.vertices.size() + downstream.vertices.size();
+        }
+    }
+
+    private class Neighbors {
+        final List<AtlasVertex> vertices  = new ArrayList<>();
+        final List<String>      relations = new ArrayList<>();
+
+        void add(AtlasVertex vertex, String relation) {
+            vertices.add(vertex);
+            relations.add(relation);
+        }
+
+        // caller should hold the write lock
+        int[] toNodeIds() {
+            if (vertices.isEmpty()) {
+                return NO_IDS;
+            }
+
+            int[] ret = new int[vertices.size()];
+
+            for (int i = 0; i < ret.length; i++) {
+                AtlasVertex vertex = vertices.get(i);
+
+                ret[i] = getOrAddNode(AtlasGraphUtilsV2.getIdFromVertex(vertex), vertex.getId());
+            }
+
+            return ret;
+        }
+
+        String[] getRelations() {
+            return relations.isEmpty() ? NO_RELATIONS : relations.toArray(new String[relations.size()]);
+        }
+    }
+
+    private static class Node {
+        final int      id;
+        final String   guid;
+        final Object   vertexId;
+        boolean        isLoaded            = false;
+        int[]          upstream            = NO_IDS;
+        String[]       upstreamRelations   = NO_RELATIONS;
+        int[]          downstream          = NO_IDS;
+        String[]       downstreamRelations = NO_RELATIONS;
+        int[]          referrers           = NO_IDS; // sorted ids of loaded nodes having this node as a neighbor
+        int            referrerCount       = 0;
+
+        Node(int id, String guid, Object vertexId) {
+            this.id       = id;
+            this.guid     = guid;
+            this.vertexId = vertexId;
+        }
+
+        void addReferrer(int nodeId) {
+            int idx = Arrays.binarySearch(referrers, 0, referrerCount, nodeId);
+
+            if (idx < 0) {
+                idx = -(idx + 1);
+
+                if (referrerCount == referrers.length) {
+                    referrers = Arrays.copyOf(referrers, Math.max(4, referrers.length * 2));
+                }
+
+                System.arraycopy(referrers, idx, referrers, idx + 1, referrerCount - idx);
+
+                referrers[idx] = nodeId;
+
+                referrerCount++;
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[16];
+        private int   size   = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Lineage collected from the cache: vertex-ids of entities in the lineage, by guid, and relations between them.
+     */
+    public static class LineageGraph {
+        private final Map<String, Object>  vertexIds = new HashMap<>();
+        private final Set<LineageRelation> relations = new HashSet<>();
+
+        public Map<String, Object> getVertexIds() {
+            return vertexIds;
+        }
+
+        public Set<LineageRelation> getRelations() {
+            return relations;
+        }
+
+        void addRelation(Node node, Node neighbor, String relationGuid, boolean isUpstream) {
+            vertexIds.put(node.guid, node.vertexId);
+            vertexIds.put(neighbor.guid, neighbor.vertexId);
+
+            if (isUpstream) {
+                relations.add(new LineageRelation(neighbor.guid, node.guid, relationGuid));
+            } else {
+                relations.add(new LineageRelation(node.guid, neighbor.guid, relationGuid));
+            }
+        }
+    }
+}
@@ -69,6 +69,7 @@ public class SearchContext {
     private final Set<String>             classificationTypeAndSubTypes;
     private final String                  typeAndSubTypesQryStr;
     private final String                  classificationTypeAndSubTypesQryStr;
+    private final SearchCursor            cursor;
     private boolean                       terminateSearch = false;
     private SearchProcessor               searchProcessor;
 
@@ -81,6 +82,11 @@ public class SearchContext {
 
 
     public SearchContext(SearchParameters searchParameters, AtlasTypeRegistry typeRegistry, AtlasGraph graph, Set<String> indexedKeys) throws AtlasBaseException {
+        this(searchParameters, typeRegistry, graph, indexedKeys, null);
+    }
+
+    public SearchContext(SearchParameters searchParameters, AtlasTypeRegistry typeRegistry, AtlasGraph graph, Set<String> indexedKeys, SearchCursor cursor) throws AtlasBaseException {
+        this.cursor             = cursor;
         this.searchParameters   = searchParameters;
         this.typeRegistry       = typeRegistry;
         this.graph              = graph;
@@ -218,6 +224,8 @@ public class SearchContext {
 
     public SearchProcessor getSearchProcessor() { return searchProcessor; }
 
+    public SearchCursor getCursor() { return cursor; }
+
     public Set<String> getClassificationNames() {return classificationNames;}
 
     public boolean includeEntityType(String entityType) {
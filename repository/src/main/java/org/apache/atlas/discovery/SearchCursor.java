@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Position of a paged basic search, kept between requests for successive pages.
+ *
+ * A search processor that supports cursors records the offset in the index/graph query results the next page should
+ * start at, along with results that passed all filters but didn't fit in the page. The next page then continues from
+ * this position, instead of reading and filtering results of all earlier pages again. For searches that are not
+ * positioned by the processor, next page is read using offset - same as the offset based search.
+ *
+ * A cursor can be used only by the user who started the search.
+ */
+public class SearchCursor {
+    private final SearchParameters searchParameters;
+    private final String           user;
+    private final List<String>     pendingVertexIds = new ArrayList<>();
+    private int                    queryOffset;
+    private boolean                isPositioned;
+    private boolean                isExhausted;
+    private int                    resultCount;
+    private long                   lastAccessTime;
+    private volatile SearchContext activeSearch;
+
+    public SearchCursor(SearchParameters searchParameters) {
+        // a copy, as the parameters are updated for each page
+        this.searchParameters = AtlasType.fromJson(AtlasType.toJson(searchParameters), SearchParameters.class);
+        this.user             = RequestContext.getCurrentUser();
+        this.lastAccessTime   = System.currentTimeMillis();
+    }
+
+    public SearchParameters getSearchParameters() {
+        searchParameters.setOffset(resultCount);
+
+        return searchParameters;
+    }
+
+    public String getUser() { return user; }
+
+    public boolean isPositioned() { return isPositioned; }
+
+    public boolean isExhausted() { return isExhausted && pendingVertexIds.isEmpty(); }
+
+    public int getQueryOffset() { return queryOffset; }
+
+    public int getResultCount() { return resultCount; }
+
+    public long getLastAccessTime() { return lastAccessTime; }
+
+    public SearchContext getActiveSearch() { return activeSearch; }
+
+    /**
+     * Called by search processor, after reading a page.
+     *
+     * @param queryOffset offset in query results the next page should start at
+     * @param isQueryExhausted true if there are no more query results
+     */
+    public void setPosition(int queryOffset, boolean isQueryExhausted) {
+        this.queryOffset  = queryOffset;
+        this.isExhausted  = isQueryExhausted;
+        this.isPositioned = true;
+    }
+
+    public void setPendingVertices(List<AtlasVertex> vertices) {
+        pendingVertexIds.clear();
+
+        for (AtlasVertex vertex : vertices) {
+            pendingVertexIds.add(vertex.getIdForDisplay());
+        }
+    }
+
+    public List<String> removePendingVertexIds(int count) {
+        List<String> subList = pendingVertexIds.subList(0, Math.min(count, pendingVertexIds.size()));
+        List<String> ret     = new ArrayList<>(subList);
+
+        subList.clear();
+
+        return ret;
+    }
+
+    void onPageStart(SearchContext searchContext) {
+        this.activeSearch   = searchContext;
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+
+    void onPageEnd(int pageResultCount) {
+        this.activeSearch   = null;
+        this.resultCount   += pageResultCount;
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+}
@@ -172,7 +172,10 @@ public abstract class SearchProcessor {
     }
 
     protected int collectResultVertices(final List<AtlasVertex> ret, final int startIdx, final int limit, int resultIdx, final List<AtlasVertex> entityVertices) {
+        int vertexIdx = 0;
+
         for (AtlasVertex entityVertex : entityVertices) {
+            vertexIdx++;
             resultIdx++;
 
             if (resultIdx <= startIdx) {
@@ -186,9 +189,27 @@ public abstract class SearchProcessor {
             }
         }
 
+        // results that don't fit in this page will be the first results of the next page
+        if (context.getCursor() != null) {
+            context.getCursor().setPendingVertices(entityVertices.subList(vertexIdx, entityVertices.size()));
+        }
+
         return resultIdx;
     }
 
+    /**
+     * Adds results left over from the earlier page of the cursor to ret.
+     */
+    protected void collectPendingVertices(final List<AtlasVertex> ret, final int limit) {
+        for (String vertexId : context.getCursor().removePendingVertexIds(limit - ret.size())) {
+            AtlasVertex vertex = context.getGraph().getVertex(vertexId);
+
+            if (vertex != null) { // vertex might have been deleted since the earlier page
+                ret.add(vertex);
+            }
+        }
+    }
+
     public void filter(List<AtlasVertex> entityVertices) {
         if (nextProcessor != null && CollectionUtils.isNotEmpty(entityVertices)) {
             nextProcessor.filter(entityVertices);
@@ -30,6 +30,7 @@ import org.apache.atlas.model.glossary.relations.AtlasTermCategorizationHeader;
 import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.ogm.DataAccess;
+import org.apache.atlas.repository.ogm.glossary.AbstractGlossaryDTO;
 import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityChangeNotifier;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
@@ -62,6 +63,11 @@ public class GlossaryService {
     private static final boolean DEBUG_ENABLED       = LOG.isDebugEnabled();
     private static final String  QUALIFIED_NAME_ATTR = "qualifiedName";
 
+    private static final String GLOSSARY_TERMS_ATTR         = "terms";
+    private static final String GLOSSARY_CATEGORIES_ATTR    = "categories";
+    private static final String CATEGORY_TERMS_ATTR         = "terms";
+    private static final String TERM_ASSIGNED_ENTITIES_ATTR = "assignedEntities";
+
     private final DataAccess                dataAccess;
     private final GlossaryTermUtils         glossaryTermUtils;
     private final GlossaryCategoryUtils     glossaryCategoryUtils;
@@ -703,20 +709,9 @@ public class GlossaryService {
             LOG.debug("==> GlossaryService.getGlossaryTermsHeaders({}, {}, {}, {})", glossaryGuid, offset, limit, sortOrder);
         }
 
-        AtlasGlossary glossary = getGlossary(glossaryGuid);
-
-        List<AtlasRelatedTermHeader> ret;
-        if (CollectionUtils.isNotEmpty(glossary.getTerms())) {
-            List<AtlasRelatedTermHeader> terms = new ArrayList<>(glossary.getTerms());
-            if (sortOrder != null) {
-                terms.sort((o1, o2) -> sortOrder == SortOrder.ASCENDING ?
-                                               o1.getDisplayText().compareTo(o2.getDisplayText()) :
-                                               o2.getDisplayText().compareTo(o1.getDisplayText()));
-            }
-            ret = new PaginationHelper<>(terms, offset, limit).getPaginatedList();
-        } else {
-            ret = Collections.emptyList();
-        }
+        // only the page is read from the graph, instead of loading the glossary with all its terms
+        List<AtlasRelatedObjectId>   terms = dataAccess.loadRelationshipAttribute(getGlossarySkeleton(glossaryGuid), GLOSSARY_TERMS_ATTR, false, sortOrder, offset, limit);
+        List<AtlasRelatedTermHeader> ret   = toRelatedTermHeaders(terms);
 
         if (DEBUG_ENABLED) {
             LOG.debug("<== GlossaryService.getGlossaryTermsHeaders() : {}", ret);
@@ -759,20 +754,16 @@ public class GlossaryService {
             LOG.debug("==> GlossaryService.getGlossaryCategoriesHeaders({}, {}, {}, {})", glossaryGuid, offset, limit, sortOrder);
         }
 
-        List<AtlasRelatedCategoryHeader> ret;
+        // only the page is read from the graph, instead of loading the glossary with all its categories
+        List<AtlasRelatedObjectId>       categories = dataAccess.loadRelationshipAttribute(getGlossarySkeleton(glossaryGuid), GLOSSARY_CATEGORIES_ATTR, false, sortOrder, offset, limit);
+        List<AtlasRelatedCategoryHeader> ret        = new ArrayList<>(categories.size());
 
-        AtlasGlossary glossary = getGlossary(glossaryGuid);
+        for (AtlasRelatedObjectId category : categories) {
+            ret.add(AbstractGlossaryDTO.constructRelatedCategoryId(category));
+        }
 
-        if (CollectionUtils.isNotEmpty(glossary.getCategories())) {
-            List<AtlasRelatedCategoryHeader> categories = new ArrayList<>(glossary.getCategories());
-            if (sortOrder != null) {
-                categories.sort((o1, o2) -> sortOrder == SortOrder.ASCENDING ?
-                                                    o1.getDisplayText().compareTo(o2.getDisplayText()) :
-                                                    o2.getDisplayText().compareTo(o1.getDisplayText()));
-            }
-            ret = new PaginationHelper<>(categories, offset, limit).getPaginatedList();
-        } else {
-            ret = Collections.emptyList();
+        if (CollectionUtils.isNotEmpty(ret)) {
+            setInfoForRelatedCategories(ret);
         }
 
         if (DEBUG_ENABLED) {
@@ -816,21 +807,8 @@ public class GlossaryService {
             LOG.debug("==> GlossaryService.getCategoryTerms({}, {}, {}, {})", categoryGuid, offset, limit, sortOrder);
         }
 
-        List<AtlasRelatedTermHeader> ret;
-
-        AtlasGlossaryCategory glossaryCategory = getCategory(categoryGuid);
-
-        if (CollectionUtils.isNotEmpty(glossaryCategory.getTerms())) {
-            List<AtlasRelatedTermHeader> terms = new ArrayList<>(glossaryCategory.getTerms());
-            if (sortOrder != null) {
-                terms.sort((o1, o2) -> sortOrder == SortOrder.ASCENDING ?
-                                               o1.getDisplayText().compareTo(o2.getDisplayText()) :
-                                               o2.getDisplayText().compareTo(o1.getDisplayText()));
-            }
-            ret = new PaginationHelper<>(terms, offset, limit).getPaginatedList();
-        } else {
-            ret = Collections.emptyList();
-        }
+        List<AtlasRelatedObjectId>   terms = dataAccess.loadRelationshipAttribute(getAtlasGlossaryCategorySkeleton(categoryGuid), CATEGORY_TERMS_ATTR, false, sortOrder, offset, limit);
+        List<AtlasRelatedTermHeader> ret   = toRelatedTermHeaders(terms);
 
         if (DEBUG_ENABLED) {
             LOG.debug("<== GlossaryService.getCategoryTerms() : {}", ret);
@@ -899,20 +877,19 @@ public class GlossaryService {
             throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "termGuid is null/empty");
         }
 
-        AtlasGlossaryTerm         glossaryTerm     = dataAccess.load(getAtlasGlossaryTermSkeleton(termGuid));
-        Set<AtlasRelatedObjectId> assignedEntities = glossaryTerm.getAssignedEntities();
+        // only the page is read from the graph; deleted assignments are skipped, as in AtlasGlossaryTermDTO
+        return dataAccess.loadRelationshipAttribute(getAtlasGlossaryTermSkeleton(termGuid), TERM_ASSIGNED_ENTITIES_ATTR, true, sortOrder, offset, limit);
+    }
+
+    private List<AtlasRelatedTermHeader> toRelatedTermHeaders(List<AtlasRelatedObjectId> terms) {
+        List<AtlasRelatedTermHeader> ret = new ArrayList<>(terms.size());
 
-        List<AtlasRelatedObjectId> ret;
-        if (CollectionUtils.isNotEmpty(assignedEntities)) {
-            ret = new ArrayList<>(assignedEntities);
-            if (sortOrder != null) {
-                ret.sort((o1, o2) -> sortOrder == SortOrder.ASCENDING ?
-                                             o1.getDisplayText().compareTo(o2.getDisplayText()) :
-                                             o2.getDisplayText().compareTo(o1.getDisplayText()));
-            }
-            ret = new PaginationHelper<>(assignedEntities, offset, limit).getPaginatedList();
-        } else {
-            ret = Collections.emptyList();
+        for (AtlasRelatedObjectId term : terms) {
+            AtlasRelatedTermHeader header = AbstractGlossaryDTO.constructRelatedTermId(term);
+
+            header.setDisplayText(term.getDisplayText());
+
+            ret.add(header);
         }
 
         return ret;
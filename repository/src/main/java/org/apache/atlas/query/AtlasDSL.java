@@ -23,6 +23,7 @@ import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
@@ -37,8 +38,10 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class AtlasDSL {
@@ -60,8 +63,7 @@ public class AtlasDSL {
         static AtlasDSLParser.QueryContext parse(String queryStr) throws AtlasBaseException {
             AtlasDSLParser.QueryContext ret;
             try {
-                InputStream    stream           = new ByteArrayInputStream(queryStr.getBytes());
-                AtlasDSLLexer  lexer            = new AtlasDSLLexer(CharStreams.fromStream(stream));
+                AtlasDSLLexer  lexer            = createLexer(queryStr);
                 Validator      validator        = new Validator();
                 TokenStream    inputTokenStream = new CommonTokenStream(lexer);
                 AtlasDSLParser parser           = new AtlasDSLParser(inputTokenStream);
@@ -82,6 +84,114 @@ public class AtlasDSL {
 
             return ret;
         }
+
+        static AtlasDSLLexer createLexer(String queryStr) throws IOException {
+            InputStream stream = new ByteArrayInputStream(queryStr.getBytes());
+
+            return new AtlasDSLLexer(CharStreams.fromStream(stream));
+        }
+    }
+
+    /**
+     * Shape of a DSL query: the query text normalized (whitespace, comments and keyword case ignored) with literals -
+     * quoted strings, numbers and booleans - replaced by a placeholder of their kind. Queries that differ only in literal
+     * values have the same shape, and can use the same query plan with the literals bound as parameters.
+     */
+    public static class QueryShape {
+        private static final String PLACEHOLDER_PREFIX = "?";
+
+        private final String        key;
+        private final List<String>  literals;
+        private final List<Integer> literalTokenIndexes;
+
+        private QueryShape(String key, List<String> literals, List<Integer> literalTokenIndexes) {
+            this.key                 = key;
+            this.literals            = literals;
+            this.literalTokenIndexes = literalTokenIndexes;
+        }
+
+        public static QueryShape of(String queryStr) throws AtlasBaseException {
+            StringBuilder key                 = new StringBuilder(queryStr.length());
+            List<String>  literals            = new ArrayList<>();
+            List<Integer> literalTokenIndexes = new ArrayList<>();
+
+            try {
+                AtlasDSLLexer     lexer  = Parser.createLexer(queryStr);
+                CommonTokenStream tokens = new CommonTokenStream(lexer);
+
+                lexer.removeErrorListeners();
+                tokens.fill();
+
+                // token indexes are assigned by the token stream, same as in Parser.parse()
+                for (Token token : tokens.getTokens()) {
+                    if (token.getType() == Token.EOF || token.getChannel() != Token.DEFAULT_CHANNEL) {
+                        continue;
+                    }
+
+                    if (key.length() > 0) {
+                        key.append(' ');
+                    }
+
+                    String literalKind = getLiteralKind(token);
+
+                    if (literalKind != null) {
+                        key.append(PLACEHOLDER_PREFIX).append(literalKind);
+
+                        literals.add(token.getText());
+                        literalTokenIndexes.add(token.getTokenIndex());
+                    } else if (token.getType() == AtlasDSLLexer.ID) {
+                        key.append(token.getText());
+                    } else {
+                        key.append(StringUtils.lowerCase(token.getText()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new AtlasBaseException(e);
+            }
+
+            return new QueryShape(key.toString(), literals, literalTokenIndexes);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public List<String> getLiterals() {
+            return literals;
+        }
+
+        /**
+         * @return index of the literal having the given token index, -1 if the token is not a literal
+         */
+        public int getLiteralIndex(int tokenIndex) {
+            return literalTokenIndexes.indexOf(tokenIndex);
+        }
+
+        public int getLiteralCount() {
+            return literals.size();
+        }
+
+        private static String getLiteralKind(Token token) {
+            switch (token.getType()) {
+                case AtlasDSLLexer.NUMBER:
+                    return "n";
+
+                case AtlasDSLLexer.FLOATING_NUMBER:
+                    return "f";
+
+                case AtlasDSLLexer.BOOL:
+                    return "b";
+
+                case AtlasDSLLexer.ID: {
+                    // quoted strings are lexed as ID; backtick quoted IDs are identifiers, not literals
+                    char first = token.getText().charAt(0);
+
+                    return (first == '"' || first == '\'') ? "s" : null;
+                }
+            }
+
+            return null;
+        }
     }
 
     static class Validator extends BaseErrorListener {
@@ -134,6 +244,10 @@ public class AtlasDSL {
             return new GremlinQuery(gremlinQuery, queryMetadata.hasSelect());
         }
 
+        AtlasDSLParser.QueryContext getQueryContext() {
+            return queryContext;
+        }
+
         private void processErrorList(GremlinQueryComposer gremlinQueryComposer) throws AtlasBaseException {
             final String errorMessage;
 
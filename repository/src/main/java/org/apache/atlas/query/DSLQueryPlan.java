@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+
+/**
+ * Plan to execute a DSL query: either a DSLTraversalPlan with values of its parameters, or a Gremlin script.
+ */
+public class DSLQueryPlan {
+    private final GremlinQuery     gremlinQuery;
+    private final DSLTraversalPlan traversalPlan;
+    private final Object[]         values;
+    private final int              limit;
+    private final int              offset;
+
+    DSLQueryPlan(GremlinQuery gremlinQuery) {
+        this.gremlinQuery  = gremlinQuery;
+        this.traversalPlan = null;
+        this.values        = null;
+        this.limit         = 0;
+        this.offset        = 0;
+    }
+
+    DSLQueryPlan(DSLTraversalPlan traversalPlan, Object[] values, int limit, int offset) {
+        this.gremlinQuery  = null;
+        this.traversalPlan = traversalPlan;
+        this.values        = values;
+        this.limit         = limit;
+        this.offset        = offset;
+    }
+
+    public boolean isTraversal() {
+        return traversalPlan != null;
+    }
+
+    public boolean hasSelectList() {
+        return traversalPlan != null ? traversalPlan.hasSelectList() : gremlinQuery.hasSelectList();
+    }
+
+    public Object execute(AtlasGraph graph) throws AtlasBaseException {
+        if (traversalPlan != null) {
+            return traversalPlan.execute(graph, values, limit, offset);
+        }
+
+        return graph.executeGremlinScript(gremlinQuery.queryStr(), false);
+    }
+
+    @Override
+    public String toString() {
+        return traversalPlan != null ? traversalPlan.toString() : gremlinQuery.queryStr();
+    }
+}
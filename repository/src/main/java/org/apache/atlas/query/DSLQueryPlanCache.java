@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.apache.atlas.utils.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of DSL query plans, keyed by AtlasDSL.QueryShape - i.e. the normalized query with literals replaced by
+ * placeholders. Saved searches and queries generated by UI repeat with only the literals changing; for such queries
+ * the plan is looked up after only lexing the query, skipping parsing and translation to Gremlin.
+ *
+ * Queries of shapes handled by DSLTraversalCompiler are compiled to a DSLTraversalPlan, which is executed as a graph
+ * traversal with the literals bound to its parameters. Other queries run as Gremlin script; the script generated for
+ * the query, which has the literals in it, is cached by the query.
+ *
+ * Plans depend on type definitions, hence the cache is cleared on every type definition change.
+ */
+@Component
+public class DSLQueryPlanCache implements TypeDefChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLQueryPlanCache.class);
+
+    private static final String CACHE_NAME = "dslQueryPlanCache";
+
+    private final AtlasTypeRegistry         typeRegistry;
+    private final boolean                   isEnabled;
+    private final boolean                   useGremlin;
+    private final int                       maxEntries;
+    private final Map<String, ShapeEntry>   shapeEntries;
+    private final Map<String, GremlinQuery> gremlinQueries;
+    private final AtomicLong                hitCount       = new AtomicLong();
+    private final AtomicLong                missCount      = new AtomicLong();
+    private final AtomicLong                traversalCount = new AtomicLong();
+    private final AtomicLong                gremlinCount   = new AtomicLong();
+    private final AtomicLong                clearCount     = new AtomicLong();
+
+    @Inject
+    public DSLQueryPlanCache(AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil) {
+        this(typeRegistry, metricsUtil, AtlasConfiguration.DSL_QUERY_PLAN_CACHE_ENABLED.getBoolean(),
+             AtlasConfiguration.DSL_QUERY_USE_GREMLIN.getBoolean(), AtlasRepositoryConfiguration.getCompiledQueryCacheCapacity(),
+             AtlasRepositoryConfiguration.getCompiledQueryCacheEvictionWarningThrottle());
+    }
+
+    @VisibleForTesting
+    DSLQueryPlanCache(AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil, boolean isEnabled, boolean useGremlin,
+                      int maxEntries, int evictionWarningThrottle) {
+        this.typeRegistry   = typeRegistry;
+        this.isEnabled      = isEnabled;
+        this.useGremlin     = useGremlin;
+        this.maxEntries     = maxEntries;
+        this.shapeEntries   = new LruCache<>(maxEntries, evictionWarningThrottle);
+        this.gremlinQueries = new LruCache<>(maxEntries, evictionWarningThrottle);
+
+        if (isEnabled && metricsUtil != null) {
+            metricsUtil.registerCacheStats(CACHE_NAME, this::getStats);
+        }
+
+        LOG.info("{}: enabled={}, useGremlin={}, maxEntries={}", CACHE_NAME, isEnabled, useGremlin, maxEntries);
+    }
+
+    /**
+     * @param limit  limit to use, if the query doesn't have limit clause; expected to be normalized by QueryParams
+     * @param offset offset to use, if the query doesn't have limit clause; expected to be normalized by QueryParams
+     */
+    public DSLQueryPlan getQueryPlan(String query, int limit, int offset) throws AtlasBaseException {
+        AtlasDSL.QueryShape queryShape = AtlasDSL.QueryShape.of(query);
+        ShapeEntry          shapeEntry = isEnabled ? get(shapeEntries, queryShape.getKey()) : null;
+        DSLQueryPlan        ret        = null;
+
+        if (shapeEntry != null) {
+            hitCount.incrementAndGet();
+
+            if (shapeEntry.traversalPlan != null) {
+                ret = getTraversalQueryPlan(shapeEntry.traversalPlan, queryShape, limit, offset);
+            }
+
+            if (ret == null) {
+                ret = new DSLQueryPlan(getGremlinQuery(query, queryShape, limit, offset, null));
+            }
+        } else {
+            missCount.incrementAndGet();
+
+            AtlasDSL.Translator translator    = new AtlasDSL.Translator(query, typeRegistry, offset, limit);
+            GremlinQuery        gremlinQuery  = translator.translate();
+            DSLTraversalPlan    traversalPlan = useGremlin ? null : DSLTraversalCompiler.compile(translator.getQueryContext(), queryShape, typeRegistry);
+
+            if (isEnabled) {
+                put(shapeEntries, queryShape.getKey(), new ShapeEntry(traversalPlan));
+            }
+
+            if (traversalPlan != null) {
+                ret = getTraversalQueryPlan(traversalPlan, queryShape, limit, offset);
+            }
+
+            if (ret == null) {
+                ret = new DSLQueryPlan(getGremlinQuery(query, queryShape, limit, offset, gremlinQuery));
+            }
+        }
+
+        if (ret.isTraversal()) {
+            traversalCount.incrementAndGet();
+        } else {
+            gremlinCount.incrementAndGet();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("getQueryPlan(query={}, limit={}, offset={}): plan={}", query, limit, offset, ret);
+        }
+
+        return ret;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> ret  = new LinkedHashMap<>();
+        long                hits = hitCount.get();
+        long                miss = missCount.get();
+
+        synchronized (this) {
+            ret.put("size", shapeEntries.size());
+            ret.put("gremlinQueryCount", gremlinQueries.size());
+        }
+
+        ret.put("maxEntries", maxEntries);
+        ret.put("hitCount", hits);
+        ret.put("missCount", miss);
+        ret.put("hitRatio", (hits + miss) > 0 ? ((double) hits / (hits + miss)) : 0d);
+        ret.put("traversalCount", traversalCount.get());
+        ret.put("gremlinCount", gremlinCount.get());
+        ret.put("clearCount", clearCount.get());
+
+        return ret;
+    }
+
+    public synchronized void clear() {
+        if (!shapeEntries.isEmpty()) {
+            LOG.info("{}: clearing {} entries", CACHE_NAME, shapeEntries.size());
+        }
+
+        shapeEntries.clear();
+        gremlinQueries.clear();
+
+        clearCount.incrementAndGet();
+    }
+
+    @Override
+    public void onChange(ChangedTypeDefs changedTypeDefs) throws AtlasBaseException {
+        clear();
+    }
+
+    @Override
+    public void onLoadCompletion() throws AtlasBaseException {
+        clear();
+    }
+
+    private DSLQueryPlan getTraversalQueryPlan(DSLTraversalPlan traversalPlan, AtlasDSL.QueryShape queryShape, int limit, int offset) {
+        Object[] values = traversalPlan.bind(queryShape.getLiterals());
+
+        return values != null ? new DSLQueryPlan(traversalPlan, values, limit, offset) : null;
+    }
+
+    private GremlinQuery getGremlinQuery(String query, AtlasDSL.QueryShape queryShape, int limit, int offset, GremlinQuery translated) throws AtlasBaseException {
+        String       key = isEnabled ? getGremlinQueryKey(queryShape, limit, offset) : null;
+        GremlinQuery ret = translated;
+
+        if (ret == null && key != null) {
+            ret = get(gremlinQueries, key);
+        }
+
+        if (ret == null) {
+            ret = new AtlasDSL.Translator(query, typeRegistry, offset, limit).translate();
+        }
+
+        if (key != null) {
+            put(gremlinQueries, key, ret);
+        }
+
+        return ret;
+    }
+
+    // Gremlin script has the literals, limit and offset in it
+    private static String getGremlinQueryKey(AtlasDSL.QueryShape queryShape, int limit, int offset) {
+        StringBuilder sb = new StringBuilder(queryShape.getKey());
+
+        sb.append('|').append(limit).append('|').append(offset);
+
+        for (String literal : queryShape.getLiterals()) {
+            sb.append('|').append(literal.length()).append(':').append(literal);
+        }
+
+        return sb.toString();
+    }
+
+    private synchronized <V> V get(Map<String, V> cache, String key) {
+        return cache.get(key);
+    }
+
+    private synchronized <V> void put(Map<String, V> cache, String key, V value) {
+        cache.put(key, value);
+    }
+
+    private static class ShapeEntry {
+        final DSLTraversalPlan traversalPlan; // null if the query shape is not supported by DSLTraversalCompiler
+
+        ShapeEntry(DSLTraversalPlan traversalPlan) {
+            this.traversalPlan = traversalPlan;
+        }
+    }
+}
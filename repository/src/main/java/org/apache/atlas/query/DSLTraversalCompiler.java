@@ -0,0 +1,410 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.apache.atlas.model.TypeCategory;
+import org.apache.atlas.model.discovery.SearchParameters.Operator;
+import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.IndexType;
+import org.apache.atlas.query.DSLTraversalPlan.Comparison;
+import org.apache.atlas.query.DSLTraversalPlan.Conjunction;
+import org.apache.atlas.query.DSLTraversalPlan.Filter;
+import org.apache.atlas.query.DSLTraversalPlan.Parameter;
+import org.apache.atlas.query.antlr4.AtlasDSLLexer;
+import org.apache.atlas.query.antlr4.AtlasDSLParser.*;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles the parse tree of a DSL query to a DSLTraversalPlan, for the commonly used shape of queries:
+ *
+ *   [from] entityType [where comparisons combined with and/or] [select attributes] [orderby attribute] [limit [offset]]
+ *
+ * where attributes are primitive/enum attributes of the entity type, and values compared with are literals. Queries
+ * of other shapes - aliases, referred entities, classifications, is/has clauses, aggregations, groupby - are not
+ * compiled, and run as Gremlin script generated by GremlinQueryComposer.
+ *
+ * The query is expected to have been translated by AtlasDSL.Translator first, which validates the query.
+ */
+public class DSLTraversalCompiler {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLTraversalCompiler.class);
+
+    private static final String AND = "AND";
+    private static final String OR  = "OR";
+
+    private static final Set<String> NUMERIC_TYPES = new HashSet<>(Arrays.asList(AtlasBaseTypeDef.ATLAS_TYPE_SHORT,
+                                                                                 AtlasBaseTypeDef.ATLAS_TYPE_INT,
+                                                                                 AtlasBaseTypeDef.ATLAS_TYPE_LONG,
+                                                                                 AtlasBaseTypeDef.ATLAS_TYPE_FLOAT,
+                                                                                 AtlasBaseTypeDef.ATLAS_TYPE_DOUBLE,
+                                                                                 AtlasBaseTypeDef.ATLAS_TYPE_BIGINTEGER,
+                                                                                 AtlasBaseTypeDef.ATLAS_TYPE_BIGDECIMAL));
+
+    private final AtlasTypeRegistry   typeRegistry;
+    private final AtlasDSL.QueryShape queryShape;
+    private final Parameter[]         parameters;
+    private       AtlasEntityType     entityType;
+
+    private DSLTraversalCompiler(AtlasTypeRegistry typeRegistry, AtlasDSL.QueryShape queryShape) {
+        this.typeRegistry = typeRegistry;
+        this.queryShape   = queryShape;
+        this.parameters   = new Parameter[queryShape.getLiteralCount()];
+    }
+
+    /**
+     * @return compiled plan; null if the query is not of a shape supported by the compiler
+     */
+    public static DSLTraversalPlan compile(QueryContext queryContext, AtlasDSL.QueryShape queryShape, AtlasTypeRegistry typeRegistry) {
+        DSLTraversalPlan ret = new DSLTraversalCompiler(typeRegistry, queryShape).compile(queryContext);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("compile(query={}): plan={}", queryShape.getKey(), ret);
+        }
+
+        return ret;
+    }
+
+    private DSLTraversalPlan compile(QueryContext ctx) {
+        if (ctx.groupByExpression() != null) {
+            return null;
+        }
+
+        FromExpressionContext fromExpression = getFromExpression(ctx.querySrc());
+
+        if (fromExpression == null || fromExpression.fromSrc().identifier() == null) {
+            return null;
+        }
+
+        String typeName = fromExpression.fromSrc().identifier().getText();
+
+        entityType = IdentifierHelper.isQuoted(typeName) ? null : typeRegistry.getEntityTypeByName(typeName);
+
+        if (entityType == null) {
+            return null;
+        }
+
+        Filter filter = null;
+
+        if (fromExpression.whereClause() != null) {
+            filter = compileExpr(fromExpression.whereClause().expr());
+
+            if (filter == null) {
+                return null;
+            }
+        }
+
+        List<String> selectLabels     = null;
+        List<String> selectProperties = null;
+
+        if (ctx.selectClause() != null) {
+            List<SelectExpressionContext> selectExpressions = ctx.selectClause().selectExpr().selectExpression();
+
+            selectLabels     = new ArrayList<>(selectExpressions.size());
+            selectProperties = new ArrayList<>(selectExpressions.size());
+
+            for (SelectExpressionContext selectExpression : selectExpressions) {
+                AtlasAttribute attribute = getAttribute(getIdentifier(selectExpression.expr()));
+
+                if (attribute == null) {
+                    return null;
+                }
+
+                selectLabels.add(selectExpression.identifier() != null ? selectExpression.identifier().getText() : selectExpression.getText());
+                selectProperties.add(attribute.getVertexPropertyName());
+            }
+        }
+
+        String  orderByProperty = null;
+        boolean isOrderByDesc   = false;
+
+        if (ctx.orderByExpr() != null) {
+            // same as DSLVisitor.visitOrderByExpr()
+            AtlasAttribute attribute = getAttribute(ctx.orderByExpr().expr().getText().replace("(", "").replace(")", ""));
+
+            if (attribute == null) {
+                return null;
+            }
+
+            orderByProperty = attribute.getVertexPropertyName();
+            isOrderByDesc   = ctx.orderByExpr().sortOrder() != null && ctx.orderByExpr().sortOrder().getText().equalsIgnoreCase("desc");
+        }
+
+        int limitParamIdx  = -1;
+        int offsetParamIdx = -1;
+
+        if (ctx.limitOffset() != null) {
+            limitParamIdx = addParameter(ctx.limitOffset().limitClause().NUMBER(), new Parameter(Parameter.Kind.COUNT, null));
+
+            if (ctx.limitOffset().offsetClause() != null) {
+                offsetParamIdx = addParameter(ctx.limitOffset().offsetClause().NUMBER(), new Parameter(Parameter.Kind.COUNT, null));
+            }
+        }
+
+        // every literal in the query must be a parameter of the plan, as the plan is used for all queries of the shape
+        for (Parameter parameter : parameters) {
+            if (parameter == null) {
+                return null;
+            }
+        }
+
+        return new DSLTraversalPlan(entityType.getTypeName(), entityType.getTypeAndAllSubTypes(), filter, selectLabels,
+                                    selectProperties, orderByProperty, isOrderByDesc, limitParamIdx, offsetParamIdx, parameters);
+    }
+
+    private FromExpressionContext getFromExpression(QuerySrcContext querySrc) {
+        List<SingleQrySrcContext> singleQrySrcs;
+
+        if (querySrc.commaDelimitedQueries() != null) {
+            singleQrySrcs = querySrc.commaDelimitedQueries().singleQrySrc();
+        } else {
+            singleQrySrcs = querySrc.spaceDelimitedQueries().singleQrySrc();
+        }
+
+        if (singleQrySrcs.size() != 1) {
+            return null;
+        }
+
+        SingleQrySrcContext singleQrySrc = singleQrySrcs.get(0);
+
+        if (singleQrySrc.fromClause() != null) {
+            return singleQrySrc.fromClause().fromExpression();
+        }
+
+        return singleQrySrc.fromExpression();
+    }
+
+    // same grouping of and/or as DSLVisitor.processExpr()
+    private Filter compileExpr(ExprContext expr) {
+        if (CollectionUtils.isEmpty(expr.exprRight())) {
+            return compileCompE(expr.compE());
+        }
+
+        List<Filter> filters = new ArrayList<>();
+        String       prev    = null;
+        Filter       filter  = compileCompE(expr.compE());
+
+        if (filter == null) {
+            return null;
+        }
+
+        filters.add(filter);
+
+        for (ExprRightContext exprRight : expr.exprRight()) {
+            if (exprRight.K_AND() != null) {
+                if (OR.equals(prev)) {
+                    Filter orFilter = new Conjunction(true, filters);
+
+                    filters.clear();
+                    filters.add(orFilter);
+                }
+
+                prev = AND;
+            }
+
+            if (exprRight.K_OR() != null) {
+                if (AND.equals(prev)) {
+                    Filter andFilter = new Conjunction(false, filters);
+
+                    filters.clear();
+                    filters.add(andFilter);
+                }
+
+                prev = OR;
+            }
+
+            filter = compileCompE(exprRight.compE());
+
+            if (filter == null) {
+                return null;
+            }
+
+            filters.add(filter);
+        }
+
+        return new Conjunction(OR.equals(prev), filters);
+    }
+
+    private Filter compileCompE(CompEContext compE) {
+        if (compE == null || compE.comparisonClause() == null && compE.arithE() == null) {
+            return null;
+        }
+
+        if (compE.comparisonClause() != null) {
+            return compileComparison(compE.comparisonClause());
+        }
+
+        AtomEContext atomE = getAtomE(compE.arithE());
+
+        // parenthesized expression
+        return (atomE != null && atomE.expr() != null) ? compileExpr(atomE.expr()) : null;
+    }
+
+    private Filter compileComparison(ComparisonClauseContext comparisonClause) {
+        AtlasAttribute attribute = getAttribute(comparisonClause.arithE(0).getText());
+        AtomEContext   rhs       = getAtomE(comparisonClause.arithE(1));
+
+        if (attribute == null || rhs == null || rhs.expr() != null) {
+            return null;
+        }
+
+        AtlasType attrType      = attribute.getAttributeType();
+        boolean   isStringIndex = attribute.getAttributeDef().getIndexType() == IndexType.STRING;
+        Operator  operator;
+        int[]     paramIdxs;
+
+        if (rhs.literal() != null && rhs.literal().valueArray() != null) {
+            List<TerminalNode> values = rhs.literal().valueArray().ID();
+
+            operator  = Operator.IN;
+            paramIdxs = new int[values.size()];
+
+            for (int i = 0; i < paramIdxs.length; i++) {
+                paramIdxs[i] = addParameter(values.get(i), getParameter(attrType, values.get(i)));
+
+                if (paramIdxs[i] == -1) {
+                    return null;
+                }
+            }
+        } else {
+            // quoted strings are parsed as identifier
+            TerminalNode value = rhs.identifier() != null ? rhs.identifier().ID() : getLiteralNode(rhs.literal());
+
+            operator  = Operator.fromString(comparisonClause.operator().getText().toUpperCase());
+            paramIdxs = new int[] { addParameter(value, getParameter(attrType, value)) };
+
+            if (operator == null || paramIdxs[0] == -1) {
+                return null;
+            }
+
+            if (operator == Operator.LIKE && !isString(attrType)) {
+                return null;
+            }
+        }
+
+        return new Comparison(attribute.getVertexPropertyName(), operator, paramIdxs, isStringIndex);
+    }
+
+    // conversion of the literal to a value, as done by GremlinQueryComposer.addWhere(); null for literals not handled here
+    private Parameter getParameter(AtlasType attrType, TerminalNode value) {
+        if (value == null) {
+            return null;
+        }
+
+        int     tokenType = value.getSymbol().getType();
+        boolean isQuoted  = tokenType == AtlasDSLLexer.ID && IdentifierHelper.isQuoted(value.getText());
+        boolean isNumber  = tokenType == AtlasDSLLexer.NUMBER || tokenType == AtlasDSLLexer.FLOATING_NUMBER;
+        String  typeName  = attrType.getTypeName();
+
+        if (AtlasBaseTypeDef.ATLAS_TYPE_DATE.equals(typeName)) {
+            return isQuoted ? new Parameter(Parameter.Kind.DATE, attrType) : null;
+        } else if (NUMERIC_TYPES.contains(typeName)) {
+            return (isQuoted || isNumber) ? new Parameter(Parameter.Kind.TYPED, attrType) : null;
+        } else if (AtlasBaseTypeDef.ATLAS_TYPE_BOOLEAN.equals(typeName)) {
+            return tokenType == AtlasDSLLexer.BOOL ? new Parameter(Parameter.Kind.TYPED, attrType) : null;
+        } else if (isString(attrType)) {
+            return (isQuoted || isNumber) ? new Parameter(Parameter.Kind.STRING, attrType) : null;
+        }
+
+        return null;
+    }
+
+    // returns index of the parameter; -1 if the node is not a literal or the parameter is null
+    private int addParameter(TerminalNode node, Parameter parameter) {
+        int ret = (node != null && parameter != null) ? queryShape.getLiteralIndex(node.getSymbol().getTokenIndex()) : -1;
+
+        if (ret != -1) {
+            parameters[ret] = parameter;
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return primitive/enum attribute of the entity type, referred as 'attrName' or 'typeName.attrName'; null otherwise
+     */
+    private AtlasAttribute getAttribute(String name) {
+        if (StringUtils.isEmpty(name) || IdentifierHelper.isQuoted(name)) {
+            return null;
+        }
+
+        String[] parts = StringUtils.split(name, ".");
+        String   attrName;
+
+        if (parts.length == 1) {
+            attrName = parts[0];
+        } else if (parts.length == 2 && parts[0].equals(entityType.getTypeName()) && entityType.getAttribute(parts[0]) == null) {
+            attrName = parts[1];
+        } else {
+            return null;
+        }
+
+        AtlasAttribute ret = entityType.getAttribute(attrName);
+
+        if (ret == null) {
+            return null;
+        }
+
+        TypeCategory typeCategory = ret.getAttributeType().getTypeCategory();
+
+        return (typeCategory == TypeCategory.PRIMITIVE || typeCategory == TypeCategory.ENUM) ? ret : null;
+    }
+
+    private static boolean isString(AtlasType attrType) {
+        return attrType.getTypeCategory() == TypeCategory.ENUM || AtlasBaseTypeDef.ATLAS_TYPE_STRING.equals(attrType.getTypeName());
+    }
+
+    private static String getIdentifier(ExprContext expr) {
+        AtomEContext atomE = CollectionUtils.isEmpty(expr.exprRight()) ? getAtomE(expr.compE().arithE()) : null;
+
+        return (atomE != null && atomE.identifier() != null) ? atomE.identifier().getText() : null;
+    }
+
+    // atomE of an arithmetic expression having a single term
+    private static AtomEContext getAtomE(ArithEContext arithE) {
+        if (arithE == null || CollectionUtils.isNotEmpty(arithE.arithERight()) || CollectionUtils.isNotEmpty(arithE.multiE().multiERight())) {
+            return null;
+        }
+
+        return arithE.multiE().atomE();
+    }
+
+    private static TerminalNode getLiteralNode(LiteralContext literal) {
+        if (literal.BOOL() != null) {
+            return literal.BOOL();
+        } else if (literal.NUMBER() != null) {
+            return literal.NUMBER();
+        } else if (literal.FLOATING_NUMBER() != null) {
+            return literal.FLOATING_NUMBER();
+        }
+
+        return literal.ID();
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.model.discovery.SearchParameters.Operator;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphTraversal;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.apache.atlas.repository.Constants.TYPE_NAME_PROPERTY_KEY;
+
+/**
+ * Plan of a DSL query compiled by DSLTraversalCompiler, executed as a graph traversal without going through Gremlin
+ * script. Literals in the query are parameters of the plan, so the same plan is used for queries of the same
+ * AtlasDSL.QueryShape.
+ *
+ * The traversal has the same steps as the Gremlin script generated by GremlinQueryComposer for the query:
+ * type filter, where filters, presence check of selected attributes, order, dedup, range. Results are also in the
+ * same form: list of vertices; or for queries with select, a list of rows with the first row having the labels.
+ */
+public class DSLTraversalPlan {
+    private static final Pattern ALPHA_NUMERIC_PATTERN = Pattern.compile("[a-zA-Z0-9]+");
+
+    private final String       typeName;
+    private final Set<String>  typeAndSubTypes;
+    private final Filter       filter;
+    private final List<String> selectLabels;
+    private final List<String> selectProperties;
+    private final String       orderByProperty;
+    private final boolean      isOrderByDesc;
+    private final int          limitParamIdx;
+    private final int          offsetParamIdx;
+    private final Parameter[]  parameters;
+
+    DSLTraversalPlan(String typeName, Set<String> typeAndSubTypes, Filter filter, List<String> selectLabels,
+                     List<String> selectProperties, String orderByProperty, boolean isOrderByDesc,
+                     int limitParamIdx, int offsetParamIdx, Parameter[] parameters) {
+        this.typeName         = typeName;
+        this.typeAndSubTypes  = typeAndSubTypes;
+        this.filter           = filter;
+        this.selectLabels     = selectLabels;
+        this.selectProperties = selectProperties;
+        this.orderByProperty  = orderByProperty;
+        this.isOrderByDesc    = isOrderByDesc;
+        this.limitParamIdx    = limitParamIdx;
+        this.offsetParamIdx   = offsetParamIdx;
+        this.parameters       = parameters;
+    }
+
+    public boolean hasSelectList() {
+        return selectLabels != null;
+    }
+
+    /**
+     * Converts literals of the query to values of parameters of the plan, as per the type of attribute they are
+     * compared with.
+     *
+     * @return parameter values; null if a literal can't be converted, in which case the query should be run as
+     *         Gremlin script instead, which would either handle the value or report the error
+     */
+    public Object[] bind(List<String> literals) {
+        if (literals.size() != parameters.length) {
+            return null;
+        }
+
+        Object[] ret = new Object[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) {
+            ret[i] = parameters[i].toValue(literals.get(i));
+
+            if (ret[i] == null) {
+                return null;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param values parameter values returned by bind()
+     * @param limit  limit to use, if the query doesn't have limit clause
+     * @param offset offset to use, if the query doesn't have limit clause
+     */
+    public List execute(AtlasGraph graph, Object[] values, int limit, int offset) {
+        AtlasGraphTraversal traversal = graph.V();
+
+        if (typeAndSubTypes.size() == 1) {
+            traversal.has(TYPE_NAME_PROPERTY_KEY, typeName);
+        } else {
+            traversal.has(TYPE_NAME_PROPERTY_KEY, P.within(typeAndSubTypes));
+        }
+
+        if (filter != null) {
+            filter.apply(traversal, values);
+        }
+
+        if (selectProperties != null) {
+            for (String property : selectProperties) {
+                traversal.has(property);
+            }
+        }
+
+        if (orderByProperty != null) {
+            traversal.order().by(orderByProperty, isOrderByDesc ? Order.desc : Order.asc);
+        }
+
+        if (limitParamIdx != -1) {
+            limit  = ((Number) values[limitParamIdx]).intValue();
+            offset = offsetParamIdx != -1 ? ((Number) values[offsetParamIdx]).intValue() : 0;
+        }
+
+        traversal.dedup();
+        traversal.range(offset, limit < 0 ? -1 : (long) offset + limit);
+
+        List<AtlasVertex> vertices = traversal.getAtlasVertexList();
+
+        return hasSelectList() ? toSelectResult(vertices) : vertices;
+    }
+
+    @Override
+    public String toString() {
+        return "DSLTraversalPlan{typeName=" + typeName + ", filter=" + filter + ", selectProperties=" + selectProperties +
+               ", orderByProperty=" + orderByProperty + ", isOrderByDesc=" + isOrderByDesc + "}";
+    }
+
+    // same as the result of GremlinClause.SELECT_FN: labels followed by unique rows of attribute values
+    private List toSelectResult(List<AtlasVertex> vertices) {
+        Set<List<Object>> rows = new LinkedHashSet<>();
+
+        rows.add(new ArrayList<>(selectLabels));
+
+        for (AtlasVertex vertex : vertices) {
+            List<Object> row = new ArrayList<>(selectProperties.size());
+
+            for (String property : selectProperties) {
+                row.add(vertex.getProperty(property, Object.class));
+            }
+
+            rows.add(row);
+        }
+
+        return new ArrayList<>(rows);
+    }
+
+    /**
+     * Conversion of a literal to the value of a parameter
+     */
+    static class Parameter {
+        enum Kind { STRING, DATE, TYPED, COUNT }
+
+        private final Kind      kind;
+        private final AtlasType type;
+
+        Parameter(Kind kind, AtlasType type) {
+            this.kind = kind;
+            this.type = type;
+        }
+
+        Object toValue(String literal) {
+            String value = IdentifierHelper.isQuoted(literal) ? literal.substring(1, literal.length() - 1) : literal;
+
+            switch (kind) {
+                case STRING:
+                    return value;
+
+                case DATE:
+                    return GremlinQueryComposer.parseDateValue(value);
+
+                case TYPED:
+                    return type.getNormalizedValue(value);
+
+                case COUNT:
+                    try {
+                        return Integer.valueOf(value);
+                    } catch (NumberFormatException excp) {
+                        return null;
+                    }
+            }
+
+            return null;
+        }
+    }
+
+    abstract static class Filter {
+        abstract void apply(AtlasGraphTraversal traversal, Object[] values);
+    }
+
+    static class Comparison extends Filter {
+        private final String   property;
+        private final Operator operator;
+        private final int[]    paramIdxs;
+        private final boolean  isStringIndex;
+
+        Comparison(String property, Operator operator, int[] paramIdxs, boolean isStringIndex) {
+            this.property      = property;
+            this.operator      = operator;
+            this.paramIdxs     = paramIdxs;
+            this.isStringIndex = isStringIndex;
+        }
+
+        @Override
+        void apply(AtlasGraphTraversal traversal, Object[] values) {
+            Object value = values[paramIdxs[0]];
+
+            switch (operator) {
+                case LT:
+                    traversal.has(property, P.lt(value));
+                    break;
+
+                case GT:
+                    traversal.has(property, P.gt(value));
+                    break;
+
+                case LTE:
+                    traversal.has(property, P.lte(value));
+                    break;
+
+                case GTE:
+                    traversal.has(property, P.gte(value));
+                    break;
+
+                case EQ:
+                    traversal.has(property, P.eq(value));
+                    break;
+
+                case NEQ:
+                    traversal.has(property, P.neq(value));
+                    break;
+
+                case IN: {
+                    List<Object> inValues = new ArrayList<>(paramIdxs.length);
+
+                    for (int paramIdx : paramIdxs) {
+                        inValues.add(values[paramIdx]);
+                    }
+
+                    traversal.has(property, P.within(inValues));
+                }
+                break;
+
+                case LIKE: {
+                    // same choice of text predicate as GremlinQueryComposer.addWhere()
+                    String                            str           = (String) value;
+                    boolean                           useRegex      = isStringIndex || !ALPHA_NUMERIC_PATTERN.matcher(IdentifierHelper.removeWildcards(str)).matches();
+                    AtlasGraphTraversal.TextPredicate textPredicate = traversal.textPredicate();
+
+                    traversal.has(property, new P(useRegex ? textPredicate.regex() : textPredicate.containsRegex(), IdentifierHelper.getFixedRegEx(str)));
+                }
+                break;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return property + " " + operator.getSymbol() + " " + Arrays.toString(paramIdxs);
+        }
+    }
+
+    static class Conjunction extends Filter {
+        private final boolean      isOr;
+        private final List<Filter> filters;
+
+        Conjunction(boolean isOr, List<Filter> filters) {
+            this.isOr    = isOr;
+            this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+        }
+
+        @Override
+        void apply(AtlasGraphTraversal traversal, Object[] values) {
+            Traversal[] traversals = new Traversal[filters.size()];
+
+            for (int i = 0; i < traversals.length; i++) {
+                AtlasGraphTraversal nested = traversal.startAnonymousTraversal();
+
+                filters.get(i).apply(nested, values);
+
+                traversals[i] = nested;
+            }
+
+            if (isOr) {
+                traversal.or(traversals);
+            } else {
+                traversal.and(traversals);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return (isOr ? "or" : "and") + filters;
+        }
+    }
+}
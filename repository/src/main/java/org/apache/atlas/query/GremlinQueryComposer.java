@@ -352,7 +352,20 @@ public class GremlinQueryComposer {
     }
 
     public long getDateFormat(String s) {
+        Long ret = parseDateValue(s);
 
+        if (ret != null) {
+            return ret;
+        }
+
+        context.validator.check(false, AtlasErrorCode.INVALID_DSL_INVALID_DATE, s);
+        return -1;
+    }
+
+    /**
+     * @return time in milliseconds of the given date, in one of the formats supported in DSL; null if the date is invalid
+     */
+    static Long parseDateValue(String s) {
         for (DateFormat dateFormat : DSL_DATE_FORMAT.get()) {
             try {
                 return dateFormat.parse(s).getTime();
@@ -360,8 +373,7 @@ public class GremlinQueryComposer {
             }
         }
 
-        context.validator.check(false, AtlasErrorCode.INVALID_DSL_INVALID_DATE, s);
-        return -1;
+        return null;
     }
 
     public boolean hasFromClause() {
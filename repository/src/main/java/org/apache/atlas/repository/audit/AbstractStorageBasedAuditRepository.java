@@ -35,6 +35,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * This abstract base class should be used when adding support for an audit storage backend.
@@ -99,6 +100,15 @@ public abstract class AbstractStorageBasedAuditRepository implements Service, En
     return ret;
   }
 
+  /**
+   * Rewrites audit events stored without encoding in the format of {@link EntityAuditDeltaCodec}.
+   *
+   * @param startKey key to start from, to resume an interrupted run; null to start from the beginning
+   * @param progress called with the key of the last event processed, after every batch written
+   * @return number of events rewritten
+   */
+  public abstract long encodeStoredEvents(String startKey, int batchSize, int snapshotInterval, Consumer<String> progress) throws AtlasBaseException;
+
   @Override
   public long repositoryMaxSize() {
     long ret;
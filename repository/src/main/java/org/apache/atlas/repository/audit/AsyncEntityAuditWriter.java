@@ -0,0 +1,561 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes entity audit events to the audit repository in the background, so that a slow audit repository doesn't stall
+ * entity mutations. Events are first appended to a local write-ahead log, which is replayed on start, so that events
+ * not yet written to the repository are not lost on a restart. Events are written to the repository in order, at
+ * least once.
+ * <p>
+ * When async audit is disabled (the default), or before this service is started, events are written to the audit
+ * repository synchronously.
+ */
+@Component
+@Order(1)
+public class AsyncEntityAuditWriter implements Service {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEntityAuditWriter.class);
+
+    private static final String WAL_FILE_PREFIX        = "audit-wal-";
+    private static final String WAL_FILE_SUFFIX        = ".log";
+    private static final String DEFAULT_WAL_DIR_NAME   = "audit-wal";
+    private static final long   INITIAL_RETRY_INTERVAL = 1000;
+    private static final long   STOP_WAIT_TIME_MS      = 30 * 1000;
+
+    private static final TypeReference<List<EntityAuditEventV2>> TYPE_EVENT_LIST = new TypeReference<List<EntityAuditEventV2>>() {};
+
+    private final EntityAuditRepository        auditRepository;
+    private final AtlasMetricsUtil             metricsUtil;
+    private final boolean                      isEnabled;
+    private final File                         walDir;
+    private final boolean                      isFsyncEnabled;
+    private final long                         maxSegmentBytes;
+    private final int                          batchSize;
+    private final long                         maxRetryInterval;
+    private final BlockingQueue<PendingEvents> queue;
+    private final Object                       walLock          = new Object();
+    private final AtomicLong                   queuedEventCount = new AtomicLong();
+    private final AtomicLong                   writtenCount     = new AtomicLong();
+    private final AtomicLong                   replayedCount    = new AtomicLong();
+    private final AtomicLong                   failureCount     = new AtomicLong();
+    private final AtomicLong                   batchCount       = new AtomicLong();
+    private final AtomicLong                   batchTimeTotal   = new AtomicLong();
+    private volatile long                      lastBatchTime    = 0;
+    private volatile long                      maxBatchTime     = 0;
+    private volatile long                      nextSegmentSeq   = 0;
+    private volatile Segment                   activeSegment;
+    private volatile Thread                    writerThread;
+    private volatile boolean                   isStopped        = true;
+
+    @Inject
+    public AsyncEntityAuditWriter(EntityAuditRepository auditRepository, AtlasMetricsUtil metricsUtil) {
+        this(auditRepository, metricsUtil, AtlasConfiguration.ENTITY_AUDIT_ASYNC_ENABLED.getBoolean(), getWalDir(AtlasConfiguration.ENTITY_AUDIT_ASYNC_WAL_DIR.getString()),
+             AtlasConfiguration.ENTITY_AUDIT_ASYNC_WAL_FSYNC.getBoolean(), AtlasConfiguration.ENTITY_AUDIT_ASYNC_WAL_SEGMENT_MAX_BYTES.getLong(),
+             AtlasConfiguration.ENTITY_AUDIT_ASYNC_QUEUE_SIZE.getInt(), AtlasConfiguration.ENTITY_AUDIT_ASYNC_BATCH_SIZE.getInt(),
+             AtlasConfiguration.ENTITY_AUDIT_ASYNC_RETRY_MAX_INTERVAL_MS.getLong());
+    }
+
+    @VisibleForTesting
+    AsyncEntityAuditWriter(EntityAuditRepository auditRepository, AtlasMetricsUtil metricsUtil, boolean isEnabled, File walDir, boolean isFsyncEnabled,
+                           long maxSegmentBytes, int queueSize, int batchSize, long maxRetryInterval) {
+        this.auditRepository  = auditRepository;
+        this.metricsUtil      = metricsUtil;
+        this.isEnabled        = isEnabled;
+        this.walDir           = walDir;
+        this.isFsyncEnabled   = isFsyncEnabled;
+        this.maxSegmentBytes  = maxSegmentBytes;
+        this.batchSize        = batchSize;
+        this.maxRetryInterval = maxRetryInterval;
+        this.queue            = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            LOG.info("AsyncEntityAuditWriter: async audit is disabled; audit events will be written synchronously");
+
+            return;
+        }
+
+        LOG.info("==> AsyncEntityAuditWriter.start(walDir={})", walDir);
+
+        if (!walDir.exists() && !walDir.mkdirs()) {
+            throw new AtlasException("failed to create audit write-ahead log directory " + walDir);
+        }
+
+        List<File> segmentsToReplay = getSegmentFiles();
+
+        for (File file : segmentsToReplay) {
+            nextSegmentSeq = Math.max(nextSegmentSeq, getSegmentSeq(file) + 1);
+        }
+
+        try {
+            activeSegment = new Segment(nextSegmentSeq++);
+        } catch (IOException excp) {
+            throw new AtlasException(excp);
+        }
+
+        isStopped    = false;
+        writerThread = new Thread(() -> run(segmentsToReplay), "atlas-audit-writer");
+
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        if (metricsUtil != null) {
+            metricsUtil.registerAuditWriterStats(this::getStats);
+        }
+
+        LOG.info("<== AsyncEntityAuditWriter.start(): {} write-ahead log segments to replay", segmentsToReplay.size());
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        Thread thread = writerThread;
+
+        if (thread == null) {
+            return;
+        }
+
+        LOG.info("==> AsyncEntityAuditWriter.stop(): {} audit events pending", queuedEventCount.get());
+
+        isStopped = true;
+
+        try {
+            thread.join(STOP_WAIT_TIME_MS);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (thread.isAlive()) {
+            thread.interrupt();
+        }
+
+        synchronized (walLock) {
+            activeSegment.close();
+        }
+
+        writerThread = null;
+
+        // events not written to the repository remain in the write-ahead log, and will be replayed on next start
+        LOG.info("<== AsyncEntityAuditWriter.stop(): {} audit events pending", queuedEventCount.get());
+    }
+
+    public boolean isAsync() {
+        return !isStopped;
+    }
+
+    /**
+     * Writes the events to the audit repository - synchronously, or in the background after appending them to the
+     * write-ahead log when async audit is enabled.
+     */
+    public void putEvents(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(events)) {
+            return;
+        }
+
+        if (isStopped) {
+            auditRepository.putEventsV2(events);
+
+            return;
+        }
+
+        byte[]  record = (AtlasJson.toJson(events) + "\n").getBytes(StandardCharsets.UTF_8);
+        Segment segment;
+        long    position;
+
+        try {
+            synchronized (walLock) {
+                if (activeSegment.size >= maxSegmentBytes) {
+                    rollSegment();
+                }
+
+                segment  = activeSegment;
+                position = segment.append(record);
+
+                // queued while holding walLock, so that events are written to the repository in the order of the log
+                enqueue(new PendingEvents(segment, events));
+            }
+
+            if (isFsyncEnabled) {
+                segment.sync(position);
+            }
+        } catch (IOException excp) {
+            LOG.error("AsyncEntityAuditWriter: failed to write to audit write-ahead log; writing {} events synchronously", events.size(), excp);
+
+            synchronized (walLock) { // start a new segment, so that a partially written record isn't followed by others
+                try {
+                    if (!isStopped) {
+                        rollSegment();
+                    }
+                } catch (IOException rollExcp) {
+                    LOG.warn("AsyncEntityAuditWriter: failed to roll audit write-ahead log", rollExcp);
+                }
+            }
+
+            auditRepository.putEventsV2(events);
+
+            return;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> ret   = new HashMap<>();
+        PendingEvents       head  = queue.peek();
+        long                count = batchCount.get();
+
+        ret.put("queueDepth", queuedEventCount.get());
+        ret.put("drainLagMs", head != null ? System.currentTimeMillis() - head.queueTime : 0);
+        ret.put("writtenCount", writtenCount.get());
+        ret.put("replayedCount", replayedCount.get());
+        ret.put("failureCount", failureCount.get());
+        ret.put("batchCount", count);
+        ret.put("batchLatencyLastMs", lastBatchTime);
+        ret.put("batchLatencyAvgMs", count > 0 ? batchTimeTotal.get() / count : 0);
+        ret.put("batchLatencyMaxMs", maxBatchTime);
+
+        return ret;
+    }
+
+    private void run(List<File> segmentsToReplay) {
+        LOG.info("AsyncEntityAuditWriter: writer started");
+
+        for (File file : segmentsToReplay) {
+            if (isStopped || !replay(file)) {
+                break;
+            }
+        }
+
+        List<PendingEvents>      pending = new ArrayList<>();
+        List<EntityAuditEventV2> batch   = new ArrayList<>();
+
+        while (!isStopped || !queue.isEmpty()) {
+            try {
+                PendingEvents first = queue.poll(1, TimeUnit.SECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                pending.add(first);
+                batch.addAll(first.events);
+
+                while (batch.size() < batchSize) {
+                    PendingEvents next = queue.poll();
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    pending.add(next);
+                    batch.addAll(next.events);
+                }
+
+                if (!write(batch)) { // stopped before the events could be written
+                    break;
+                }
+
+                queuedEventCount.addAndGet(-batch.size());
+
+                for (PendingEvents events : pending) {
+                    events.segment.onWritten(1);
+                }
+            } catch (InterruptedException excp) {
+                break;
+            } finally {
+                pending.clear();
+                batch.clear();
+            }
+        }
+
+        LOG.info("AsyncEntityAuditWriter: writer stopped");
+    }
+
+    // writes events in the given segment file from an earlier run, and deletes the file
+    private boolean replay(File file) {
+        LOG.info("AsyncEntityAuditWriter: replaying audit write-ahead log {}", file);
+
+        List<EntityAuditEventV2> batch = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                List<EntityAuditEventV2> events = StringUtils.isBlank(line) ? null : AtlasJson.fromJson(line, TYPE_EVENT_LIST);
+
+                if (events == null) { // possibly an incomplete record, written when the server stopped
+                    LOG.warn("AsyncEntityAuditWriter: ignoring invalid record in audit write-ahead log {}", file);
+
+                    continue;
+                }
+
+                batch.addAll(events);
+
+                if (batch.size() >= batchSize) {
+                    if (!write(batch)) {
+                        return false;
+                    }
+
+                    replayedCount.addAndGet(batch.size());
+                    batch.clear();
+                }
+            }
+        } catch (IOException excp) {
+            LOG.error("AsyncEntityAuditWriter: failed to read audit write-ahead log {}", file, excp);
+
+            return true; // retained for next start; continue with new events
+        }
+
+        if (!batch.isEmpty()) {
+            if (!write(batch)) {
+                return false;
+            }
+
+            replayedCount.addAndGet(batch.size());
+        }
+
+        if (!file.delete()) {
+            LOG.warn("AsyncEntityAuditWriter: failed to delete audit write-ahead log {}", file);
+        }
+
+        return true;
+    }
+
+    // writes the events to the repository, retrying with backoff until written or stopped
+    private boolean write(List<EntityAuditEventV2> events) {
+        long retryInterval = INITIAL_RETRY_INTERVAL;
+
+        while (true) {
+            long startTime = System.currentTimeMillis();
+
+            try {
+                auditRepository.putEventsV2(events);
+
+                long timeTaken = System.currentTimeMillis() - startTime;
+
+                writtenCount.addAndGet(events.size());
+                batchCount.incrementAndGet();
+                batchTimeTotal.addAndGet(timeTaken);
+
+                lastBatchTime = timeTaken;
+                maxBatchTime  = Math.max(maxBatchTime, timeTaken);
+
+                return true;
+            } catch (Exception excp) {
+                failureCount.incrementAndGet();
+
+                LOG.error("AsyncEntityAuditWriter: failed to write {} audit events; will retry in {} ms", events.size(), retryInterval, excp);
+            }
+
+            if (isStopped) {
+                return false;
+            }
+
+            try {
+                Thread.sleep(retryInterval);
+            } catch (InterruptedException excp) {
+                return false;
+            }
+
+            retryInterval = Math.min(retryInterval * 2, maxRetryInterval);
+        }
+    }
+
+    // called with walLock held. Blocks while the writer is far behind, to bound memory use; gives up once stopped, as
+    // the writer might not drain the queue any more - the events are in the write-ahead log, and are written on next start
+    private void enqueue(PendingEvents pendingEvents) {
+        queuedEventCount.addAndGet(pendingEvents.events.size());
+
+        try {
+            while (!queue.offer(pendingEvents, 1, TimeUnit.SECONDS)) {
+                if (isStopped) {
+                    queuedEventCount.addAndGet(-pendingEvents.events.size());
+
+                    LOG.warn("AsyncEntityAuditWriter: stopped while queueing {} events; they will be written on next start", pendingEvents.events.size());
+
+                    return;
+                }
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            queuedEventCount.addAndGet(-pendingEvents.events.size());
+
+            LOG.warn("AsyncEntityAuditWriter: interrupted while queueing {} events; they will be written on next start", pendingEvents.events.size());
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        Segment segment = activeSegment;
+
+        activeSegment = new Segment(nextSegmentSeq++);
+
+        segment.close();
+    }
+
+    private List<File> getSegmentFiles() {
+        File[]     files = walDir.listFiles((dir, name) -> name.startsWith(WAL_FILE_PREFIX) && name.endsWith(WAL_FILE_SUFFIX));
+        List<File> ret   = files != null ? new ArrayList<>(Arrays.asList(files)) : new ArrayList<>();
+
+        ret.sort((f1, f2) -> Long.compare(getSegmentSeq(f1), getSegmentSeq(f2)));
+
+        return ret;
+    }
+
+    private static long getSegmentSeq(File file) {
+        String name = file.getName();
+
+        try {
+            return Long.parseLong(name.substring(WAL_FILE_PREFIX.length(), name.length() - WAL_FILE_SUFFIX.length()));
+        } catch (NumberFormatException excp) {
+            return -1;
+        }
+    }
+
+    private static File getWalDir(String configuredDir) {
+        if (StringUtils.isNotEmpty(configuredDir)) {
+            return new File(configuredDir);
+        }
+
+        String atlasHome = System.getProperty("atlas.home");
+
+        return StringUtils.isNotEmpty(atlasHome) ? new File(new File(atlasHome, "data"), DEFAULT_WAL_DIR_NAME) : new File(System.getProperty("java.io.tmpdir"), DEFAULT_WAL_DIR_NAME);
+    }
+
+    private static class PendingEvents {
+        final Segment                  segment;
+        final List<EntityAuditEventV2> events;
+        final long                     queueTime = System.currentTimeMillis();
+
+        PendingEvents(Segment segment, List<EntityAuditEventV2> events) {
+            this.segment = segment;
+            this.events  = events;
+        }
+    }
+
+    /**
+     * A file of the write-ahead log; each line has a list of events appended together. The file is deleted once it is
+     * rolled over and all its records are written to the repository.
+     */
+    private class Segment {
+        final File        file;
+        final FileChannel channel;
+        volatile long     size         = 0;
+        long              syncedSize   = 0;
+        int               recordCount  = 0;
+        int               writtenCount = 0;
+        boolean           isClosed     = false;
+
+        Segment(long seq) throws IOException {
+            this.file    = new File(walDir, WAL_FILE_PREFIX + seq + WAL_FILE_SUFFIX);
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        // called with walLock held
+        long append(byte[] record) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            size += record.length;
+
+            synchronized (this) {
+                recordCount++;
+            }
+
+            return size;
+        }
+
+        // fsyncs are shared by concurrent appenders: a single force() covers all records appended before it
+        synchronized void sync(long position) throws IOException {
+            if (syncedSize < position && !isClosed) {
+                long syncSize = size; // records appended until now are covered by this force()
+
+                channel.force(false);
+
+                syncedSize = syncSize;
+            }
+        }
+
+        synchronized void onWritten(int count) {
+            writtenCount += count;
+
+            deleteIfDone();
+        }
+
+        synchronized void close() {
+            if (!isClosed) {
+                try {
+                    if (isFsyncEnabled) {
+                        channel.force(false);
+                    }
+
+                    channel.close();
+                } catch (IOException excp) {
+                    LOG.warn("AsyncEntityAuditWriter: failed to close audit write-ahead log {}", file, excp);
+                }
+
+                isClosed = true;
+
+                deleteIfDone();
+            }
+        }
+
+        private void deleteIfDone() {
+            if (isClosed && writtenCount == recordCount) {
+                if (!file.delete()) {
+                    LOG.warn("AsyncEntityAuditWriter: failed to delete audit write-ahead log {}", file);
+                }
+            }
+        }
+    }
+}
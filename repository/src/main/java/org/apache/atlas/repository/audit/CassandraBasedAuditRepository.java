@@ -24,6 +24,8 @@ import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
@@ -41,6 +43,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.inject.Singleton;
 
@@ -90,6 +93,10 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
   private static final String INSERT_STATEMENT_TEMPLATE = "INSERT INTO audit (entityid,created,action,user,detail,entity) VALUES (?,?,?,?,?,?)";
   private static final String SELECT_STATEMENT_TEMPLATE = "select * from audit where entityid=? order by created desc limit 10;";
   private static final String SELECT_DATE_STATEMENT_TEMPLATE = "select * from audit where entityid=? and created<=? order by created desc limit 10;";
+  private static final String SELECT_ENTITY_STATEMENT_TEMPLATE = "select entity from audit where entityid=? and created=?;";
+  private static final String SELECT_ALL_STATEMENT = "select entityid, created, detail, entity from audit;";
+  private static final String SELECT_ALL_FROM_STATEMENT = "select entityid, created, detail, entity from audit where token(entityid) >= token(?);";
+  private static final String UPDATE_ENCODED_STATEMENT_TEMPLATE = "UPDATE audit SET detail=?, entity=? WHERE entityid=? AND created=?";
 
 
   private String keyspace;
@@ -102,6 +109,9 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
   private PreparedStatement insertStatement;
   private PreparedStatement selectStatement;
   private PreparedStatement selectDateStatement;
+  private PreparedStatement selectEntityStatement;
+  private PreparedStatement updateEncodedStatement;
+  private EntityAuditDeltaCodec deltaCodec;
 
   @Override
   public void putEventsV1(List<EntityAuditEvent> events) throws AtlasException {
@@ -115,12 +125,86 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
 
   @Override
   public void putEventsV2(List<EntityAuditEventV2> events) throws AtlasBaseException {
-    BoundStatement stmt = new BoundStatement(insertStatement);
+    if (deltaCodec == null) {
+      BoundStatement stmt = new BoundStatement(insertStatement);
+      BatchStatement batch = new BatchStatement();
+      events.forEach(event -> batch.add(stmt.bind(event.getEntityId(), event.getTimestamp(),
+          event.getAction().toString(), event.getUser(), event.getDetails(),
+          (persistEntityDefinition ? event.getEntityDefinitionString() : null))));
+      cassSession.execute(batch);
+    } else {
+      EntityAuditDeltaCodec.Encoder encoder = deltaCodec.newEncoder();
+      BatchStatement batch = new BatchStatement();
+
+      for (EntityAuditEventV2 event : events) {
+        String detail = EntityAuditDeltaCodec.toStorageText(EntityAuditDeltaCodec.encodeText(event.getDetails()));
+        String entity = persistEntityDefinition ? EntityAuditDeltaCodec.toStorageText(encoder.encodeDefinition(getEventKey(event.getEntityId(), event.getTimestamp()), event.getEntity())) : null;
+
+        batch.add(insertStatement.bind(event.getEntityId(), event.getTimestamp(), event.getAction().toString(), event.getUser(), detail, entity));
+      }
+
+      cassSession.execute(batch);
+
+      encoder.commit();
+    }
+  }
+
+  @Override
+  public long encodeStoredEvents(String startKey, int batchSize, int snapshotInterval, Consumer<String> progress) throws AtlasBaseException {
+    EntityAuditDeltaCodec.Encoder encoder = new EntityAuditDeltaCodec(snapshotInterval, batchSize).newEncoder();
+    Statement select = StringUtils.isEmpty(startKey) ? new SimpleStatement(SELECT_ALL_STATEMENT) : new SimpleStatement(SELECT_ALL_FROM_STATEMENT, startKey);
     BatchStatement batch = new BatchStatement();
-    events.forEach(event -> batch.add(stmt.bind(event.getEntityId(), event.getTimestamp(),
-        event.getAction().toString(), event.getUser(), event.getDetails(),
-        (persistEntityDefinition ? event.getEntityDefinitionString() : null))));
-    cassSession.execute(batch);
+    String lastEntityId = null;
+    long ret = 0;
+
+    for (Row row : cassSession.execute(select.setFetchSize(batchSize))) {
+      String entityId = row.getString(ENTITYID);
+      long created = row.getLong(CREATED);
+      byte[] detail = EntityAuditDeltaCodec.fromStorageText(row.getString(DETAIL));
+      byte[] entity = EntityAuditDeltaCodec.fromStorageText(row.getString(ENTITY));
+      boolean isDetailEncodable = detail != null && !EntityAuditDeltaCodec.isEncoded(detail);
+      boolean isEntityEncodable = entity != null && !EntityAuditDeltaCodec.isEncoded(entity);
+
+      if (isDetailEncodable || isEntityEncodable) {
+        if (isDetailEncodable) {
+          detail = EntityAuditDeltaCodec.encodeText(row.getString(DETAIL));
+        }
+
+        if (isEntityEncodable) {
+          entity = encoder.encodeDefinition(getEventKey(entityId, created), row.getString(ENTITY));
+        }
+
+        batch.add(updateEncodedStatement.bind(EntityAuditDeltaCodec.toStorageText(detail), EntityAuditDeltaCodec.toStorageText(entity), entityId, created));
+      }
+
+      lastEntityId = entityId;
+
+      if (batch.size() >= batchSize) {
+        ret += writeEncodedEvents(batch, encoder, lastEntityId, progress);
+      }
+    }
+
+    ret += writeEncodedEvents(batch, encoder, lastEntityId, progress);
+
+    return ret;
+  }
+
+  private int writeEncodedEvents(BatchStatement batch, EntityAuditDeltaCodec.Encoder encoder, String lastEntityId, Consumer<String> progress) {
+    int ret = batch.size();
+
+    if (ret > 0) {
+      cassSession.execute(batch);
+      encoder.commit();
+      batch.clear();
+
+      progress.accept(lastEntityId);
+    }
+
+    return ret;
+  }
+
+  private static String getEventKey(String entityId, long timestamp) {
+    return entityId + FIELD_SEPARATOR + timestamp;
   }
 
   private BoundStatement getSelectStatement(String entityId, String startKey) {
@@ -149,12 +233,12 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
       EntityAuditEvent event = new EntityAuditEvent();
       event.setEntityId(rowEntityId);
       event.setAction(EntityAuditEvent.EntityAuditAction.fromString(row.getString(ACTION)));
-      event.setDetails(row.getString(DETAIL));
+      event.setDetails(EntityAuditDeltaCodec.decodeText(EntityAuditDeltaCodec.fromStorageText(row.getString(DETAIL))));
       event.setUser(row.getString(USER));
       event.setTimestamp(row.getLong(CREATED));
       event.setEventKey(rowEntityId + ":" + event.getTimestamp());
       if (persistEntityDefinition) {
-        event.setEntityDefinition(row.getString(ENTITY));
+        event.setEntityDefinition(EntityAuditDeltaCodec.decodeText(EntityAuditDeltaCodec.fromStorageText(row.getString(ENTITY))));
       }
       entityResults.add(event);
     }
@@ -168,27 +252,76 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
     }
 
     ResultSet rs = cassSession.execute(getSelectStatement(entityId, startKey));
-    List<EntityAuditEventV2> entityResults = new ArrayList<>();
+    List<Row> rows = new ArrayList<>();
     for (Row row : rs) {
-      String rowEntityId = row.getString(ENTITYID);
-      if (!entityId.equals(rowEntityId)) {
-        continue;
+      if (entityId.equals(row.getString(ENTITYID))) {
+        rows.add(row);
       }
+    }
+
+    EntityAuditDeltaCodec.Decoder decoder = new EntityAuditDeltaCodec.Decoder();
+    if (persistEntityDefinition) {
+      addSnapshots(rows, decoder);
+    }
+
+    List<EntityAuditEventV2> entityResults = new ArrayList<>();
+    for (Row row : rows) {
+      String rowEntityId = row.getString(ENTITYID);
       EntityAuditEventV2 event = new EntityAuditEventV2();
       event.setEntityId(rowEntityId);
       event.setAction(EntityAuditEventV2.EntityAuditActionV2.fromString(row.getString(ACTION)));
-      event.setDetails(row.getString(DETAIL));
+      event.setDetails(EntityAuditDeltaCodec.decodeText(EntityAuditDeltaCodec.fromStorageText(row.getString(DETAIL))));
       event.setUser(row.getString(USER));
       event.setTimestamp(row.getLong(CREATED));
-      event.setEventKey(rowEntityId + ":" + event.getTimestamp());
+      event.setEventKey(getEventKey(rowEntityId, event.getTimestamp()));
       if (persistEntityDefinition) {
-        event.setEntityDefinition(row.getString(ENTITY));
+        byte[] entity = EntityAuditDeltaCodec.fromStorageText(row.getString(ENTITY));
+        String definition = entity != null ? decoder.decode(entity) : null;
+        if (definition != null) {
+          event.setEntityDefinition(definition);
+        } else if (entity != null) {
+          LOG.warn("entity definition not available for audit event {}: snapshot not found", event.getEventKey());
+        }
       }
       entityResults.add(event);
     }
     return entityResults;
   }
 
+  // adds snapshots needed to decode delta-encoded definitions in the rows - from the rows, or read from the table
+  private void addSnapshots(List<Row> rows, EntityAuditDeltaCodec.Decoder decoder) {
+    Map<String, byte[]> definitions = null;
+
+    for (Row row : rows) {
+      String snapshotKey = decoder.getMissingSnapshotKey(EntityAuditDeltaCodec.fromStorageText(row.getString(ENTITY)));
+
+      if (snapshotKey == null) {
+        continue;
+      }
+
+      if (definitions == null) {
+        definitions = new HashMap<>();
+
+        for (Row r : rows) {
+          definitions.put(getEventKey(r.getString(ENTITYID), r.getLong(CREATED)), EntityAuditDeltaCodec.fromStorageText(r.getString(ENTITY)));
+        }
+      }
+
+      byte[] snapshot = definitions.get(snapshotKey);
+
+      if (snapshot == null) {
+        String[] keyParts = snapshotKey.split(FIELD_SEPARATOR);
+        Row snapshotRow = cassSession.execute(selectEntityStatement.bind(keyParts[0], Long.valueOf(keyParts[1]))).one();
+
+        snapshot = snapshotRow != null ? EntityAuditDeltaCodec.fromStorageText(snapshotRow.getString(ENTITY)) : null;
+      }
+
+      if (snapshot != null) {
+        decoder.addSnapshot(snapshotKey, snapshot);
+      }
+    }
+  }
+
   @Override
   public Set<String> getEntitiesWithTagChanges(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
     throw new NotImplementedException();
@@ -202,6 +335,7 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
   }
 
   void initializeSettings() {
+    deltaCodec = EntityAuditDeltaCodec.getInstance(APPLICATION_PROPERTIES);
     keyspace = APPLICATION_PROPERTIES.getString(CASSANDRA_AUDIT_KEYSPACE_PROPERTY, DEFAULT_KEYSPACE);
     replicationFactor = APPLICATION_PROPERTIES.getInt(CASSANDRA_REPLICATION_FACTOR_PROPERTY, DEFAULT_REPLICATION_FACTOR);
     clusterName = APPLICATION_PROPERTIES.getString(CASSANDRA_CLUSTERNAME_PROPERTY, DEFAULT_CLUSTER_NAME);
@@ -236,6 +370,8 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
       insertStatement = cassSession.prepare(INSERT_STATEMENT_TEMPLATE.replace("KEYSPACE", keyspace));
       selectStatement = cassSession.prepare(SELECT_STATEMENT_TEMPLATE.replace("KEYSPACE", keyspace));
       selectDateStatement = cassSession.prepare(SELECT_DATE_STATEMENT_TEMPLATE.replace("KEYSPACE", keyspace));
+      selectEntityStatement = cassSession.prepare(SELECT_ENTITY_STATEMENT_TEMPLATE);
+      updateEncodedStatement = cassSession.prepare(UPDATE_ENCODED_STATEMENT_TEMPLATE);
     } catch (Exception e) {
       throw new AtlasException(e);
     }
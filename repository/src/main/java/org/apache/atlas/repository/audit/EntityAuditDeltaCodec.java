@@ -0,0 +1,400 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.atlas.utils.LruCache;
+import org.apache.commons.configuration.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encoding of audit event columns that hold large text - details and entity definition.
+ * <p>
+ * Entity definitions are stored as a full snapshot every few versions of an entity, and in between as attribute-level
+ * differences from the latest snapshot of the entity. Details and definitions are compressed. Values written without
+ * encoding are plain UTF-8 text, and are read as is.
+ * <p>
+ * Encoded values start with a 0 byte, followed by the value type and the deflated content. Backends that store text
+ * carry the deflated content in base64.
+ */
+public class EntityAuditDeltaCodec {
+    public static final String CONFIG_ENABLED           = AbstractStorageBasedAuditRepository.CONFIG_PREFIX + ".delta.encoding.enabled";
+    public static final String CONFIG_SNAPSHOT_INTERVAL = AbstractStorageBasedAuditRepository.CONFIG_PREFIX + ".delta.snapshot.interval";
+    public static final String CONFIG_CACHE_SIZE        = AbstractStorageBasedAuditRepository.CONFIG_PREFIX + ".delta.cache.size";
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10;
+    public static final int DEFAULT_CACHE_SIZE        = 10000;
+
+    private static final byte   MARKER        = 0;
+    private static final byte   TYPE_TEXT     = 'T';
+    private static final byte   TYPE_SNAPSHOT = 'S';
+    private static final byte   TYPE_DELTA    = 'D';
+    private static final String FIELD_GUID    = "guid";
+    private static final String DELTA_BASE    = "b"; // key of the snapshot the delta applies to
+    private static final String DELTA_SET     = "s"; // top-level fields set
+    private static final String DELTA_REMOVE  = "r"; // top-level fields removed
+    private static final String DELTA_NESTED  = "n"; // changes in map-valued fields, like attributes, as {field: {s: {..}, r: [..]}}
+
+    private final int                      snapshotInterval;
+    private final Map<String, SnapshotRef> latestSnapshots; // entity-id -> latest snapshot written
+
+    public EntityAuditDeltaCodec(int snapshotInterval, int cacheSize) {
+        this.snapshotInterval = snapshotInterval;
+        this.latestSnapshots  = Collections.synchronizedMap(new LruCache<>(cacheSize, 0));
+    }
+
+    /**
+     * @return codec configured in the given properties; null if encoding is not enabled
+     */
+    public static EntityAuditDeltaCodec getInstance(Configuration config) {
+        if (config == null || !config.getBoolean(CONFIG_ENABLED, false)) {
+            return null;
+        }
+
+        return new EntityAuditDeltaCodec(config.getInt(CONFIG_SNAPSHOT_INTERVAL, DEFAULT_SNAPSHOT_INTERVAL), config.getInt(CONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Starts encoding of a batch of events. Snapshots in the batch are used for encoding events of later batches only
+     * after {@link Encoder#commit()}, i.e. after the batch is successfully written.
+     */
+    public Encoder newEncoder() {
+        return new Encoder();
+    }
+
+    public static boolean isEncoded(byte[] value) {
+        return value != null && value.length >= 2 && value[0] == MARKER;
+    }
+
+    public static byte[] encodeText(String value) {
+        return value != null ? encode(TYPE_TEXT, value) : null;
+    }
+
+    /**
+     * @return text of the given value - details, or JSON of an entity snapshot; null for an entity delta
+     */
+    public static String decodeText(byte[] value) {
+        if (value == null) {
+            return null;
+        } else if (!isEncoded(value)) {
+            return new String(value, StandardCharsets.UTF_8);
+        } else if (value[1] == TYPE_DELTA) {
+            return null;
+        } else {
+            return decompress(value);
+        }
+    }
+
+    /**
+     * Converts an encoded value to text, for backends that store text. Unencoded values are returned as is.
+     */
+    public static String toStorageText(byte[] value) {
+        if (value == null) {
+            return null;
+        } else if (!isEncoded(value)) {
+            return new String(value, StandardCharsets.UTF_8);
+        } else {
+            return "\u0000" + (char) value[1] + Base64.getEncoder().encodeToString(Arrays.copyOfRange(value, 2, value.length));
+        }
+    }
+
+    public static byte[] fromStorageText(String text) {
+        if (text == null) {
+            return null;
+        } else if (text.length() < 2 || text.charAt(0) != '\u0000') {
+            return text.getBytes(StandardCharsets.UTF_8);
+        } else {
+            byte[] content = Base64.getDecoder().decode(text.substring(2));
+            byte[] ret     = new byte[content.length + 2];
+
+            ret[0] = MARKER;
+            ret[1] = (byte) text.charAt(1);
+
+            System.arraycopy(content, 0, ret, 2, content.length);
+
+            return ret;
+        }
+    }
+
+    public class Encoder {
+        private final Map<String, SnapshotRef> batchSnapshots = new HashMap<>();
+
+        /**
+         * @param eventKey key with which the event will be stored; deltas of later events refer to the snapshot by this key
+         * @return encoded entity definition
+         */
+        public byte[] encodeDefinition(String eventKey, AtlasEntity entity) {
+            return entity != null ? encodeDefinition(eventKey, AtlasType.toJson(entity)) : null;
+        }
+
+        /**
+         * @param json entity definition as stored without encoding; definitions other than of AtlasEntity, like of
+         *             audit events V1, are only compressed
+         */
+        public byte[] encodeDefinition(String eventKey, String json) {
+            if (json == null) {
+                return null;
+            }
+
+            Map<String, Object> state = AtlasJson.fromJson(json, Map.class);
+            Object              guid  = state != null ? state.get(FIELD_GUID) : null;
+
+            if (!(guid instanceof String)) {
+                return encode(TYPE_TEXT, json);
+            }
+
+            SnapshotRef snapshot = batchSnapshots.containsKey(guid) ? batchSnapshots.get(guid) : latestSnapshots.get(guid);
+
+            if (snapshot != null && snapshot.deltaCount + 1 < snapshotInterval) {
+                Map<String, Object> delta = getDelta(snapshot.state, state);
+
+                delta.put(DELTA_BASE, snapshot.key);
+
+                String deltaJson = AtlasJson.toJson(delta);
+
+                if (deltaJson.length() < json.length()) {
+                    batchSnapshots.put((String) guid, new SnapshotRef(snapshot.key, snapshot.state, snapshot.deltaCount + 1));
+
+                    return encode(TYPE_DELTA, deltaJson);
+                }
+            }
+
+            batchSnapshots.put((String) guid, new SnapshotRef(eventKey, state, 0));
+
+            return encode(TYPE_SNAPSHOT, json);
+        }
+
+        public void commit() {
+            latestSnapshots.putAll(batchSnapshots);
+
+            batchSnapshots.clear();
+        }
+    }
+
+    /**
+     * Decodes entity definitions of a set of events, typically a page of events listed. Deltas need the snapshot they
+     * refer to: snapshots that are not in the set of events are to be read and added with addSnapshot().
+     */
+    public static class Decoder {
+        private final Map<String, Map<String, Object>> snapshots = new HashMap<>();
+        private final Map<byte[], Map<String, Object>> deltas    = new IdentityHashMap<>();
+
+        /**
+         * @return key of the snapshot needed to decode the given value, if not already added to this decoder; null otherwise
+         */
+        public String getMissingSnapshotKey(byte[] value) {
+            Map<String, Object> delta = getDelta(value);
+            String              ret   = delta != null ? (String) delta.get(DELTA_BASE) : null;
+
+            return ret != null && !snapshots.containsKey(ret) ? ret : null;
+        }
+
+        public void addSnapshot(String key, byte[] value) {
+            if (value != null && (!isEncoded(value) || value[1] == TYPE_SNAPSHOT) && !snapshots.containsKey(key)) {
+                snapshots.put(key, AtlasJson.fromJson(decodeText(value), Map.class));
+            }
+        }
+
+        /**
+         * @return JSON of the entity; null if the value is a delta whose snapshot was not added
+         */
+        public String decode(byte[] value) {
+            if (value == null) {
+                return null;
+            } else if (!isEncoded(value) || value[1] != TYPE_DELTA) {
+                return decodeText(value);
+            }
+
+            Map<String, Object> delta    = getDelta(value);
+            Map<String, Object> snapshot = delta != null ? snapshots.get(delta.get(DELTA_BASE)) : null;
+
+            return snapshot != null ? AtlasJson.toJson(applyDelta(snapshot, delta)) : null;
+        }
+
+        private Map<String, Object> getDelta(byte[] value) {
+            if (!isEncoded(value) || value[1] != TYPE_DELTA) {
+                return null;
+            }
+
+            return deltas.computeIfAbsent(value, v -> AtlasJson.fromJson(decompress(v), Map.class));
+        }
+    }
+
+    static Map<String, Object> getDelta(Map<String, Object> from, Map<String, Object> to) {
+        Map<String, Object>              ret    = getChanges(from, to);
+        Map<String, Object>              set    = (Map<String, Object>) ret.get(DELTA_SET);
+        Map<String, Map<String, Object>> nested = new LinkedHashMap<>();
+
+        if (set != null) {
+            for (Iterator<Map.Entry<String, Object>> iter = set.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<String, Object> entry     = iter.next();
+                Object                    fromValue = from.get(entry.getKey());
+
+                if (entry.getValue() instanceof Map && fromValue instanceof Map) {
+                    nested.put(entry.getKey(), getChanges((Map<String, Object>) fromValue, (Map<String, Object>) entry.getValue()));
+
+                    iter.remove();
+                }
+            }
+
+            if (set.isEmpty()) {
+                ret.remove(DELTA_SET);
+            }
+        }
+
+        if (!nested.isEmpty()) {
+            ret.put(DELTA_NESTED, nested);
+        }
+
+        return ret;
+    }
+
+    static Map<String, Object> applyDelta(Map<String, Object> snapshot, Map<String, Object> delta) {
+        Map<String, Object> ret = new LinkedHashMap<>(snapshot);
+
+        applyChanges(ret, delta);
+
+        Map<String, Map<String, Object>> nested = (Map<String, Map<String, Object>>) delta.get(DELTA_NESTED);
+
+        if (nested != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : nested.entrySet()) {
+                Map<String, Object> value = new LinkedHashMap<>((Map<String, Object>) ret.get(entry.getKey()));
+
+                applyChanges(value, entry.getValue());
+
+                ret.put(entry.getKey(), value);
+            }
+        }
+
+        return ret;
+    }
+
+    // fields set and removed; values of fields set are replaced as a whole
+    private static Map<String, Object> getChanges(Map<String, Object> from, Map<String, Object> to) {
+        Map<String, Object> set     = new LinkedHashMap<>();
+        List<String>        removed = new ArrayList<>();
+
+        for (Map.Entry<String, Object> entry : to.entrySet()) {
+            if (!from.containsKey(entry.getKey()) || !Objects.equals(entry.getValue(), from.get(entry.getKey()))) {
+                set.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (String key : from.keySet()) {
+            if (!to.containsKey(key)) {
+                removed.add(key);
+            }
+        }
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        if (!set.isEmpty()) {
+            ret.put(DELTA_SET, set);
+        }
+
+        if (!removed.isEmpty()) {
+            ret.put(DELTA_REMOVE, removed);
+        }
+
+        return ret;
+    }
+
+    private static void applyChanges(Map<String, Object> target, Map<String, Object> changes) {
+        Map<String, Object> set     = (Map<String, Object>) changes.get(DELTA_SET);
+        List<String>        removed = (List<String>) changes.get(DELTA_REMOVE);
+
+        if (set != null) {
+            target.putAll(set);
+        }
+
+        if (removed != null) {
+            for (String key : removed) {
+                target.remove(key);
+            }
+        }
+    }
+
+    private static byte[] encode(byte type, String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length() / 4 + 16);
+
+        out.write(MARKER);
+        out.write(type);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        try (OutputStream os = new DeflaterOutputStream(out, deflater)) {
+            os.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException excp) { // not expected, as the stream is in memory
+            throw new IllegalStateException(excp);
+        } finally {
+            deflater.end();
+        }
+
+        return out.toByteArray();
+    }
+
+    private static String decompress(byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length * 4);
+
+        try (InputStream is = new InflaterInputStream(new ByteArrayInputStream(value, 2, value.length - 2))) {
+            byte[] buffer = new byte[8192];
+
+            for (int len = is.read(buffer); len != -1; len = is.read(buffer)) {
+                out.write(buffer, 0, len);
+            }
+        } catch (IOException excp) {
+            throw new IllegalStateException("invalid encoded audit value", excp);
+        }
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static class SnapshotRef {
+        final String              key;
+        final Map<String, Object> state;
+        final int                 deltaCount;
+
+        SnapshotRef(String key, Map<String, Object> state, int deltaCount) {
+            this.key        = key;
+            this.state      = state;
+            this.deltaCount = deltaCount;
+        }
+    }
+}
@@ -76,12 +76,14 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
     private static final Logger LOG = LoggerFactory.getLogger(EntityAuditListenerV2.class);
 
     private final EntityAuditRepository  auditRepository;
+    private final AsyncEntityAuditWriter auditWriter;
     private final AtlasTypeRegistry      typeRegistry;
     private final AtlasInstanceConverter instanceConverter;
 
     @Inject
-    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
+    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AsyncEntityAuditWriter auditWriter, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
         this.auditRepository   = auditRepository;
+        this.auditWriter       = auditWriter;
         this.typeRegistry      = typeRegistry;
         this.instanceConverter = instanceConverter;
     }
@@ -98,7 +100,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEvents(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -115,7 +117,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEvents(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -132,7 +134,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEvents(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -148,7 +150,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEvents(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -168,7 +170,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -190,7 +192,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -218,7 +220,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -239,7 +241,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -261,7 +263,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -282,7 +284,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -303,7 +305,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -320,7 +322,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
 
             events.add(createEvent(entity, LABEL_ADD, "Added labels: " + addedLabels));
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -337,7 +339,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
 
             events.add(createEvent(entity, LABEL_DELETE, "Deleted labels: " + deletedLabels));
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEvents(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -387,7 +389,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 auditEvents.add(auditEvent);
             }
 
-            auditRepository.putEventsV2(auditEvents);
+            auditWriter.putEvents(auditEvents);
 
             RequestContext.get().endMetricRecord(metric);
         }
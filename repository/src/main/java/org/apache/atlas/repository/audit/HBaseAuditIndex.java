@@ -0,0 +1,386 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.audit;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.apache.atlas.repository.audit.AbstractStorageBasedAuditRepository.CONFIG_PREFIX;
+import static org.apache.atlas.repository.audit.AbstractStorageBasedAuditRepository.FIELD_SEPARATOR;
+
+/**
+ * Secondary index of the HBase audit table, kept in a separate table so that audit events can be looked up by action
+ * and time without scanning the audit table.
+ * <p>
+ * Two rows are written for every audit event:
+ * <ul>
+ *   <li>'A' + bucket + action + ':' + event timestamp + audit key -> entity id: events of an action in a time range</li>
+ *   <li>'E' + bucket + entity id + ':' + action + ':' + event timestamp + audit key: events of an entity with an action</li>
+ * </ul>
+ * The event timestamp is stored as a big-endian long, so that rows of an action/entity are sorted by time. The bucket
+ * is a byte derived from the hash of the audit key (for action rows) or of the entity id (for entity rows), so that
+ * rows written at the same time are spread over as many regions as there are buckets, instead of all going to the
+ * region at the tail of the action; the table is pre-split on bucket boundaries. Time range scans of an action are
+ * made in every bucket. The number of buckets is recorded in the meta row when the table is created. The index
+ * can only be used for events written after it was created, unless the existing events were indexed by the
+ * atlas-audit-index-backfill tool; the meta row records the time from which the index is complete.
+ */
+public class HBaseAuditIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseAuditIndex.class);
+
+    public static final String CONFIG_INDEX_ENABLED     = CONFIG_PREFIX + ".hbase.index.enabled";
+    public static final String CONFIG_INDEX_TABLE_NAME  = CONFIG_PREFIX + ".hbase.index.tablename";
+    public static final String CONFIG_INDEX_BUCKETS     = CONFIG_PREFIX + ".hbase.index.buckets";
+    public static final String DEFAULT_INDEX_TABLE_NAME = "ATLAS_ENTITY_AUDIT_EVENTS_INDEX";
+    public static final int    DEFAULT_INDEX_BUCKETS    = 16;
+    public static final int    MAX_INDEX_BUCKETS        = 256;
+
+    public static final byte[] COLUMN_FAMILY    = Bytes.toBytes("i");
+    public static final byte[] COLUMN_ENTITY_ID = Bytes.toBytes("e");
+    public static final byte[] COLUMN_SINCE     = Bytes.toBytes("s");
+    public static final byte[] COLUMN_BUCKETS   = Bytes.toBytes("b");
+
+    private static final byte   PREFIX_ACTION    = 'A';
+    private static final byte   PREFIX_ENTITY    = 'E';
+    private static final byte[] META_ROW         = Bytes.toBytes("M");
+    private static final byte[] SEPARATOR        = Bytes.toBytes(FIELD_SEPARATOR);
+    private static final long   SINCE_REFRESH_MS = 60 * 1000;
+    private static final long   NOT_INDEXED      = Long.MAX_VALUE;
+    private static final int    DEFAULT_CACHING  = 200;
+
+    private final    Connection connection;
+    private final    TableName  tableName;
+    private volatile int        buckets;
+    private volatile long       indexedSince     = NOT_INDEXED;
+    private volatile long       sinceRefreshTime = 0;
+
+    /**
+     * @param buckets number of buckets, used when the index table is created; an existing table retains its number
+     */
+    public HBaseAuditIndex(Connection connection, TableName tableName, int buckets) {
+        this.connection = connection;
+        this.tableName  = tableName;
+        this.buckets    = Math.min(Math.max(buckets, 1), MAX_INDEX_BUCKETS);
+    }
+
+    public TableName getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Creates the index table, if it doesn't exist.
+     * @param isAuditTableNew true if the audit table was just created i.e. there are no events to backfill
+     */
+    public void createTableIfNotExists(boolean isAuditTableNew) throws IOException {
+        try (Admin admin = connection.getAdmin()) {
+            if (admin.tableExists(tableName)) {
+                LOG.info("Table {} exists", tableName.getNameAsString());
+
+                loadBuckets();
+
+                return;
+            }
+
+            LOG.info("Creating table {}", tableName.getNameAsString());
+
+            HTableDescriptor  tableDescriptor = new HTableDescriptor(tableName);
+            HColumnDescriptor columnFamily    = new HColumnDescriptor(COLUMN_FAMILY);
+
+            columnFamily.setMaxVersions(1);
+            columnFamily.setDataBlockEncoding(DataBlockEncoding.FAST_DIFF);
+            columnFamily.setCompressionType(Compression.Algorithm.GZ);
+            tableDescriptor.addFamily(columnFamily);
+
+            admin.createTable(tableDescriptor, getSplitKeys(buckets));
+        }
+
+        try (Table table = connection.getTable(tableName)) {
+            table.put(new Put(META_ROW).addColumn(COLUMN_FAMILY, COLUMN_BUCKETS, Bytes.toBytes(buckets)));
+        }
+
+        setIndexedSince(isAuditTableNew ? 0 : System.currentTimeMillis());
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Adds index rows for the given audit event to puts.
+     */
+    public void addPuts(List<Put> puts, byte[] auditKey, String entityId, long timestamp, String action) {
+        if (StringUtils.isEmpty(entityId) || StringUtils.isEmpty(action)) {
+            return;
+        }
+
+        byte[] entityIdBytes = Bytes.toBytes(entityId);
+
+        puts.add(new Put(Bytes.add(getActionPrefix(getBucket(auditKey), action), Bytes.toBytes(timestamp), auditKey)).addColumn(COLUMN_FAMILY, COLUMN_ENTITY_ID, entityIdBytes));
+        puts.add(new Put(Bytes.add(getEntityActionPrefix(entityId, action), Bytes.toBytes(timestamp), auditKey)).addColumn(COLUMN_FAMILY, COLUMN_ENTITY_ID, entityIdBytes));
+    }
+
+    public void put(List<Put> puts) throws IOException {
+        if (puts.isEmpty()) {
+            return;
+        }
+
+        try (Table table = connection.getTable(tableName)) {
+            table.put(puts);
+        }
+    }
+
+    /**
+     * @return time from which all audit events are indexed; 0 if all events are indexed
+     */
+    public long getIndexedSince() {
+        long ret = indexedSince;
+
+        if (ret != 0 && System.currentTimeMillis() - sinceRefreshTime > SINCE_REFRESH_MS) {
+            try (Table table = connection.getTable(tableName)) {
+                byte[] value = table.get(new Get(META_ROW).addColumn(COLUMN_FAMILY, COLUMN_SINCE)).getValue(COLUMN_FAMILY, COLUMN_SINCE);
+
+                ret = value != null ? Bytes.toLong(value) : NOT_INDEXED;
+            } catch (IOException e) {
+                LOG.warn("failed to read audit index state from {}", tableName.getNameAsString(), e);
+            }
+
+            indexedSince     = ret;
+            sinceRefreshTime = System.currentTimeMillis();
+        }
+
+        return ret;
+    }
+
+    public void setIndexedSince(long timestamp) throws IOException {
+        try (Table table = connection.getTable(tableName)) {
+            table.put(new Put(META_ROW).addColumn(COLUMN_FAMILY, COLUMN_SINCE, Bytes.toBytes(timestamp)));
+        }
+
+        indexedSince     = timestamp;
+        sinceRefreshTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns ids of entities having audit events of the given actions with event timestamp in [fromTimestamp, toTimestamp).
+     */
+    public Set<String> getEntityIds(List<String> actions, long fromTimestamp, long toTimestamp) throws IOException {
+        Set<String> ret = new HashSet<>();
+
+        try (Table table = connection.getTable(tableName)) {
+            for (String action : actions) {
+                for (int bucket = 0; bucket < buckets; bucket++) {
+                    byte[] prefix = getActionPrefix((byte) bucket, action);
+                    Scan   scan   = new Scan().setStartRow(Bytes.add(prefix, Bytes.toBytes(fromTimestamp)))
+                                              .setStopRow(Bytes.add(prefix, Bytes.toBytes(toTimestamp)))
+                                              .addColumn(COLUMN_FAMILY, COLUMN_ENTITY_ID)
+                                              .setCaching(DEFAULT_CACHING);
+
+                    try (ResultScanner scanner = table.getScanner(scan)) {
+                        for (Result result : scanner) {
+                            byte[] entityId = result.getValue(COLUMN_FAMILY, COLUMN_ENTITY_ID);
+
+                            if (entityId != null) {
+                                ret.add(Bytes.toString(entityId));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns keys of audit events of the given entity and action, latest first, starting at startKey when given.
+     * @return null if startKey is not a valid audit key
+     */
+    public List<byte[]> getAuditKeys(String entityId, String action, String startKey, int maxResults) throws IOException {
+        byte[] prefix = getEntityActionPrefix(entityId, action);
+        byte[] startRow;
+
+        if (StringUtils.isEmpty(startKey)) {
+            startRow = Bytes.add(prefix, Bytes.toBytes(Long.MAX_VALUE));
+        } else {
+            Long timestamp = getTimestamp(startKey);
+
+            if (timestamp == null) {
+                return null;
+            }
+
+            startRow = Bytes.add(prefix, Bytes.toBytes(timestamp), Bytes.toBytes(startKey));
+        }
+
+        List<byte[]> ret       = new ArrayList<>();
+        int          keyOffset = prefix.length + Bytes.SIZEOF_LONG;
+        Scan         scan      = new Scan().setReversed(true)
+                                            .setStartRow(startRow)
+                                            .setStopRow(prefix)
+                                            .addColumn(COLUMN_FAMILY, COLUMN_ENTITY_ID)
+                                            .setCaching(maxResults > 0 ? Math.min(maxResults, DEFAULT_CACHING) : DEFAULT_CACHING)
+                                            .setSmall(true);
+
+        try (Table table = connection.getTable(tableName); ResultScanner scanner = table.getScanner(scan)) {
+            Result result;
+
+            while ((maxResults < 0 || ret.size() < maxResults) && (result = scanner.next()) != null) {
+                byte[] row = result.getRow();
+
+                if (row.length > keyOffset && Bytes.startsWith(row, prefix)) {
+                    ret.add(Arrays.copyOfRange(row, keyOffset, row.length));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Indexes events in the audit table, starting at startRow when given.
+     * @param progress called with the key of the last indexed event after every batch
+     * @return number of events indexed
+     */
+    public long backfill(Table auditTable, byte[] startRow, int batchSize, Consumer<byte[]> progress) throws IOException {
+        long      ret  = 0;
+        List<Put> puts = new ArrayList<>();
+        Scan      scan = new Scan().addColumn(HBaseBasedAuditRepository.COLUMN_FAMILY, HBaseBasedAuditRepository.COLUMN_ACTION)
+                                   .setCaching(batchSize)
+                                   .setCacheBlocks(false);
+
+        if (startRow != null) {
+            scan.setStartRow(startRow);
+        }
+
+        try (ResultScanner scanner = auditTable.getScanner(scan)) {
+            byte[] lastRow = null;
+
+            for (Result result : scanner) {
+                byte[]   row    = result.getRow();
+                byte[]   action = result.getValue(HBaseBasedAuditRepository.COLUMN_FAMILY, HBaseBasedAuditRepository.COLUMN_ACTION);
+                String   key    = Bytes.toString(row);
+                String[] parts  = key.split(FIELD_SEPARATOR);
+                Long     ts     = getTimestamp(key);
+
+                if (action == null || ts == null) {
+                    LOG.warn("backfill(): ignoring audit event with unexpected key {}", key);
+
+                    continue;
+                }
+
+                addPuts(puts, row, parts[0], ts, Bytes.toString(action));
+
+                ret++;
+                lastRow = row;
+
+                if (puts.size() >= batchSize) {
+                    put(puts);
+                    puts.clear();
+
+                    progress.accept(lastRow);
+                }
+            }
+
+            if (!puts.isEmpty()) {
+                put(puts);
+
+                progress.accept(lastRow);
+            }
+        }
+
+        return ret;
+    }
+
+    private void loadBuckets() throws IOException {
+        try (Table table = connection.getTable(tableName)) {
+            byte[] value = table.get(new Get(META_ROW).addColumn(COLUMN_FAMILY, COLUMN_BUCKETS)).getValue(COLUMN_FAMILY, COLUMN_BUCKETS);
+
+            if (value != null && Bytes.toInt(value) != buckets) {
+                LOG.info("Table {} has {} buckets; ignoring configured {}", tableName.getNameAsString(), Bytes.toInt(value), buckets);
+
+                buckets = Bytes.toInt(value);
+            }
+        }
+    }
+
+    private byte getBucket(byte[] value) {
+        return (byte) ((Bytes.hashCode(value) & Integer.MAX_VALUE) % buckets);
+    }
+
+    private byte[] getActionPrefix(byte bucket, String action) {
+        return Bytes.add(new byte[] { PREFIX_ACTION, bucket }, Bytes.toBytes(action), SEPARATOR);
+    }
+
+    private byte[] getEntityActionPrefix(String entityId, String action) {
+        byte[] entityIdBytes = Bytes.toBytes(entityId);
+
+        return Bytes.add(Bytes.add(new byte[] { PREFIX_ENTITY, getBucket(entityIdBytes) }, entityIdBytes, SEPARATOR), Bytes.toBytes(action), SEPARATOR);
+    }
+
+    // a region for each bucket of action rows, and of entity rows
+    static byte[][] getSplitKeys(int buckets) {
+        List<byte[]> ret = new ArrayList<>();
+
+        for (int bucket = 1; bucket < buckets; bucket++) {
+            ret.add(new byte[] { PREFIX_ACTION, (byte) bucket });
+        }
+
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            ret.add(new byte[] { PREFIX_ENTITY, (byte) bucket });
+        }
+
+        return ret.toArray(new byte[ret.size()][]);
+    }
+
+    private static Long getTimestamp(String auditKey) {
+        String[] parts = auditKey.split(FIELD_SEPARATOR);
+
+        if (parts.length > 1) {
+            try {
+                return Long.valueOf(parts[1]);
+            } catch (NumberFormatException e) {
+                // not an audit key
+            }
+        }
+
+        return null;
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -68,6 +69,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Consumer;
 
 
 /**
@@ -108,6 +110,8 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     private static final long    ATLAS_HBASE_KEYVALUE_DEFAULT_SIZE = 1024 * 1024;
     private static Configuration APPLICATION_PROPERTIES = null;
     private static final int     DEFAULT_CACHING = 200;
+    private static final int     INDEX_PUT_MAX_ATTEMPTS      = 3;
+    private static final long    INDEX_PUT_RETRY_INTERVAL_MS = 1000;
 
     private static boolean       persistEntityDefinition;
 
@@ -122,6 +126,8 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     }
     private TableName tableName;
     private Connection connection;
+    private HBaseAuditIndex auditIndex;
+    private EntityAuditDeltaCodec deltaCodec;
 
     /**
      * Add events to the event repository
@@ -147,8 +153,9 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         Table table = null;
 
         try {
-            table          = connection.getTable(tableName);
-            List<Put> puts = new ArrayList<>(events.size());
+            table               = connection.getTable(tableName);
+            List<Put> puts      = new ArrayList<>(events.size());
+            List<Put> indexPuts = new ArrayList<>();
 
             for (int index = 0; index < events.size(); index++) {
                 EntityAuditEvent event = events.get(index);
@@ -157,7 +164,12 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                     LOG.debug("Adding entity audit event {}", event);
                 }
 
-                Put put = new Put(getKey(event.getEntityId(), event.getTimestamp(), index));
+                byte[] key = getKey(event.getEntityId(), event.getTimestamp(), index);
+                Put    put = new Put(key);
+
+                if (auditIndex != null && event.getAction() != null) {
+                    auditIndex.addPuts(indexPuts, key, event.getEntityId(), event.getTimestamp(), event.getAction().toString());
+                }
 
                 addColumn(put, COLUMN_ACTION, event.getAction());
                 addColumn(put, COLUMN_USER, event.getUser());
@@ -170,6 +182,10 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
             }
 
             table.put(puts);
+
+            if (auditIndex != null) {
+                putIndex(puts, indexPuts);
+            }
         } catch (IOException e) {
             throw new AtlasException(e);
         } finally {
@@ -191,8 +207,11 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         Table table = null;
 
         try {
-            table          = connection.getTable(tableName);
-            List<Put> puts = new ArrayList<>(events.size());
+            table               = connection.getTable(tableName);
+            List<Put> puts      = new ArrayList<>(events.size());
+            List<Put> indexPuts = new ArrayList<>();
+
+            EntityAuditDeltaCodec.Encoder encoder = deltaCodec != null ? deltaCodec.newEncoder() : null;
 
             for (int index = 0; index < events.size(); index++) {
                 EntityAuditEventV2 event = events.get(index);
@@ -201,34 +220,178 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                     LOG.debug("Adding entity audit event {}", event);
                 }
 
-                Put put = new Put(getKey(event.getEntityId(), event.getTimestamp(), index));
+                byte[] key = getKey(event.getEntityId(), event.getTimestamp(), index);
+                Put    put = new Put(key);
+
+                if (auditIndex != null && event.getAction() != null) {
+                    auditIndex.addPuts(indexPuts, key, event.getEntityId(), event.getTimestamp(), event.getAction().toString());
+                }
 
                 addColumn(put, COLUMN_ACTION, event.getAction());
                 addColumn(put, COLUMN_USER, event.getUser());
-                addColumn(put, COLUMN_DETAIL, event.getDetails());
 
-                if (persistEntityDefinition) {
-                    addColumn(put, COLUMN_DEFINITION, event.getEntityDefinitionString());
+                if (encoder == null) {
+                    addColumn(put, COLUMN_DETAIL, event.getDetails());
+
+                    if (persistEntityDefinition) {
+                        addColumn(put, COLUMN_DEFINITION, event.getEntityDefinitionString());
+                    }
+                } else {
+                    if (StringUtils.isNotEmpty(event.getDetails())) {
+                        put.addColumn(COLUMN_FAMILY, COLUMN_DETAIL, EntityAuditDeltaCodec.encodeText(event.getDetails()));
+                    }
+
+                    if (persistEntityDefinition && event.getEntity() != null) {
+                        put.addColumn(COLUMN_FAMILY, COLUMN_DEFINITION, encoder.encodeDefinition(Bytes.toString(key), event.getEntity()));
+                    }
                 }
 
                 puts.add(put);
             }
 
             table.put(puts);
+
+            if (auditIndex != null) {
+                putIndex(puts, indexPuts);
+            }
+
+            if (encoder != null) {
+                encoder.commit();
+            }
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        } finally {
+            try {
+                close(table);
+            } catch (AtlasException e) {
+                throw new AtlasBaseException(e);
+            }
+        }
+    }
+
+    // index rows are written after the events, so that index rows never refer to events that were not written. Index rows
+    // are retried here, rather than by the caller, as writing the events again would duplicate them. Events whose index
+    // rows could not be written are missing from the index until it is rebuilt by atlas-audit-index-backfill, starting
+    // at the logged key.
+    private void putIndex(List<Put> puts, List<Put> indexPuts) {
+        for (int attempt = 1; attempt <= INDEX_PUT_MAX_ATTEMPTS; attempt++) {
+            try {
+                auditIndex.put(indexPuts);
+
+                return;
+            } catch (IOException e) {
+                LOG.warn("failed to index {} audit events (attempt {} of {})", puts.size(), attempt, INDEX_PUT_MAX_ATTEMPTS, e);
+            }
+
+            if (attempt < INDEX_PUT_MAX_ATTEMPTS) {
+                try {
+                    Thread.sleep(INDEX_PUT_RETRY_INTERVAL_MS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    break;
+                }
+            }
+        }
+
+        byte[] startKey = null;
+
+        for (Put put : puts) {
+            if (startKey == null || Bytes.compareTo(put.getRow(), startKey) < 0) {
+                startKey = put.getRow();
+            }
+        }
+
+        LOG.error("failed to index {} audit events written to {}; rebuild the index with atlas-audit-index-backfill -s {}",
+                  puts.size(), tableName.getNameAsString(), Bytes.toString(startKey));
+    }
+
+    @Override
+    public long encodeStoredEvents(String startKey, int batchSize, int snapshotInterval, Consumer<String> progress) throws AtlasBaseException {
+        EntityAuditDeltaCodec.Encoder encoder = new EntityAuditDeltaCodec(snapshotInterval, batchSize).newEncoder();
+        long                          ret     = 0;
+        Table                         table   = null;
+        ResultScanner                 scanner = null;
+
+        try {
+            table = connection.getTable(tableName);
+
+            Scan scan = new Scan().addColumn(COLUMN_FAMILY, COLUMN_DETAIL).addColumn(COLUMN_FAMILY, COLUMN_DEFINITION).setCaching(batchSize);
+
+            if (StringUtils.isNotEmpty(startKey)) {
+                scan.setStartRow(Bytes.toBytes(startKey));
+            }
+
+            scanner = table.getScanner(scan);
+
+            List<Put> puts    = new ArrayList<>(batchSize);
+            byte[]    lastRow = null;
+
+            for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                byte[] detail     = result.getValue(COLUMN_FAMILY, COLUMN_DETAIL);
+                byte[] definition = result.getValue(COLUMN_FAMILY, COLUMN_DEFINITION);
+                Put    put        = new Put(result.getRow());
+
+                if (detail != null && !EntityAuditDeltaCodec.isEncoded(detail)) {
+                    put.addColumn(COLUMN_FAMILY, COLUMN_DETAIL, EntityAuditDeltaCodec.encodeText(Bytes.toString(detail)));
+                }
+
+                if (definition != null && !EntityAuditDeltaCodec.isEncoded(definition)) {
+                    put.addColumn(COLUMN_FAMILY, COLUMN_DEFINITION, encoder.encodeDefinition(Bytes.toString(result.getRow()), Bytes.toString(definition)));
+                }
+
+                if (!put.isEmpty()) {
+                    puts.add(put);
+                }
+
+                lastRow = result.getRow();
+
+                if (puts.size() >= batchSize) {
+                    ret += writeEncodedEvents(table, puts, encoder, lastRow, progress);
+                }
+            }
+
+            ret += writeEncodedEvents(table, puts, encoder, lastRow, progress);
         } catch (IOException e) {
             throw new AtlasBaseException(e);
         } finally {
             try {
+                close(scanner);
                 close(table);
             } catch (AtlasException e) {
                 throw new AtlasBaseException(e);
             }
         }
+
+        return ret;
+    }
+
+    private int writeEncodedEvents(Table table, List<Put> puts, EntityAuditDeltaCodec.Encoder encoder, byte[] lastRow, Consumer<String> progress) throws IOException {
+        int ret = puts.size();
+
+        if (ret > 0) {
+            table.put(puts);
+
+            encoder.commit();
+            puts.clear();
+
+            progress.accept(Bytes.toString(lastRow));
+        }
+
+        return ret;
     }
 
     public List<EntityAuditEventV2> listEventsV2(String entityId, EntityAuditActionV2 auditAction, String startKey, short maxResultCount) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Listing events for entity id {}, operation {}, starting key{}, maximum result count {}", entityId, auditAction.toString(), startKey, maxResultCount);
+            LOG.debug("Listing events for entity id {}, operation {}, starting key{}, maximum result count {}", entityId, auditAction, startKey, maxResultCount);
+        }
+
+        if (auditAction != null && StringUtils.isNotBlank(entityId) && auditIndex != null && auditIndex.getIndexedSince() == 0) {
+            List<EntityAuditEventV2> ret = listEventsV2FromIndex(entityId, auditAction, startKey, maxResultCount);
+
+            if (ret != null) {
+                return ret;
+            }
         }
 
         Table         table   = null;
@@ -274,13 +437,13 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
             }
 
             scanner = table.getScanner(scan);
-            List<EntityAuditEventV2> events = new ArrayList<>();
+            List<Result> results = new ArrayList<>();
 
             Result result;
 
             //PageFilter doesn't ensure maxResultCount results are returned. The filter is per region server.
             //So, adding extra check on maxResultCount
-            while ((result = scanner.next()) != null && (maxResultCount == -1 || events.size() < maxResultCount)) {
+            while ((result = scanner.next()) != null && (maxResultCount == -1 || results.size() < maxResultCount)) {
 
                 EntityAuditEventV2 event = fromKeyV2(result.getRow());
 
@@ -289,24 +452,68 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                     continue;
                 }
 
-                event.setUser(getResultString(result, COLUMN_USER));
-                event.setAction(EntityAuditActionV2.fromString(getResultString(result, COLUMN_ACTION)));
-                event.setDetails(getResultString(result, COLUMN_DETAIL));
+                results.add(result);
+            }
 
-                if (persistEntityDefinition) {
-                    String colDef = getResultString(result, COLUMN_DEFINITION);
+            List<EntityAuditEventV2> events = toEntityAuditEventsV2(table, results);
 
-                    if (colDef != null) {
-                        event.setEntityDefinition(colDef);
-                    }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Got events for entity id {}, operation {}, starting key{}, maximum result count {}, #records returned {}",
+                        entityId, auditAction, startKey, maxResultCount, events.size());
+            }
+
+            return events;
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        } finally {
+            try {
+                close(scanner);
+                close(table);
+            } catch (AtlasException e) {
+                throw new AtlasBaseException(e);
+            }
+        }
+    }
+
+    /**
+     * Lists events of the given entity and action by looking up their keys in the index, instead of scanning all
+     * events of the entity.
+     * @return null if the index can't be used for the given startKey
+     */
+    private List<EntityAuditEventV2> listEventsV2FromIndex(String entityId, EntityAuditActionV2 auditAction, String startKey, short maxResultCount) throws AtlasBaseException {
+        Table table = null;
+
+        try {
+            List<byte[]> keys = auditIndex.getAuditKeys(entityId, auditAction.toString(), startKey, maxResultCount);
+
+            if (keys == null) {
+                return null;
+            }
+
+            List<Get> gets = new ArrayList<>(keys.size());
+
+            for (byte[] key : keys) {
+                gets.add(new Get(key));
+            }
+
+            table = connection.getTable(tableName);
+
+            List<Result> results = new ArrayList<>(keys.size());
+
+            for (Result result : table.get(gets)) {
+                // index rows are written after the events, hence refer to written events; skip events deleted since
+                if (result == null || result.isEmpty()) {
+                    continue;
                 }
 
-                events.add(event);
+                results.add(result);
             }
 
+            List<EntityAuditEventV2> events = toEntityAuditEventsV2(table, results);
+
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Got events for entity id {}, operation {}, starting key{}, maximum result count {}, #records returned {}",
-                        entityId, auditAction.toString(), startKey, maxResultCount, events.size());
+                LOG.debug("Got events from index for entity id {}, operation {}, starting key{}, maximum result count {}, #records returned {}",
+                        entityId, auditAction, startKey, maxResultCount, events.size());
             }
 
             return events;
@@ -314,7 +521,6 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
             throw new AtlasBaseException(e);
         } finally {
             try {
-                close(scanner);
                 close(table);
             } catch (AtlasException e) {
                 throw new AtlasBaseException(e);
@@ -402,9 +608,9 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                 }
                 event.setUser(getResultString(result, COLUMN_USER));
                 event.setAction(EntityAuditEvent.EntityAuditAction.fromString(getResultString(result, COLUMN_ACTION)));
-                event.setDetails(getResultString(result, COLUMN_DETAIL));
+                event.setDetails(EntityAuditDeltaCodec.decodeText(result.getValue(COLUMN_FAMILY, COLUMN_DETAIL)));
                 if (persistEntityDefinition) {
-                    String colDef = getResultString(result, COLUMN_DEFINITION);
+                    String colDef = EntityAuditDeltaCodec.decodeText(result.getValue(COLUMN_FAMILY, COLUMN_DEFINITION));
                     if (colDef != null) {
                         event.setEntityDefinition(colDef);
                     }
@@ -481,6 +687,87 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         return event;
     }
 
+    private List<EntityAuditEventV2> toEntityAuditEventsV2(Table table, List<Result> results) throws IOException {
+        EntityAuditDeltaCodec.Decoder decoder = new EntityAuditDeltaCodec.Decoder();
+
+        if (persistEntityDefinition) {
+            addSnapshots(table, results, decoder);
+        }
+
+        List<EntityAuditEventV2> ret = new ArrayList<>(results.size());
+
+        for (Result result : results) {
+            ret.add(toEntityAuditEventV2(fromKeyV2(result.getRow()), result, decoder));
+        }
+
+        return ret;
+    }
+
+    // adds snapshots needed to decode delta-encoded definitions in the results - from the results, or read from the table
+    private void addSnapshots(Table table, List<Result> results, EntityAuditDeltaCodec.Decoder decoder) throws IOException {
+        Map<String, byte[]> definitions  = null;
+        Set<String>         snapshotKeys = null;
+
+        for (Result result : results) {
+            String snapshotKey = decoder.getMissingSnapshotKey(result.getValue(COLUMN_FAMILY, COLUMN_DEFINITION));
+
+            if (snapshotKey == null) {
+                continue;
+            }
+
+            if (definitions == null) {
+                definitions  = new HashMap<>();
+                snapshotKeys = new HashSet<>();
+
+                for (Result r : results) {
+                    definitions.put(Bytes.toString(r.getRow()), r.getValue(COLUMN_FAMILY, COLUMN_DEFINITION));
+                }
+            }
+
+            if (definitions.containsKey(snapshotKey)) {
+                decoder.addSnapshot(snapshotKey, definitions.get(snapshotKey));
+            } else {
+                snapshotKeys.add(snapshotKey);
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(snapshotKeys)) {
+            List<Get> gets = new ArrayList<>(snapshotKeys.size());
+
+            for (String snapshotKey : snapshotKeys) {
+                gets.add(new Get(Bytes.toBytes(snapshotKey)).addColumn(COLUMN_FAMILY, COLUMN_DEFINITION));
+            }
+
+            for (Result result : table.get(gets)) {
+                if (result != null && !result.isEmpty()) {
+                    decoder.addSnapshot(Bytes.toString(result.getRow()), result.getValue(COLUMN_FAMILY, COLUMN_DEFINITION));
+                }
+            }
+        }
+    }
+
+    private EntityAuditEventV2 toEntityAuditEventV2(EntityAuditEventV2 event, Result result, EntityAuditDeltaCodec.Decoder decoder) {
+        event.setUser(getResultString(result, COLUMN_USER));
+        event.setAction(EntityAuditActionV2.fromString(getResultString(result, COLUMN_ACTION)));
+        event.setDetails(EntityAuditDeltaCodec.decodeText(result.getValue(COLUMN_FAMILY, COLUMN_DETAIL)));
+
+        if (persistEntityDefinition) {
+            byte[] colDef = result.getValue(COLUMN_FAMILY, COLUMN_DEFINITION);
+
+            if (colDef != null) {
+                String definition = decoder.decode(colDef);
+
+                if (definition != null) {
+                    event.setEntityDefinition(definition);
+                } else {
+                    LOG.warn("entity definition not available for audit event {}: snapshot not found", event.getEventKey());
+                }
+            }
+        }
+
+        return event;
+    }
+
     private EntityAuditEventV2 fromKeyV2(byte[] keyBytes) {
         String             key   = Bytes.toString(keyBytes);
         EntityAuditEventV2 event = new EntityAuditEventV2();
@@ -527,7 +814,8 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     }
 
     private void createTableIfNotExists() throws AtlasException {
-        Admin admin = null;
+        Admin   admin   = null;
+        boolean created = false;
         try {
             admin = connection.getAdmin();
             LOG.info("Checking if table {} exists", tableName.getNameAsString());
@@ -541,9 +829,14 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                 columnFamily.setBloomFilterType(BloomType.ROW);
                 tableDescriptor.addFamily(columnFamily);
                 admin.createTable(tableDescriptor);
+                created = true;
             } else {
                 LOG.info("Table {} exists", tableName.getNameAsString());
             }
+
+            if (auditIndex != null) {
+                auditIndex.createTableIfNotExists(created);
+            }
         } catch (IOException e) {
             throw new AtlasException(e);
         } finally {
@@ -556,7 +849,23 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         final String classificationUpdatesAction = "CLASSIFICATION_";
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Listing events for fromTimestamp {}, toTimestamp {}, action {}", fromTimestamp, toTimestamp);
+            LOG.debug("Listing events for fromTimestamp {}, toTimestamp {}, action {}", fromTimestamp, toTimestamp, classificationUpdatesAction);
+        }
+
+        if (auditIndex != null && fromTimestamp >= auditIndex.getIndexedSince()) {
+            List<String> actions = new ArrayList<>();
+
+            for (EntityAuditActionV2 action : EntityAuditActionV2.values()) {
+                if (action.toString().startsWith(classificationUpdatesAction)) {
+                    actions.add(action.toString());
+                }
+            }
+
+            try {
+                return auditIndex.getEntityIds(actions, fromTimestamp, toTimestamp);
+            } catch (IOException e) {
+                throw new AtlasBaseException(e);
+            }
         }
 
         Table table = null;
@@ -616,6 +925,13 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
             throw new AtlasException(e);
         }
 
+        deltaCodec = EntityAuditDeltaCodec.getInstance(atlasConf);
+
+        if (atlasConf.getBoolean(HBaseAuditIndex.CONFIG_INDEX_ENABLED, true)) {
+            auditIndex = new HBaseAuditIndex(connection, TableName.valueOf(atlasConf.getString(HBaseAuditIndex.CONFIG_INDEX_TABLE_NAME, HBaseAuditIndex.DEFAULT_INDEX_TABLE_NAME)),
+                                             atlasConf.getInt(HBaseAuditIndex.CONFIG_INDEX_BUCKETS, HBaseAuditIndex.DEFAULT_INDEX_BUCKETS));
+        }
+
         if (!HAConfiguration.isHAEnabled(atlasConf)) {
             LOG.info("HA is disabled. Hence creating table on startup.");
             createTableIfNotExists();
@@ -33,6 +33,7 @@ import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.AtlasRelationship;
 import org.apache.atlas.repository.graphdb.AtlasVertexQuery;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.EntityFingerprint;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasMapType;
 import org.apache.atlas.utils.AtlasPerfMetrics;
@@ -135,6 +136,9 @@ public final class GraphHelper {
         ret = graph.addEdge(fromVertex, toVertex, edgeLabel);
 
         if (ret != null) {
+            EntityFingerprint.invalidate(fromVertex);
+            EntityFingerprint.invalidate(toVertex);
+
             AtlasGraphUtilsV2.setEncodedProperty(ret, STATE_PROPERTY_KEY, ACTIVE.name());
             AtlasGraphUtilsV2.setEncodedProperty(ret, TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
             AtlasGraphUtilsV2.setEncodedProperty(ret, MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
@@ -560,6 +564,9 @@ public final class GraphHelper {
             LOG.debug("==> removeEdge({})", string(edge));
         }
 
+        EntityFingerprint.invalidate(edge.getOutVertex());
+        EntityFingerprint.invalidate(edge.getInVertex());
+
         graph.removeEdge(edge);
 
         if (LOG.isDebugEnabled()) {
@@ -653,6 +660,8 @@ public final class GraphHelper {
     public static void updateModificationMetadata(AtlasVertex vertex) {
         AtlasGraphUtilsV2.setEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
         AtlasGraphUtilsV2.setEncodedProperty(vertex, MODIFIED_BY_KEY, RequestContext.get().getUser());
+
+        EntityFingerprint.invalidate(vertex);
     }
 
     public static String getQualifiedNameForMapKey(String prefix, String key) {
@@ -19,6 +19,7 @@
 package org.apache.atlas.repository.impexp;
 
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.typedef.AtlasEntityDef;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -66,6 +67,42 @@ public class EntitiesExtractor {
         }
     }
 
+    /**
+     * Called by export workers, to run the graph queries get() would run for the entity and its referred entities.
+     * Only the queries of vertex based full fetch are run ahead, as these don't depend on the traversal state.
+     */
+    public void prefetch(AtlasEntityWithExtInfo entityWithExtInfo, ExportService.ExportContext context) {
+        VertexExtractor vertexExtractor = getFullFetchVertexExtractor(context);
+
+        if (vertexExtractor == null) {
+            return;
+        }
+
+        vertexExtractor.prefetchFullFetch(entityWithExtInfo.getEntity().getGuid());
+
+        if (entityWithExtInfo.getReferredEntities() != null) {
+            for (String guid : entityWithExtInfo.getReferredEntities().keySet()) {
+                vertexExtractor.prefetchFullFetch(guid);
+            }
+        }
+    }
+
+    public void discardPrefetched(AtlasEntityWithExtInfo entityWithExtInfo, ExportService.ExportContext context) {
+        VertexExtractor vertexExtractor = getFullFetchVertexExtractor(context);
+
+        if (vertexExtractor == null) {
+            return;
+        }
+
+        vertexExtractor.discardPrefetched(entityWithExtInfo.getEntity().getGuid());
+
+        if (entityWithExtInfo.getReferredEntities() != null) {
+            for (String guid : entityWithExtInfo.getReferredEntities().keySet()) {
+                vertexExtractor.discardPrefetched(guid);
+            }
+        }
+    }
+
     public void setExtractor(AtlasEntityDef atlasEntityDef) {
         extractor = extractUsing(atlasEntityDef);
     }
@@ -76,6 +113,22 @@ public class EntitiesExtractor {
         }
     }
 
+    private VertexExtractor getFullFetchVertexExtractor(ExportService.ExportContext context) {
+        switch (context.fetchType) {
+            case CONNECTED:
+                return null;
+
+            case INCREMENTAL:
+                if (context.isHiveDBIncrementalSkipLineage() || context.isHiveTableIncrementalSkipLineage()) {
+                    return null;
+                }
+
+            case FULL:
+            default:
+                return (extractor == null || extractor instanceof VertexExtractor) ? (VertexExtractor) extractors.get(VERTEX_BASED_EXTRACT) : null;
+        }
+    }
+
     private ExtractStrategy extractUsing(AtlasEntityDef atlasEntityDef) {
         return (atlasEntityDef == null || atlasEntityDef.getRelationshipAttributeDefs().size() == 0)
                 ? extractors.get(VERTEX_BASED_EXTRACT)
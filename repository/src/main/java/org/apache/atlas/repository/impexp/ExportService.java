@@ -18,6 +18,8 @@
 package org.apache.atlas.repository.impexp;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasExportRequest;
@@ -33,6 +35,7 @@ import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.repository.util.SpillableGuidSet;
 import org.apache.atlas.repository.util.UniqueList;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasGremlinQueryProvider;
@@ -42,12 +45,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.atlas.model.impexp.AtlasExportRequest.FETCH_TYPE_CONNECTED;
 import static org.apache.atlas.model.impexp.AtlasExportRequest.FETCH_TYPE_FULL;
@@ -57,7 +67,11 @@ import static org.apache.atlas.model.impexp.AtlasExportRequest.FETCH_TYPE_INCREM
 public class ExportService {
     private static final Logger LOG = LoggerFactory.getLogger(ExportService.class);
 
+    private static final String EXTRACTOR_NAME_FORMAT  = "atlas-export-%d";
+    private static final int    EXTRACTIONS_PER_WORKER = 10;
+
     private final AtlasTypeRegistry         typeRegistry;
+    private final AtlasGraph                graph;
     private final StartEntityFetchByExportRequest startEntityFetchByExportRequest;
     private final EntitiesExtractor         entitiesExtractor;
     private       AuditsWriter              auditsWriter;
@@ -69,6 +83,7 @@ public class ExportService {
     public ExportService(final AtlasTypeRegistry typeRegistry, AtlasGraph graph,
                          AuditsWriter auditsWriter, HdfsPathEntityCreator hdfsPathEntityCreator) {
         this.typeRegistry         = typeRegistry;
+        this.graph                = graph;
         this.entityGraphRetriever = new EntityGraphRetriever(graph, this.typeRegistry);
         this.auditsWriter         = auditsWriter;
         this.hdfsPathEntityCreator = hdfsPathEntityCreator;
@@ -88,14 +103,22 @@ public class ExportService {
         try {
             LOG.info("==> export(user={}, from={})", userName, requestingIP);
 
+            startExtractionPool(context, AtlasConfiguration.EXPORT_NUM_WORKERS.getInt());
+
             AtlasExportResult.OperationStatus[] statuses = processItems(request, context);
 
+            exportSink.stopPipelinedWrites();
+
             processTypesDef(context);
             long endTime = System.currentTimeMillis();
             updateSinkWithOperationMetrics(userName, context, statuses, startTime, endTime);
         } catch(Exception ex) {
             LOG.error("Operation failed: ", ex);
         } finally {
+            if (context.extractionPool != null) {
+                context.extractionPool.shutdownNow();
+            }
+
             entitiesExtractor.close();
 
             LOG.info("<== export(user={}, from={}): status {}: changeMarker: {}",
@@ -107,6 +130,24 @@ public class ExportService {
         return context.result;
     }
 
+    /**
+     * With more than one worker, entities are read from the graph by a pool of workers, while the calling thread
+     * follows the traversal - processing entities in the order they are queued, as with a single worker. JSON encoding
+     * and writing to the zip is done in a separate thread by the sink.
+     */
+    private void startExtractionPool(ExportContext context, int numWorkers) {
+        if (numWorkers <= 1) {
+            return;
+        }
+
+        LOG.info("export(): using {} workers", numWorkers);
+
+        context.extractionPool         = Executors.newFixedThreadPool(numWorkers, new ThreadFactoryBuilder().setNameFormat(EXTRACTOR_NAME_FORMAT).setDaemon(true).build());
+        context.maxExtractionsInFlight = numWorkers * EXTRACTIONS_PER_WORKER;
+
+        context.sink.startPipelinedWrites(AtlasConfiguration.EXPORT_WRITER_QUEUE_SIZE.getInt());
+    }
+
     private long getCurrentChangeMarker() {
         return RequestContext.earliestActiveRequestTime();
     }
@@ -202,15 +243,10 @@ public class ExportService {
 
             entitiesExtractor.setExtractor(typeRegistry.getEntityDefByName(item.getTypeName()));
 
-            for (String guid : entityGuids) {
-                processEntityGuid(guid, context);
-            }
+            processEntityGuids(entityGuids.iterator(), context);
 
             while (!context.guidsToProcess.isEmpty()) {
-                while (!context.guidsToProcess.isEmpty()) {
-                    String guid = context.guidsToProcess.remove(0);
-                    processEntityGuid(guid, context);
-                }
+                processEntityGuids(context.guidsToProcessIterator(), context);
 
                 if (!context.lineageToProcess.isEmpty()) {
                     context.guidsToProcess.addAll(context.lineageToProcess);
@@ -238,6 +274,65 @@ public class ExportService {
         return startEntityFetchByExportRequest.get(context.result.getRequest(), item);
     }
 
+    private void processEntityGuids(Iterator<String> guids, ExportContext context) throws AtlasBaseException {
+        if (context.extractionPool == null) {
+            while (guids.hasNext()) {
+                processEntityGuid(guids.next(), context);
+            }
+
+            return;
+        }
+
+        // entities are read by workers ahead of the traversal; the traversal state is updated only by this thread
+        Deque<Extraction> extractions = new ArrayDeque<>();
+
+        try {
+            while (true) {
+                while (extractions.size() < context.maxExtractionsInFlight && guids.hasNext()) {
+                    String guid = guids.next();
+
+                    if (!context.guidsProcessed.contains(guid)) {
+                        extractions.add(new Extraction(guid, context.extractionPool.submit(() -> extractEntity(guid, context))));
+                    }
+                }
+
+                Extraction extraction = extractions.poll();
+
+                if (extraction == null) {
+                    break;
+                }
+
+                AtlasEntityWithExtInfo entityWithExtInfo = extraction.get();
+
+                // the entity might have been processed, as a referred entity, after it was queued for extraction
+                if (context.guidsProcessed.contains(extraction.guid)) {
+                    entitiesExtractor.discardPrefetched(entityWithExtInfo, context);
+
+                    continue;
+                }
+
+                processEntity(entityWithExtInfo, context);
+            }
+        } finally {
+            for (Extraction extraction : extractions) {
+                extraction.future.cancel(true);
+            }
+        }
+    }
+
+    // called by extraction workers
+    private AtlasEntityWithExtInfo extractEntity(String guid, ExportContext context) throws AtlasBaseException {
+        try {
+            AtlasEntityWithExtInfo ret = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+
+            entitiesExtractor.prefetch(ret, context);
+
+            return ret;
+        } finally {
+            graph.rollback(); // release the read transaction of this worker thread
+        }
+    }
+
     private void processEntityGuid(String guid, ExportContext context) throws AtlasBaseException {
 
         if (LOG.isDebugEnabled()) {
@@ -301,6 +396,32 @@ public class ExportService {
         context.reportProgress();
     }
 
+    private static class Extraction {
+        final String                         guid;
+        final Future<AtlasEntityWithExtInfo> future;
+
+        Extraction(String guid, Future<AtlasEntityWithExtInfo> future) {
+            this.guid   = guid;
+            this.future = future;
+        }
+
+        AtlasEntityWithExtInfo get() throws AtlasBaseException {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AtlasBaseException) {
+                    throw (AtlasBaseException) e.getCause();
+                }
+
+                throw new AtlasBaseException(String.format("Error reading entity %s.", guid), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException(String.format("Interrupted while reading entity %s.", guid), e);
+            }
+        }
+    }
+
     public enum TraversalDirection {
         UNKNOWN,
         INWARD,
@@ -337,7 +458,7 @@ public class ExportService {
 
 
         final UniqueList<String>              entityCreationOrder = new UniqueList<>();
-        final Set<String>                     guidsProcessed = new HashSet<>();
+        final SpillableGuidSet                guidsProcessed = new SpillableGuidSet(AtlasConfiguration.EXPORT_VISITED_SET_MAX_IN_MEMORY.getInt(), AtlasConfiguration.EXPORT_TEMP_DIRECTORY.getString());
         final UniqueList<String>              guidsToProcess = new UniqueList<>();
         final UniqueList<String>              lineageToProcess = new UniqueList<>();
         final Set<String>                     lineageProcessed = new HashSet<>();
@@ -355,6 +476,8 @@ public class ExportService {
         final boolean                     skipLineage;
         final long                        changeMarker;
         boolean isSkipConnectedFetch;
+        ExecutorService extractionPool;
+        int             maxExtractionsInFlight;
         private final boolean isHiveDBIncremental;
         private final boolean isHiveTableIncremental;
 
@@ -414,10 +537,25 @@ public class ExportService {
 
         public void clear() {
             guidsToProcess.clear();
-            guidsProcessed.clear();
+            guidsProcessed.close();
             guidDirection.clear();
         }
 
+        // takes guids off guidsToProcess, including the ones added while iterating
+        public Iterator<String> guidsToProcessIterator() {
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return !guidsToProcess.isEmpty();
+                }
+
+                @Override
+                public String next() {
+                    return guidsToProcess.remove(0);
+                }
+            };
+        }
+
         public void addToBeProcessed(boolean isSuperTypeProcess, String guid, TraversalDirection direction) {
             if(isSuperTypeProcess) {
                 lineageToProcess.add(guid);
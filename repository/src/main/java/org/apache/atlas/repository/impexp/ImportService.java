@@ -197,7 +197,12 @@ public class ImportService {
             LOG.info("==> import(user={}, from={}, fileName={})", userName, requestingIP, fileName);
 
             File file = new File(fileName);
-            result = run(new FileInputStream(file), request, userName, hostName, requestingIP);
+
+            if (isZipSourceIndexed(request)) {
+                result = run(new ZipSourceIndexed(file), request, userName, hostName, requestingIP);
+            } else {
+                result = run(new FileInputStream(file), request, userName, hostName, requestingIP);
+            }
         } catch (AtlasBaseException excp) {
             LOG.error("import(user={}, from={}, fileName={}): failed", userName, requestingIP, excp);
 
@@ -260,6 +265,10 @@ public class ImportService {
                 return getZipDirectEntityImportStream(request, inputStream);
             }
 
+            if (isZipSourceIndexed(request)) {
+                return new ZipSourceIndexed(inputStream, configuredTemporaryDirectory);
+            }
+
             if (StringUtils.isEmpty(configuredTemporaryDirectory)) {
                 return new ZipSource(inputStream);
             }
@@ -293,6 +302,11 @@ public class ImportService {
                 exportRequest.getSkipLineageOptionValue();
     }
 
+    private boolean isZipSourceIndexed(AtlasImportRequest request) {
+        return AtlasConfiguration.IMPORT_ZIP_SOURCE_INDEXED.getBoolean() && !isMigrationMode(request) &&
+                !StringUtils.equals(request.getOptions().get(AtlasImportRequest.OPTION_KEY_FORMAT), AtlasImportRequest.OPTION_KEY_FORMAT_ZIP_DIRECT);
+    }
+
     private boolean isMigrationMode(AtlasImportRequest request) {
         return request.getOptions().containsKey(AtlasImportRequest.OPTION_KEY_MIGRATION);
     }
@@ -32,9 +32,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.apache.atlas.repository.impexp.EntitiesExtractor.PROPERTY_GUID;
 
@@ -47,6 +51,8 @@ public class VertexExtractor implements ExtractStrategy {
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
 
     private final Map<String, Object> bindings;
+    private final Map<String, List<Map<String, Object>>> prefetchedResults = new ConcurrentHashMap<>();
+    private final Queue<ScriptEngine> prefetchScriptEngines = new ConcurrentLinkedQueue<>();
     private AtlasGraph atlasGraph;
     private AtlasTypeRegistry typeRegistry;
     private ScriptEngine scriptEngine;
@@ -69,12 +75,16 @@ public class VertexExtractor implements ExtractStrategy {
             LOG.debug("==> fullFetch({}): guidsToProcess {}", AtlasTypeUtil.getAtlasObjectId(entity), context.guidsToProcess.size());
         }
 
-        String query = this.gremlinQueryProvider.getQuery(AtlasGremlinQueryProvider.AtlasGremlinQuery.EXPORT_BY_GUID_FULL);
+        List<Map<String, Object>> result = prefetchedResults.remove(entity.getGuid());
 
-        bindings.clear();
-        bindings.put(QUERY_BINDING_START_GUID, entity.getGuid());
+        if (result == null) {
+            String query = this.gremlinQueryProvider.getQuery(AtlasGremlinQueryProvider.AtlasGremlinQuery.EXPORT_BY_GUID_FULL);
 
-        List<Map<String, Object>> result = executeGremlinQuery(query, context);
+            bindings.clear();
+            bindings.put(QUERY_BINDING_START_GUID, entity.getGuid());
+
+            result = executeGremlinQuery(query, context);
+        }
 
         if (CollectionUtils.isEmpty(result)) {
             return;
@@ -111,11 +121,50 @@ public class VertexExtractor implements ExtractStrategy {
         }
     }
 
+    /**
+     * Runs the query of fullFetch() for the given entity, for fullFetch() to use the result. Called by export workers,
+     * each using a script engine of its own.
+     */
+    public void prefetchFullFetch(String guid) {
+        ScriptEngine engine = prefetchScriptEngines.poll();
+
+        try {
+            if (engine == null) {
+                engine = atlasGraph.getGremlinScriptEngine();
+            }
+
+            String              query    = this.gremlinQueryProvider.getQuery(AtlasGremlinQueryProvider.AtlasGremlinQuery.EXPORT_BY_GUID_FULL);
+            Map<String, Object> bindings = new HashMap<>();
+
+            bindings.put(QUERY_BINDING_START_GUID, guid);
+
+            List<Map<String, Object>> result = (List<Map<String, Object>>) atlasGraph.executeGremlinScript(engine, bindings, query, false);
+
+            prefetchedResults.put(guid, result != null ? result : Collections.emptyList());
+        } catch (AtlasBaseException | ScriptException e) {
+            LOG.warn("prefetchFullFetch({}): failed; query will be run by fullFetch()", guid, e);
+        } finally {
+            if (engine != null) {
+                prefetchScriptEngines.offer(engine);
+            }
+        }
+    }
+
+    public void discardPrefetched(String guid) {
+        prefetchedResults.remove(guid);
+    }
+
     @Override
     public void close() {
         if (scriptEngine != null) {
             atlasGraph.releaseGremlinScriptEngine(scriptEngine);
         }
+
+        for (ScriptEngine engine = prefetchScriptEngines.poll(); engine != null; engine = prefetchScriptEngines.poll()) {
+            atlasGraph.releaseGremlinScriptEngine(engine);
+        }
+
+        prefetchedResults.clear();
     }
 
     private void getConnectedEntityGuids(AtlasEntity entity, ExportService.ExportContext context, ExportService.TraversalDirection... directions) {
@@ -17,10 +17,12 @@
  */
 package org.apache.atlas.repository.impexp;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasExportResult;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.util.SpillableGuidSet;
 import org.apache.atlas.type.AtlasType;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -28,9 +30,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -38,42 +40,94 @@ public class ZipSink {
     private static final Logger LOG = LoggerFactory.getLogger(ZipSink.class);
 
     private static String FILE_EXTENSION_JSON = ".json";
+    private static final PendingWrite WRITER_EOF = new PendingWrite(null, null);
 
-    private ZipOutputStream zipOutputStream;
-    final Set<String>       guids = new HashSet<>();
+    private ZipOutputStream             zipOutputStream;
+    final SpillableGuidSet              guids;
+    private BlockingQueue<PendingWrite> pendingWrites;
+    private Thread                      writerThread;
+    private volatile Exception          writeError;
 
     public ZipSink(OutputStream outputStream) {
         zipOutputStream = new ZipOutputStream(outputStream);
+        guids           = new SpillableGuidSet(AtlasConfiguration.EXPORT_VISITED_SET_MAX_IN_MEMORY.getInt(), AtlasConfiguration.EXPORT_TEMP_DIRECTORY.getString());
+    }
+
+    /**
+     * Moves JSON encoding and writing to the zip to a separate thread, so that the caller can continue to read entities
+     * from the graph. Writes are queued in the order they are made; the caller blocks when queueSize writes are pending.
+     */
+    public void startPipelinedWrites(int queueSize) {
+        if (pendingWrites != null) {
+            return;
+        }
+
+        pendingWrites = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        writerThread  = new Thread(this::writePending, "atlas-export-writer");
+
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Waits for pending writes to complete; subsequent writes are made by the caller thread.
+     */
+    public void stopPipelinedWrites() throws AtlasBaseException {
+        if (pendingWrites == null) {
+            return;
+        }
+
+        try {
+            if (writeError == null) {
+                pendingWrites.put(WRITER_EOF);
+            } else {
+                writerThread.interrupt();
+            }
+
+            writerThread.join();
+        } catch (InterruptedException e) {
+            writerThread.interrupt();
+
+            throw new AtlasBaseException("Interrupted while waiting for pending writes.", e);
+        } finally {
+            pendingWrites = null;
+            writerThread  = null;
+        }
+
+        checkWriteError();
     }
 
     public void add(AtlasEntity entity) throws AtlasBaseException {
-        String jsonData = convertToJSON(entity);
-        saveToZip(entity.getGuid(), jsonData);
         recordAddedEntityGuids(entity);
+        write(entity.getGuid(), entity);
     }
 
     public void add(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) throws AtlasBaseException {
-        String jsonData = convertToJSON(entityWithExtInfo);
-        saveToZip(entityWithExtInfo.getEntity().getGuid(), jsonData);
         recordAddedEntityGuids(entityWithExtInfo);
+        write(entityWithExtInfo.getEntity().getGuid(), entityWithExtInfo);
     }
 
     public void setResult(AtlasExportResult result) throws AtlasBaseException {
-        String jsonData = convertToJSON(result);
-        saveToZip(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME, jsonData);
+        write(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME.toString(), result);
     }
 
     public void setTypesDef(AtlasTypesDef typesDef) throws AtlasBaseException {
-        String jsonData = convertToJSON(typesDef);
-        saveToZip(ZipExportFileNames.ATLAS_TYPESDEF_NAME, jsonData);
+        write(ZipExportFileNames.ATLAS_TYPESDEF_NAME.toString(), typesDef);
     }
 
     public void setExportOrder(List<String> result) throws AtlasBaseException {
-        String jsonData = convertToJSON(result);
-        saveToZip(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME, jsonData);
+        write(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString(), result);
     }
 
     public void close() {
+        try {
+            stopPipelinedWrites();
+        } catch (AtlasBaseException e) {
+            LOG.error("Error writing to Zip file", e);
+        }
+
+        guids.close();
+
         try {
             if(zipOutputStream != null) {
                 zipOutputStream.close();
@@ -84,12 +138,50 @@ public class ZipSink {
         }
     }
 
-    private String convertToJSON(Object entity) {
-        return AtlasType.toJson(entity);
+    private void write(String fileName, Object obj) throws AtlasBaseException {
+        if (pendingWrites == null) {
+            saveToZip(fileName, convertToJSON(obj));
+
+            return;
+        }
+
+        checkWriteError();
+
+        try {
+            pendingWrites.put(new PendingWrite(fileName, obj));
+        } catch (InterruptedException e) {
+            throw new AtlasBaseException(String.format("Interrupted while writing file %s.", fileName), e);
+        }
+    }
+
+    private void writePending() {
+        try {
+            for (PendingWrite write = pendingWrites.take(); write != WRITER_EOF; write = pendingWrites.take()) {
+                saveToZip(write.fileName, convertToJSON(write.obj));
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("ZipSink: writer interrupted");
+        } catch (Exception e) {
+            LOG.error("ZipSink: write failed", e);
+
+            writeError = e;
+
+            pendingWrites.clear(); // unblock the caller, which will find writeError on next write
+        }
     }
 
-    private void saveToZip(ZipExportFileNames fileName, String jsonData) throws AtlasBaseException {
-        saveToZip(fileName.toString(), jsonData);
+    private void checkWriteError() throws AtlasBaseException {
+        Exception e = writeError;
+
+        if (e instanceof AtlasBaseException) {
+            throw (AtlasBaseException) e;
+        } else if (e != null) {
+            throw new AtlasBaseException("Error writing to Zip file.", e);
+        }
+    }
+
+    private String convertToJSON(Object entity) {
+        return AtlasType.toJson(entity);
     }
 
     private void saveToZip(String fileName, String jsonData) throws AtlasBaseException {
@@ -143,4 +235,14 @@ public class ZipSink {
     private void recordAddedEntityGuids(AtlasEntity entity) {
         guids.add(entity.getGuid());
     }
+
+    private static class PendingWrite {
+        final String fileName;
+        final Object obj;
+
+        PendingWrite(String fileName, Object obj) {
+            this.fileName = fileName;
+            this.obj      = obj;
+        }
+    }
 }
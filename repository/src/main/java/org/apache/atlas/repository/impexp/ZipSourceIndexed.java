@@ -0,0 +1,366 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.entitytransform.BaseEntityHandler;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.atlas.utils.LruCache;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.apache.atlas.AtlasErrorCode.IMPORT_ATTEMPTING_EMPTY_ZIP;
+
+/**
+ * Reads the import zip using random access: only the creation order is held in memory, and each entity is read and
+ * parsed from its zip entry when requested - unlike ZipSource, which reads contents of all entries into memory, and
+ * ZipSourceWithBackingDirectory, which extracts all entries to the disk.
+ *
+ * A zip sent as a stream is copied, as is, to a temporary file. A small LRU cache holds entities looked up with
+ * getByGuid(), as the same entities are often looked up repeatedly, like a table referred to by each of its columns.
+ */
+public class ZipSourceIndexed implements EntityImportStream {
+    private static final Logger LOG = LoggerFactory.getLogger(ZipSourceIndexed.class);
+
+    private static final String EXT_JSON              = ".json";
+    private static final String TEMPORARY_FILE_PREFIX = "atlas-import-";
+    private static final String TEMPORARY_FILE_SUFFIX = ".zip";
+
+    private final File                     file;
+    private final boolean                  isTemporaryFile;
+    private final ZipFile                  zipFile;
+    private final Map<String, AtlasEntity> entityCache;
+    private final List<String>             creationOrder;
+    private ImportTransforms               importTransform;
+    private List<BaseEntityHandler>        entityHandlers;
+    private int                            nextIndex;
+    private int                            currentPosition;
+
+    public ZipSourceIndexed(File file) throws IOException, AtlasBaseException {
+        this(file, false);
+    }
+
+    public ZipSourceIndexed(InputStream inputStream, String temporaryDirectory) throws IOException, AtlasBaseException {
+        this(copyToTemporaryFile(inputStream, temporaryDirectory), true);
+    }
+
+    private ZipSourceIndexed(File file, boolean isTemporaryFile) throws IOException, AtlasBaseException {
+        if (!file.exists()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+
+        if (file.length() == 0) {
+            deleteIfTemporary(file, isTemporaryFile);
+
+            throw new AtlasBaseException(IMPORT_ATTEMPTING_EMPTY_ZIP, "Attempting to import empty ZIP.");
+        }
+
+        this.file            = file;
+        this.isTemporaryFile = isTemporaryFile;
+        this.entityCache     = new LruCache<>(AtlasConfiguration.IMPORT_ZIP_SOURCE_CACHE_SIZE.getInt(), 0);
+
+        try {
+            this.zipFile = new ZipFile(file);
+        } catch (IOException excp) {
+            deleteIfTemporary(file, isTemporaryFile);
+
+            throw new AtlasBaseException(IMPORT_ATTEMPTING_EMPTY_ZIP, excp, "Attempting to import invalid ZIP.");
+        }
+
+        List<String> order;
+
+        try {
+            order = readEntry(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString(), List.class);
+        } catch (AtlasBaseException excp) {
+            close();
+
+            throw excp;
+        }
+
+        if (CollectionUtils.isEmpty(order)) {
+            close();
+
+            throw new AtlasBaseException(IMPORT_ATTEMPTING_EMPTY_ZIP, "Attempting to import empty ZIP.");
+        }
+
+        this.creationOrder = new ArrayList<>(order);
+
+        LOG.info("ZipSourceIndexed: {}: entries: {}, entities: {}", file, zipFile.size(), creationOrder.size());
+    }
+
+    @Override
+    public ImportTransforms getImportTransform() { return this.importTransform; }
+
+    @Override
+    public void setImportTransform(ImportTransforms importTransform) {
+        this.importTransform = importTransform;
+    }
+
+    @Override
+    public List<BaseEntityHandler> getEntityHandlers() {
+        return entityHandlers;
+    }
+
+    @Override
+    public void setEntityHandlers(List<BaseEntityHandler> entityHandlers) {
+        this.entityHandlers = entityHandlers;
+    }
+
+    @Override
+    public AtlasTypesDef getTypesDef() throws AtlasBaseException {
+        return readEntry(ZipExportFileNames.ATLAS_TYPESDEF_NAME.toString(), AtlasTypesDef.class);
+    }
+
+    @Override
+    public AtlasExportResult getExportResult() throws AtlasBaseException {
+        return readEntry(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME.toString(), AtlasExportResult.class);
+    }
+
+    @Override
+    public List<String> getCreationOrder() {
+        return Collections.unmodifiableList(creationOrder);
+    }
+
+    @Override
+    public AtlasEntityWithExtInfo getEntityWithExtInfo(String guid) throws AtlasBaseException {
+        // the entity returned might be updated by the caller, hence the cached copy is not returned; it is removed,
+        // as it is likely to go stale after the entity is imported
+        synchronized (entityCache) {
+            entityCache.remove(guid);
+        }
+
+        return readEntityWithExtInfo(guid);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextIndex < creationOrder.size();
+    }
+
+    @Override
+    public AtlasEntity next() {
+        AtlasEntityWithExtInfo entityWithExtInfo = getNextEntityWithExtInfo();
+
+        return entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+    }
+
+    @Override
+    public AtlasEntityWithExtInfo getNextEntityWithExtInfo() {
+        if (!hasNext()) {
+            return null;
+        }
+
+        try {
+            currentPosition++;
+
+            return getEntityWithExtInfo(creationOrder.get(nextIndex++));
+        } catch (AtlasBaseException e) {
+            LOG.warn("getNextEntityWithExtInfo", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void reset() {
+        nextIndex = 0;
+    }
+
+    @Override
+    public AtlasEntity getByGuid(String guid) {
+        synchronized (entityCache) {
+            AtlasEntity ret = entityCache.get(guid);
+
+            if (ret != null) {
+                return ret;
+            }
+        }
+
+        try {
+            AtlasEntityWithExtInfo entityWithExtInfo = readEntityWithExtInfo(guid);
+            AtlasEntity            ret               = entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+
+            if (ret != null) {
+                synchronized (entityCache) {
+                    entityCache.put(guid, ret);
+                }
+            }
+
+            return ret;
+        } catch (AtlasBaseException e) {
+            LOG.error("getByGuid: {} failed!", guid, e);
+            return null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return creationOrder.size();
+    }
+
+    @Override
+    public void onImportComplete(String guid) {
+        synchronized (entityCache) {
+            entityCache.remove(guid);
+        }
+    }
+
+    // same as ZipSource: entities up to, and including, the given index are skipped
+    @Override
+    public void setPosition(int index) {
+        currentPosition = index;
+        nextIndex       = Math.min(Math.max(index + 1, 0), creationOrder.size());
+
+        synchronized (entityCache) {
+            entityCache.clear();
+        }
+    }
+
+    @Override
+    public void setPositionUsingEntityGuid(String guid) {
+        if (StringUtils.isBlank(guid)) {
+            return;
+        }
+
+        int index = creationOrder.indexOf(guid);
+        if (index == -1) {
+            return;
+        }
+
+        setPosition(index);
+    }
+
+    @Override
+    public int getPosition() {
+        return currentPosition;
+    }
+
+    @Override
+    public void close() {
+        synchronized (entityCache) {
+            entityCache.clear();
+        }
+
+        try {
+            if (zipFile != null) {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            LOG.warn("Import: Error closing: {}", file, e);
+        } finally {
+            deleteIfTemporary(file, isTemporaryFile);
+        }
+    }
+
+    private AtlasEntityWithExtInfo readEntityWithExtInfo(String guid) throws AtlasBaseException {
+        AtlasEntityWithExtInfo entityWithExtInfo = readEntry(guid, AtlasEntityWithExtInfo.class);
+
+        if (entityWithExtInfo == null) {
+            return null;
+        }
+
+        if (importTransform != null) {
+            entityWithExtInfo = importTransform.apply(entityWithExtInfo);
+        }
+
+        if (entityHandlers != null) {
+            applyTransformers(entityWithExtInfo);
+        }
+
+        return entityWithExtInfo;
+    }
+
+    // JSON is parsed as it is inflated from the zip entry, without reading the entry into a string
+    private <T> T readEntry(String entryName, Class<T> clazz) throws AtlasBaseException {
+        ZipEntry entry = zipFile.getEntry(entryName + EXT_JSON);
+
+        if (entry == null) {
+            LOG.warn("Could not fetch requested contents of file: {}", entryName);
+
+            return null;
+        }
+
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            return AtlasJson.fromJson(inputStream, clazz);
+        } catch (Exception e) {
+            throw new AtlasBaseException("Error converting file to JSON.", e);
+        }
+    }
+
+    private void applyTransformers(AtlasEntityWithExtInfo entityWithExtInfo) {
+        transform(entityWithExtInfo.getEntity());
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
+                transform(e);
+            }
+        }
+    }
+
+    private void transform(AtlasEntity e) {
+        for (BaseEntityHandler handler : entityHandlers) {
+            handler.transform(e);
+        }
+    }
+
+    private static File copyToTemporaryFile(InputStream inputStream, String temporaryDirectory) throws IOException {
+        File directory = StringUtils.isNotEmpty(temporaryDirectory) ? new File(temporaryDirectory) : null;
+        File ret       = File.createTempFile(TEMPORARY_FILE_PREFIX, TEMPORARY_FILE_SUFFIX, directory);
+
+        LOG.info("Import: Temporary file: {}", ret);
+
+        try {
+            Files.copy(inputStream, ret.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            deleteIfTemporary(ret, true);
+
+            throw excp;
+        } finally {
+            inputStream.close();
+        }
+
+        return ret;
+    }
+
+    private static void deleteIfTemporary(File file, boolean isTemporaryFile) {
+        if (isTemporaryFile && file.exists() && !file.delete()) {
+            LOG.warn("Import: Error deleting temporary file: {}", file);
+        }
+    }
+}
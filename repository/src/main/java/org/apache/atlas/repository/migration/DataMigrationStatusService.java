@@ -24,10 +24,14 @@ import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.getEncodedProperty;
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.setEncodedProperty;
@@ -104,11 +108,23 @@ public class DataMigrationStatusService {
         this.migrationStatusVertexManagement.updateVertexPartialStatus(this.status);
     }
 
+    public void saveProgress(long processedCount, long entitiesPerSecond, long stallTimeInMs, Map<String, Long> typeCounts) {
+        this.status.setCurrentCounter(processedCount);
+        this.status.setEntitiesPerSecond(entitiesPerSecond);
+        this.status.setStallTimeInMs(stallTimeInMs);
+        this.status.setTypeCounts(typeCounts);
+        this.migrationStatusVertexManagement.updateVertexPartialProgress(this.status);
+    }
+
     private static class MigrationStatusVertexManagement {
         public static final String PROPERTY_KEY_START_TIME = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.startTime");
         public static final String PROPERTY_KEY_SIZE = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.size");
         public static final String PROPERTY_KEY_POSITION = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.position");
         public static final String PROPERTY_KEY_STATUS = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.status");
+        public static final String PROPERTY_KEY_COUNTER = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.counter");
+        public static final String PROPERTY_KEY_ENTITIES_PER_SECOND = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.entitiesPerSecond");
+        public static final String PROPERTY_KEY_STALL_TIME = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.stallTime");
+        public static final String PROPERTY_KEY_TYPE_COUNTS = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "migration.typeCounts");
 
         private AtlasGraph graph;
         private AtlasVertex vertex;
@@ -190,6 +206,22 @@ public class DataMigrationStatusService {
             }
         }
 
+        public void updateVertexPartialProgress(MigrationImportStatus status) {
+            try {
+                setEncodedProperty(vertex, PROPERTY_KEY_COUNTER, status.getCurrentCounter());
+                setEncodedProperty(vertex, PROPERTY_KEY_ENTITIES_PER_SECOND, status.getEntitiesPerSecond());
+                setEncodedProperty(vertex, PROPERTY_KEY_STALL_TIME, status.getStallTimeInMs());
+
+                if (status.getTypeCounts() != null) {
+                    setEncodedProperty(vertex, PROPERTY_KEY_TYPE_COUNTS, AtlasType.toJson(status.getTypeCounts()));
+                }
+            } catch (Exception e) {
+                LOG.warn("Error updating progress. Please rely on log messages.", e);
+            } finally {
+                graph.commit();
+            }
+        }
+
         private void updateVertex(AtlasVertex vertex, MigrationImportStatus status) {
             try {
                 setEncodedProperty(vertex, Constants.GUID_PROPERTY_KEY, status.getName());
@@ -231,11 +263,45 @@ public class DataMigrationStatusService {
                 }
 
                 ret.setOperationStatus(getEncodedProperty(vertex, PROPERTY_KEY_STATUS, String.class));
+
+                Long counter = getEncodedProperty(vertex, PROPERTY_KEY_COUNTER, Long.class);
+                if (counter != null) {
+                    ret.setCurrentCounter(counter);
+                }
+
+                Long entitiesPerSecond = getEncodedProperty(vertex, PROPERTY_KEY_ENTITIES_PER_SECOND, Long.class);
+                if (entitiesPerSecond != null) {
+                    ret.setEntitiesPerSecond(entitiesPerSecond);
+                }
+
+                Long stallTime = getEncodedProperty(vertex, PROPERTY_KEY_STALL_TIME, Long.class);
+                if (stallTime != null) {
+                    ret.setStallTimeInMs(stallTime);
+                }
+
+                String typeCounts = getEncodedProperty(vertex, PROPERTY_KEY_TYPE_COUNTS, String.class);
+                if (StringUtils.isNotEmpty(typeCounts)) {
+                    ret.setTypeCounts(toTypeCounts(AtlasType.fromJson(typeCounts, Map.class)));
+                }
             } catch (Exception ex) {
                 LOG.error("Error converting to MigrationImportStatus. Will proceed with default values.", ex);
             }
 
             return ret;
         }
+
+        private static Map<String, Long> toTypeCounts(Map<?, ?> map) {
+            Map<String, Long> ret = new HashMap<>();
+
+            if (map != null) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getValue() instanceof Number) {
+                        ret.put(String.valueOf(entry.getKey()), ((Number) entry.getValue()).longValue());
+                    }
+                }
+            }
+
+            return ret;
+        }
     }
 }
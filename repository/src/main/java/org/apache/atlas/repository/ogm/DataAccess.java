@@ -18,11 +18,15 @@
 package org.apache.atlas.repository.ogm;
 
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.SortOrder;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.AtlasBaseModelObject;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.ogm.glossary.GlossaryCache;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
 import org.apache.atlas.utils.AtlasPerfTracer;
@@ -45,11 +49,13 @@ public class DataAccess {
 
     private final AtlasEntityStore entityStore;
     private final DTORegistry      dtoRegistry;
+    private final GlossaryCache    glossaryCache;
 
     @Inject
-    public DataAccess(AtlasEntityStore entityStore, DTORegistry dtoRegistry) {
-        this.entityStore = entityStore;
-        this.dtoRegistry = dtoRegistry;
+    public DataAccess(AtlasEntityStore entityStore, DTORegistry dtoRegistry, GlossaryCache glossaryCache) {
+        this.entityStore   = entityStore;
+        this.dtoRegistry   = dtoRegistry;
+        this.glossaryCache = glossaryCache;
     }
 
     public <T extends AtlasBaseModelObject> T save(T obj) throws AtlasBaseException {
@@ -152,9 +158,23 @@ public class DataAccess {
 
             AtlasEntityWithExtInfo entityWithExtInfo;
 
-            String guid = obj.getGuid();
-            // GUID can be null/empty/-ve
-            if (StringUtils.isNotEmpty(guid) && guid.charAt(0) != '-') {
+            String  guid         = obj.getGuid();
+            boolean hasGuid      = StringUtils.isNotEmpty(guid) && guid.charAt(0) != '-'; // GUID can be null/empty/-ve
+            boolean isCacheable  = !loadDeleted && glossaryCache.isCacheable(obj.getClass());
+            long    loadTime     = 0;
+
+            if (isCacheable) {
+                Class<T> clazz = (Class<T>) obj.getClass();
+                T        ret   = hasGuid ? glossaryCache.get(guid, clazz) : glossaryCache.getByUniqueAttributes(dto.getEntityType().getTypeName(), dto.getUniqueAttributes(obj), clazz);
+
+                if (ret != null) {
+                    return ret;
+                }
+
+                loadTime = glossaryCache.getLoadTime();
+            }
+
+            if (hasGuid) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Load using GUID");
                 }
@@ -177,7 +197,13 @@ public class DataAccess {
                 throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_DELETED, guid);
             }
 
-            return dto.from(entityWithExtInfo);
+            T ret = dto.from(entityWithExtInfo);
+
+            if (isCacheable) {
+                glossaryCache.put(entityWithExtInfo.getEntity(), ret, loadTime);
+            }
+
+            return ret;
 
         } finally {
             AtlasPerfTracer.log(perf);
@@ -185,6 +211,41 @@ public class DataAccess {
 
     }
 
+    /**
+     * Loads a page of values of a relationship attribute of the given object, without loading the object along with
+     * all values of the attribute.
+     */
+    public <T extends AtlasBaseModelObject> List<AtlasRelatedObjectId> loadRelationshipAttribute(T obj, String attributeName, boolean activeOnly, SortOrder sortOrder, int offset, int limit) throws AtlasBaseException {
+        Objects.requireNonNull(obj, "Can't load a null object");
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DataAccess.loadRelationshipAttribute(" + attributeName + ")");
+            }
+
+            DataTransferObject<T> dto    = (DataTransferObject<T>) dtoRegistry.get(obj.getClass());
+            String                guid   = obj.getGuid();
+            AtlasEntityHeader     header = entityStore.getHeaderById(guid);
+
+            // same checks as load()
+            String actualTypeName   = header.getTypeName();
+            String expectedTypeName = dto.getEntityType().getTypeName();
+            if (!actualTypeName.equals(expectedTypeName)) {
+                throw new AtlasBaseException(AtlasErrorCode.UNEXPECTED_TYPE, expectedTypeName, actualTypeName);
+            }
+
+            if (header.getStatus() == AtlasEntity.Status.DELETED) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_DELETED, guid);
+            }
+
+            return entityStore.getRelationshipAttributeValues(guid, attributeName, activeOnly, sortOrder, offset, limit);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     public <T extends AtlasBaseModelObject> T load(String guid, Class<? extends AtlasBaseModelObject> clazz) throws AtlasBaseException {
         DataTransferObject<T>  dto = (DataTransferObject<T>)dtoRegistry.get(clazz);
 
@@ -41,7 +41,7 @@ public abstract class AbstractGlossaryDTO<T extends AtlasBaseModelObject> extend
         super(typeRegistry, tClass, entityTypeName);
     }
 
-    protected AtlasRelatedTermHeader constructRelatedTermId(AtlasRelatedObjectId relatedObjectId) {
+    public static AtlasRelatedTermHeader constructRelatedTermId(AtlasRelatedObjectId relatedObjectId) {
         AtlasRelatedTermHeader ret = new AtlasRelatedTermHeader();
 
         ret.setTermGuid(relatedObjectId.getGuid());
@@ -82,7 +82,7 @@ public abstract class AbstractGlossaryDTO<T extends AtlasBaseModelObject> extend
         return ret;
     }
 
-    protected AtlasRelatedCategoryHeader constructRelatedCategoryId(AtlasRelatedObjectId relatedObjectId) {
+    public static AtlasRelatedCategoryHeader constructRelatedCategoryId(AtlasRelatedObjectId relatedObjectId) {
         AtlasRelatedCategoryHeader ret = new AtlasRelatedCategoryHeader();
 
         ret.setCategoryGuid(relatedObjectId.getGuid());
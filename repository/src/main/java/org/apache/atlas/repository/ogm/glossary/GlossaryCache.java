@@ -0,0 +1,681 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.ogm.glossary;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.authorize.AtlasAuthorizationUtils;
+import org.apache.atlas.authorize.AtlasEntityAccessRequest;
+import org.apache.atlas.authorize.AtlasPrivilege;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.AtlasBaseModelObject;
+import org.apache.atlas.model.glossary.AtlasGlossary;
+import org.apache.atlas.model.glossary.AtlasGlossaryCategory;
+import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of glossaries, terms and categories loaded via DataAccess, shared across requests. Term assignment, term
+ * search and glossary browsing load the same glossary objects again and again, and each load from the graph maps all
+ * relations of the object - like all terms of a glossary.
+ *
+ * Objects are held as JSON, indexed by guid and by qualifiedName; each read returns a new copy, after verifying read
+ * access to the object the same way as AtlasEntityStore.getById(). Each entry records guids of the objects it is
+ * related to: its glossary, parent and child categories, categorized terms, related terms and assigned entities.
+ * When an object changes, the entry of the object is removed along with entries of objects it is related to and
+ * entries of objects related to it, as relations and display texts in them might have changed. Changes are received
+ * via EntityChangeListenerV2: entries are removed right away, so that rest of the transaction doesn't use them, and
+ * again after the transaction completes. Changes to entities other than glossaries, terms and categories are ignored,
+ * unless a cached object is related to the entity. An object is not added to the cache if the object, or an object it
+ * is related to, was invalidated after the graph transaction that loaded it started, as the transaction might have
+ * read the object before the change was committed. Time of invalidation is tracked for the most recent
+ * MAX_INVALIDATION_TIMES guids; objects loaded before the time of older invalidations are not added.
+ *
+ * Entries are evicted in LRU order once size of the cached JSON reaches atlas.glossary.cache.max.size.mb. The cache
+ * is cleared when the server becomes active or passive, as it doesn't see changes made by other servers, and when a
+ * migration import completes, as the import doesn't notify changes.
+ */
+@Component
+public class GlossaryCache implements EntityChangeListenerV2, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(GlossaryCache.class);
+
+    private static final String        CACHE_NAME             = "glossaryCache";
+    private static final String        QUALIFIED_NAME_ATTR    = "qualifiedName";
+    private static final Set<Class<?>> CACHED_CLASSES         = new HashSet<>(Arrays.asList(AtlasGlossary.class, AtlasGlossaryTerm.class, AtlasGlossaryCategory.class));
+    private static final Set<String>   GLOSSARY_TYPES         = new HashSet<>(Arrays.asList("AtlasGlossary", "AtlasGlossaryTerm", "AtlasGlossaryCategory"));
+    private static final int           MAX_INVALIDATION_TIMES = 10000;
+
+    private final AtlasTypeRegistry        typeRegistry;
+    private final boolean                  isEnabled;
+    private final long                     maxSize;
+    private final Map<String, Entry>       entries              = new LinkedHashMap<>(16, 0.75f, true); // in LRU order
+    private final Map<String, String>      guidsByQualifiedName = new HashMap<>();
+    private final Map<String, Set<String>> referrersByGuid      = new HashMap<>();
+    private final Map<String, Long>        invalidationTimes    = new LinkedHashMap<>(); // guid -> time of its latest invalidation, in the order of invalidation
+    private final ThreadLocal<Boolean>     hasPendingChanges    = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final AtomicLong               hitCount             = new AtomicLong();
+    private final AtomicLong               missCount            = new AtomicLong();
+    private final AtomicLong               rejectedCount        = new AtomicLong();
+    private final AtomicLong               invalidationCount    = new AtomicLong();
+    private final AtomicLong               evictionCount        = new AtomicLong();
+    private final AtomicLong               clearCount           = new AtomicLong();
+    private       long                     size                 = 0; // length of cached JSON
+    private       long                     invalidationTime     = System.nanoTime(); // of the latest clear, or invalidation no longer in invalidationTimes
+
+    @Inject
+    public GlossaryCache(AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil) {
+        this(typeRegistry, metricsUtil, isCacheEnabled(), AtlasConfiguration.GLOSSARY_CACHE_MAX_SIZE_MB.getLong() * 1024 * 1024);
+    }
+
+    @VisibleForTesting
+    GlossaryCache(AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil, boolean isEnabled, long maxSize) {
+        this.typeRegistry = typeRegistry;
+        this.isEnabled    = isEnabled;
+        this.maxSize      = maxSize;
+
+        if (isEnabled && metricsUtil != null) {
+            metricsUtil.registerCacheStats(CACHE_NAME, this::getStats);
+        }
+
+        LOG.info("{}: enabled={}, maxSize={}", CACHE_NAME, isEnabled, maxSize);
+    }
+
+    public boolean isCacheable(Class<?> clazz) {
+        return isEnabled && CACHED_CLASSES.contains(clazz);
+    }
+
+    /**
+     * @return copy of the cached object, or null if the object is not in the cache
+     * @throws AtlasBaseException if the current user is not authorized to read the object
+     */
+    public <T extends AtlasBaseModelObject> T get(String guid, Class<T> clazz) throws AtlasBaseException {
+        Entry entry = null;
+
+        if (isCacheable(clazz) && !hasPendingChanges.get()) {
+            synchronized (this) {
+                entry = entries.get(guid);
+            }
+        }
+
+        return toObject(entry, clazz);
+    }
+
+    /**
+     * Same as get(), but looks up the object by its qualifiedName.
+     */
+    public <T extends AtlasBaseModelObject> T getByUniqueAttributes(String typeName, Map<String, Object> uniqueAttributes, Class<T> clazz) throws AtlasBaseException {
+        Object qualifiedName = uniqueAttributes != null && uniqueAttributes.size() == 1 ? uniqueAttributes.get(QUALIFIED_NAME_ATTR) : null;
+        Entry  entry         = null;
+
+        if (qualifiedName != null && isCacheable(clazz) && !hasPendingChanges.get()) {
+            synchronized (this) {
+                String guid = guidsByQualifiedName.get(getQualifiedNameKey(typeName, qualifiedName.toString()));
+
+                entry = guid != null ? entries.get(guid) : null;
+            }
+        }
+
+        return toObject(entry, clazz);
+    }
+
+    /**
+     * To be called before loading an object from the graph; the value is to be passed to put() after the load. Within
+     * a graph transaction, this is the time the transaction started: vertices read earlier in the transaction can be
+     * served from the transaction's cache, even after a concurrent change to them is committed.
+     */
+    public long getLoadTime() {
+        Long ret = GraphTransactionInterceptor.getTxnStartTime();
+
+        return ret != null ? ret : System.nanoTime();
+    }
+
+    /**
+     * Adds the given object, loaded from the entity, to the cache. The object is not added if the object, or an
+     * object it is related to, was invalidated at or after the given load time, as the object might have been loaded
+     * before the change.
+     */
+    public void put(AtlasEntity entity, AtlasBaseModelObject obj, long loadTime) {
+        if (!isCacheable(obj.getClass()) || hasPendingChanges.get() || entity.getStatus() != AtlasEntity.Status.ACTIVE) {
+            return;
+        }
+
+        Object qualifiedName = entity.getAttribute(QUALIFIED_NAME_ATTR);
+        Entry  entry         = new Entry(obj.getClass(), AtlasType.toJson(obj), AtlasType.toJson(new AtlasEntityHeader(entity)),
+                                         qualifiedName != null ? getQualifiedNameKey(entity.getTypeName(), qualifiedName.toString()) : null,
+                                         getRelatedGuids(entity));
+
+        if (entry.size() > maxSize) {
+            return;
+        }
+
+        String guid = entity.getGuid();
+
+        synchronized (this) {
+            if (isInvalidatedSince(guid, entry.relatedGuids, loadTime)) {
+                rejectedCount.incrementAndGet();
+
+                return;
+            }
+
+            remove(guid);
+
+            entries.put(guid, entry);
+
+            size += entry.size();
+
+            if (entry.qualifiedNameKey != null) {
+                guidsByQualifiedName.put(entry.qualifiedNameKey, guid);
+            }
+
+            for (String relatedGuid : entry.relatedGuids) {
+                referrersByGuid.computeIfAbsent(relatedGuid, k -> new HashSet<>()).add(guid);
+            }
+
+            for (Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator(); size > maxSize && iter.hasNext(); ) {
+                Map.Entry<String, Entry> eldest = iter.next();
+
+                if (eldest.getKey().equals(guid)) {
+                    continue;
+                }
+
+                iter.remove();
+
+                onRemove(eldest.getKey(), eldest.getValue());
+
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> ret  = new LinkedHashMap<>();
+        long                hits = hitCount.get();
+        long                miss = missCount.get();
+
+        synchronized (this) {
+            ret.put("entryCount", entries.size());
+            ret.put("size", size);
+        }
+
+        ret.put("maxSize", maxSize);
+        ret.put("hitCount", hits);
+        ret.put("missCount", miss);
+        ret.put("hitRatio", (hits + miss) > 0 ? ((double) hits / (hits + miss)) : 0d);
+        ret.put("rejectedCount", rejectedCount.get());
+        ret.put("invalidationCount", invalidationCount.get());
+        ret.put("evictionCount", evictionCount.get());
+        ret.put("clearCount", clearCount.get());
+
+        return ret;
+    }
+
+    @VisibleForTesting
+    void invalidate(Collection<String> guids) {
+        int count = 0;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+
+            for (String guid : guids) {
+                invalidationTimes.remove(guid); // to retain the order of invalidation
+                invalidationTimes.put(guid, now);
+
+                Entry entry = remove(guid);
+
+                if (entry != null) {
+                    count++;
+
+                    for (String relatedGuid : entry.relatedGuids) {
+                        if (remove(relatedGuid) != null) {
+                            count++;
+                        }
+                    }
+                }
+
+                Set<String> referrers = referrersByGuid.get(guid);
+
+                if (referrers != null) {
+                    for (String referrer : new ArrayList<>(referrers)) {
+                        if (remove(referrer) != null) {
+                            count++;
+                        }
+                    }
+                }
+            }
+
+            for (Iterator<Map.Entry<String, Long>> iter = invalidationTimes.entrySet().iterator(); invalidationTimes.size() > MAX_INVALIDATION_TIMES && iter.hasNext(); ) {
+                invalidationTime = iter.next().getValue();
+
+                iter.remove();
+            }
+        }
+
+        if (count > 0) {
+            invalidationCount.addAndGet(count);
+        }
+    }
+
+    public synchronized void clear() {
+        if (!entries.isEmpty()) {
+            LOG.info("{}: clearing {} entries", CACHE_NAME, entries.size());
+        }
+
+        entries.clear();
+        guidsByQualifiedName.clear();
+        referrersByGuid.clear();
+        invalidationTimes.clear();
+
+        size = 0;
+
+        invalidationTime = System.nanoTime();
+
+        clearCount.incrementAndGet();
+    }
+
+    @Override
+    public void instanceIsActive() {
+        clear();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        clear();
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.GLOSSARY_CACHE.getOrder();
+    }
+
+    // a new term or category changes relations of its glossary, parent category and other related objects
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) {
+        onChange(getGuidsWithRelatedGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) {
+        onChange(getGuidsWithRelatedGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) {
+        onChange(getGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesPurged(List<AtlasEntity> entities) {
+        onChange(getGuids(entities));
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onChange(getGuids(Collections.singletonList(entity)));
+    }
+
+    @Override
+    public void onClassificationsAdded(List<AtlasEntity> entities, List<AtlasClassification> classifications) {
+        onChange(getGuids(entities));
+    }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onChange(getGuids(Collections.singletonList(entity)));
+    }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onChange(getGuids(Collections.singletonList(entity)));
+    }
+
+    @Override
+    public void onClassificationsDeleted(List<AtlasEntity> entities, List<AtlasClassification> classifications) {
+        onChange(getGuids(entities));
+    }
+
+    @Override
+    public void onTermAdded(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) {
+        onChange(getTermAndEntityGuids(term, entities));
+    }
+
+    @Override
+    public void onTermDeleted(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) {
+        onChange(getTermAndEntityGuids(term, entities));
+    }
+
+    @Override
+    public void onRelationshipsAdded(List<AtlasRelationship> relationships, boolean isImport) {
+        onChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onRelationshipsUpdated(List<AtlasRelationship> relationships, boolean isImport) {
+        onChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onRelationshipsDeleted(List<AtlasRelationship> relationships, boolean isImport) {
+        onChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onRelationshipsPurged(List<AtlasRelationship> relationships) {
+        onChange(getEndGuids(relationships));
+    }
+
+    @Override
+    public void onLabelsAdded(AtlasEntity entity, Set<String> labels) { }
+
+    @Override
+    public void onLabelsDeleted(AtlasEntity entity, Set<String> labels) { }
+
+    @Override
+    public void onBusinessAttributesUpdated(AtlasEntity entity, Map<String, Map<String, Object>> updatedBusinessAttributes) { }
+
+    // changes are notified only to v2 listeners
+    private static boolean isCacheEnabled() {
+        boolean ret = AtlasConfiguration.GLOSSARY_CACHE_ENABLED.getBoolean();
+
+        if (ret && !AtlasRepositoryConfiguration.isV2EntityNotificationEnabled()) {
+            LOG.warn("{}: disabled, as it requires v2 entity notifications", CACHE_NAME);
+
+            ret = false;
+        }
+
+        return ret;
+    }
+
+    // invalidate right away, so that rest of the transaction doesn't use the entries, and again after the transaction
+    // completes, so that objects loaded by concurrent requests before the commit are not used. Until then, this thread
+    // doesn't use the cache, as objects it loads might include uncommitted changes
+    private void onChange(Set<String> guids) {
+        if (!isEnabled || guids.isEmpty()) { // no glossary object, nor an entity related to a cached object, changed
+            return;
+        }
+
+        invalidate(guids);
+
+        hasPendingChanges.set(Boolean.TRUE);
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                hasPendingChanges.remove();
+
+                invalidate(guids);
+            }
+        };
+    }
+
+    private <T extends AtlasBaseModelObject> T toObject(Entry entry, Class<T> clazz) throws AtlasBaseException {
+        if (entry == null || entry.clazz != clazz) {
+            if (isEnabled) {
+                missCount.incrementAndGet();
+            }
+
+            return null;
+        }
+
+        AtlasEntityHeader header = AtlasType.fromJson(entry.header, AtlasEntityHeader.class);
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, header), "read entity: guid=", header.getGuid());
+
+        hitCount.incrementAndGet();
+
+        return AtlasType.fromJson(entry.json, clazz);
+    }
+
+    // caller should hold the lock
+    private boolean isInvalidatedSince(String guid, Set<String> relatedGuids, long loadTime) {
+        if (invalidationTime - loadTime >= 0) {
+            return true;
+        }
+
+        Long time = invalidationTimes.get(guid);
+
+        if (time != null && time - loadTime >= 0) {
+            return true;
+        }
+
+        for (String relatedGuid : relatedGuids) {
+            time = invalidationTimes.get(relatedGuid);
+
+            if (time != null && time - loadTime >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // caller should hold the lock
+    private Entry remove(String guid) {
+        Entry ret = entries.remove(guid);
+
+        if (ret != null) {
+            onRemove(guid, ret);
+        }
+
+        return ret;
+    }
+
+    // caller should hold the lock
+    private void onRemove(String guid, Entry entry) {
+        size -= entry.size();
+
+        if (entry.qualifiedNameKey != null) {
+            guidsByQualifiedName.remove(entry.qualifiedNameKey, guid);
+        }
+
+        for (String relatedGuid : entry.relatedGuids) {
+            Set<String> referrers = referrersByGuid.get(relatedGuid);
+
+            if (referrers != null && referrers.remove(guid) && referrers.isEmpty()) {
+                referrersByGuid.remove(relatedGuid);
+            }
+        }
+    }
+
+    private Set<String> getGuids(List<AtlasEntity> entities) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && entities != null) {
+            for (AtlasEntity entity : entities) {
+                if (entity != null) {
+                    addGuid(entity.getGuid(), entity.getTypeName(), ret);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private Set<String> getGuidsWithRelatedGuids(List<AtlasEntity> entities) {
+        Set<String> ret = getGuids(entities);
+
+        if (isEnabled && entities != null) {
+            for (AtlasEntity entity : entities) {
+                if (entity != null && MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+                    for (Object value : entity.getRelationshipAttributes().values()) {
+                        addObjectIdGuids(value, ret);
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private Set<String> getTermAndEntityGuids(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled) {
+            if (term != null && term.getGuid() != null) {
+                ret.add(term.getGuid());
+            }
+
+            addObjectIdGuids(entities, ret);
+        }
+
+        return ret;
+    }
+
+    private Set<String> getEndGuids(List<AtlasRelationship> relationships) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && relationships != null) {
+            for (AtlasRelationship relationship : relationships) {
+                addObjectIdGuids(relationship.getEnd1(), ret);
+                addObjectIdGuids(relationship.getEnd2(), ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private void addObjectIdGuids(Object value, Set<String> guids) {
+        if (value instanceof AtlasObjectId) {
+            addGuid(((AtlasObjectId) value).getGuid(), ((AtlasObjectId) value).getTypeName(), guids);
+        } else if (value instanceof Map) {
+            Object guid     = ((Map) value).get(AtlasObjectId.KEY_GUID);
+            Object typeName = ((Map) value).get(AtlasObjectId.KEY_TYPENAME);
+
+            addGuid(guid != null ? guid.toString() : null, typeName != null ? typeName.toString() : null, guids);
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                addObjectIdGuids(element, guids);
+            }
+        }
+    }
+
+    // adds guid of a glossary object, or of an entity a cached object is related to
+    private void addGuid(String guid, String typeName, Set<String> guids) {
+        if (guid == null || guids.contains(guid)) {
+            return;
+        }
+
+        if (isGlossaryType(typeName)) {
+            guids.add(guid);
+        } else {
+            synchronized (this) {
+                if (referrersByGuid.containsKey(guid)) {
+                    guids.add(guid);
+                }
+            }
+        }
+    }
+
+    private boolean isGlossaryType(String typeName) {
+        if (typeName == null || GLOSSARY_TYPES.contains(typeName)) {
+            return true;
+        }
+
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+        return entityType != null && !Collections.disjoint(entityType.getAllSuperTypes(), GLOSSARY_TYPES);
+    }
+
+    private static Set<String> getRelatedGuids(AtlasEntity entity) {
+        Set<String> ret = new HashSet<>();
+
+        if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+            for (Object value : entity.getRelationshipAttributes().values()) {
+                addRelatedGuids(value, ret);
+            }
+        }
+
+        ret.remove(entity.getGuid());
+
+        return ret;
+    }
+
+    private static void addRelatedGuids(Object value, Set<String> guids) {
+        if (value instanceof AtlasObjectId) {
+            String guid = ((AtlasObjectId) value).getGuid();
+
+            if (guid != null) {
+                guids.add(guid);
+            }
+        } else if (value instanceof Map) {
+            Object guid = ((Map) value).get(AtlasObjectId.KEY_GUID);
+
+            if (guid != null) {
+                guids.add(guid.toString());
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                addRelatedGuids(element, guids);
+            }
+        }
+    }
+
+    private static String getQualifiedNameKey(String typeName, String qualifiedName) {
+        return typeName + ":" + qualifiedName;
+    }
+
+    private static class Entry {
+        final Class<?>    clazz;
+        final String      json;
+        final String      header;
+        final String      qualifiedNameKey;
+        final Set<String> relatedGuids;
+
+        Entry(Class<?> clazz, String json, String header, String qualifiedNameKey, Set<String> relatedGuids) {
+            this.clazz            = clazz;
+            this.json             = json;
+            this.header           = header;
+            this.qualifiedNameKey = qualifiedNameKey;
+            this.relatedGuids     = relatedGuids;
+        }
+
+        long size() {
+            return json.length() + header.length();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.patches;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.pc.WorkItemManager;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.EntityFingerprint;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.atlas.model.patches.AtlasPatch.PatchStatus.APPLIED;
+
+public class EntityFingerprintPatch extends AtlasPatchHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityFingerprintPatch.class);
+
+    private static final String PATCH_ID          = "JAVA_PATCH_0000_005";
+    private static final String PATCH_DESCRIPTION = "Populates fingerprint of active entities, used to skip updates that don't change an entity.";
+
+    private final PatchContext context;
+
+    public EntityFingerprintPatch(PatchContext context) {
+        super(context.getPatchRegistry(), PATCH_ID, PATCH_DESCRIPTION);
+
+        this.context = context;
+    }
+
+    @Override
+    public void apply() throws AtlasBaseException {
+        if (!EntityFingerprint.isEnabled()) { // status is left unchanged, so that the patch is applied once fingerprint is enabled
+            LOG.info("EntityFingerprintPatch.apply(): entity fingerprint is disabled. patchId={}, status={}", getPatchId(), getStatus());
+
+            return;
+        }
+
+        ConcurrentPatchProcessor patchProcessor = new EntityFingerprintPatchProcessor(context);
+
+        patchProcessor.apply();
+
+        setStatus(APPLIED);
+
+        LOG.info("EntityFingerprintPatch.apply(): patchId={}, status={}", getPatchId(), getStatus());
+    }
+
+    public static class EntityFingerprintPatchProcessor extends ConcurrentPatchProcessor {
+        private final EntityGraphRetriever entityRetriever;
+        private final EntityFingerprint    fingerprint;
+
+        public EntityFingerprintPatchProcessor(PatchContext context) {
+            super(context);
+
+            this.entityRetriever = new EntityGraphRetriever(context.getGraph(), context.getTypeRegistry());
+            this.fingerprint     = new EntityFingerprint(context.getTypeRegistry());
+        }
+
+        @Override
+        protected void prepareForExecution() {
+            //do nothing
+        }
+
+        @Override
+        public void submitVerticesToUpdate(WorkItemManager manager) {
+            AtlasTypeRegistry typeRegistry = getTypeRegistry();
+            AtlasGraph        graph        = getGraph();
+
+            for (AtlasEntityType entityType : typeRegistry.getAllEntityTypes()) {
+                LOG.info("finding entities of type {}", entityType.getTypeName());
+
+                Iterable<Object> iterable = graph.query().has(Constants.ENTITY_TYPE_PROPERTY_KEY, entityType.getTypeName()).vertexIds();
+                int              count    = 0;
+
+                for (Iterator<Object> iter = iterable.iterator(); iter.hasNext(); ) {
+                    Object vertexId = iter.next();
+
+                    manager.checkProduce((Long) vertexId);
+
+                    count++;
+                }
+
+                LOG.info("found {} entities of type {}", count, entityType.getTypeName());
+            }
+        }
+
+        @Override
+        protected void processVertexItem(Long vertexId, AtlasVertex vertex, String typeName, AtlasEntityType entityType) throws AtlasBaseException {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("processItem(typeName={}, vertexId={})", typeName, vertexId);
+            }
+
+            // entity updated after the server started already has its fingerprint
+            if (vertex.getProperty(Constants.ENTITY_FINGERPRINT_PROPERTY_KEY, String.class) != null) {
+                return;
+            }
+
+            AtlasEntity entity = entityRetriever.toAtlasEntity(vertex);
+
+            // value of a relationship-attribute present in more than one relationship-type can't be attributed to one of them
+            if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+                entity.getRelationshipAttributes().keySet().removeIf(attrName -> entityType.getRelationshipAttributes().getOrDefault(attrName, Collections.emptyMap()).size() != 1);
+            }
+
+            Map<String, Long> entityFingerprint = fingerprint.compute(entity, entityType, true);
+
+            EntityFingerprint.setFingerprint(vertex, EntityFingerprint.merge(Collections.emptyMap(), entityFingerprint, true));
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("processItem(typeName={}, vertexId={}): Done!", typeName, vertexId);
+            }
+        }
+    }
+}
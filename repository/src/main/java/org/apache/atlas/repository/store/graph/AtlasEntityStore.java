@@ -17,6 +17,7 @@
  */
 package org.apache.atlas.repository.store.graph;
 
+import org.apache.atlas.SortOrder;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.instance.AtlasCheckStateRequest;
 import org.apache.atlas.model.instance.AtlasCheckStateResult;
@@ -26,6 +27,7 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasEntityHeaders;
 import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.repository.store.graph.v2.EntityStream;
 import org.apache.atlas.type.AtlasEntityType;
@@ -74,6 +76,19 @@ public interface AtlasEntityStore {
      */
     AtlasEntityHeader getHeaderById(String guid) throws AtlasBaseException;
 
+    /**
+     * Get a page of values of an array relationship attribute of the entity, without reading the rest of the entity
+     * @param guid
+     * @param relationshipAttributeName
+     * @param activeOnly skip values whose relationship is deleted
+     * @param sortOrder sort values by display text, when not null
+     * @param offset
+     * @param limit negative value to get all values from the offset
+     * @return
+     * @throws AtlasBaseException
+     */
+    List<AtlasRelatedObjectId> getRelationshipAttributeValues(String guid, String relationshipAttributeName, boolean activeOnly, SortOrder sortOrder, int offset, int limit) throws AtlasBaseException;
+
 
     public AtlasEntityHeader getEntityHeaderByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes) throws AtlasBaseException;
 
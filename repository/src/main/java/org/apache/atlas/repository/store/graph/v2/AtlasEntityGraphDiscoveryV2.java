@@ -61,12 +61,18 @@ public class AtlasEntityGraphDiscoveryV2 implements EntityGraphDiscovery {
     private final AtlasTypeRegistry           typeRegistry;
     private final EntityGraphDiscoveryContext discoveryContext;
     private final EntityGraphMapper           entityGraphMapper;
+    private final EntityUniqueAttributeCache  uniqueAttributeCache;
 
     public AtlasEntityGraphDiscoveryV2(AtlasGraph graph, AtlasTypeRegistry typeRegistry, EntityStream entityStream, EntityGraphMapper entityGraphMapper) {
-        this.graph             = graph;
-        this.typeRegistry      = typeRegistry;
-        this.discoveryContext  = new EntityGraphDiscoveryContext(typeRegistry, entityStream);
-        this.entityGraphMapper = entityGraphMapper;
+        this(graph, typeRegistry, entityStream, entityGraphMapper, null);
+    }
+
+    public AtlasEntityGraphDiscoveryV2(AtlasGraph graph, AtlasTypeRegistry typeRegistry, EntityStream entityStream, EntityGraphMapper entityGraphMapper, EntityUniqueAttributeCache uniqueAttributeCache) {
+        this.graph                = graph;
+        this.typeRegistry         = typeRegistry;
+        this.discoveryContext     = new EntityGraphDiscoveryContext(typeRegistry, entityStream);
+        this.entityGraphMapper    = entityGraphMapper;
+        this.uniqueAttributeCache = uniqueAttributeCache;
     }
 
     @Override
@@ -193,7 +199,7 @@ public class AtlasEntityGraphDiscoveryV2 implements EntityGraphDiscovery {
         MetricRecorder metric = RequestContext.get().startMetricRecord("resolveReferences");
 
         EntityResolver[] entityResolvers = new EntityResolver[] { new IDBasedEntityResolver(this.graph, typeRegistry),
-                                                                  new UniqAttrBasedEntityResolver(this.graph, typeRegistry, entityGraphMapper)
+                                                                  new UniqAttrBasedEntityResolver(this.graph, typeRegistry, entityGraphMapper, uniqueAttributeCache)
                                                                 };
 
         for (EntityResolver resolver : entityResolvers) {
@@ -21,6 +21,7 @@ package org.apache.atlas.repository.store.graph.v2;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.GraphTransactionInterceptor;
 import org.apache.atlas.RequestContext;
+import org.apache.atlas.SortOrder;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.authorize.AtlasAdminAccessRequest;
 import org.apache.atlas.authorize.AtlasAuthorizationUtils;
@@ -39,6 +40,7 @@ import org.apache.atlas.model.instance.AtlasEntity.Status;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasEntityHeaders;
 import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
 import org.apache.atlas.repository.graph.GraphHelper;
@@ -106,16 +108,24 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
     private final IAtlasEntityChangeNotifier entityChangeNotifier;
     private final EntityGraphMapper         entityGraphMapper;
     private final EntityGraphRetriever      entityRetriever;
+    private final EntityUniqueAttributeCache uniqueAttributeCache;
 
-    @Inject
     public AtlasEntityStoreV2(AtlasGraph graph, DeleteHandlerDelegate deleteDelegate, AtlasTypeRegistry typeRegistry,
                               IAtlasEntityChangeNotifier entityChangeNotifier, EntityGraphMapper entityGraphMapper) {
+        this(graph, deleteDelegate, typeRegistry, entityChangeNotifier, entityGraphMapper, null);
+    }
+
+    @Inject
+    public AtlasEntityStoreV2(AtlasGraph graph, DeleteHandlerDelegate deleteDelegate, AtlasTypeRegistry typeRegistry,
+                              IAtlasEntityChangeNotifier entityChangeNotifier, EntityGraphMapper entityGraphMapper,
+                              EntityUniqueAttributeCache uniqueAttributeCache) {
         this.graph                = graph;
         this.deleteDelegate       = deleteDelegate;
         this.typeRegistry         = typeRegistry;
         this.entityChangeNotifier = entityChangeNotifier;
         this.entityGraphMapper    = entityGraphMapper;
         this.entityRetriever      = new EntityGraphRetriever(graph, typeRegistry);
+        this.uniqueAttributeCache = uniqueAttributeCache;
     }
 
     @Override
@@ -192,6 +202,38 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         return ret;
     }
 
+    @Override
+    @GraphTransaction
+    public List<AtlasRelatedObjectId> getRelationshipAttributeValues(String guid, String relationshipAttributeName, boolean activeOnly, SortOrder sortOrder, int offset, int limit) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> getRelationshipAttributeValues({}, {}, {}, {}, {})", guid, relationshipAttributeName, sortOrder, offset, limit);
+        }
+
+        EntityGraphRetriever entityRetriever = new EntityGraphRetriever(graph, typeRegistry);
+        AtlasEntityHeader    header          = entityRetriever.toAtlasEntityHeader(guid);
+
+        if (header == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+        }
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, header), "read entity: guid=", guid);
+
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(header.getTypeName());
+        AtlasAttribute  attribute  = entityType != null ? entityType.getRelationshipAttribute(relationshipAttributeName, null) : null;
+
+        if (attribute == null) {
+            throw new AtlasBaseException(AtlasErrorCode.UNKNOWN_ATTRIBUTE, relationshipAttributeName, header.getTypeName());
+        }
+
+        List<AtlasRelatedObjectId> ret = entityRetriever.getRelationshipAttributeValues(entityRetriever.getEntityVertex(guid), attribute, activeOnly, sortOrder, offset, limit);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== getRelationshipAttributeValues({}, {}): count={}", guid, relationshipAttributeName, ret.size());
+        }
+
+        return ret;
+    }
+
     @Override
     @GraphTransaction
     public AtlasEntitiesWithExtInfo getByIds(List<String> guids) throws AtlasBaseException {
@@ -262,7 +304,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
             LOG.debug("==> getByUniqueAttribute({}, {})", entityType.getTypeName(), uniqAttributes);
         }
 
-        AtlasVertex entityVertex = AtlasGraphUtilsV2.getVertexByUniqueAttributes(graph, entityType, uniqAttributes);
+        AtlasVertex entityVertex = getVertexByUniqueAttributes(entityType, uniqAttributes);
 
         EntityGraphRetriever entityRetriever = new EntityGraphRetriever(graph, typeRegistry, ignoreRelationships);
 
@@ -289,7 +331,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
             LOG.debug("==> getEntityHeaderByUniqueAttributes({}, {})", entityType.getTypeName(), uniqAttributes);
         }
 
-        AtlasVertex entityVertex = AtlasGraphUtilsV2.getVertexByUniqueAttributes(graph, entityType, uniqAttributes);
+        AtlasVertex entityVertex = getVertexByUniqueAttributes(entityType, uniqAttributes);
 
         EntityGraphRetriever entityRetriever = new EntityGraphRetriever(graph, typeRegistry);
 
@@ -372,7 +414,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                 throw new AtlasBaseException(AtlasErrorCode.UNKNOWN_TYPENAME, objectId.getTypeName());
             }
 
-            guid = AtlasGraphUtilsV2.getGuidByUniqueAttributes(graph, typeRegistry.getEntityTypeByName(objectId.getTypeName()), objectId.getUniqueAttributes());
+            guid = AtlasGraphUtilsV2.getIdFromVertex(getVertexByUniqueAttributes(entityType, objectId.getUniqueAttributes()));
         }
 
         AtlasEntity entity = updatedEntityInfo.getEntity();
@@ -394,7 +436,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
             throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no entity to update.");
         }
 
-        String      guid   = AtlasGraphUtilsV2.getGuidByUniqueAttributes(graph, entityType, uniqAttributes);
+        String      guid   = AtlasGraphUtilsV2.getIdFromVertex(getVertexByUniqueAttributes(entityType, uniqAttributes));
         AtlasEntity entity = updatedEntityInfo.getEntity();
 
         entity.setGuid(guid);
@@ -572,7 +614,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         }
 
         Collection<AtlasVertex> deletionCandidates = new ArrayList<>();
-        AtlasVertex             vertex             = AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, uniqAttributes);
+        AtlasVertex             vertex             = findByUniqueAttributes(entityType, uniqAttributes);
 
         if (vertex != null) {
             AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(vertex);
@@ -599,7 +641,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
     @Override
     @GraphTransaction
     public String getGuidByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes) throws AtlasBaseException{
-        return AtlasGraphUtilsV2.getGuidByUniqueAttributes(graph, entityType, uniqAttributes);
+        return AtlasGraphUtilsV2.getIdFromVertex(getVertexByUniqueAttributes(entityType, uniqAttributes));
     }
 
     @Override
@@ -1117,18 +1159,28 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                 MetricRecorder checkForUnchangedEntities = RequestContext.get().startMetricRecord("checkForUnchangedEntities");
 
                 List<AtlasEntity> entitiesToSkipUpdate = null;
+                EntityFingerprint fingerprint          = EntityFingerprint.isEnabled() ? new EntityFingerprint(typeRegistry, context) : null;
 
                 for (AtlasEntity entity : context.getUpdatedEntities()) {
-                    String          guid       = entity.getGuid();
-                    AtlasVertex     vertex     = context.getVertex(guid);
-                    AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
-                    boolean         hasUpdates = false;
+                    String            guid               = entity.getGuid();
+                    AtlasVertex       vertex             = context.getVertex(guid);
+                    AtlasEntityType   entityType         = typeRegistry.getEntityTypeByName(entity.getTypeName());
+                    boolean           hasUpdates         = false;
+                    boolean           isFingerprintMatch = false;
+                    Map<String, Long> currFingerprint    = null;
+                    Map<String, Long> newFingerprint     = null;
 
                     if (!hasUpdates) {
                         hasUpdates = entity.getStatus() == AtlasEntity.Status.DELETED; // entity status could be updated during import
                     }
 
-                    if (!hasUpdates && MapUtils.isNotEmpty(entity.getAttributes())) { // check for attribute value change
+                    if (!hasUpdates && fingerprint != null) { // unchanged entity can be found by reading only the fingerprint
+                        currFingerprint    = EntityFingerprint.getFingerprint(vertex);
+                        newFingerprint     = fingerprint.compute(entity, entityType, replaceClassifications);
+                        isFingerprintMatch = EntityFingerprint.matches(currFingerprint, newFingerprint);
+                    }
+
+                    if (!hasUpdates && !isFingerprintMatch && MapUtils.isNotEmpty(entity.getAttributes())) { // check for attribute value change
                         for (AtlasAttribute attribute : entityType.getAllAttributes().values()) {
                             if (!entity.getAttributes().containsKey(attribute.getName())) {  // if value is not provided, current value will not be updated
                                 continue;
@@ -1149,7 +1201,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                         }
                     }
 
-                    if (!hasUpdates && MapUtils.isNotEmpty(entity.getRelationshipAttributes())) { // check of relationsship-attribute value change
+                    if (!hasUpdates && !isFingerprintMatch && MapUtils.isNotEmpty(entity.getRelationshipAttributes())) { // check of relationsship-attribute value change
                         for (String attributeName : entityType.getRelationshipAttributes().keySet()) {
                             if (!entity.getRelationshipAttributes().containsKey(attributeName)) {  // if value is not provided, current value will not be updated
                                 continue;
@@ -1172,7 +1224,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                         }
                     }
 
-                    if (!hasUpdates && entity.getCustomAttributes() != null) {
+                    if (!hasUpdates && !isFingerprintMatch && entity.getCustomAttributes() != null) {
                         Map<String, String> currCustomAttributes = getCustomAttributes(vertex);
                         Map<String, String> newCustomAttributes  = entity.getCustomAttributes();
 
@@ -1182,7 +1234,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                     }
 
                     // if classifications are to be replaced, then skip updates only when no change in classifications
-                    if (!hasUpdates && replaceClassifications) {
+                    if (!hasUpdates && !isFingerprintMatch && replaceClassifications) {
                         List<AtlasClassification> newVal  = entity.getClassifications();
                         List<AtlasClassification> currVal = entityRetriever.getAllClassifications(vertex);
 
@@ -1196,6 +1248,14 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                     }
 
                     if (!hasUpdates) {
+                        if (!isFingerprintMatch && newFingerprint != null) { // record verified values, to skip the comparison next time
+                            Map<String, Long> verifiedFingerprint = EntityFingerprint.merge(currFingerprint, newFingerprint, false);
+
+                            if (!verifiedFingerprint.equals(currFingerprint)) {
+                                EntityFingerprint.setFingerprint(vertex, verifiedFingerprint);
+                            }
+                        }
+
                         if (entitiesToSkipUpdate == null) {
                             entitiesToSkipUpdate = new ArrayList<>();
                         }
@@ -1244,10 +1304,25 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         }
     }
 
+    private AtlasVertex findByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes) {
+        return uniqueAttributeCache != null ? uniqueAttributeCache.findByUniqueAttributes(graph, entityType, uniqAttributes)
+                                            : AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, uniqAttributes);
+    }
+
+    private AtlasVertex getVertexByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes) throws AtlasBaseException {
+        AtlasVertex ret = findByUniqueAttributes(entityType, uniqAttributes);
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_BY_UNIQUE_ATTRIBUTE_NOT_FOUND, entityType.getTypeName(), uniqAttributes.toString());
+        }
+
+        return ret;
+    }
+
     private EntityMutationContext preCreateOrUpdate(EntityStream entityStream, EntityGraphMapper entityGraphMapper, boolean isPartialUpdate) throws AtlasBaseException {
         MetricRecorder metric = RequestContext.get().startMetricRecord("preCreateOrUpdate");
 
-        EntityGraphDiscovery        graphDiscoverer  = new AtlasEntityGraphDiscoveryV2(graph, typeRegistry, entityStream, entityGraphMapper);
+        EntityGraphDiscovery        graphDiscoverer  = new AtlasEntityGraphDiscoveryV2(graph, typeRegistry, entityStream, entityGraphMapper, uniqueAttributeCache);
         EntityGraphDiscoveryContext discoveryContext = graphDiscoverer.discoverEntities();
         EntityMutationContext       context          = new EntityMutationContext(discoveryContext);
         RequestContext              requestContext   = RequestContext.get();
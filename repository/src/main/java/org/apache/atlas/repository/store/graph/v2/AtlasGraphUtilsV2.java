@@ -56,9 +56,13 @@ import org.slf4j.LoggerFactory;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -89,6 +93,7 @@ public class AtlasGraphUtilsV2 {
 
     private static boolean USE_INDEX_QUERY_TO_FIND_ENTITY_BY_UNIQUE_ATTRIBUTES = false;
     private static boolean USE_UNIQUE_INDEX_PROPERTY_TO_FIND_ENTITY            = true;
+    private static int     UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE                 = 100;
     private static String  INDEX_SEARCH_PREFIX;
 
     static {
@@ -97,6 +102,7 @@ public class AtlasGraphUtilsV2 {
 
             USE_INDEX_QUERY_TO_FIND_ENTITY_BY_UNIQUE_ATTRIBUTES = conf.getBoolean("atlas.use.index.query.to.find.entity.by.unique.attributes", USE_INDEX_QUERY_TO_FIND_ENTITY_BY_UNIQUE_ATTRIBUTES);
             USE_UNIQUE_INDEX_PROPERTY_TO_FIND_ENTITY            = conf.getBoolean("atlas.unique.index.property.to.find.entity", USE_UNIQUE_INDEX_PROPERTY_TO_FIND_ENTITY);
+            UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE                 = Math.max(1, conf.getInt("atlas.unique.attributes.lookup.batch.size", UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE));
             INDEX_SEARCH_PREFIX                                 = conf.getString(INDEX_SEARCH_VERTEX_PREFIX_PROPERTY, INDEX_SEARCH_VERTEX_PREFIX_DEFAULT);
         } catch (Exception excp) {
             LOG.error("Error reading configuration", excp);
@@ -350,6 +356,65 @@ public class AtlasGraphUtilsV2 {
         return vertex;
     }
 
+    /**
+     * Bulk version of findByUniqueAttributes(): instead of a query per entity, entities are looked up with a query per
+     * unique attribute for every atlas.unique.attributes.lookup.batch.size values.
+     *
+     * @return vertices in the order of attrValuesList; null for entities that are not found
+     */
+    public static List<AtlasVertex> findByUniqueAttributes(AtlasGraph graph, AtlasEntityType entityType, List<Map<String, Object>> attrValuesList) {
+        MetricRecorder metric = RequestContext.get().startMetricRecord("findByUniqueAttributesBulk");
+
+        List<AtlasVertex>                 ret              = new ArrayList<>(Collections.nCopies(attrValuesList.size(), null));
+        final Map<String, AtlasAttribute> uniqueAttributes = entityType.getUniqAttributes();
+
+        if (MapUtils.isNotEmpty(uniqueAttributes)) {
+            for (AtlasAttribute attribute : uniqueAttributes.values()) {
+                // like findByUniqueAttributes(), the next unique attribute is used only for entities not found yet
+                Map<String, List<Integer>> indexesByValue = new LinkedHashMap<>();
+                Map<String, Object>        values         = new LinkedHashMap<>();
+
+                for (int i = 0; i < attrValuesList.size(); i++) {
+                    Map<String, Object> attrValues = attrValuesList.get(i);
+                    Object              attrValue  = (ret.get(i) == null && attrValues != null) ? attrValues.get(attribute.getName()) : null;
+
+                    if (attrValue != null) {
+                        String value = attrValue.toString();
+
+                        indexesByValue.computeIfAbsent(value, k -> new ArrayList<>()).add(i);
+                        values.putIfAbsent(value, attrValue);
+                    }
+                }
+
+                if (values.isEmpty()) {
+                    continue;
+                }
+
+                List<Object> batch = new ArrayList<>(UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE);
+
+                for (Iterator<Object> iter = values.values().iterator(); iter.hasNext(); ) {
+                    batch.add(iter.next());
+
+                    if (batch.size() == UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE || !iter.hasNext()) {
+                        Map<String, AtlasVertex> vertices = findByUniqueAttribute(graph, entityType, attribute, batch);
+
+                        for (Map.Entry<String, AtlasVertex> entry : vertices.entrySet()) {
+                            for (Integer idx : indexesByValue.get(entry.getKey())) {
+                                ret.set(idx, entry.getValue());
+                            }
+                        }
+
+                        batch.clear();
+                    }
+                }
+            }
+        }
+
+        RequestContext.get().endMetricRecord(metric);
+
+        return ret;
+    }
+
     public static AtlasVertex findByGuid(String guid) {
         return findByGuid(getGraphInstance(), guid);
     }
@@ -375,6 +440,46 @@ public class AtlasGraphUtilsV2 {
         return ret;
     }
 
+    /**
+     * Finds vertices of the given guids, with a single graph query for guids not in the transaction's vertex cache.
+     * Guids that are not found are absent in the returned map.
+     */
+    public static Map<String, AtlasVertex> findByGuids(AtlasGraph graph, Collection<String> guids) {
+        AtlasPerfMetrics.MetricRecorder metric = RequestContext.get().startMetricRecord("findByGuids");
+
+        Map<String, AtlasVertex> ret          = new HashMap<>();
+        Set<String>              guidsToQuery = new HashSet<>();
+
+        for (String guid : guids) {
+            AtlasVertex vertex = GraphTransactionInterceptor.getVertexFromCache(guid);
+
+            if (vertex != null) {
+                ret.put(guid, vertex);
+            } else if (guid != null) {
+                guidsToQuery.add(guid);
+            }
+        }
+
+        if (!guidsToQuery.isEmpty()) {
+            Iterator<AtlasVertex> results = graph.query().in(Constants.GUID_PROPERTY_KEY, guidsToQuery).vertices().iterator();
+
+            while (results.hasNext()) {
+                AtlasVertex vertex = results.next();
+                String      guid   = getIdFromVertex(vertex);
+
+                if (guid != null && guidsToQuery.contains(guid) && !ret.containsKey(guid)) {
+                    ret.put(guid, vertex);
+
+                    GraphTransactionInterceptor.addToVertexCache(guid, vertex);
+                }
+            }
+        }
+
+        RequestContext.get().endMetricRecord(metric);
+
+        return ret;
+    }
+
     public static AtlasVertex findDeletedByGuid(AtlasGraph graph, String guid) {
         AtlasVertex ret = GraphTransactionInterceptor.getVertexFromCache(guid);
 
@@ -681,6 +786,98 @@ public class AtlasGraphUtilsV2 {
         return graph.indexQuery(Constants.VERTEX_INDEX, sb.toString());
     }
 
+    // returns vertices found for the given values of the unique attribute, keyed by value.toString()
+    private static Map<String, AtlasVertex> findByUniqueAttribute(AtlasGraph graph, AtlasEntityType entityType, AtlasAttribute attribute, List<Object> attrValues) {
+        Map<String, AtlasVertex> ret = new HashMap<>();
+
+        if (canUseIndexQuery(graph, entityType, attribute.getName())) {
+            addVerticesFromIndexQuery(graph, entityType, attribute, attrValues, ret);
+        } else {
+            boolean useUniqueProperty = USE_UNIQUE_INDEX_PROPERTY_TO_FIND_ENTITY && attribute.getVertexUniquePropertyName() != null;
+            String  propertyName      = useUniqueProperty ? attribute.getVertexUniquePropertyName() : attribute.getVertexPropertyName();
+
+            addVertices(graph.query().has(ENTITY_TYPE_PROPERTY_KEY, entityType.getTypeName()), propertyName, attrValues, useUniqueProperty, ret);
+
+            // look for instances of type's sub-types for the values not found
+            if (ret.size() < attrValues.size() && !entityType.getAllSubTypes().isEmpty()) {
+                List<Object> notFoundValues = new ArrayList<>();
+
+                for (Object attrValue : attrValues) {
+                    if (!ret.containsKey(attrValue.toString())) {
+                        notFoundValues.add(attrValue);
+                    }
+                }
+
+                addVertices(graph.query().has(Constants.SUPER_TYPES_PROPERTY_KEY, entityType.getTypeName()), propertyName, notFoundValues, useUniqueProperty, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addVertices(AtlasGraphQuery query, String propertyName, List<Object> attrValues, boolean isUniqueProperty, Map<String, AtlasVertex> vertices) {
+        query.in(propertyName, attrValues);
+
+        if (!isUniqueProperty) {
+            query.has(STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+        }
+
+        for (Iterator<AtlasVertex> iter = query.vertices().iterator(); iter.hasNext(); ) {
+            AtlasVertex vertex = iter.next();
+            Object      value  = vertex.getProperty(propertyName, Object.class);
+
+            if (value != null) {
+                vertices.putIfAbsent(value.toString(), vertex);
+            }
+        }
+    }
+
+    private static void addVerticesFromIndexQuery(AtlasGraph graph, AtlasEntityType entityType, AtlasAttribute attribute, List<Object> attrValues, Map<String, AtlasVertex> vertices) {
+        String              propertyName      = attribute.getVertexPropertyName();
+        Map<String, String> valuesByLowerCase = new HashMap<>();
+        Set<String>         queryValues       = new HashSet<>();
+
+        for (Object attrValue : attrValues) {
+            String value = attrValue.toString();
+
+            valuesByLowerCase.put(value.toLowerCase(), value);
+            queryValues.add(value);
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(INDEX_SEARCH_PREFIX + "\"").append(TYPE_NAME_PROPERTY_KEY).append("\":").append(entityType.getTypeAndAllSubTypesQryStr())
+                .append(" AND ")
+                .append(INDEX_SEARCH_PREFIX + "\"").append(propertyName).append("\":").append(AtlasAttribute.escapeIndexQueryValue(queryValues))
+                .append(" AND ")
+                .append(INDEX_SEARCH_PREFIX + "\"").append(STATE_PROPERTY_KEY).append("\":ACTIVE");
+
+        AtlasIndexQuery query = graph.indexQuery(Constants.VERTEX_INDEX, sb.toString());
+
+        for (Iterator<Result> iter = query.vertices(); iter.hasNext(); ) {
+            AtlasVertex vertex = iter.next().getVertex();
+
+            // skip non-entity vertices, if any got returned
+            if (vertex == null || !vertex.getPropertyKeys().contains(Constants.GUID_PROPERTY_KEY)) {
+                continue;
+            }
+
+            if (!entityType.getTypeAndAllSubTypes().contains(getTypeName(vertex))) {
+                LOG.warn("incorrect vertex type from index-query: expected='{}'; found='{}'", entityType.getTypeName(), getTypeName(vertex));
+
+                continue;
+            }
+
+            // index-query matches tokens; verify the value, ignoring case like getAtlasVertexFromIndexQuery()
+            Object vertexVal = vertex.getProperty(propertyName, Object.class);
+            String value     = vertexVal != null ? valuesByLowerCase.get(vertexVal.toString().toLowerCase()) : null;
+
+            if (value != null) {
+                vertices.putIfAbsent(value, vertex);
+            }
+        }
+    }
+
     public static String getIndexSearchPrefix() {
         return INDEX_SEARCH_PREFIX;
     }
@@ -28,10 +28,12 @@ import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.ogm.glossary.GlossaryCache;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.BulkImporter;
 import org.apache.atlas.repository.store.graph.v2.bulkimport.ImportStrategy;
 import org.apache.atlas.repository.store.graph.v2.bulkimport.MigrationImport;
+import org.apache.atlas.repository.store.graph.v2.bulkimport.ParallelImport;
 import org.apache.atlas.repository.store.graph.v2.bulkimport.RegularImport;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -53,13 +55,15 @@ public class BulkImporterImpl implements BulkImporter {
 
     private final AtlasEntityStore entityStore;
     private final AtlasGraph atlasGraph;
+    private final GlossaryCache glossaryCache;
     private AtlasTypeRegistry typeRegistry;
 
     @Inject
-    public BulkImporterImpl(AtlasGraph atlasGraph, AtlasEntityStore entityStore, AtlasTypeRegistry typeRegistry) {
+    public BulkImporterImpl(AtlasGraph atlasGraph, AtlasEntityStore entityStore, AtlasTypeRegistry typeRegistry, GlossaryCache glossaryCache) {
         this.atlasGraph = atlasGraph;
         this.entityStore = entityStore;
         this.typeRegistry = typeRegistry;
+        this.glossaryCache = glossaryCache;
     }
 
     @Override
@@ -69,12 +73,22 @@ public class BulkImporterImpl implements BulkImporter {
         if (importResult.getRequest().getOptions() != null &&
                 importResult.getRequest().getOptions().containsKey(AtlasImportRequest.OPTION_KEY_MIGRATION)) {
             importStrategy = new MigrationImport(this.atlasGraph, new AtlasGraphProvider(), this.typeRegistry);
+        } else if (importResult.getRequest().getOptionKeyNumWorkers() > 1) {
+            importStrategy = new ParallelImport(this.atlasGraph, this.entityStore, this.typeRegistry,
+                                                importResult.getRequest().getOptionKeyNumWorkers(), importResult.getRequest().getOptionKeyBatchSize());
         } else {
             importStrategy = new RegularImport(this.atlasGraph, this.entityStore, this.typeRegistry);
         }
 
         LOG.info("BulkImportImpl: {}", importStrategy.getClass().getSimpleName());
-        return importStrategy.run(entityStream, importResult);
+
+        try {
+            return importStrategy.run(entityStream, importResult);
+        } finally {
+            if (importStrategy instanceof MigrationImport) { // migration import doesn't notify changes to listeners
+                glossaryCache.clear();
+            }
+        }
     }
 
     @VisibleForTesting
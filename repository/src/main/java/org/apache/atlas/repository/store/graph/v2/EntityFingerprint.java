@@ -0,0 +1,459 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import com.google.common.hash.Hashing;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasStruct;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.EntityGraphDiscoveryContext;
+import org.apache.atlas.type.AtlasArrayType;
+import org.apache.atlas.type.AtlasBuiltInTypes.AtlasObjectIdType;
+import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasMapType;
+import org.apache.atlas.type.AtlasStructType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.apache.atlas.utils.AtlasEntityUtil;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fingerprint of an entity: hash of the value of each attribute, relationship-attribute, custom-attributes and
+ * classifications of the entity, as last written by EntityGraphMapper or verified by comparing with the stored entity.
+ * The fingerprint is stored in a single vertex property, so that an incoming entity can be found to be unchanged by
+ * reading this one property instead of reading every provided attribute from the vertex.
+ *
+ * A value is hashed only if it can be hashed in the same form every time it is sent: references must resolve to
+ * guids of existing entities, and null values are not hashed as they are replaced by the default value on create.
+ * Such values are left out of the fingerprint, and are compared with the stored entity as usual.
+ *
+ * The fingerprint is removed on every change to the vertex or its edges (see GraphHelper.updateModificationMetadata(),
+ * addEdge(), removeEdge() and the delete handlers); EntityGraphMapper writes it again after updating the entity.
+ */
+public class EntityFingerprint {
+    private static final boolean IS_ENABLED = AtlasConfiguration.ENTITY_FINGERPRINT_ENABLED.getBoolean();
+
+    private static final String KEY_CUSTOM_ATTRIBUTES  = "#customAttributes";
+    private static final String KEY_CLASSIFICATIONS    = "#classifications";
+    private static final char   RELATIONSHIP_SEPARATOR = '@';
+    private static final char   ENTRY_SEPARATOR        = ',';
+    private static final char   HASH_SEPARATOR         = '=';
+
+    private final AtlasTypeRegistry           typeRegistry;
+    private final Map<String, String>         guidAssignments;
+    private final EntityGraphDiscoveryContext discoveryContext;
+
+    public EntityFingerprint(AtlasTypeRegistry typeRegistry) {
+        this(typeRegistry, null, null);
+    }
+
+    public EntityFingerprint(AtlasTypeRegistry typeRegistry, EntityMutationContext context) {
+        this(typeRegistry, context.getGuidAssignments(), context.getDiscoveryContext());
+    }
+
+    private EntityFingerprint(AtlasTypeRegistry typeRegistry, Map<String, String> guidAssignments, EntityGraphDiscoveryContext discoveryContext) {
+        this.typeRegistry     = typeRegistry;
+        this.guidAssignments  = guidAssignments;
+        this.discoveryContext = discoveryContext;
+    }
+
+    public static boolean isEnabled() {
+        return IS_ENABLED;
+    }
+
+    /**
+     * @return hash of each value in the fingerprint of the vertex; empty map if the vertex doesn't have a fingerprint
+     */
+    public static Map<String, Long> getFingerprint(AtlasVertex vertex) {
+        Map<String, Long> ret   = new TreeMap<>();
+        String            value = IS_ENABLED ? vertex.getProperty(Constants.ENTITY_FINGERPRINT_PROPERTY_KEY, String.class) : null;
+
+        if (StringUtils.isNotEmpty(value)) {
+            for (String entry : StringUtils.split(value, ENTRY_SEPARATOR)) {
+                int idx = entry.lastIndexOf(HASH_SEPARATOR);
+
+                if (idx > 0) {
+                    try {
+                        ret.put(entry.substring(0, idx), Long.parseUnsignedLong(entry.substring(idx + 1), 16));
+                    } catch (NumberFormatException excp) {
+                        // ignore malformed entry; the value will be compared with the stored entity
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public static void setFingerprint(AtlasVertex vertex, Map<String, Long> fingerprint) {
+        if (!IS_ENABLED) {
+            return;
+        }
+
+        if (MapUtils.isEmpty(fingerprint)) {
+            vertex.removeProperty(Constants.ENTITY_FINGERPRINT_PROPERTY_KEY);
+        } else {
+            StringBuilder sb = new StringBuilder();
+
+            for (Map.Entry<String, Long> entry : new TreeMap<>(fingerprint).entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append(ENTRY_SEPARATOR);
+                }
+
+                sb.append(entry.getKey()).append(HASH_SEPARATOR).append(Long.toHexString(entry.getValue()));
+            }
+
+            vertex.setProperty(Constants.ENTITY_FINGERPRINT_PROPERTY_KEY, sb.toString());
+        }
+    }
+
+    public static void invalidate(AtlasVertex vertex) {
+        if (IS_ENABLED && vertex != null) {
+            vertex.removeProperty(Constants.ENTITY_FINGERPRINT_PROPERTY_KEY);
+        }
+    }
+
+    /**
+     * @return true if every value in newFingerprint could be hashed and is found with the same hash in currFingerprint
+     */
+    public static boolean matches(Map<String, Long> currFingerprint, Map<String, Long> newFingerprint) {
+        for (Map.Entry<String, Long> entry : newFingerprint.entrySet()) {
+            Long hash = entry.getValue();
+
+            if (hash == null || !hash.equals(currFingerprint.get(entry.getKey()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param currFingerprint fingerprint of the vertex before the update
+     * @param newFingerprint  fingerprint of values in the update
+     * @param isUpdated       true if values in newFingerprint have been written to the vertex; false if they were
+     *                        found to be the same as stored values
+     * @return fingerprint of the vertex after the update
+     */
+    public static Map<String, Long> merge(Map<String, Long> currFingerprint, Map<String, Long> newFingerprint, boolean isUpdated) {
+        Map<String, Long> ret = new TreeMap<>(currFingerprint);
+
+        if (isUpdated) {
+            // an attribute and a relationship-attribute of the same name can share edges, hence update of one changes the other
+            Set<String> updatedNames = new HashSet<>();
+
+            for (String key : newFingerprint.keySet()) {
+                updatedNames.add(getAttributeName(key));
+            }
+
+            ret.keySet().removeIf(key -> updatedNames.contains(getAttributeName(key)));
+        }
+
+        for (Map.Entry<String, Long> entry : newFingerprint.entrySet()) {
+            if (entry.getValue() != null) {
+                ret.put(entry.getKey(), entry.getValue());
+            } else if (isUpdated) {
+                ret.remove(entry.getKey());
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return hash of each value provided in the entity, in the same form as stored in the vertex; null hash for values
+     *         that can't be hashed
+     */
+    public Map<String, Long> compute(AtlasEntity entity, AtlasEntityType entityType, boolean includeClassifications) {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        if (MapUtils.isNotEmpty(entity.getAttributes())) {
+            for (Map.Entry<String, Object> entry : entity.getAttributes().entrySet()) {
+                AtlasAttribute attribute = entityType.getAttribute(entry.getKey());
+
+                if (attribute != null) {
+                    ret.put(attribute.getName(), hashValue(attribute.getAttributeType(), entry.getValue()));
+                }
+            }
+        }
+
+        if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+            for (String attrName : entityType.getRelationshipAttributes().keySet()) {
+                if (!entity.hasRelationshipAttribute(attrName)) {
+                    continue;
+                }
+
+                Object         attrValue = entity.getRelationshipAttribute(attrName);
+                AtlasAttribute attribute = entityType.getRelationshipAttribute(attrName, AtlasEntityUtil.getRelationshipType(attrValue));
+
+                if (attribute != null) {
+                    ret.put(attrName + RELATIONSHIP_SEPARATOR + attribute.getRelationshipName(), hashValue(attribute.getAttributeType(), attrValue));
+                }
+            }
+        }
+
+        if (entity.getCustomAttributes() != null) {
+            StringBuilder sb = new StringBuilder();
+
+            for (Map.Entry<String, String> entry : new TreeMap<>(entity.getCustomAttributes()).entrySet()) {
+                appendString(sb, entry.getKey());
+                appendString(sb, entry.getValue());
+            }
+
+            ret.put(KEY_CUSTOM_ATTRIBUTES, hash(sb));
+        }
+
+        if (includeClassifications) {
+            ret.put(KEY_CLASSIFICATIONS, hashClassifications(entity.getClassifications()));
+        }
+
+        return ret;
+    }
+
+    private Long hashValue(AtlasType type, Object value) {
+        StringBuilder sb = new StringBuilder();
+
+        return value != null && appendValue(sb, type, value) ? hash(sb) : null;
+    }
+
+    private Long hashClassifications(List<AtlasClassification> classifications) {
+        StringBuilder sb = new StringBuilder("[");
+
+        if (classifications != null) {
+            for (AtlasClassification classification : classifications) {
+                AtlasClassificationType classificationType = typeRegistry.getClassificationTypeByName(classification.getTypeName());
+
+                if (classificationType == null || !appendStruct(sb, classificationType, classification.getAttributes())) {
+                    return null;
+                }
+
+                String entityGuid = classification.getEntityGuid();
+
+                if (guidAssignments != null && guidAssignments.containsKey(entityGuid)) {
+                    entityGuid = guidAssignments.get(entityGuid);
+                }
+
+                appendString(sb, classification.getTypeName());
+                appendString(sb, entityGuid);
+                appendString(sb, String.valueOf(classification.getEntityStatus()));
+                appendString(sb, String.valueOf(classification.isPropagate()));
+                appendString(sb, String.valueOf(classification.getRemovePropagationsOnEntityDelete()));
+                appendString(sb, classification.getValidityPeriods() != null ? AtlasJson.toJson(classification.getValidityPeriods()) : null);
+            }
+        }
+
+        return hash(sb.append(']'));
+    }
+
+    private boolean appendValue(StringBuilder sb, AtlasType type, Object value) {
+        if (value == null) {
+            sb.append('~');
+
+            return true;
+        }
+
+        if (type instanceof AtlasObjectIdType || type instanceof AtlasEntityType) {
+            String guid = getGuid(value);
+
+            if (guid == null) {
+                return false;
+            }
+
+            appendString(sb, guid);
+        } else if (type instanceof AtlasArrayType) {
+            if (!(value instanceof Collection)) {
+                return false;
+            }
+
+            AtlasType elementType = ((AtlasArrayType) type).getElementType();
+
+            sb.append('[');
+
+            for (Object element : (Collection) value) {
+                if (!appendValue(sb, elementType, element)) {
+                    return false;
+                }
+            }
+
+            sb.append(']');
+        } else if (type instanceof AtlasMapType) {
+            if (!(value instanceof Map)) {
+                return false;
+            }
+
+            AtlasType           valueType = ((AtlasMapType) type).getValueType();
+            Map<String, Object> entries   = new TreeMap<>();
+
+            for (Map.Entry entry : ((Map<?, ?>) value).entrySet()) {
+                entries.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+
+            sb.append('{');
+
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                appendString(sb, entry.getKey());
+
+                if (!appendValue(sb, valueType, entry.getValue())) {
+                    return false;
+                }
+            }
+
+            sb.append('}');
+        } else if (type instanceof AtlasStructType) {
+            final Map attributes;
+
+            if (value instanceof AtlasStruct) {
+                attributes = ((AtlasStruct) value).getAttributes();
+            } else if (value instanceof Map) {
+                Map map = (Map) value;
+
+                attributes = map.get(AtlasStruct.KEY_ATTRIBUTES) instanceof Map ? (Map) map.get(AtlasStruct.KEY_ATTRIBUTES) : map;
+            } else {
+                return false;
+            }
+
+            return appendStruct(sb, (AtlasStructType) type, attributes);
+        } else {
+            Object normalizedValue = type.getNormalizedValue(value);
+
+            if (normalizedValue == null) {
+                return false;
+            }
+
+            appendString(sb, normalizedValue instanceof Date ? Long.toString(((Date) normalizedValue).getTime()) : normalizedValue.toString());
+        }
+
+        return true;
+    }
+
+    private boolean appendStruct(StringBuilder sb, AtlasStructType structType, Map<?, ?> attributes) {
+        sb.append('(');
+
+        if (attributes != null) {
+            Map<String, Object> sortedAttributes = new TreeMap<>();
+
+            for (Map.Entry entry : attributes.entrySet()) {
+                if (entry.getValue() != null) {
+                    sortedAttributes.put(String.valueOf(entry.getKey()), entry.getValue());
+                }
+            }
+
+            for (Map.Entry<String, Object> entry : sortedAttributes.entrySet()) {
+                AtlasAttribute attribute = structType.getAttribute(entry.getKey());
+
+                if (attribute == null) {
+                    return false;
+                }
+
+                appendString(sb, entry.getKey());
+
+                if (!appendValue(sb, attribute.getAttributeType(), entry.getValue())) {
+                    return false;
+                }
+            }
+        }
+
+        sb.append(')');
+
+        return true;
+    }
+
+    // returns guid of the referenced entity, if it exists; null otherwise
+    private String getGuid(Object value) {
+        final AtlasObjectId objId;
+
+        if (value instanceof AtlasObjectId) {
+            objId = (AtlasObjectId) value;
+        } else if (value instanceof AtlasEntity) {
+            objId = new AtlasObjectId(((AtlasEntity) value).getGuid(), ((AtlasEntity) value).getTypeName());
+        } else if (value instanceof Map) {
+            Map map = (Map) value;
+
+            objId = map.containsKey(AtlasRelatedObjectId.KEY_RELATIONSHIP_TYPE) ? new AtlasRelatedObjectId(map) : new AtlasObjectId(map);
+        } else {
+            return null;
+        }
+
+        // attributes of the relationship are not part of the fingerprint
+        if (objId instanceof AtlasRelatedObjectId) {
+            AtlasStruct relationshipAttributes = ((AtlasRelatedObjectId) objId).getRelationshipAttributes();
+
+            if (relationshipAttributes != null && MapUtils.isNotEmpty(relationshipAttributes.getAttributes())) {
+                return null;
+            }
+        }
+
+        String ret = objId.getGuid();
+
+        if (guidAssignments != null && guidAssignments.containsKey(ret)) {
+            ret = guidAssignments.get(ret);
+        }
+
+        if (!AtlasTypeUtil.isAssignedGuid(ret)) {
+            ret = null;
+
+            if (discoveryContext != null && typeRegistry.getEntityTypeByName(objId.getTypeName()) != null && MapUtils.isNotEmpty(objId.getUniqueAttributes())) {
+                AtlasVertex vertex = discoveryContext.getResolvedEntityVertex(objId);
+
+                if (vertex != null) {
+                    ret = AtlasGraphUtilsV2.getIdFromVertex(vertex);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static String getAttributeName(String key) {
+        int idx = key.indexOf(RELATIONSHIP_SEPARATOR);
+
+        return idx == -1 ? key : key.substring(0, idx);
+    }
+
+    private static void appendString(StringBuilder sb, String str) {
+        if (str == null) {
+            sb.append('~');
+        } else {
+            sb.append(str.length()).append(':').append(str);
+        }
+    }
+
+    private static Long hash(CharSequence value) {
+        return Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+}
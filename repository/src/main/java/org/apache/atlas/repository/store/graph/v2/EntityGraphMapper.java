@@ -34,6 +34,7 @@ import org.apache.atlas.model.instance.AtlasRelationship;
 import org.apache.atlas.model.instance.AtlasStruct;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.instance.EntityMutations.EntityOperation;
+import org.apache.atlas.model.tasks.AtlasTask;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality;
 import org.apache.atlas.repository.Constants;
@@ -48,6 +49,7 @@ import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscoveryContext;
 import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasBuiltInTypes;
 import org.apache.atlas.type.AtlasClassificationType;
@@ -107,6 +109,10 @@ import static org.apache.atlas.repository.graph.GraphHelper.string;
 import static org.apache.atlas.repository.graph.GraphHelper.updateModificationMetadata;
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.getIdFromVertex;
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.isReference;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_ADD;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_DELETE;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_CLASSIFICATION_VERTEX_ID;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_ENTITY_GUID;
 import static org.apache.atlas.type.AtlasStructType.AtlasAttribute.AtlasRelationshipEdgeDirection.IN;
 import static org.apache.atlas.type.AtlasStructType.AtlasAttribute.AtlasRelationshipEdgeDirection.OUT;
 
@@ -128,6 +134,7 @@ public class EntityGraphMapper {
 
     private static final boolean ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES = AtlasConfiguration.ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES.getBoolean();
     private static final boolean CLASSIFICATION_PROPAGATION_DEFAULT                  = AtlasConfiguration.CLASSIFICATION_PROPAGATION_DEFAULT.getBoolean();
+    private static final boolean DEFERRED_CLASSIFICATION_PROPAGATION                 = AtlasConfiguration.TASKS_USE_ENABLED.getBoolean();
 
     private final GraphHelper               graphHelper;
     private final AtlasGraph                graph;
@@ -138,11 +145,18 @@ public class EntityGraphMapper {
     private final AtlasInstanceConverter    instanceConverter;
     private final EntityGraphRetriever      entityRetriever;
     private final IFullTextMapper fullTextMapperV2;
+    private final TaskManagement            taskManagement;
 
-    @Inject
     public EntityGraphMapper(DeleteHandlerDelegate deleteDelegate, AtlasTypeRegistry typeRegistry, AtlasGraph graph,
                              AtlasRelationshipStore relationshipStore, IAtlasEntityChangeNotifier entityChangeNotifier,
                              AtlasInstanceConverter instanceConverter, IFullTextMapper fullTextMapperV2) {
+        this(deleteDelegate, typeRegistry, graph, relationshipStore, entityChangeNotifier, instanceConverter, fullTextMapperV2, null);
+    }
+
+    @Inject
+    public EntityGraphMapper(DeleteHandlerDelegate deleteDelegate, AtlasTypeRegistry typeRegistry, AtlasGraph graph,
+                             AtlasRelationshipStore relationshipStore, IAtlasEntityChangeNotifier entityChangeNotifier,
+                             AtlasInstanceConverter instanceConverter, IFullTextMapper fullTextMapperV2, TaskManagement taskManagement) {
         this.graphHelper          = new GraphHelper(graph);
         this.deleteDelegate       = deleteDelegate;
         this.typeRegistry         = typeRegistry;
@@ -152,6 +166,7 @@ public class EntityGraphMapper {
         this.instanceConverter    = instanceConverter;
         this.entityRetriever      = new EntityGraphRetriever(graph, typeRegistry);
         this.fullTextMapperV2     = fullTextMapperV2;
+        this.taskManagement       = taskManagement;
     }
 
     public AtlasVertex createVertex(AtlasEntity entity) throws AtlasBaseException {
@@ -265,12 +280,14 @@ public class EntityGraphMapper {
 
         Collection<AtlasEntity> createdEntities = context.getCreatedEntities();
         Collection<AtlasEntity> updatedEntities = context.getUpdatedEntities();
+        EntityFingerprint       fingerprint     = EntityFingerprint.isEnabled() ? new EntityFingerprint(typeRegistry, context) : null;
 
         if (CollectionUtils.isNotEmpty(createdEntities)) {
             for (AtlasEntity createdEntity : createdEntities) {
-                String          guid       = createdEntity.getGuid();
-                AtlasVertex     vertex     = context.getVertex(guid);
-                AtlasEntityType entityType = context.getType(guid);
+                String            guid           = createdEntity.getGuid();
+                AtlasVertex       vertex         = context.getVertex(guid);
+                AtlasEntityType   entityType     = context.getType(guid);
+                Map<String, Long> newFingerprint = fingerprint != null ? fingerprint.compute(createdEntity, entityType, true) : null;
 
                 mapRelationshipAttributes(createdEntity, entityType, vertex, CREATE, context);
 
@@ -282,6 +299,10 @@ public class EntityGraphMapper {
 
                 addOrUpdateBusinessAttributes(vertex, entityType, createdEntity.getBusinessAttributes());
 
+                if (newFingerprint != null) {
+                    EntityFingerprint.setFingerprint(vertex, EntityFingerprint.merge(Collections.emptyMap(), newFingerprint, true));
+                }
+
                 reqContext.cache(createdEntity);
             }
         }
@@ -290,9 +311,11 @@ public class EntityGraphMapper {
 
         if (CollectionUtils.isNotEmpty(updatedEntities)) {
             for (AtlasEntity updatedEntity : updatedEntities) {
-                String          guid       = updatedEntity.getGuid();
-                AtlasVertex     vertex     = context.getVertex(guid);
-                AtlasEntityType entityType = context.getType(guid);
+                String            guid            = updatedEntity.getGuid();
+                AtlasVertex       vertex          = context.getVertex(guid);
+                AtlasEntityType   entityType      = context.getType(guid);
+                Map<String, Long> currFingerprint = fingerprint != null ? EntityFingerprint.getFingerprint(vertex) : null;
+                Map<String, Long> newFingerprint  = fingerprint != null ? fingerprint.compute(updatedEntity, entityType, replaceClassifications) : null;
 
                 mapRelationshipAttributes(updatedEntity, entityType, vertex, UPDATE, context);
 
@@ -310,6 +333,11 @@ public class EntityGraphMapper {
                     setBusinessAttributes(vertex, entityType, updatedEntity.getBusinessAttributes());
                 }
 
+                // written after all updates to the vertex, as each update removes the fingerprint
+                if (newFingerprint != null) {
+                    EntityFingerprint.setFingerprint(vertex, EntityFingerprint.merge(currFingerprint, newFingerprint, true));
+                }
+
                 reqContext.cache(updatedEntity);
             }
         }
@@ -1871,6 +1899,9 @@ public class EntityGraphMapper {
                 //Resurrect the vertex and edge to ACTIVE state
                 AtlasGraphUtilsV2.setEncodedProperty(edge, STATE_PROPERTY_KEY, ACTIVE.name());
                 AtlasGraphUtilsV2.setEncodedProperty(edge.getInVertex(), STATE_PROPERTY_KEY, ACTIVE.name());
+
+                EntityFingerprint.invalidate(edge.getOutVertex());
+                EntityFingerprint.invalidate(edge.getInVertex());
             }
         }
     }
@@ -1949,7 +1980,9 @@ public class EntityGraphMapper {
                 //Add current Vertex to be notified
                 addedClassifications.get(classification).add(entityVertex);
 
-                if (propagateTags) {
+                if (propagateTags && isPropagationDeferred()) {
+                    createPropagationTask(CLASSIFICATION_PROPAGATION_ADD, guid, classificationVertex);
+                } else if (propagateTags) {
                     // compute propagatedEntityVertices only once
                     if (entitiesToPropagateTo == null) {
                         entitiesToPropagateTo = entityRetriever.getImpactedVerticesV2(entityVertex);
@@ -2105,6 +2138,8 @@ public class EntityGraphMapper {
         AtlasEntity entity = instanceConverter.getAndCacheEntity(guid, ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES);
 
         vertex.setProperty(CLASSIFICATION_TEXT_KEY, fullTextMapperV2.getClassificationTextForEntity(entity));
+        EntityFingerprint.invalidate(vertex);
+
         return entity;
     }
 
@@ -2266,7 +2301,9 @@ public class EntityGraphMapper {
 
             // compute propagatedEntityVertices once and use it for subsequent iterations and notifications
             if (updatedTagPropagation != null && currentTagPropagation != updatedTagPropagation) {
-                if (updatedTagPropagation) {
+                if (isPropagationDeferred()) {
+                    createPropagationTask(updatedTagPropagation ? CLASSIFICATION_PROPAGATION_ADD : CLASSIFICATION_PROPAGATION_DELETE, guid, classificationVertex);
+                } else if (updatedTagPropagation) {
                     if (CollectionUtils.isEmpty(entitiesToPropagateTo)) {
                         entitiesToPropagateTo = entityRetriever.getImpactedVerticesV2(entityVertex, null, classificationVertex.getIdForDisplay());
                     }
@@ -2320,6 +2357,7 @@ public class EntityGraphMapper {
 
             if (isActive(entity)) {
                 vertex.setProperty(CLASSIFICATION_TEXT_KEY, fullTextMapperV2.getClassificationTextForEntity(entity));
+                EntityFingerprint.invalidate(vertex);
                 entityChangeNotifier.onClassificationUpdatedToEntity(entity, updatedClassifications);
             }
         }
@@ -2493,6 +2531,9 @@ public class EntityGraphMapper {
             }
 
             edge.setProperty(STATE_PROPERTY_KEY, AtlasRelationship.Status.ACTIVE);
+
+            EntityFingerprint.invalidate(edge.getOutVertex());
+            EntityFingerprint.invalidate(edge.getInVertex());
         }
     }
 
@@ -2558,6 +2599,23 @@ public class EntityGraphMapper {
         }
     }
 
+    private boolean isPropagationDeferred() {
+        return DEFERRED_CLASSIFICATION_PROPAGATION && taskManagement != null;
+    }
+
+    private void createPropagationTask(String taskType, String entityGuid, AtlasVertex classificationVertex) {
+        Map<String, Object> taskParams = new HashMap<>();
+
+        taskParams.put(PARAM_ENTITY_GUID, entityGuid);
+        taskParams.put(PARAM_CLASSIFICATION_VERTEX_ID, classificationVertex.getIdForDisplay());
+
+        AtlasTask task = taskManagement.createTask(taskType, RequestContext.getCurrentUser(), taskParams);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Deferred propagation of classification [{}] on entity {}: task={}", getTypeName(classificationVertex), entityGuid, task.getGuid());
+        }
+    }
+
     private List<AtlasEntity> updateClassificationText(AtlasClassification classification, Collection<AtlasVertex> propagatedVertices) throws AtlasBaseException {
         List<AtlasEntity> propagatedEntities = new ArrayList<>();
 
@@ -2567,6 +2625,7 @@ public class EntityGraphMapper {
 
                 if (isActive(entity)) {
                     vertex.setProperty(CLASSIFICATION_TEXT_KEY, fullTextMapperV2.getClassificationTextForEntity(entity));
+                    EntityFingerprint.invalidate(vertex);
                     propagatedEntities.add(entity);
                 }
             }
@@ -19,6 +19,7 @@ package org.apache.atlas.repository.store.graph.v2;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.SortOrder;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TimeBoundary;
 import org.apache.atlas.model.glossary.enums.AtlasTermAssignmentStatus;
@@ -72,10 +73,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -225,6 +228,47 @@ public class EntityGraphRetriever {
         return ret;
     }
 
+    /**
+     * Returns headers of the given vertices, in the same order. Properties of the vertices are loaded from the store
+     * in bulk, instead of one vertex at a time.
+     */
+    public List<AtlasEntityHeader> toAtlasEntityHeaders(List<AtlasVertex> entityVertices, Set<String> attributes) throws AtlasBaseException {
+        List<AtlasEntityHeader> ret = new ArrayList<>(entityVertices.size());
+
+        graph.loadVertexProperties(entityVertices);
+
+        for (AtlasVertex entityVertex : entityVertices) {
+            ret.add(toAtlasEntityHeader(entityVertex, attributes));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns headers of entities with the given guids, in the order of guids. Vertices are looked up with a single
+     * graph query and their properties loaded in bulk.
+     *
+     * @throws AtlasBaseException INSTANCE_GUID_NOT_FOUND if an entity with one of the guids doesn't exist
+     */
+    public Map<String, AtlasEntityHeader> toAtlasEntityHeaders(Collection<String> guids) throws AtlasBaseException {
+        Map<String, AtlasEntityHeader> ret      = new LinkedHashMap<>();
+        Map<String, AtlasVertex>       vertices = AtlasGraphUtilsV2.findByGuids(this.graph, guids);
+
+        for (String guid : guids) {
+            if (!vertices.containsKey(guid)) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+            }
+        }
+
+        graph.loadVertexProperties(vertices.values());
+
+        for (String guid : guids) {
+            ret.put(guid, toAtlasEntityHeader(vertices.get(guid)));
+        }
+
+        return ret;
+    }
+
     public Map<String, Map<String, Object>> getBusinessMetadata(AtlasVertex entityVertex) throws AtlasBaseException {
         Map<String, Map<String, Object>>                         ret             = null;
         String                                                   entityTypeName  = getTypeName(entityVertex);
@@ -421,19 +465,11 @@ public class EntityGraphRetriever {
         AtlasEntityType          entityType = typeRegistry.getEntityTypeByName(typeName);
 
         if (entityType != null) {
-            for (Map<String, Object> uniqAttributes : uniqueAttributesList) {
-                try {
-                    AtlasVertex vertex = AtlasGraphUtilsV2.getVertexByUniqueAttributes(this.graph, entityType, uniqAttributes);
-
-                    if (vertex != null) {
-                        AtlasEntity entity = mapVertexToAtlasEntity(vertex, ret, isMinExtInfo);
+            for (AtlasVertex vertex : AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entityType, uniqueAttributesList)) {
+                if (vertex != null) {
+                    AtlasEntity entity = mapVertexToAtlasEntity(vertex, ret, isMinExtInfo);
 
-                        ret.addEntity(entity);
-                    }
-                } catch(AtlasBaseException e) {
-                    if (e.getAtlasErrorCode() != AtlasErrorCode.INSTANCE_BY_UNIQUE_ATTRIBUTE_NOT_FOUND) {
-                        throw e;
-                    }
+                    ret.addEntity(entity);
                 }
             }
         }
@@ -1421,18 +1457,79 @@ public class EntityGraphRetriever {
         return mapVertexToRelatedObjectId(entityVertex, edge, attribute.isOwnedRef(), entityExtInfo, isMinExtInfo);
     }
 
-    private List<AtlasRelatedObjectId> mapRelationshipArrayAttribute(AtlasVertex entityVertex, AtlasAttribute attribute, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
+    /**
+     * Maps a page of values of an array relationship attribute of the entity. To find the page only the relationship
+     * edges are read - along with display text of referenced entities, when sorting; only values in the page are then
+     * mapped, unlike toAtlasEntity() which maps all values of the attribute.
+     *
+     * @param activeOnly skip values whose relationship is deleted
+     * @param sortOrder  when not null, values are sorted by display text of referenced entities
+     * @param offset     offset of the page
+     * @param limit      size of the page; negative value to get all values from the offset
+     */
+    public List<AtlasRelatedObjectId> getRelationshipAttributeValues(AtlasVertex entityVertex, AtlasAttribute attribute, boolean activeOnly, SortOrder sortOrder, int offset, int limit) throws AtlasBaseException {
         List<AtlasRelatedObjectId> ret   = new ArrayList<>();
-        Iterator<AtlasEdge>        edges = null;
+        Iterator<AtlasEdge>        edges = getRelationshipEdges(entityVertex, attribute);
+        long                       start = Math.max(offset, 0);
+        long                       end   = limit < 0 ? Long.MAX_VALUE : start + limit;
+        List<AtlasEdge>            page  = new ArrayList<>();
 
-        if (attribute.getRelationshipEdgeDirection() == IN) {
-            edges = getIncomingEdgesByLabel(entityVertex, attribute.getRelationshipEdgeLabel());
-        } else if (attribute.getRelationshipEdgeDirection() == OUT) {
-            edges = getOutGoingEdgesByLabel(entityVertex, attribute.getRelationshipEdgeLabel());
-        } else if (attribute.getRelationshipEdgeDirection() == BOTH) {
-            edges = getAdjacentEdgesByLabel(entityVertex, AtlasEdgeDirection.BOTH, attribute.getRelationshipEdgeLabel());
+        if (edges == null || start >= end) {
+            return ret;
         }
 
+        if (sortOrder == null) {
+            for (long idx = 0; edges.hasNext() && idx < end; ) {
+                AtlasEdge edge = edges.next();
+
+                if (!isRelationshipValue(edge, activeOnly)) {
+                    continue;
+                }
+
+                if (idx++ >= start) {
+                    page.add(edge);
+                }
+            }
+        } else {
+            List<AtlasEdge>        values       = new ArrayList<>();
+            Map<AtlasEdge, String> displayTexts = new HashMap<>();
+
+            while (edges.hasNext()) {
+                AtlasEdge edge = edges.next();
+
+                if (!isRelationshipValue(edge, activeOnly)) {
+                    continue;
+                }
+
+                AtlasVertex referenceVertex = getReferencedVertex(entityVertex, edge);
+                Object      displayText     = referenceVertex != null ? getDisplayText(referenceVertex, getTypeName(referenceVertex)) : null;
+
+                values.add(edge);
+                displayTexts.put(edge, displayText != null ? displayText.toString() : "");
+            }
+
+            Comparator<AtlasEdge> comparator = Comparator.comparing(displayTexts::get);
+
+            values.sort(sortOrder == SortOrder.ASCENDING ? comparator : comparator.reversed());
+
+            page.addAll(values.subList((int) Math.min(start, values.size()), (int) Math.min(end, values.size())));
+        }
+
+        for (AtlasEdge edge : page) {
+            AtlasRelatedObjectId relatedObjectId = mapVertexToRelatedObjectId(entityVertex, edge, false, null, false);
+
+            if (relatedObjectId != null) {
+                ret.add(relatedObjectId);
+            }
+        }
+
+        return ret;
+    }
+
+    private List<AtlasRelatedObjectId> mapRelationshipArrayAttribute(AtlasVertex entityVertex, AtlasAttribute attribute, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
+        List<AtlasRelatedObjectId> ret   = new ArrayList<>();
+        Iterator<AtlasEdge>        edges = getRelationshipEdges(entityVertex, attribute);
+
         if (edges != null) {
             while (edges.hasNext()) {
                 AtlasEdge relationshipEdge = edges.next();
@@ -1446,6 +1543,34 @@ public class EntityGraphRetriever {
         return ret;
     }
 
+    private Iterator<AtlasEdge> getRelationshipEdges(AtlasVertex entityVertex, AtlasAttribute attribute) {
+        Iterator<AtlasEdge> ret = null;
+
+        if (attribute.getRelationshipEdgeDirection() == IN) {
+            ret = getIncomingEdgesByLabel(entityVertex, attribute.getRelationshipEdgeLabel());
+        } else if (attribute.getRelationshipEdgeDirection() == OUT) {
+            ret = getOutGoingEdgesByLabel(entityVertex, attribute.getRelationshipEdgeLabel());
+        } else if (attribute.getRelationshipEdgeDirection() == BOTH) {
+            ret = getAdjacentEdgesByLabel(entityVertex, AtlasEdgeDirection.BOTH, attribute.getRelationshipEdgeLabel());
+        }
+
+        return ret;
+    }
+
+    private boolean isRelationshipValue(AtlasEdge edge, boolean activeOnly) {
+        return GraphHelper.elementExists(edge) && (!activeOnly || GraphHelper.getStatus(edge) == AtlasEntity.Status.ACTIVE);
+    }
+
+    private AtlasVertex getReferencedVertex(AtlasVertex entityVertex, AtlasEdge edge) {
+        AtlasVertex ret = edge.getInVertex();
+
+        if (StringUtils.equals(getIdFromVertex(ret), getIdFromVertex(entityVertex))) {
+            ret = edge.getOutVertex();
+        }
+
+        return ret;
+    }
+
     private AtlasRelatedObjectId mapVertexToRelatedObjectId(AtlasVertex entityVertex, AtlasEdge edge, boolean isOwnedRef, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
         AtlasRelatedObjectId ret = null;
 
@@ -300,6 +300,8 @@ public final class EntityStateChecker {
 
                 AtlasGraphUtilsV2.setEncodedProperty(entityVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
 
+                EntityFingerprint.invalidate(entityVertex);
+
                 result.setState(AtlasCheckStateResult.State.FIXED);
             } else {
                 result.setState(AtlasCheckStateResult.State.NOT_FIXED);
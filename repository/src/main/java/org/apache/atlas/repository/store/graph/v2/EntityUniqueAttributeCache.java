@@ -0,0 +1,523 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.apache.atlas.utils.LruCache;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of entities looked up by unique attributes: (typeName, unique attribute values) => (guid, vertex-id), shared
+ * across requests. Hook messages refer to the same tables, columns and paths by qualifiedName again and again; the
+ * cache avoids an index query for each such reference.
+ *
+ * Only active entities are cached, and an entry is used only after verifying that the vertex still exists, is active
+ * and has the looked up attribute value; on mismatch the entry is dropped and the graph is queried. Entries of deleted
+ * and purged entities, and of entities whose unique attributes are updated, are removed via EntityChangeListenerV2.
+ * The cache is cleared when the server becomes active or passive, as it doesn't see changes made by other servers.
+ */
+@Component
+public class EntityUniqueAttributeCache implements EntityChangeListenerV2, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityUniqueAttributeCache.class);
+
+    private static final String CACHE_NAME = "uniqueAttributeCache";
+
+    private final boolean                  isEnabled;
+    private final int                      maxEntries;
+    private final Map<String, Entry>       entries;
+    private final Map<String, Set<String>> keysByGuid        = new HashMap<>();
+    private final AtomicLong               hitCount          = new AtomicLong();
+    private final AtomicLong               missCount         = new AtomicLong();
+    private final AtomicLong               staleCount        = new AtomicLong();
+    private final AtomicLong               invalidationCount = new AtomicLong();
+    private final AtomicLong               clearCount        = new AtomicLong();
+
+    @Inject
+    public EntityUniqueAttributeCache(AtlasMetricsUtil metricsUtil) {
+        this(metricsUtil, AtlasConfiguration.ENTITY_UNIQUE_ATTRIBUTE_CACHE_ENABLED.getBoolean(), AtlasConfiguration.ENTITY_UNIQUE_ATTRIBUTE_CACHE_MAX_ENTRIES.getInt());
+    }
+
+    @VisibleForTesting
+    EntityUniqueAttributeCache(AtlasMetricsUtil metricsUtil, boolean isEnabled, int maxEntries) {
+        this.isEnabled  = isEnabled;
+        this.maxEntries = maxEntries;
+        this.entries    = new LruCache<String, Entry>(maxEntries, 0) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean ret = super.removeEldestEntry(eldest);
+
+                if (ret) {
+                    removeKey(eldest.getValue().guid, eldest.getKey());
+                }
+
+                return ret;
+            }
+        };
+
+        if (isEnabled && metricsUtil != null) {
+            metricsUtil.registerCacheStats(CACHE_NAME, this::getStats);
+        }
+
+        LOG.info("{}: enabled={}, maxEntries={}", CACHE_NAME, isEnabled, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Same as AtlasGraphUtilsV2.findByUniqueAttributes(), but looks up the cache first.
+     */
+    public AtlasVertex findByUniqueAttributes(AtlasGraph graph, AtlasEntityType entityType, Map<String, Object> attrValues) {
+        if (!isEnabled) {
+            return AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, attrValues);
+        }
+
+        String key = getKey(entityType, attrValues);
+
+        if (key == null) {
+            return AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, attrValues);
+        }
+
+        AtlasVertex ret = getVertex(graph, entityType, key, attrValues);
+
+        if (ret == null) {
+            ret = AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, attrValues);
+
+            addVertex(entityType, key, attrValues, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Same as AtlasGraphUtilsV2.findByUniqueAttributes() for a list of entities, but looks up the cache first. Entities
+     * not in the cache are looked up in bulk.
+     *
+     * @return vertices in the order of attrValuesList; null for entities that are not found
+     */
+    public List<AtlasVertex> findByUniqueAttributes(AtlasGraph graph, AtlasEntityType entityType, List<Map<String, Object>> attrValuesList) {
+        if (!isEnabled) {
+            return AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, attrValuesList);
+        }
+
+        List<AtlasVertex>         ret         = new ArrayList<>(attrValuesList.size());
+        List<String>              keys        = new ArrayList<>(attrValuesList.size());
+        List<Integer>             missIndexes = new ArrayList<>();
+        List<Map<String, Object>> missValues  = new ArrayList<>();
+
+        for (int i = 0; i < attrValuesList.size(); i++) {
+            Map<String, Object> attrValues = attrValuesList.get(i);
+            String              key        = attrValues != null ? getKey(entityType, attrValues) : null;
+            AtlasVertex         vertex     = key != null ? getVertex(graph, entityType, key, attrValues) : null;
+
+            ret.add(vertex);
+            keys.add(key);
+
+            if (vertex == null) {
+                missIndexes.add(i);
+                missValues.add(attrValues);
+            }
+        }
+
+        if (!missValues.isEmpty()) {
+            List<AtlasVertex> vertices = AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, missValues);
+
+            for (int i = 0; i < vertices.size(); i++) {
+                int         idx    = missIndexes.get(i);
+                AtlasVertex vertex = vertices.get(i);
+
+                ret.set(idx, vertex);
+
+                if (keys.get(idx) != null) {
+                    addVertex(entityType, keys.get(idx), missValues.get(i), vertex);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> ret  = new LinkedHashMap<>();
+        long                hits = hitCount.get();
+        long                miss = missCount.get();
+
+        synchronized (this) {
+            ret.put("size", entries.size());
+        }
+
+        ret.put("maxEntries", maxEntries);
+        ret.put("hitCount", hits);
+        ret.put("missCount", miss);
+        ret.put("hitRatio", (hits + miss) > 0 ? ((double) hits / (hits + miss)) : 0d);
+        ret.put("staleCount", staleCount.get());
+        ret.put("invalidationCount", invalidationCount.get());
+        ret.put("clearCount", clearCount.get());
+
+        return ret;
+    }
+
+    @VisibleForTesting
+    void invalidate(Collection<String> guids) {
+        int count = 0;
+
+        synchronized (this) {
+            for (String guid : guids) {
+                Set<String> keys = keysByGuid.remove(guid);
+
+                if (keys != null) {
+                    for (String key : keys) {
+                        entries.remove(key);
+                    }
+
+                    count += keys.size();
+                }
+            }
+        }
+
+        if (count > 0) {
+            invalidationCount.addAndGet(count);
+        }
+    }
+
+    public synchronized void clear() {
+        if (!entries.isEmpty()) {
+            LOG.info("{}: clearing {} entries", CACHE_NAME, entries.size());
+        }
+
+        entries.clear();
+        keysByGuid.clear();
+
+        clearCount.incrementAndGet();
+    }
+
+    @Override
+    public void instanceIsActive() {
+        clear();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        clear();
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.ENTITY_UNIQUE_ATTRIBUTE_CACHE.getOrder();
+    }
+
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) { }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) {
+        onEntitiesChange(getGuidsWithUpdatedUniqueAttributes(entities));
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) {
+        onEntitiesChange(getGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesPurged(List<AtlasEntity> entities) {
+        onEntitiesChange(getGuids(entities));
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsAdded(List<AtlasEntity> entities, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onClassificationsDeleted(List<AtlasEntity> entities, List<AtlasClassification> classifications) { }
+
+    @Override
+    public void onTermAdded(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) { }
+
+    @Override
+    public void onTermDeleted(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) { }
+
+    @Override
+    public void onRelationshipsAdded(List<AtlasRelationship> relationships, boolean isImport) { }
+
+    @Override
+    public void onRelationshipsUpdated(List<AtlasRelationship> relationships, boolean isImport) { }
+
+    @Override
+    public void onRelationshipsDeleted(List<AtlasRelationship> relationships, boolean isImport) { }
+
+    @Override
+    public void onRelationshipsPurged(List<AtlasRelationship> relationships) { }
+
+    @Override
+    public void onLabelsAdded(AtlasEntity entity, Set<String> labels) { }
+
+    @Override
+    public void onLabelsDeleted(AtlasEntity entity, Set<String> labels) { }
+
+    @Override
+    public void onBusinessAttributesUpdated(AtlasEntity entity, Map<String, Map<String, Object>> updatedBusinessAttributes) { }
+
+    // invalidate right away, so that rest of the transaction doesn't use the entries, and again after the transaction
+    // completes, in case a concurrent request added the entries back from the graph before the commit
+    private void onEntitiesChange(Set<String> guids) {
+        if (!isEnabled || guids.isEmpty()) {
+            return;
+        }
+
+        invalidate(guids);
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                invalidate(guids);
+            }
+        };
+    }
+
+    private Set<String> getGuids(List<AtlasEntity> entities) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && entities != null) {
+            for (AtlasEntity entity : entities) {
+                ret.add(entity.getGuid());
+            }
+        }
+
+        return ret;
+    }
+
+    // entries of an entity need to be removed only when values of its unique attributes change
+    private Set<String> getGuidsWithUpdatedUniqueAttributes(List<AtlasEntity> entities) {
+        Set<String> ret = new HashSet<>();
+
+        if (isEnabled && entities != null) {
+            synchronized (this) {
+                for (AtlasEntity entity : entities) {
+                    Set<String> keys = keysByGuid.get(entity.getGuid());
+
+                    if (keys == null) {
+                        continue;
+                    }
+
+                    for (String key : keys) {
+                        Entry entry = entries.get(key);
+
+                        if (entry == null || isUpdated(entry, entity)) {
+                            ret.add(entity.getGuid());
+
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    // returns the cached vertex after verifying that it still matches the lookup; counts a hit or a miss
+    private AtlasVertex getVertex(AtlasGraph graph, AtlasEntityType entityType, String key, Map<String, Object> attrValues) {
+        Entry entry = get(key);
+
+        if (entry != null) {
+            AtlasVertex ret = graph.getVertex(entry.vertexId);
+
+            if (isValid(ret, entry, entityType, attrValues)) {
+                hitCount.incrementAndGet();
+
+                return ret;
+            }
+
+            staleCount.incrementAndGet();
+
+            remove(key, entry);
+        }
+
+        missCount.incrementAndGet();
+
+        return null;
+    }
+
+    private void addVertex(AtlasEntityType entityType, String key, Map<String, Object> attrValues, AtlasVertex vertex) {
+        if (vertex != null && AtlasGraphUtilsV2.getState(vertex) == AtlasEntity.Status.ACTIVE) {
+            String guid = AtlasGraphUtilsV2.getIdFromVertex(vertex);
+
+            if (guid != null) {
+                put(key, new Entry(guid, String.valueOf(vertex.getId()), toStringValues(entityType, attrValues)));
+            }
+        }
+    }
+
+    private synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry existing = entries.put(key, entry);
+
+        if (existing != null && !existing.guid.equals(entry.guid)) {
+            removeKey(existing.guid, key);
+        }
+
+        keysByGuid.computeIfAbsent(entry.guid, k -> new HashSet<>()).add(key);
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        if (entries.get(key) == entry) {
+            entries.remove(key);
+
+            removeKey(entry.guid, key);
+        }
+    }
+
+    // caller should hold the lock
+    private void removeKey(String guid, String key) {
+        Set<String> keys = keysByGuid.get(guid);
+
+        if (keys != null) {
+            keys.remove(key);
+
+            if (keys.isEmpty()) {
+                keysByGuid.remove(guid);
+            }
+        }
+    }
+
+    private static boolean isValid(AtlasVertex vertex, Entry entry, AtlasEntityType entityType, Map<String, Object> attrValues) {
+        if (vertex == null || !entry.guid.equals(AtlasGraphUtilsV2.getIdFromVertex(vertex)) || AtlasGraphUtilsV2.getState(vertex) != AtlasEntity.Status.ACTIVE) {
+            return false;
+        }
+
+        for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+            Object attrValue = attrValues.get(attribute.getName());
+
+            if (attrValue != null) {
+                Object vertexValue = vertex.getProperty(attribute.getVertexPropertyName(), Object.class);
+
+                if (vertexValue != null && Objects.equals(String.valueOf(vertexValue), String.valueOf(attrValue))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isUpdated(Entry entry, AtlasEntity entity) {
+        for (Map.Entry<String, String> attr : entry.attrValues.entrySet()) {
+            if (entity.hasAttribute(attr.getKey())) {
+                Object value = entity.getAttribute(attr.getKey());
+
+                if (value == null || !attr.getValue().equals(String.valueOf(value))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // key includes all unique attributes present in the lookup, in the order AtlasGraphUtilsV2.findByUniqueAttributes() tries them
+    private static String getKey(AtlasEntityType entityType, Map<String, Object> attrValues) {
+        Map<String, AtlasAttribute> uniqAttributes = entityType.getUniqAttributes();
+
+        if (MapUtils.isEmpty(uniqAttributes) || MapUtils.isEmpty(attrValues)) {
+            return null;
+        }
+
+        StringBuilder sb       = new StringBuilder(entityType.getTypeName());
+        boolean       hasValue = false;
+
+        for (AtlasAttribute attribute : uniqAttributes.values()) {
+            Object attrValue = attrValues.get(attribute.getName());
+
+            if (attrValue != null) {
+                sb.append('\u0000').append(attribute.getName()).append('=').append(attrValue);
+
+                hasValue = true;
+            }
+        }
+
+        return hasValue ? sb.toString() : null;
+    }
+
+    private static Map<String, String> toStringValues(AtlasEntityType entityType, Map<String, Object> attrValues) {
+        Map<String, String> ret = new HashMap<>();
+
+        for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+            Object attrValue = attrValues.get(attribute.getName());
+
+            if (attrValue != null) {
+                ret.put(attribute.getName(), String.valueOf(attrValue));
+            }
+        }
+
+        return ret;
+    }
+
+    private static class Entry {
+        final String              guid;
+        final String              vertexId;
+        final Map<String, String> attrValues;
+
+        Entry(String guid, String vertexId, Map<String, String> attrValues) {
+            this.guid       = guid;
+            this.vertexId   = vertexId;
+            this.attrValues = attrValues;
+        }
+    }
+}
@@ -32,19 +32,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class UniqAttrBasedEntityResolver implements EntityResolver {
     private static final Logger LOG = LoggerFactory.getLogger(UniqAttrBasedEntityResolver.class);
 
-    private final AtlasGraph        graph;
-    private final AtlasTypeRegistry typeRegistry;
-    private final EntityGraphMapper entityGraphMapper;
+    private final AtlasGraph                 graph;
+    private final AtlasTypeRegistry          typeRegistry;
+    private final EntityGraphMapper          entityGraphMapper;
+    private final EntityUniqueAttributeCache uniqueAttributeCache;
 
     public UniqAttrBasedEntityResolver(AtlasGraph graph, AtlasTypeRegistry typeRegistry, EntityGraphMapper entityGraphMapper) {
-        this.graph             = graph;
-        this.typeRegistry      = typeRegistry;
-        this.entityGraphMapper = entityGraphMapper;
+        this(graph, typeRegistry, entityGraphMapper, null);
+    }
+
+    public UniqAttrBasedEntityResolver(AtlasGraph graph, AtlasTypeRegistry typeRegistry, EntityGraphMapper entityGraphMapper, EntityUniqueAttributeCache uniqueAttributeCache) {
+        this.graph                = graph;
+        this.typeRegistry         = typeRegistry;
+        this.entityGraphMapper    = entityGraphMapper;
+        this.uniqueAttributeCache = uniqueAttributeCache;
     }
 
     @Override
@@ -53,26 +63,22 @@ public class UniqAttrBasedEntityResolver implements EntityResolver {
             throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "UniqAttrBasedEntityResolver.resolveEntityReferences(): context is null");
         }
 
-        //Resolve attribute references
-        List<AtlasObjectId> resolvedReferences = new ArrayList<>();
+        Map<AtlasObjectId, AtlasVertex> vertices = findByUniqueAttributes(context.getReferencedByUniqAttribs());
 
         for (AtlasObjectId objId : context.getReferencedByUniqAttribs()) {
-            //query in graph repo that given unique attribute - check for deleted also?
-            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objId.getTypeName());
-
-            if (entityType == null) {
-                throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), objId.getTypeName());
-            }
-
-            AtlasVertex vertex = AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entityType, objId.getUniqueAttributes());
+            AtlasVertex vertex = vertices.get(objId);
 
             if (vertex == null && RequestContext.get().isCreateShellEntityForNonExistingReference()) {
-                vertex = entityGraphMapper.createShellEntityVertex(objId, context);
+                // a shell created for an earlier reference with the same unique attributes is found by the lookup
+                vertex = findByUniqueAttributes(typeRegistry.getEntityTypeByName(objId.getTypeName()), objId.getUniqueAttributes());
+
+                if (vertex == null) {
+                    vertex = entityGraphMapper.createShellEntityVertex(objId, context);
+                }
             }
 
             if (vertex != null) {
                 context.addResolvedIdByUniqAttribs(objId, vertex);
-                resolvedReferences.add(objId);
             } else {
                 throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, objId.toString());
             }
@@ -80,4 +86,45 @@ public class UniqAttrBasedEntityResolver implements EntityResolver {
 
         return context;
     }
+
+    // looks up references of each type in bulk
+    private Map<AtlasObjectId, AtlasVertex> findByUniqueAttributes(Collection<AtlasObjectId> objIds) throws AtlasBaseException {
+        Map<AtlasObjectId, AtlasVertex>  ret          = new HashMap<>();
+        Map<String, List<AtlasObjectId>> objIdsByType = new LinkedHashMap<>();
+
+        for (AtlasObjectId objId : objIds) {
+            objIdsByType.computeIfAbsent(objId.getTypeName(), k -> new ArrayList<>()).add(objId);
+        }
+
+        for (Map.Entry<String, List<AtlasObjectId>> entry : objIdsByType.entrySet()) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entry.getKey());
+
+            if (entityType == null) {
+                throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), entry.getKey());
+            }
+
+            List<AtlasObjectId>       typeObjIds     = entry.getValue();
+            List<Map<String, Object>> attrValuesList = new ArrayList<>(typeObjIds.size());
+
+            for (AtlasObjectId objId : typeObjIds) {
+                attrValuesList.add(objId.getUniqueAttributes());
+            }
+
+            List<AtlasVertex> vertices = uniqueAttributeCache != null ? uniqueAttributeCache.findByUniqueAttributes(graph, entityType, attrValuesList)
+                                                                      : AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, attrValuesList);
+
+            for (int i = 0; i < typeObjIds.size(); i++) {
+                if (vertices.get(i) != null) {
+                    ret.put(typeObjIds.get(i), vertices.get(i));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private AtlasVertex findByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> attrValues) {
+        return uniqueAttributeCache != null ? uniqueAttributeCache.findByUniqueAttributes(graph, entityType, attrValues)
+                                            : AtlasGraphUtilsV2.findByUniqueAttributes(graph, entityType, attrValues);
+    }
 }
@@ -20,9 +20,91 @@ package org.apache.atlas.repository.store.graph.v2.bulkimport;
 
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
+import org.apache.commons.collections.MapUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 public abstract class ImportStrategy {
     public abstract EntityMutationResponse run(EntityImportStream entityStream, AtlasImportResult importResult) throws AtlasBaseException;
+
+    /**
+     * @return guids of the entity and its referred entities
+     */
+    public static Set<String> getEntityGuids(AtlasEntityWithExtInfo entityWithExtInfo) {
+        Set<String> ret = new LinkedHashSet<>();
+
+        ret.add(entityWithExtInfo.getEntity().getGuid());
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            ret.addAll(entityWithExtInfo.getReferredEntities().keySet());
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return guids of entities referred to in attributes of the entity and its referred entities
+     */
+    public static Set<String> getReferencedGuids(AtlasEntityWithExtInfo entityWithExtInfo) {
+        Set<String> ret = new LinkedHashSet<>();
+
+        collectReferencedGuids(entityWithExtInfo.getEntity(), ret);
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            for (AtlasEntity referredEntity : entityWithExtInfo.getReferredEntities().values()) {
+                collectReferencedGuids(referredEntity, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    // guids in object-ids in attribute values: AtlasObjectId instances, or maps when read from json
+    private static void collectReferencedGuids(AtlasEntity entity, Set<String> guids) {
+        if (entity == null) {
+            return;
+        }
+
+        if (entity.getAttributes() != null) {
+            collectReferencedGuids(entity.getAttributes().values(), guids);
+        }
+
+        if (entity.getRelationshipAttributes() != null) {
+            collectReferencedGuids(entity.getRelationshipAttributes().values(), guids);
+        }
+    }
+
+    private static void collectReferencedGuids(Collection<?> values, Set<String> guids) {
+        for (Object value : values) {
+            collectReferencedGuids(value, guids);
+        }
+    }
+
+    private static void collectReferencedGuids(Object value, Set<String> guids) {
+        if (value instanceof AtlasObjectId) {
+            String guid = ((AtlasObjectId) value).getGuid();
+
+            if (guid != null) {
+                guids.add(guid);
+            }
+        } else if (value instanceof Map) {
+            Object guid = ((Map) value).get(AtlasObjectId.KEY_GUID);
+
+            if (guid instanceof String) {
+                guids.add((String) guid);
+            } else {
+                collectReferencedGuids(((Map) value).values(), guids);
+            }
+        } else if (value instanceof Collection) {
+            collectReferencedGuids((Collection) value, guids);
+        }
+    }
 }
@@ -0,0 +1,504 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.store.graph.v2.bulkimport;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasImportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasSchemaViolationException;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityStreamForImport;
+import org.apache.atlas.repository.store.graph.v2.BulkImporterImpl;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.atlas.repository.store.graph.v2.BulkImporterImpl.updateImportProgress;
+
+/**
+ * Imports entities using a pool of workers, each committing the entities it imports in batches.
+ *
+ * Entities are read from the stream in creation order, on the calling thread. An entity is handed to the workers only
+ * after all earlier entities in the stream it refers to - or shares a guid with - have been imported; hence an entity
+ * is never imported before the entities it depends on, same as in RegularImport. References to entities that appear
+ * later in the stream are handled as in RegularImport: the entity fails with INVALID_OBJECT_ID, and is retried after
+ * the rest of the stream is imported.
+ *
+ * Progress is reported with the position of the last entity, in stream order, before which all entities are imported;
+ * an interrupted import can be resumed from this position.
+ */
+public class ParallelImport extends ImportStrategy {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelImport.class);
+
+    private static final int    MAX_ATTEMPTS                 = 3;
+    private static final int    PENDING_BATCHES_PER_WORKER   = 10;
+    private static final int    MIN_PENDING_ENTITIES         = 100;
+    private static final long   POLL_INTERVAL_MS             = 100;
+    private static final long   RETRY_WAIT_MS                = 1000;
+    private static final long   SHUTDOWN_TIMEOUT_MS          = 60 * 1000;
+    private static final String WORKER_NAME_FORMAT           = "atlas-import-%d";
+
+    private final AtlasEntityStore                entityStore;
+    private final AtlasGraph                      graph;
+    private final AtlasTypeRegistry               typeRegistry;
+    private final EntityGraphRetriever            entityGraphRetriever;
+    private final int                             numWorkers;
+    private final int                             batchSize;
+    private final boolean                         directoryBasedImportConfigured;
+    private final BlockingQueue<ImportItem>       readyItems = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ImportOutcome>    outcomes   = new LinkedBlockingQueue<>();
+    private volatile boolean                      isStopped  = false;
+
+    public ParallelImport(AtlasGraph graph, AtlasEntityStore entityStore, AtlasTypeRegistry typeRegistry, int numWorkers, int batchSize) {
+        this.graph                          = graph;
+        this.entityStore                    = entityStore;
+        this.typeRegistry                   = typeRegistry;
+        this.entityGraphRetriever           = new EntityGraphRetriever(graph, typeRegistry);
+        this.numWorkers                     = Math.max(numWorkers, 1);
+        this.batchSize                      = Math.max(batchSize, 1);
+        this.directoryBasedImportConfigured = StringUtils.isNotEmpty(AtlasConfiguration.IMPORT_TEMP_DIRECTORY.getString());
+    }
+
+    @Override
+    public EntityMutationResponse run(EntityImportStream entityStream, AtlasImportResult importResult) throws AtlasBaseException {
+        if (entityStream == null || !entityStream.hasNext()) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no entities to create/update.");
+        }
+
+        LOG.info("ParallelImport: numWorkers={}, batchSize={}", numWorkers, batchSize);
+
+        EntityMutationResponse ret = new EntityMutationResponse();
+
+        ret.setGuidAssignments(new HashMap<>());
+
+        Map<String, ImportItem> pendingItems       = new HashMap<>(); // guid -> last item having the guid, that is not yet imported
+        ArrayDeque<ImportItem>  itemsInStreamOrder = new ArrayDeque<>();
+        List<ImportItem>        residualItems      = new ArrayList<>();
+        Set<String>             processedGuids     = new HashSet<>();
+        int                     maxPendingItems    = Math.max(numWorkers * batchSize * PENDING_BATCHES_PER_WORKER, MIN_PENDING_ENTITIES);
+        int                     streamSize         = entityStream.size();
+        float                   currentPercent     = 0f;
+        AtlasBaseException      failure            = null;
+        ExecutorService         executor           = Executors.newFixedThreadPool(numWorkers, new ThreadFactoryBuilder().setNameFormat(WORKER_NAME_FORMAT).setDaemon(true).build());
+
+        for (int i = 0; i < numWorkers; i++) {
+            executor.submit(new Worker(RequestContext.get().getUser(), RequestContext.get().getUserGroups()));
+        }
+
+        try {
+            while (failure == null) {
+                while (itemsInStreamOrder.size() < maxPendingItems && entityStream.hasNext()) {
+                    AtlasEntityWithExtInfo entityWithExtInfo = entityStream.getNextEntityWithExtInfo();
+
+                    if (entityWithExtInfo == null || entityWithExtInfo.getEntity() == null) {
+                        continue;
+                    }
+
+                    ImportItem item = new ImportItem(entityStream.getPosition(), entityWithExtInfo);
+
+                    addItem(item, pendingItems);
+
+                    itemsInStreamOrder.add(item);
+                }
+
+                if (itemsInStreamOrder.isEmpty()) {
+                    break;
+                }
+
+                ImportOutcome outcome = outcomes.take();
+
+                failure = processOutcome(outcome, pendingItems, entityStream, ret, importResult, processedGuids, residualItems);
+
+                while (!itemsInStreamOrder.isEmpty() && itemsInStreamOrder.peek().isDone) {
+                    ImportItem item = itemsInStreamOrder.poll();
+
+                    currentPercent = updateImportProgress(LOG, item.position, streamSize, currentPercent, getLastImportedInfo(item));
+                }
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            failure = new AtlasBaseException(excp);
+        } finally {
+            stopWorkers(executor);
+        }
+
+        if (failure == null && !residualItems.isEmpty()) {
+            failure = importResidualItems(residualItems, entityStream, ret, importResult, processedGuids);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        importResult.getProcessedEntities().addAll(processedGuids);
+
+        LOG.info("bulkImport(): done. Total number of entities (including referred entities) imported: {}", processedGuids.size());
+
+        return ret;
+    }
+
+    // called only from the thread reading the stream
+    private void addItem(ImportItem item, Map<String, ImportItem> pendingItems) {
+        Set<String>     guids        = getReferencedGuids(item.entityWithExtInfo);
+        Set<ImportItem> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        guids.addAll(item.guids);
+
+        for (String guid : guids) {
+            ImportItem dependency = pendingItems.get(guid);
+
+            if (dependency != null && dependencies.add(dependency)) {
+                dependency.dependents.add(item);
+            }
+        }
+
+        item.pendingDependencyCount = dependencies.size();
+
+        for (String guid : item.guids) {
+            pendingItems.put(guid, item);
+        }
+
+        if (item.pendingDependencyCount == 0) {
+            readyItems.add(item);
+        }
+    }
+
+    // called only from the thread reading the stream
+    private AtlasBaseException processOutcome(ImportOutcome outcome, Map<String, ImportItem> pendingItems, EntityImportStream entityStream,
+                                              EntityMutationResponse ret, AtlasImportResult importResult, Set<String> processedGuids,
+                                              List<ImportItem> residualItems) {
+        if (outcome.failure != null) {
+            return outcome.failure;
+        }
+
+        for (ImportItem item : outcome.items) {
+            item.isDone = true;
+
+            for (String guid : item.guids) {
+                pendingItems.remove(guid, item);
+            }
+
+            for (ImportItem dependent : item.dependents) {
+                dependent.pendingDependencyCount--;
+
+                if (dependent.pendingDependencyCount == 0) {
+                    readyItems.add(dependent);
+                }
+            }
+
+            item.dependents.clear();
+
+            entityStream.onImportComplete(item.entityWithExtInfo.getEntity().getGuid());
+        }
+
+        if (outcome.isResidual) {
+            residualItems.addAll(outcome.items);
+        } else {
+            updateImportMetrics(outcome.response, ret, importResult, processedGuids);
+        }
+
+        return null;
+    }
+
+    /**
+     * Entities that referred to entities not yet imported are retried in stream order, until all are imported or a
+     * round makes no progress.
+     */
+    private AtlasBaseException importResidualItems(List<ImportItem> residualItems, EntityImportStream entityStream, EntityMutationResponse ret,
+                                                   AtlasImportResult importResult, Set<String> processedGuids) {
+        List<ImportItem> remainingItems = new ArrayList<>(residualItems);
+
+        remainingItems.sort(Comparator.comparingInt(item -> item.position));
+
+        while (!remainingItems.isEmpty()) {
+            List<ImportItem>   stillResidualItems = new ArrayList<>();
+            AtlasBaseException lastResidualError  = null;
+
+            LOG.info("ParallelImport: importing {} entities that refer to entities imported later", remainingItems.size());
+
+            for (ImportItem item : remainingItems) {
+                ImportOutcome outcome = importItem(item);
+
+                if (outcome.failure != null) {
+                    return outcome.failure;
+                }
+
+                if (outcome.isResidual) {
+                    stillResidualItems.add(item);
+
+                    lastResidualError = outcome.residualError;
+                } else {
+                    updateImportMetrics(outcome.response, ret, importResult, processedGuids);
+
+                    entityStream.onImportComplete(item.entityWithExtInfo.getEntity().getGuid());
+                }
+            }
+
+            if (stillResidualItems.size() == remainingItems.size()) {
+                return lastResidualError;
+            }
+
+            remainingItems = stillResidualItems;
+        }
+
+        return null;
+    }
+
+    private void updateImportMetrics(EntityMutationResponse resp, EntityMutationResponse ret, AtlasImportResult importResult, Set<String> processedGuids) {
+        if (resp == null) {
+            return;
+        }
+
+        if (resp.getGuidAssignments() != null) {
+            ret.getGuidAssignments().putAll(resp.getGuidAssignments());
+        }
+
+        if (!directoryBasedImportConfigured) {
+            BulkImporterImpl.updateImportMetrics("entity:%s:created", resp.getCreatedEntities(), processedGuids, importResult);
+            BulkImporterImpl.updateImportMetrics("entity:%s:updated", resp.getUpdatedEntities(), processedGuids, importResult);
+            BulkImporterImpl.updateImportMetrics("entity:%s:deleted", resp.getDeletedEntities(), processedGuids, importResult);
+        }
+    }
+
+    private void importBatch(List<ImportItem> batch) {
+        if (batch.size() > 1) {
+            AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+            for (ImportItem item : batch) {
+                entities.addEntity(item.entityWithExtInfo.getEntity());
+
+                if (MapUtils.isNotEmpty(item.entityWithExtInfo.getReferredEntities())) {
+                    for (Map.Entry<String, AtlasEntity> entry : item.entityWithExtInfo.getReferredEntities().entrySet()) {
+                        entities.addReferredEntity(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            try {
+                EntityMutationResponse resp = entityStore.createOrUpdateForImport(new AtlasEntityStream(entities));
+
+                outcomes.add(new ImportOutcome(batch, resp));
+
+                return;
+            } catch (Throwable t) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("ParallelImport: batch of {} entities failed; importing them one at a time", batch.size(), t);
+                }
+            } finally {
+                RequestContext.get().clearCache();
+            }
+        }
+
+        for (ImportItem item : batch) {
+            outcomes.add(importItem(item));
+        }
+    }
+
+    // same handling of failures as RegularImport; failures other than AtlasBaseException are retried, as these can be
+    // due to concurrent updates by other workers
+    private ImportOutcome importItem(ImportItem item) {
+        AtlasEntityWithExtInfo entityWithExtInfo = item.entityWithExtInfo;
+        AtlasEntity            entity            = entityWithExtInfo.getEntity();
+        Throwable              lastError         = null;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                EntityMutationResponse resp = entityStore.createOrUpdateForImport(new AtlasEntityStreamForImport(entityWithExtInfo, null));
+
+                return new ImportOutcome(Collections.singletonList(item), resp);
+            } catch (AtlasBaseException e) {
+                return isResidual(e) ? ImportOutcome.residual(item, e) : ImportOutcome.failed(item, e);
+            } catch (AtlasSchemaViolationException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Entity: {}", entity.getGuid(), e);
+                }
+
+                if (attempt == 0) {
+                    BulkImporterImpl.updateVertexGuid(graph, typeRegistry, entityGraphRetriever, entity);
+                } else {
+                    LOG.error("Guid update failed: {}", entity.getGuid());
+
+                    return ImportOutcome.failed(item, new AtlasBaseException(e));
+                }
+            } catch (Throwable e) {
+                LOG.warn("Exception: {}: attempt {} of {}", entity.getGuid(), attempt + 1, MAX_ATTEMPTS, e);
+
+                lastError = e;
+
+                pause(attempt + 1);
+            } finally {
+                RequestContext.get().clearCache();
+            }
+        }
+
+        AtlasBaseException abe = new AtlasBaseException(lastError);
+
+        return isResidual(abe) ? ImportOutcome.residual(item, abe) : ImportOutcome.failed(item, abe);
+    }
+
+    private void stopWorkers(ExecutorService executor) {
+        isStopped = true;
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("ParallelImport: workers did not stop in {}ms", SHUTDOWN_TIMEOUT_MS);
+
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isResidual(AtlasBaseException e) {
+        return e.getAtlasErrorCode().getErrorCode().equals(AtlasErrorCode.INVALID_OBJECT_ID.getErrorCode());
+    }
+
+    private static void pause(int retryCount) {
+        try {
+            Thread.sleep(RETRY_WAIT_MS * retryCount);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String getLastImportedInfo(ImportItem item) {
+        AtlasEntity entity = item.entityWithExtInfo.getEntity();
+
+        return String.format("entity:last-imported:%s:[%s]:(%s)", entity.getTypeName(), item.position, entity.getGuid());
+    }
+
+    private class Worker implements Runnable {
+        private final String      user;
+        private final Set<String> userGroups;
+
+        Worker(String user, Set<String> userGroups) {
+            this.user       = user;
+            this.userGroups = userGroups;
+        }
+
+        @Override
+        public void run() {
+            RequestContext.clear();
+            RequestContext.get().setUser(user, userGroups);
+            RequestContext.get().setImportInProgress(true);
+
+            try {
+                while (!isStopped) {
+                    ImportItem item = readyItems.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+                    if (item == null) {
+                        continue;
+                    }
+
+                    List<ImportItem> batch = new ArrayList<>(batchSize);
+
+                    batch.add(item);
+
+                    if (batchSize > 1) {
+                        readyItems.drainTo(batch, batchSize - 1);
+                    }
+
+                    importBatch(batch);
+                }
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            } finally {
+                RequestContext.clear();
+            }
+        }
+    }
+
+    private static class ImportItem {
+        final int                    position;
+        final AtlasEntityWithExtInfo entityWithExtInfo;
+        final Set<String>            guids; // guids of the entity and its referred entities
+        final List<ImportItem>       dependents = new ArrayList<>();
+        int                          pendingDependencyCount;
+        boolean                      isDone;
+
+        ImportItem(int position, AtlasEntityWithExtInfo entityWithExtInfo) {
+            this.position          = position;
+            this.entityWithExtInfo = entityWithExtInfo;
+            this.guids             = getEntityGuids(entityWithExtInfo);
+        }
+    }
+
+    private static class ImportOutcome {
+        final List<ImportItem>       items;
+        final EntityMutationResponse response;
+        final boolean                isResidual;
+        final AtlasBaseException     residualError;
+        final AtlasBaseException     failure;
+
+        ImportOutcome(List<ImportItem> items, EntityMutationResponse response) {
+            this(items, response, false, null, null);
+        }
+
+        private ImportOutcome(List<ImportItem> items, EntityMutationResponse response, boolean isResidual, AtlasBaseException residualError, AtlasBaseException failure) {
+            this.items         = items;
+            this.response      = response;
+            this.isResidual    = isResidual;
+            this.residualError = residualError;
+            this.failure       = failure;
+        }
+
+        static ImportOutcome residual(ImportItem item, AtlasBaseException error) {
+            return new ImportOutcome(Collections.singletonList(item), null, true, error, null);
+        }
+
+        static ImportOutcome failed(ImportItem item, AtlasBaseException error) {
+            return new ImportOutcome(Collections.singletonList(item), null, false, null, error);
+        }
+    }
+}
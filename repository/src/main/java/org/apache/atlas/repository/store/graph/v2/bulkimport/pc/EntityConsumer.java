@@ -39,7 +39,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -59,7 +61,7 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
     private final EntityGraphRetriever entityRetrieverBulk;
 
     private List<AtlasEntity.AtlasEntityWithExtInfo> entityBuffer = new ArrayList<>();
-    private List<String> localResults = new ArrayList<>();
+    private Set<String> localResults = new LinkedHashSet<>();
 
     public EntityConsumer(AtlasTypeRegistry typeRegistry,
                           AtlasGraph atlasGraph, AtlasEntityStore entityStore,
@@ -92,6 +94,9 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
             attemptCommit();
         } catch (Exception e) {
             LOG.info("Invalid entities. Possible data loss: Please correct and re-submit!", e);
+
+            // reported as processed, so that entities referring to this entity are not held up
+            localResults.add(entityWithExtInfo.getEntity().getGuid());
         }
     }
 
@@ -107,12 +112,17 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
             importUsingRegularEntityStore(entityWithExtInfo, e);
         } catch (AtlasBaseException e) {
             LOG.warn("AtlasBaseException: {} - {}", entityWithExtInfo.getEntity().getTypeName(), entityWithExtInfo.getEntity().getGuid(), e);
+
+            // reported as processed, so that entities referring to this entity are not held up
+            localResults.add(entityWithExtInfo.getEntity().getGuid());
         } catch (AtlasSchemaViolationException e) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Entity: {}", entityWithExtInfo.getEntity().getGuid(), e);
             }
 
             BulkImporterImpl.updateVertexGuid(this.atlasGraphBulk, typeRegistry, entityRetrieverBulk, entityWithExtInfo.getEntity());
+
+            localResults.add(entityWithExtInfo.getEntity().getGuid());
         }
     }
 
@@ -135,7 +145,6 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
                 AtlasEntityStreamForImport oneEntityStream = new AtlasEntityStreamForImport(entityWithExtInfo, null);
                 this.entityStore.createOrUpdateForImportNoCommit(oneEntityStream);
                 atlasGraph.commit();
-                localResults.add(entityWithExtInfo.getEntity().getGuid());
                 dispatchResults();
             } catch (Exception e) {
                 atlasGraph.rollback();
@@ -178,7 +187,14 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
         }
 
         LOG.error("Retries exceeded! Potential data loss! Please correct data and re-attempt. Buffer: {}: Counter: {}", entityBuffer.size(), counter.get());
-        clear();
+        dispatchResults();
+    }
+
+    @Override
+    protected void onQueueEmpty() {
+        if (currentBatch.get() > 0) {
+            commit();
+        }
     }
 
     @Override
@@ -26,26 +26,64 @@ import org.apache.atlas.pc.WorkItemManager;
 import org.apache.atlas.repository.migration.DataMigrationStatusService;
 import org.apache.atlas.repository.store.graph.v2.BulkImporterImpl;
 import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
-import org.apache.commons.lang.StringUtils;
+import org.apache.atlas.repository.store.graph.v2.bulkimport.ImportStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reads entities from the import stream and hands them to EntityConsumer workers.
+ *
+ * An entity is handed to the workers only after the entities read earlier that it refers to, or shares a guid with,
+ * are committed; entities without such dependencies are handed to the workers right away, irrespective of their
+ * type. Number of entities read but not yet committed is capped, to keep the memory used bounded.
+ */
 public class EntityCreationManager<AtlasEntityWithExtInfo> extends WorkItemManager {
     private static final Logger LOG = LoggerFactory.getLogger(EntityCreationManager.class);
     private static final String WORKER_PREFIX = "migration-import";
     private static final long STATUS_REPORT_TIMEOUT_DURATION = 1 * 60 * 1000; // 5 min
+    private static final long STALL_TIMEOUT_DURATION = STATUS_REPORT_TIMEOUT_DURATION;
+    private static final long WORKER_TIMEOUT_DURATION = 10 * 60 * 1000;
+    private static final long STATUS_SAVE_INTERVAL = 30 * 1000;
+    private static final long WAIT_INTERVAL_MS = 10;
+    private static final int IN_FLIGHT_BATCHES_PER_WORKER = 2;
+    private static final int MIN_IN_FLIGHT_ENTITIES = 1000;
 
     private final StatusReporter<String, Long> statusReporter;
     private final AtlasImportResult importResult;
     private final DataMigrationStatusService dataMigrationStatusService;
+    private final int maxInFlightEntities;
+    private final Map<String, EntityNode> pendingEntities = new HashMap<>();    // guid -> last entity read, having the guid, that is not yet committed
+    private final Map<String, EntityNode> dispatchedEntities = new HashMap<>(); // guid -> entity handed to workers
+    private final Set<EntityNode> blockedEntities = new LinkedHashSet<>();
+    private final Deque<EntityNode> readyEntities = new ArrayDeque<>();
+    private final Map<String, Long> typeCounts = new HashMap<>();
     private String currentTypeName;
     private float currentPercent;
     private EntityImportStream entityImportStream;
+    private int inFlightCount;
+    private long processedCount;
+    private long stallTimeInMs;
+    private long startTime;
+    private long lastProgressTime;
+    private long lastStatusSaveTime;
 
     public EntityCreationManager(WorkItemBuilder builder, int batchSize, int numWorkers, AtlasImportResult importResult, DataMigrationStatusService dataMigrationStatusService) {
         super(builder, WORKER_PREFIX, batchSize, numWorkers, true);
         this.importResult = importResult;
         this.dataMigrationStatusService = dataMigrationStatusService;
+        this.maxInFlightEntities = Math.max(batchSize * numWorkers * IN_FLIGHT_BATCHES_PER_WORKER, MIN_IN_FLIGHT_ENTITIES);
 
         this.statusReporter = new StatusReporter<>(STATUS_REPORT_TIMEOUT_DURATION);
     }
@@ -55,6 +93,12 @@ public class EntityCreationManager<AtlasEntityWithExtInfo> extends WorkItemManag
         AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo;
         this.entityImportStream = entityStream;
         this.dataMigrationStatusService.setStatus("IN_PROGRESS");
+        this.startTime = System.currentTimeMillis();
+        this.lastProgressTime = startTime;
+        this.lastStatusSaveTime = startTime;
+
+        LOG.info("EntityCreationManager: maxInFlightEntities: {}", maxInFlightEntities);
+
         while ((entityWithExtInfo = entityStream.getNextEntityWithExtInfo()) != null) {
             AtlasEntity entity = entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
             if (entity == null) {
@@ -69,45 +113,219 @@ public class EntityCreationManager<AtlasEntityWithExtInfo> extends WorkItemManag
             }
         }
 
+        waitFor(() -> blockedEntities.isEmpty() && readyEntities.isEmpty());
+        saveProgress();
+
         this.dataMigrationStatusService.setStatus("DONE");
         return currentIndex;
     }
 
     private void produce(long currentIndex, String typeName, AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) {
-        String previousTypeName = getCurrentTypeName();
-
-        if (StringUtils.isNotEmpty(typeName)
-                && StringUtils.isNotEmpty(previousTypeName)
-                && !StringUtils.equals(previousTypeName, typeName)) {
-            LOG.info("Waiting: '{}' to complete...", previousTypeName);
-            super.drain();
-            LOG.info("Switching entity type processing: From: '{}' To: '{}'...", previousTypeName, typeName);
-        }
+        waitFor(() -> inFlightCount < maxInFlightEntities);
+
+        EntityNode node = new EntityNode(typeName, entityWithExtInfo);
 
-        setCurrentTypeName(typeName);
-        statusReporter.produced(entityWithExtInfo.getEntity().getGuid(), currentIndex);
-        super.checkProduce(entityWithExtInfo);
+        statusReporter.produced(node.guid, currentIndex);
+        addNode(node);
+        dispatchReady();
         extractResults();
     }
 
     public void extractResults() {
+        processResults();
+
+        logStatus();
+    }
+
+    private void addNode(EntityNode node) {
+        Set<String>     guids        = ImportStrategy.getReferencedGuids(node.entityWithExtInfo);
+        Set<EntityNode> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        guids.addAll(node.guids);
+
+        for (String guid : guids) {
+            EntityNode dependency = pendingEntities.get(guid);
+
+            if (dependency != null && dependencies.add(dependency)) {
+                dependency.dependents.add(node);
+            }
+        }
+
+        for (String guid : node.guids) {
+            pendingEntities.put(guid, node);
+        }
+
+        node.pendingDependencyCount = dependencies.size();
+        inFlightCount++;
+
+        if (node.pendingDependencyCount == 0) {
+            node.isReleased = true;
+
+            readyEntities.add(node);
+        } else {
+            blockedEntities.add(node);
+        }
+    }
+
+    private void dispatchReady() {
+        EntityNode node;
+
+        while ((node = readyEntities.poll()) != null) {
+            AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo = node.entityWithExtInfo;
+
+            node.entityWithExtInfo = null;
+
+            dispatchedEntities.put(node.guid, node);
+
+            super.checkProduce(entityWithExtInfo);
+
+            processResults();
+        }
+    }
+
+    private void processResults() {
         Object result;
         while (((result = getResults().poll())) != null) {
             statusReporter.processed((String) result);
+
+            EntityNode node = dispatchedEntities.remove(result);
+
+            if (node != null) {
+                onCommitted(node);
+            }
         }
+    }
 
-        logStatus();
+    private void onCommitted(EntityNode node) {
+        onCompleted(node);
+
+        processedCount++;
+        lastProgressTime = System.currentTimeMillis();
+
+        typeCounts.merge(node.typeName, 1L, Long::sum);
+        importResult.incrementMeticsCounter(node.typeName);
+        setCurrentTypeName(node.typeName);
+    }
+
+    private void onCompleted(EntityNode node) {
+        for (String guid : node.guids) {
+            pendingEntities.remove(guid, node);
+        }
+
+        for (EntityNode dependent : node.dependents) {
+            dependent.pendingDependencyCount--;
+
+            if (dependent.pendingDependencyCount == 0 && !dependent.isReleased) {
+                release(dependent);
+            }
+        }
+
+        node.dependents.clear();
+
+        inFlightCount--;
+    }
+
+    private void release(EntityNode node) {
+        node.isReleased = true;
+
+        blockedEntities.remove(node);
+        readyEntities.add(node);
+    }
+
+    /**
+     * Waits for workers to commit entities until the condition is met. Time spent waiting is reported as stall time.
+     * Workers report every entity handed to them, including failed ones; if none is reported for
+     * WORKER_TIMEOUT_DURATION, the entities with the workers are given up on - logged, and treated as failed - so
+     * that entities depending on them are released and the import completes.
+     */
+    private void waitFor(BooleanSupplier condition) {
+        long waitStart = 0;
+        long lastStallLogTime = 0;
+
+        while (true) {
+            extractResults();
+            dispatchReady();
+
+            if (condition.getAsBoolean()) {
+                break;
+            }
+
+            // blocked entities depend only on entities read earlier, hence on an entity with the workers
+            if (dispatchedEntities.isEmpty()) {
+                LOG.warn("No entity with workers: In-flight: {}, blocked: {}", inFlightCount, blockedEntities.size());
+                break;
+            }
+
+            long now = System.currentTimeMillis();
+
+            if (waitStart == 0) {
+                waitStart = now;
+            }
+
+            long stalledFor = now - Math.max(lastProgressTime, waitStart);
+
+            if (stalledFor >= WORKER_TIMEOUT_DURATION) {
+                giveUpDispatched();
+
+                lastProgressTime = now;
+
+                continue;
+            }
+
+            if (stalledFor >= STALL_TIMEOUT_DURATION && now - lastStallLogTime >= STALL_TIMEOUT_DURATION) {
+                LOG.warn("Stalled: no entity committed in {} ms: In-flight: {}, with workers: {}; waiting", stalledFor, inFlightCount, dispatchedEntities.size());
+
+                lastStallLogTime = now;
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                LOG.warn("Interrupted while waiting: In-flight: {}", inFlightCount);
+                break;
+            }
+
+            pause();
+        }
+
+        if (waitStart != 0) {
+            stallTimeInMs += (System.currentTimeMillis() - waitStart);
+        }
+    }
+
+    private void giveUpDispatched() {
+        List<EntityNode> nodes = new ArrayList<>(dispatchedEntities.values());
+
+        dispatchedEntities.clear();
+
+        for (EntityNode node : nodes) {
+            LOG.error("Not reported by workers in {} ms. Possible data loss: {} - {}", WORKER_TIMEOUT_DURATION, node.typeName, node.guid);
+
+            onCompleted(node);
+        }
     }
 
     private void logStatus() {
         Long ack = statusReporter.ack();
-        if (ack == null) {
-            return;
+        if (ack != null) {
+            dataMigrationStatusService.savePosition(ack);
+            this.currentPercent = updateImportMetrics(getCurrentTypeName(), ack, this.entityImportStream.size(), getCurrentPercent());
         }
 
-        importResult.incrementMeticsCounter(getCurrentTypeName());
-        dataMigrationStatusService.savePosition(ack);
-        this.currentPercent = updateImportMetrics(getCurrentTypeName(), ack, this.entityImportStream.size(), getCurrentPercent());
+        if (inFlightCount == 0 || (System.currentTimeMillis() - lastStatusSaveTime) >= STATUS_SAVE_INTERVAL) {
+            saveProgress();
+        }
+    }
+
+    private void saveProgress() {
+        long now = System.currentTimeMillis();
+        long elapsedTime = Math.max(now - startTime, 1);
+        long entitiesPerSecond = (processedCount * 1000) / elapsedTime;
+
+        lastStatusSaveTime = now;
+
+        dataMigrationStatusService.saveProgress(processedCount, entitiesPerSecond, stallTimeInMs, new HashMap<>(typeCounts));
+
+        LOG.info("Migration Import: Processed: {}: In-flight: {}: Blocked: {}: Entities/sec: {}: Stall time: {} ms: Acked: {}: Ack timeouts: {}",
+                processedCount, inFlightCount, blockedEntities.size(), entitiesPerSecond, stallTimeInMs, statusReporter.getAckedCount(), statusReporter.getTimedOutCount());
     }
 
     private static float updateImportMetrics(String typeNameGuid, long currentIndex, int streamSize, float currentPercent) {
@@ -115,6 +333,14 @@ public class EntityCreationManager<AtlasEntityWithExtInfo> extends WorkItemManag
         return BulkImporterImpl.updateImportProgress(LOG, (int) currentIndex, streamSize, currentPercent, lastEntityImported);
     }
 
+    private static void pause() {
+        try {
+            Thread.sleep(WAIT_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private String getCurrentTypeName() {
         return this.currentTypeName;
     }
@@ -126,4 +352,21 @@ public class EntityCreationManager<AtlasEntityWithExtInfo> extends WorkItemManag
     private float getCurrentPercent() {
         return this.currentPercent;
     }
+
+    private static class EntityNode {
+        final String guid;
+        final String typeName;
+        final Set<String> guids;
+        final List<EntityNode> dependents = new ArrayList<>();
+        AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo; // cleared once handed to workers
+        int pendingDependencyCount;
+        boolean isReleased;
+
+        EntityNode(String typeName, AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) {
+            this.guid = entityWithExtInfo.getEntity().getGuid();
+            this.typeName = typeName;
+            this.guids = ImportStrategy.getEntityGuids(entityWithExtInfo);
+            this.entityWithExtInfo = entityWithExtInfo;
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.tasks.AbstractTask;
+import org.apache.atlas.tasks.TaskFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+public class ClassificationPropagateTaskFactory implements TaskFactory {
+    public static final String CLASSIFICATION_PROPAGATION_ADD    = "CLASSIFICATION_PROPAGATION_ADD";
+    public static final String CLASSIFICATION_PROPAGATION_DELETE = "CLASSIFICATION_PROPAGATION_DELETE";
+
+    public static final String PARAM_ENTITY_GUID              = "entityGuid";
+    public static final String PARAM_CLASSIFICATION_VERTEX_ID = "classificationVertexId";
+
+    private static final List<String> SUPPORTED_TYPES = Arrays.asList(CLASSIFICATION_PROPAGATION_ADD, CLASSIFICATION_PROPAGATION_DELETE);
+
+    private final ClassificationPropagator propagator;
+
+    @Inject
+    public ClassificationPropagateTaskFactory(ClassificationPropagator propagator) {
+        this.propagator = propagator;
+    }
+
+    @Override
+    public List<String> getSupportedTypes() {
+        return SUPPORTED_TYPES;
+    }
+
+    @Override
+    public AbstractTask create(AtlasTask task) {
+        return new ClassificationPropagationTask(task, propagator);
+    }
+}
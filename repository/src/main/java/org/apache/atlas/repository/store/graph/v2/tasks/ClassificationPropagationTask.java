@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.tasks.AbstractTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_ADD;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_CLASSIFICATION_VERTEX_ID;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_ENTITY_GUID;
+
+/**
+ * Adds or removes propagations of a classification, committing every batchSize entities. Vertices to update are
+ * computed when the task runs, so a task interrupted by a restart resumes with the entities not yet updated.
+ */
+public class ClassificationPropagationTask extends AbstractTask {
+    private static final Logger LOG = LoggerFactory.getLogger(ClassificationPropagationTask.class);
+
+    private final ClassificationPropagator propagator;
+    private final int                      batchSize;
+
+    public ClassificationPropagationTask(AtlasTask task, ClassificationPropagator propagator) {
+        super(task);
+
+        this.propagator = propagator;
+        this.batchSize  = AtlasConfiguration.TASKS_CLASSIFICATION_PROPAGATION_BATCH_SIZE.getInt();
+    }
+
+    @Override
+    public String getSerializationKey() {
+        return (String) getParameters().get(PARAM_CLASSIFICATION_VERTEX_ID);
+    }
+
+    @Override
+    public void run() throws AtlasBaseException {
+        String       classificationVertexId = (String) getParameters().get(PARAM_CLASSIFICATION_VERTEX_ID);
+        boolean      isAdd                  = CLASSIFICATION_PROPAGATION_ADD.equals(getTask().getType());
+        List<String> vertexIds              = isAdd ? propagator.getVerticesToPropagateTo((String) getParameters().get(PARAM_ENTITY_GUID), classificationVertexId)
+                                                    : propagator.getVerticesPropagatedTo(classificationVertexId);
+        int          count                  = 0;
+
+        LOG.info("{}: classification={}, entities={}", getTask().getType(), classificationVertexId, vertexIds.size());
+
+        for (int i = 0; i < vertexIds.size(); i += batchSize) {
+            List<String> batch = vertexIds.subList(i, Math.min(i + batchSize, vertexIds.size()));
+            String       user  = RequestContext.get().getUser();
+
+            // start each batch with a fresh context, to not accumulate entities and propagations of earlier batches
+            RequestContext.clear();
+            RequestContext.get().setUser(user, null);
+
+            count += isAdd ? propagator.addPropagation(classificationVertexId, batch) : propagator.removePropagation(classificationVertexId, batch);
+        }
+
+        LOG.info("{}: classification={}, updated {} entities", getTask().getType(), classificationVertexId, count);
+    }
+}
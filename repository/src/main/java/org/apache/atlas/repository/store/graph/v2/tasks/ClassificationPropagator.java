@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graph.IFullTextMapper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.EntityFingerprint;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.repository.store.graph.v2.IAtlasEntityChangeNotifier;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_TEXT_KEY;
+import static org.apache.atlas.repository.graph.GraphHelper.isActive;
+import static org.apache.atlas.repository.graph.GraphHelper.isPropagationEnabled;
+
+/**
+ * Graph operations of classification propagation tasks. Each method is executed in its own graph transaction, so that
+ * propagation to a large number of entities is committed in bounded-size batches.
+ */
+@Component
+public class ClassificationPropagator {
+    private static final Logger LOG = LoggerFactory.getLogger(ClassificationPropagator.class);
+
+    private static final boolean ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES = AtlasConfiguration.ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES.getBoolean();
+
+    private final AtlasGraph                 graph;
+    private final DeleteHandlerDelegate      deleteDelegate;
+    private final IAtlasEntityChangeNotifier entityChangeNotifier;
+    private final AtlasInstanceConverter     instanceConverter;
+    private final IFullTextMapper            fullTextMapperV2;
+    private final EntityGraphRetriever       entityRetriever;
+
+    @Inject
+    public ClassificationPropagator(AtlasGraph graph, AtlasTypeRegistry typeRegistry, DeleteHandlerDelegate deleteDelegate,
+                                    IAtlasEntityChangeNotifier entityChangeNotifier, AtlasInstanceConverter instanceConverter,
+                                    IFullTextMapper fullTextMapperV2) {
+        this.graph                = graph;
+        this.deleteDelegate       = deleteDelegate;
+        this.entityChangeNotifier = entityChangeNotifier;
+        this.instanceConverter    = instanceConverter;
+        this.fullTextMapperV2     = fullTextMapperV2;
+        this.entityRetriever      = new EntityGraphRetriever(graph, typeRegistry);
+    }
+
+    /**
+     * @return ids of vertices the classification should be propagated to, but is not yet propagated to; empty if the
+     * classification no longer exists or its propagation has been disabled
+     */
+    @GraphTransaction
+    public List<String> getVerticesToPropagateTo(String entityGuid, String classificationVertexId) {
+        List<String> ret                  = new ArrayList<>();
+        AtlasVertex  classificationVertex = graph.getVertex(classificationVertexId);
+
+        if (classificationVertex == null || !isPropagationEnabled(classificationVertex)) {
+            LOG.info("classification {} no longer exists or is not propagated; nothing to propagate", classificationVertexId);
+
+            return ret;
+        }
+
+        AtlasVertex entityVertex = AtlasGraphUtilsV2.findByGuid(graph, entityGuid);
+
+        if (entityVertex == null) {
+            LOG.info("entity {} no longer exists; nothing to propagate", entityGuid);
+
+            return ret;
+        }
+
+        for (AtlasVertex vertex : entityRetriever.getImpactedVerticesV2(entityVertex, null, classificationVertexId)) {
+            ret.add(vertex.getIdForDisplay());
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return ids of vertices the classification is propagated to; empty if the classification no longer exists or
+     * its propagation has been re-enabled
+     */
+    @GraphTransaction
+    public List<String> getVerticesPropagatedTo(String classificationVertexId) {
+        List<String> ret                  = new ArrayList<>();
+        AtlasVertex  classificationVertex = graph.getVertex(classificationVertexId);
+
+        if (classificationVertex == null || isPropagationEnabled(classificationVertex)) {
+            LOG.info("classification {} no longer exists or is propagated; no propagations to remove", classificationVertexId);
+
+            return ret;
+        }
+
+        for (AtlasVertex vertex : GraphHelper.getAllPropagatedEntityVertices(classificationVertex)) {
+            ret.add(vertex.getIdForDisplay());
+        }
+
+        return ret;
+    }
+
+    @GraphTransaction
+    public int addPropagation(String classificationVertexId, List<String> vertexIds) throws AtlasBaseException {
+        AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+        if (classificationVertex == null || !isPropagationEnabled(classificationVertex)) {
+            return 0;
+        }
+
+        List<AtlasVertex> propagatedTo = deleteDelegate.getHandler().addTagPropagation(classificationVertex, getVertices(vertexIds));
+
+        if (CollectionUtils.isEmpty(propagatedTo)) {
+            return 0;
+        }
+
+        AtlasClassification classification = entityRetriever.toAtlasClassification(classificationVertex);
+        List<AtlasEntity>   entities       = updateClassificationText(propagatedTo);
+
+        entityChangeNotifier.onClassificationsAddedToEntities(entities, Collections.singletonList(classification));
+
+        return propagatedTo.size();
+    }
+
+    @GraphTransaction
+    public int removePropagation(String classificationVertexId, List<String> vertexIds) throws AtlasBaseException {
+        AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+        if (classificationVertex == null || isPropagationEnabled(classificationVertex)) {
+            return 0;
+        }
+
+        List<AtlasVertex> vertices = getVertices(vertexIds);
+
+        if (vertices.isEmpty()) {
+            return 0;
+        }
+
+        AtlasClassification classification = entityRetriever.toAtlasClassification(classificationVertex);
+
+        deleteDelegate.getHandler().removeTagPropagation(classificationVertex, vertices);
+
+        List<AtlasEntity> entities = updateClassificationText(vertices);
+
+        entityChangeNotifier.onClassificationsDeletedFromEntities(entities, Collections.singletonList(classification));
+
+        return vertices.size();
+    }
+
+    private List<AtlasVertex> getVertices(List<String> vertexIds) {
+        List<AtlasVertex> ret = new ArrayList<>(vertexIds.size());
+
+        for (String vertexId : vertexIds) {
+            AtlasVertex vertex = graph.getVertex(vertexId);
+
+            if (vertex != null) {
+                ret.add(vertex);
+            }
+        }
+
+        return ret;
+    }
+
+    private List<AtlasEntity> updateClassificationText(Collection<AtlasVertex> vertices) throws AtlasBaseException {
+        List<AtlasEntity> ret = new ArrayList<>();
+
+        for (AtlasVertex vertex : vertices) {
+            AtlasEntity entity = instanceConverter.getAndCacheEntity(GraphHelper.getGuid(vertex), ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES);
+
+            if (isActive(entity)) {
+                vertex.setProperty(CLASSIFICATION_TEXT_KEY, fullTextMapperV2.getClassificationTextForEntity(entity));
+                EntityFingerprint.invalidate(vertex);
+
+                ret.add(entity);
+            }
+        }
+
+        return ret;
+    }
+}
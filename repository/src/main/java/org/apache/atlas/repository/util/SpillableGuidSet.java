@@ -0,0 +1,372 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.util;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Set of guids with bounded heap usage. Once the number of guids held in memory reaches the given limit, they are
+ * written to a temporary file as a sorted run of 128-bit hashes - 16 bytes per guid, compared to over 100 bytes taken
+ * by a guid string in a HashSet. Each run is memory-mapped and has a Bloom filter in front, so that a lookup searches
+ * only the runs likely to have the guid. Runs are merged once their count exceeds MAX_RUN_COUNT.
+ *
+ * Spilled runs are not modified: removal of a guid present in a spilled run is recorded in memory.
+ */
+public class SpillableGuidSet implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(SpillableGuidSet.class);
+
+    private static final HashFunction HASH_FUNCTION         = Hashing.murmur3_128();
+    private static final Funnel<long[]> HASH_FUNNEL         = (hash, into) -> into.putLong(hash[0]).putLong(hash[1]);
+    private static final Comparator<long[]> HASH_COMPARATOR = (h1, h2) -> h1[0] != h2[0] ? Long.compare(h1[0], h2[0]) : Long.compare(h1[1], h2[1]);
+    private static final int    RECORD_SIZE                 = 16;
+    private static final int    MAX_RUN_COUNT               = 8;
+    private static final double BLOOM_FILTER_FPP            = 0.01;
+    private static final String TEMPORARY_FILE_PREFIX       = "atlas-guids-";
+    private static final String TEMPORARY_FILE_SUFFIX       = ".bin";
+
+    private final int             maxInMemory;
+    private final File            directory;
+    private final Set<String>     guids        = new HashSet<>();
+    private final Set<String>     removedGuids = new HashSet<>(); // removed guids that are present in spilled runs
+    private final List<SpilledRun> runs        = new ArrayList<>();
+    private int                   size;
+
+    public SpillableGuidSet(int maxInMemory, String directory) {
+        this.maxInMemory = Math.max(1, Math.min(maxInMemory, Integer.MAX_VALUE / RECORD_SIZE));
+        this.directory   = StringUtils.isNotEmpty(directory) ? new File(directory) : null;
+    }
+
+    public boolean add(String guid) {
+        if (guids.contains(guid)) {
+            return false;
+        }
+
+        if (isSpilled(guid)) {
+            if (!removedGuids.remove(guid)) {
+                return false;
+            }
+        } else {
+            guids.add(guid);
+
+            if (guids.size() >= maxInMemory) {
+                spill();
+            }
+        }
+
+        size++;
+
+        return true;
+    }
+
+    public void addAll(Collection<String> guids) {
+        for (String guid : guids) {
+            add(guid);
+        }
+    }
+
+    public boolean contains(String guid) {
+        if (guids.contains(guid)) {
+            return true;
+        }
+
+        return !removedGuids.contains(guid) && isSpilled(guid);
+    }
+
+    public boolean remove(String guid) {
+        if (guids.remove(guid)) {
+            size--;
+
+            return true;
+        }
+
+        if (!removedGuids.contains(guid) && isSpilled(guid)) {
+            removedGuids.add(guid);
+
+            size--;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSpilledRunCount() {
+        return runs.size();
+    }
+
+    public void clear() {
+        guids.clear();
+        removedGuids.clear();
+
+        for (SpilledRun run : runs) {
+            run.delete();
+        }
+
+        runs.clear();
+
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private boolean isSpilled(String guid) {
+        if (runs.isEmpty()) {
+            return false;
+        }
+
+        long[] hash = hash(guid);
+
+        for (SpilledRun run : runs) {
+            if (run.contains(hash)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void spill() {
+        long[][] hashes = new long[guids.size()][];
+        int      idx    = 0;
+
+        for (String guid : guids) {
+            hashes[idx++] = hash(guid);
+        }
+
+        Arrays.sort(hashes, HASH_COMPARATOR);
+
+        runs.add(writeRun(Arrays.asList(hashes).iterator(), hashes.length));
+
+        guids.clear();
+
+        if (runs.size() > MAX_RUN_COUNT) {
+            mergeRuns();
+        }
+    }
+
+    private void mergeRuns() {
+        long total = 0;
+
+        for (SpilledRun run : runs) {
+            total += run.count;
+        }
+
+        if (total > Integer.MAX_VALUE / RECORD_SIZE) { // merged run would be too large to map
+            return;
+        }
+
+        SpilledRun merged = writeRun(new MergeIterator(runs), (int) total);
+
+        for (SpilledRun run : runs) {
+            run.delete();
+        }
+
+        runs.clear();
+        runs.add(merged);
+
+        LOG.info("SpillableGuidSet: merged spilled runs: guids={}, file={}", merged.count, merged.file);
+    }
+
+    private SpilledRun writeRun(Iterator<long[]> hashes, int count) {
+        BloomFilter<long[]> bloomFilter = BloomFilter.create(HASH_FUNNEL, Math.max(count, 1), BLOOM_FILTER_FPP);
+        File                file        = null;
+
+        try {
+            file = File.createTempFile(TEMPORARY_FILE_PREFIX, TEMPORARY_FILE_SUFFIX, directory);
+
+            try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                while (hashes.hasNext()) {
+                    long[] hash = hashes.next();
+
+                    os.writeLong(hash[0]);
+                    os.writeLong(hash[1]);
+
+                    bloomFilter.put(hash);
+                }
+            }
+
+            MappedByteBuffer buffer;
+
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("SpillableGuidSet: spilled {} guids to {}", count, file);
+            }
+
+            return new SpilledRun(file, buffer, count, bloomFilter);
+        } catch (IOException excp) {
+            if (file != null && !file.delete()) {
+                LOG.warn("SpillableGuidSet: failed to delete {}", file);
+            }
+
+            throw new UncheckedIOException("SpillableGuidSet: failed to spill guids", excp);
+        }
+    }
+
+    private static long[] hash(String guid) {
+        HashCode hashCode = HASH_FUNCTION.hashString(guid, StandardCharsets.UTF_8);
+        byte[]   bytes    = hashCode.asBytes();
+        long     hi       = 0;
+        long     lo       = 0;
+
+        for (int i = 0; i < 8; i++) {
+            hi = (hi << 8) | (bytes[i] & 0xff);
+            lo = (lo << 8) | (bytes[i + 8] & 0xff);
+        }
+
+        return new long[] { hi, lo };
+    }
+
+    // k-way merge of sorted runs
+    private static class MergeIterator implements Iterator<long[]> {
+        private final List<SpilledRun> runs;
+        private final int[]            next;
+
+        MergeIterator(List<SpilledRun> runs) {
+            this.runs = runs;
+            this.next = new int[runs.size()];
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (int i = 0; i < runs.size(); i++) {
+                if (next[i] < runs.get(i).count) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public long[] next() {
+            long[] ret    = null;
+            int    retRun = -1;
+
+            for (int i = 0; i < runs.size(); i++) {
+                if (next[i] < runs.get(i).count) {
+                    long[] hash = runs.get(i).get(next[i]);
+
+                    if (ret == null || HASH_COMPARATOR.compare(hash, ret) < 0) {
+                        ret    = hash;
+                        retRun = i;
+                    }
+                }
+            }
+
+            if (ret == null) {
+                throw new NoSuchElementException();
+            }
+
+            next[retRun]++;
+
+            return ret;
+        }
+    }
+
+    private static class SpilledRun {
+        final File                file;
+        final MappedByteBuffer    buffer;
+        final int                 count;
+        final BloomFilter<long[]> bloomFilter;
+
+        SpilledRun(File file, MappedByteBuffer buffer, int count, BloomFilter<long[]> bloomFilter) {
+            this.file        = file;
+            this.buffer      = buffer;
+            this.count       = count;
+            this.bloomFilter = bloomFilter;
+        }
+
+        long[] get(int index) {
+            int offset = index * RECORD_SIZE;
+
+            return new long[] { buffer.getLong(offset), buffer.getLong(offset + 8) };
+        }
+
+        boolean contains(long[] hash) {
+            if (!bloomFilter.mightContain(hash)) {
+                return false;
+            }
+
+            int low  = 0;
+            int high = count - 1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = HASH_COMPARATOR.compare(get(mid), hash);
+
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        void delete() {
+            if (!file.delete()) {
+                LOG.warn("SpillableGuidSet: failed to delete {}", file);
+            }
+        }
+    }
+}
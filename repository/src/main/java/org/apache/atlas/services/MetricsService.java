@@ -17,10 +17,15 @@
  */
 package org.apache.atlas.services;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.annotation.AtlasService;
 import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.model.discovery.AtlasAggregationEntry;
 import org.apache.atlas.model.instance.AtlasEntity.Status;
 import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.repository.graphdb.AggregationContext;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.type.AtlasEntityType;
@@ -28,13 +33,19 @@ import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasMetricJVMUtil;
 import org.apache.atlas.util.AtlasMetricsUtil;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
 import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
@@ -75,112 +86,196 @@ public class MetricsService {
     private final AtlasTypeRegistry typeRegistry;
     private final AtlasMetricsUtil  metricsUtil;
     private final String            indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final boolean           useFacets;
+    private final long              cacheTtlMs;
+    private final ExecutorService   refreshExecutor;
+    private final AtomicBoolean     isRefreshPending  = new AtomicBoolean(false);
+    private volatile EntityCounts   cachedEntityCounts;
 
     @Inject
     public MetricsService(final AtlasGraph graph, final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil) {
-        this.atlasGraph   = graph;
-        this.typeRegistry = typeRegistry;
-        this.metricsUtil  = metricsUtil;
+        this(graph, typeRegistry, metricsUtil, AtlasConfiguration.METRIC_QUERY_USE_FACETS.getBoolean(),
+             AtlasConfiguration.METRIC_QUERY_CACHE_TTL_SECS.getLong() * 1000);
+    }
+
+    @VisibleForTesting
+    MetricsService(final AtlasGraph graph, final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil, boolean useFacets, long cacheTtlMs) {
+        this.atlasGraph      = graph;
+        this.typeRegistry    = typeRegistry;
+        this.metricsUtil     = metricsUtil;
+        this.useFacets       = useFacets;
+        this.cacheTtlMs      = cacheTtlMs;
+        this.refreshExecutor = cacheTtlMs > 0 ? Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-metrics-refresh-%d").setDaemon(true).build()) : null;
+
+        LOG.info("MetricsService: useFacets={}, cacheTtlMs={}", useFacets, cacheTtlMs);
     }
 
     @SuppressWarnings("unchecked")
     @GraphTransaction
     public AtlasMetrics getMetrics() {
-        Collection<String> entityDefNames               = typeRegistry.getAllEntityDefNames();
-        Collection<String> classificationDefNames       = typeRegistry.getAllClassificationDefNames();
-        Map<String, Long>  activeEntityCount            = new HashMap<>();
-        Map<String, Long>  deletedEntityCount           = new HashMap<>();
-        Map<String, Long>  shellEntityCount             = new HashMap<>();
-        Map<String, Long>  taggedEntityCount            = new HashMap<>();
-        Map<String, Long> activeEntityCountTypeAndSubTypes = new HashMap<>();
-        Map<String, Long> deletedEntityCountTypeAndSubTypes = new HashMap<>();
-        Map<String, Long> shellEntityCountTypeAndSubTypes = new HashMap<>();
-
-
-        long               unusedTypeCount        = 0;
-        long               totalEntities          = 0;
-
-        if (entityDefNames != null) {
-            for (String entityDefName : entityDefNames) {
-                long activeCount  = getTypeCount(entityDefName, ACTIVE);
-                long deletedCount = getTypeCount(entityDefName, DELETED);
-                long shellCount = getTypeShellCount(entityDefName);
+        EntityCounts entityCounts = getEntityCounts();
+        AtlasMetrics metrics      = new AtlasMetrics();
 
-                if (activeCount > 0) {
-                    activeEntityCount.put(entityDefName, activeCount);
-                    totalEntities += activeCount;
-                }
+        metrics.addMetric(GENERAL, METRIC_COLLECTION_TIME, entityCounts.collectionTime);
+        metrics.addMetric(GENERAL, METRIC_STATS, metricsUtil.getStats()); //add atlas server stats
+        metrics.addMetric(GENERAL, METRIC_TYPE_COUNT, getAllTypesCount());
+        metrics.addMetric(GENERAL, METRIC_TAG_COUNT, getAllTagsCount());
+        metrics.addMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT, entityCounts.unusedTypeCount);
+        metrics.addMetric(GENERAL, METRIC_ENTITY_COUNT, entityCounts.totalEntities);
 
-                if (deletedCount > 0) {
-                    deletedEntityCount.put(entityDefName, deletedCount);
-                    totalEntities += deletedCount;
-                }
+        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE, entityCounts.activeEntityCount);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED, entityCounts.deletedEntityCount);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_SHELL, entityCounts.shellEntityCount);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE_INCL_SUBTYPES, entityCounts.activeEntityCountTypeAndSubTypes);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED_INCL_SUBTYPES, entityCounts.deletedEntityCountTypeAndSubTypes);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_SHELL_INCL_SUBTYPES, entityCounts.shellEntityCountTypeAndSubTypes);
 
-                if (activeCount == 0 && deletedCount == 0) {
-                    unusedTypeCount++;
-                }
+        metrics.addMetric(TAG, METRIC_ENTITIES_PER_TAG, entityCounts.taggedEntityCount);
+        metrics.addMetric(SYSTEM, METRIC_MEMORY, AtlasMetricJVMUtil.getMemoryDetails());
+        metrics.addMetric(SYSTEM, METRIC_OS, AtlasMetricJVMUtil.getSystemInfo());
+        metrics.addMetric(SYSTEM, METRIC_RUNTIME, AtlasMetricJVMUtil.getRuntimeInfo());
 
-                if(shellCount>0){
-                    shellEntityCount.put(entityDefName, shellCount);
+        return metrics;
+    }
+
+    /**
+     * Counts are cached for up to cacheTtlMs. Once half of it has elapsed, the counts are refreshed in background, so
+     * that callers rarely wait for the counts to be collected.
+     */
+    private EntityCounts getEntityCounts() {
+        EntityCounts ret = cachedEntityCounts;
+
+        if (ret == null || ret.getAgeMs() > cacheTtlMs) {
+            ret = refreshEntityCounts(false);
+        } else if (ret.getAgeMs() > cacheTtlMs / 2 && isRefreshPending.compareAndSet(false, true)) {
+            refreshExecutor.submit(() -> {
+                try {
+                    refreshEntityCounts(true);
+                } catch (Throwable t) {
+                    LOG.warn("failed to refresh entity counts in background", t);
+                } finally {
+                    isRefreshPending.set(false);
+
+                    atlasGraph.commit();
                 }
-            }
+            });
         }
 
-        Collection<AtlasEntityType> allEntityTypes = typeRegistry.getAllEntityTypes();
-        for (AtlasEntityType entityType : allEntityTypes) {
-            long entityActiveCount  = 0;
-            long entityDeletedCount = 0;
-            long entityShellCount   = 0;
+        return ret;
+    }
 
-            for (String type : entityType.getTypeAndAllSubTypes()) {
-                entityActiveCount  += activeEntityCount.get(type) == null ? 0 : activeEntityCount.get(type);
-                entityDeletedCount += deletedEntityCount.get(type) == null ? 0 : deletedEntityCount.get(type);
-                entityShellCount   += shellEntityCount.get(type) == null ? 0 : shellEntityCount.get(type);
+    // concurrent callers with stale counts wait for one collection, instead of each collecting the counts
+    private synchronized EntityCounts refreshEntityCounts(boolean isBackgroundRefresh) {
+        EntityCounts ret = cachedEntityCounts;
+
+        if (ret == null || isBackgroundRefresh || ret.getAgeMs() > cacheTtlMs) {
+            ret = collectEntityCounts();
+
+            if (cacheTtlMs > 0) {
+                cachedEntityCounts = ret;
             }
+        }
 
-            if (entityActiveCount > 0) {
-                activeEntityCountTypeAndSubTypes.put(entityType.getTypeName(), entityActiveCount);
+        return ret;
+    }
+
+    private EntityCounts collectEntityCounts() {
+        long              startTime     = System.currentTimeMillis();
+        Map<String, Long> activeCounts  = null;
+        Map<String, Long> deletedCounts = null;
+        Map<String, Long> shellCounts   = null;
+
+        if (useFacets) {
+            activeCounts = getTypeCountsUsingFacets(STATE_PROPERTY_KEY, ACTIVE.name());
+
+            // empty result when the index backend doesn't support aggregation; fallback to per-type queries
+            if (MapUtils.isNotEmpty(activeCounts)) {
+                deletedCounts = getTypeCountsUsingFacets(STATE_PROPERTY_KEY, DELETED.name());
+                shellCounts   = getTypeCountsUsingFacets(IS_INCOMPLETE_PROPERTY_KEY, String.valueOf(INCOMPLETE_ENTITY_VALUE.intValue()));
+            } else {
+                activeCounts = null;
             }
-            if (entityDeletedCount > 0) {
-                deletedEntityCountTypeAndSubTypes.put(entityType.getTypeName(), entityDeletedCount);
+        }
+
+        if (activeCounts == null) {
+            activeCounts  = new HashMap<>();
+            deletedCounts = new HashMap<>();
+            shellCounts   = new HashMap<>();
+
+            for (String entityDefName : typeRegistry.getAllEntityDefNames()) {
+                activeCounts.put(entityDefName, getTypeCount(entityDefName, ACTIVE));
+                deletedCounts.put(entityDefName, getTypeCount(entityDefName, DELETED));
+                shellCounts.put(entityDefName, getTypeShellCount(entityDefName));
             }
-            if (entityShellCount > 0) {
-                shellEntityCountTypeAndSubTypes.put(entityType.getTypeName(), entityShellCount);
+
+            for (String classificationDefName : typeRegistry.getAllClassificationDefNames()) {
+                activeCounts.put(classificationDefName, getTypeCount(classificationDefName, ACTIVE));
             }
         }
 
-        if (classificationDefNames != null) {
-            for (String classificationDefName : classificationDefNames) {
-                long count = getTypeCount(classificationDefName, ACTIVE);
+        EntityCounts ret = new EntityCounts(typeRegistry, activeCounts, deletedCounts, shellCounts);
 
-                if (count > 0) {
-                    taggedEntityCount.put(classificationDefName, count);
+        LOG.info("collected entity counts in {} ms: useFacets={}, totalEntities={}", (ret.collectionTime - startTime), useFacets, ret.totalEntities);
+
+        return ret;
+    }
+
+    /**
+     * Counts vertices having the given value for the property, per type name, in a single faceted index query.
+     */
+    private Map<String, Long> getTypeCountsUsingFacets(String propertyName, String propertyValue) {
+        Map<String, Long> ret = new HashMap<>();
+
+        try {
+            Map<String, String> indexFieldNameCache = new HashMap<>();
+
+            indexFieldNameCache.put(ENTITY_TYPE_PROPERTY_KEY, typeRegistry.getIndexFieldName(ENTITY_TYPE_PROPERTY_KEY));
+            indexFieldNameCache.put(propertyName, typeRegistry.getIndexFieldName(propertyName));
+
+            String             queryString = indexFieldNameCache.get(propertyName) + ":" + propertyValue;
+            AggregationContext context     = new AggregationContext(queryString, null, null, Collections.singleton(ENTITY_TYPE_PROPERTY_KEY),
+                                                                    Collections.emptySet(), indexFieldNameCache, false, false, -1);
+
+            Map<String, List<AtlasAggregationEntry>> aggregatedMetrics = atlasGraph.getGraphIndexClient().getAggregatedMetrics(context);
+            List<AtlasAggregationEntry>              typeCounts        = aggregatedMetrics.get(ENTITY_TYPE_PROPERTY_KEY);
+
+            if (typeCounts != null) {
+                Map<String, String> lowerCaseTypeNames = null;
+
+                for (AtlasAggregationEntry typeCount : typeCounts) {
+                    String typeName = typeCount.getName();
+
+                    // facet values of a text index field can be lower-cased by the analyzer
+                    if (typeRegistry.getTypeByName(typeName) == null) {
+                        if (lowerCaseTypeNames == null) {
+                            lowerCaseTypeNames = getLowerCaseTypeNames();
+                        }
+
+                        typeName = lowerCaseTypeNames.getOrDefault(typeName, typeName);
+                    }
+
+                    ret.merge(typeName, typeCount.getCount(), Long::sum);
                 }
             }
+        } catch (Exception e) {
+            LOG.error("Failed fetching type counts using facets: {}={}", propertyName, propertyValue, e);
         }
 
-        AtlasMetrics metrics = new AtlasMetrics();
+        return ret;
+    }
 
-        metrics.addMetric(GENERAL, METRIC_COLLECTION_TIME, System.currentTimeMillis());
-        metrics.addMetric(GENERAL, METRIC_STATS, metricsUtil.getStats()); //add atlas server stats
-        metrics.addMetric(GENERAL, METRIC_TYPE_COUNT, getAllTypesCount());
-        metrics.addMetric(GENERAL, METRIC_TAG_COUNT, getAllTagsCount());
-        metrics.addMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT, unusedTypeCount);
-        metrics.addMetric(GENERAL, METRIC_ENTITY_COUNT, totalEntities);
+    private Map<String, String> getLowerCaseTypeNames() {
+        Map<String, String> ret = new HashMap<>();
 
-        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE, activeEntityCount);
-        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED, deletedEntityCount);
-        metrics.addMetric(ENTITY, METRIC_ENTITY_SHELL, shellEntityCount);
-        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE_INCL_SUBTYPES, activeEntityCountTypeAndSubTypes);
-        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED_INCL_SUBTYPES, deletedEntityCountTypeAndSubTypes);
-        metrics.addMetric(ENTITY, METRIC_ENTITY_SHELL_INCL_SUBTYPES, shellEntityCountTypeAndSubTypes);
+        for (String typeName : typeRegistry.getAllEntityDefNames()) {
+            ret.put(typeName.toLowerCase(), typeName);
+        }
 
-        metrics.addMetric(TAG, METRIC_ENTITIES_PER_TAG, taggedEntityCount);
-        metrics.addMetric(SYSTEM, METRIC_MEMORY, AtlasMetricJVMUtil.getMemoryDetails());
-        metrics.addMetric(SYSTEM, METRIC_OS, AtlasMetricJVMUtil.getSystemInfo());
-        metrics.addMetric(SYSTEM, METRIC_RUNTIME, AtlasMetricJVMUtil.getRuntimeInfo());
+        for (String typeName : typeRegistry.getAllClassificationDefNames()) {
+            ret.put(typeName.toLowerCase(), typeName);
+        }
 
-        return metrics;
+        return ret;
     }
 
     private long getTypeCount(String typeName, Status status) {
@@ -226,4 +321,85 @@ public class MetricsService {
 
         return CollectionUtils.isNotEmpty(allTagNames) ? allTagNames.size() : 0;
     }
+
+    private static class EntityCounts {
+        final long              collectionTime;
+        final Map<String, Long> activeEntityCount                 = new HashMap<>();
+        final Map<String, Long> deletedEntityCount                = new HashMap<>();
+        final Map<String, Long> shellEntityCount                  = new HashMap<>();
+        final Map<String, Long> taggedEntityCount                 = new HashMap<>();
+        final Map<String, Long> activeEntityCountTypeAndSubTypes  = new HashMap<>();
+        final Map<String, Long> deletedEntityCountTypeAndSubTypes = new HashMap<>();
+        final Map<String, Long> shellEntityCountTypeAndSubTypes   = new HashMap<>();
+        long                    unusedTypeCount                   = 0;
+        long                    totalEntities                     = 0;
+
+        EntityCounts(AtlasTypeRegistry typeRegistry, Map<String, Long> activeCounts, Map<String, Long> deletedCounts, Map<String, Long> shellCounts) {
+            for (String entityDefName : typeRegistry.getAllEntityDefNames()) {
+                long activeCount  = getCount(activeCounts, entityDefName);
+                long deletedCount = getCount(deletedCounts, entityDefName);
+                long shellCount   = getCount(shellCounts, entityDefName);
+
+                if (activeCount > 0) {
+                    activeEntityCount.put(entityDefName, activeCount);
+                    totalEntities += activeCount;
+                }
+
+                if (deletedCount > 0) {
+                    deletedEntityCount.put(entityDefName, deletedCount);
+                    totalEntities += deletedCount;
+                }
+
+                if (activeCount == 0 && deletedCount == 0) {
+                    unusedTypeCount++;
+                }
+
+                if (shellCount > 0) {
+                    shellEntityCount.put(entityDefName, shellCount);
+                }
+            }
+
+            for (AtlasEntityType entityType : typeRegistry.getAllEntityTypes()) {
+                long entityActiveCount  = 0;
+                long entityDeletedCount = 0;
+                long entityShellCount   = 0;
+
+                for (String type : entityType.getTypeAndAllSubTypes()) {
+                    entityActiveCount  += getCount(activeEntityCount, type);
+                    entityDeletedCount += getCount(deletedEntityCount, type);
+                    entityShellCount   += getCount(shellEntityCount, type);
+                }
+
+                if (entityActiveCount > 0) {
+                    activeEntityCountTypeAndSubTypes.put(entityType.getTypeName(), entityActiveCount);
+                }
+                if (entityDeletedCount > 0) {
+                    deletedEntityCountTypeAndSubTypes.put(entityType.getTypeName(), entityDeletedCount);
+                }
+                if (entityShellCount > 0) {
+                    shellEntityCountTypeAndSubTypes.put(entityType.getTypeName(), entityShellCount);
+                }
+            }
+
+            for (String classificationDefName : typeRegistry.getAllClassificationDefNames()) {
+                long count = getCount(activeCounts, classificationDefName);
+
+                if (count > 0) {
+                    taggedEntityCount.put(classificationDefName, count);
+                }
+            }
+
+            this.collectionTime = System.currentTimeMillis();
+        }
+
+        long getAgeMs() {
+            return System.currentTimeMillis() - collectionTime;
+        }
+
+        private static long getCount(Map<String, Long> counts, String typeName) {
+            Long ret = counts != null ? counts.get(typeName) : null;
+
+            return ret == null ? 0L : ret;
+        }
+    }
 }
\ No newline at end of file
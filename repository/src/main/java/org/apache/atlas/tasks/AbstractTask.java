@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+
+import java.util.Map;
+
+public abstract class AbstractTask {
+    private final AtlasTask task;
+
+    protected AbstractTask(AtlasTask task) {
+        this.task = task;
+    }
+
+    public AtlasTask getTask() {
+        return task;
+    }
+
+    public Map<String, Object> getParameters() {
+        return task.getParameters();
+    }
+
+    /**
+     * Tasks having the same key are executed one at a time, in the order they were created; tasks with different
+     * keys are executed in parallel. Returns null when the task doesn't have to be serialized with other tasks.
+     */
+    public String getSerializationKey() {
+        return null;
+    }
+
+    /**
+     * Executes the task. Since a task can be re-executed after a failure or a restart, implementations must be
+     * idempotent.
+     */
+    public abstract void run() throws AtlasBaseException;
+}
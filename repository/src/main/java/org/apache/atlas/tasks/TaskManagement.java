@@ -0,0 +1,369 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.atlas.service.Service;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes tasks, like classification propagation, in the background. Tasks are persisted by TaskRegistry in the
+ * transaction that creates them and are queued for execution after that transaction commits. Tasks that are pending
+ * or in progress when the server stops are resumed on start, or when a passive instance becomes active.
+ *
+ * Tasks having the same serialization key are executed in the order they are submitted. A failed task is retried
+ * after a delay that doubles with every attempt; tasks with the same key queued after it wait until it completes
+ * or fails for good.
+ *
+ * Completed and failed tasks are deleted from the registry once they ended more than
+ * atlas.tasks.completed.retention.ms ago.
+ */
+@Component
+@Order(6)
+public class TaskManagement implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskManagement.class);
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final Configuration                        configuration;
+    private final TaskRegistry                         registry;
+    private final Map<String, TaskFactory>             taskTypeFactoryMap = new HashMap<>();
+    private final Map<String, CompletableFuture<Void>> keyTaskChains      = new HashMap<>();
+    private final int                                  numThreads;
+    private final int                                  maxAttempts;
+    private final long                                 retryInitialDelayMs;
+    private final long                                 retryMaxDelayMs;
+    private final long                                 completedRetentionMs;
+    private final long                                 purgeIntervalMs;
+    private       ExecutorService                      executor;
+    private       ScheduledExecutorService             retryScheduler;
+
+    @Inject
+    public TaskManagement(Configuration configuration, TaskRegistry registry, Set<TaskFactory> factories) {
+        this.configuration = configuration;
+        this.registry      = registry;
+        this.numThreads    = AtlasConfiguration.TASKS_EXECUTOR_THREADS.getInt();
+        this.maxAttempts   = AtlasConfiguration.TASKS_MAX_ATTEMPTS.getInt();
+
+        this.retryInitialDelayMs = AtlasConfiguration.TASKS_RETRY_INITIAL_DELAY_MS.getLong();
+        this.retryMaxDelayMs     = AtlasConfiguration.TASKS_RETRY_MAX_DELAY_MS.getLong();
+
+        this.completedRetentionMs = AtlasConfiguration.TASKS_COMPLETED_RETENTION_MS.getLong();
+        this.purgeIntervalMs      = AtlasConfiguration.TASKS_PURGE_INTERVAL_MS.getLong();
+
+        if (factories != null) {
+            for (TaskFactory factory : factories) {
+                for (String taskType : factory.getSupportedTypes()) {
+                    taskTypeFactoryMap.put(taskType, factory);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        LOG.info("==> TaskManagement.start()");
+
+        if (!HAConfiguration.isHAEnabled(configuration)) {
+            startInternal();
+        } else {
+            LOG.info("TaskManagement.start(): deferring pending tasks until instance activation");
+        }
+
+        LOG.info("<== TaskManagement.start()");
+    }
+
+    @Override
+    public void stop() {
+        stopInternal();
+
+        LOG.info("TaskManagement.stop(): stopped");
+    }
+
+    @Override
+    public void instanceIsActive() {
+        LOG.info("==> TaskManagement.instanceIsActive()");
+
+        startInternal();
+
+        LOG.info("<== TaskManagement.instanceIsActive()");
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("==> TaskManagement.instanceIsPassive()");
+
+        stopInternal();
+
+        LOG.info("<== TaskManagement.instanceIsPassive()");
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.TASK_MANAGEMENT.getOrder();
+    }
+
+    /**
+     * Creates a task in the current graph transaction. The task is queued for execution once the transaction commits.
+     */
+    public AtlasTask createTask(String taskType, String createdBy, Map<String, Object> parameters) {
+        if (!taskTypeFactoryMap.containsKey(taskType)) {
+            throw new IllegalArgumentException("no factory found for task type " + taskType);
+        }
+
+        AtlasTask ret = new AtlasTask(UUID.randomUUID().toString(), taskType, createdBy, parameters);
+
+        registry.createVertex(ret);
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                if (isSuccess) {
+                    submit(ret);
+                }
+            }
+        };
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("TaskManagement.createTask(): created {}", ret);
+        }
+
+        return ret;
+    }
+
+    public AtlasTask getByGuid(String guid) {
+        return registry.getByGuid(guid);
+    }
+
+    public List<AtlasTask> getAll(int offset, int limit) {
+        return registry.getAll(offset, limit);
+    }
+
+    public List<AtlasTask> getByStatus(Status status, int offset, int limit) {
+        return registry.getByStatus(offset, limit, status);
+    }
+
+    private synchronized void startInternal() {
+        if (executor == null) {
+            executor       = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder().setNameFormat("atlas-task-%d").setDaemon(true).build());
+            retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-task-retry-%d").setDaemon(true).build());
+
+            if (completedRetentionMs >= 0) {
+                retryScheduler.scheduleWithFixedDelay(this::purgeCompletedTasks, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        try {
+            List<AtlasTask> tasks = registry.getByStatus(Status.PENDING, Status.IN_PROGRESS);
+
+            LOG.info("TaskManagement: found {} pending tasks", tasks.size());
+
+            for (AtlasTask task : tasks) {
+                submit(task);
+            }
+        } catch (Exception excp) {
+            LOG.error("TaskManagement: failed to load pending tasks", excp);
+        }
+    }
+
+    // tasks waiting for retry stay PENDING in the registry, and are resumed on next start
+    private void stopInternal() {
+        ExecutorService          executor;
+        ScheduledExecutorService retryScheduler;
+
+        synchronized (this) {
+            executor       = this.executor;
+            retryScheduler = this.retryScheduler;
+
+            this.executor       = null;
+            this.retryScheduler = null;
+
+            keyTaskChains.clear();
+        }
+
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                LOG.warn("TaskManagement: interrupted while waiting for tasks to complete");
+            }
+        }
+    }
+
+    /**
+     * @return future that completes when the task completes, or fails after all attempts
+     */
+    @VisibleForTesting
+    synchronized CompletableFuture<Void> submit(AtlasTask task) {
+        if (executor == null) {
+            LOG.info("TaskManagement: {} will be executed when this instance becomes active", task.getGuid());
+
+            return null;
+        }
+
+        TaskFactory factory = taskTypeFactoryMap.get(task.getType());
+
+        if (factory == null) {
+            LOG.error("TaskManagement: no factory found for task type {}; ignoring task {}", task.getType(), task.getGuid());
+
+            return null;
+        }
+
+        AbstractTask             runnable       = factory.create(task);
+        String                   key            = runnable.getSerializationKey();
+        CompletableFuture<Void>  prev           = key != null ? keyTaskChains.get(key) : null;
+        CompletableFuture<Void>  ret            = new CompletableFuture<>();
+        ExecutorService          executor       = this.executor;
+        ScheduledExecutorService retryScheduler = this.retryScheduler;
+
+        if (prev != null) {
+            prev.whenComplete((v, t) -> executeAsync(runnable, ret, executor, retryScheduler));
+        } else {
+            executeAsync(runnable, ret, executor, retryScheduler);
+        }
+
+        if (key != null) {
+            keyTaskChains.put(key, ret);
+
+            ret.whenComplete((v, t) -> removeChain(key, ret));
+        }
+
+        return ret;
+    }
+
+    private synchronized void removeChain(String key, CompletableFuture<Void> chain) {
+        keyTaskChains.remove(key, chain);
+    }
+
+    private void executeAsync(AbstractTask runnable, CompletableFuture<Void> result, ExecutorService executor, ScheduledExecutorService retryScheduler) {
+        try {
+            executor.execute(() -> execute(runnable, result, executor, retryScheduler));
+        } catch (RejectedExecutionException excp) {
+            LOG.info("TaskManagement: {} will be executed when this instance becomes active", runnable.getTask().getGuid());
+        }
+    }
+
+    private void execute(AbstractTask runnable, CompletableFuture<Void> result, ExecutorService executor, ScheduledExecutorService retryScheduler) {
+        AtlasTask task = runnable.getTask();
+
+        try {
+            RequestContext.clear();
+            RequestContext.get().setUser(task.getCreatedBy(), null);
+
+            task.setStatus(Status.IN_PROGRESS);
+            task.incrementAttemptCount();
+            task.setStartTime(System.currentTimeMillis());
+            task.setUpdatedTime(task.getStartTime());
+
+            registry.updateStatus(task);
+
+            LOG.info("TaskManagement: executing task {} (type={}, attempt={})", task.getGuid(), task.getType(), task.getAttemptCount());
+
+            runnable.run();
+
+            task.setStatus(Status.COMPLETE);
+            task.setErrorMessage(null);
+        } catch (Throwable t) {
+            LOG.error("TaskManagement: task {} (type={}, attempt={}) failed", task.getGuid(), task.getType(), task.getAttemptCount(), t);
+
+            task.setStatus(task.getAttemptCount() < maxAttempts ? Status.PENDING : Status.FAILED);
+            task.setErrorMessage(t.getMessage());
+        } finally {
+            task.setEndTime(System.currentTimeMillis());
+            task.setUpdatedTime(task.getEndTime());
+
+            try {
+                registry.updateStatus(task);
+            } catch (Exception excp) {
+                LOG.error("TaskManagement: failed to update status of task {}", task.getGuid(), excp);
+            }
+
+            RequestContext.clear();
+        }
+
+        if (task.getStatus() != Status.PENDING) {
+            result.complete(null);
+        } else {
+            long delayMs = getRetryDelayMs(task.getAttemptCount());
+
+            LOG.info("TaskManagement: task {} will be retried in {} ms", task.getGuid(), delayMs);
+
+            try {
+                retryScheduler.schedule(() -> executeAsync(runnable, result, executor, retryScheduler), delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException excp) {
+                LOG.info("TaskManagement: {} will be retried when this instance becomes active", task.getGuid());
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void purgeCompletedTasks() {
+        try {
+            int count = registry.deleteCompletedBefore(System.currentTimeMillis() - completedRetentionMs, PURGE_BATCH_SIZE);
+
+            if (count > 0) {
+                LOG.info("TaskManagement: deleted {} tasks that ended more than {} ms ago", count, completedRetentionMs);
+            }
+        } catch (Exception excp) {
+            LOG.error("TaskManagement: failed to delete completed tasks", excp);
+        }
+    }
+
+    @VisibleForTesting
+    long getRetryDelayMs(int attemptCount) {
+        long ret = retryInitialDelayMs;
+
+        for (int i = 1; i < attemptCount && ret < retryMaxDelayMs; i++) {
+            ret *= 2;
+        }
+
+        return Math.min(ret, retryMaxDelayMs);
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.atlas.repository.Constants.*;
+import static org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator.EQUAL;
+import static org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator.LESS_THAN;
+import static org.apache.atlas.repository.graphdb.AtlasGraphQuery.SortOrder.ASC;
+import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.getEncodedProperty;
+import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.setEncodedProperty;
+
+/**
+ * Persists tasks as vertices in the graph, so that pending tasks can be resumed after a restart or failover.
+ */
+@Component
+public class TaskRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskRegistry.class);
+
+    private final AtlasGraph graph;
+
+    @Inject
+    public TaskRegistry(AtlasGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Adds a vertex for the given task in the current graph transaction; the task is persisted only when the
+     * transaction that created it commits.
+     */
+    public AtlasVertex createVertex(AtlasTask task) {
+        AtlasVertex ret = graph.addVertex();
+
+        setEncodedProperty(ret, TASK_GUID_PROPERTY_KEY, task.getGuid());
+        setEncodedProperty(ret, TASK_TYPE_PROPERTY_KEY, task.getType());
+        setEncodedProperty(ret, TASK_PARAMETERS_PROPERTY_KEY, AtlasType.toJson(task.getParameters()));
+        setEncodedProperty(ret, CREATED_BY_KEY, task.getCreatedBy());
+        setEncodedProperty(ret, TIMESTAMP_PROPERTY_KEY, task.getCreatedTime());
+
+        setTaskState(ret, task);
+
+        return ret;
+    }
+
+    public void updateStatus(AtlasTask task) {
+        try {
+            AtlasVertex taskVertex = findByGuid(task.getGuid());
+
+            if (taskVertex != null) {
+                setTaskState(taskVertex, task);
+            } else {
+                LOG.warn("TaskRegistry.updateStatus(): task {} not found", task.getGuid());
+            }
+        } finally {
+            graph.commit();
+        }
+    }
+
+    public AtlasTask getByGuid(String guid) {
+        try {
+            AtlasVertex taskVertex = findByGuid(guid);
+
+            return taskVertex != null ? toAtlasTask(taskVertex) : null;
+        } finally {
+            graph.commit();
+        }
+    }
+
+    public List<AtlasTask> getByStatus(Status... statuses) {
+        List<AtlasTask> ret = new ArrayList<>();
+
+        try {
+            for (Status status : statuses) {
+                Iterator<AtlasVertex> results = graph.query().has(TASK_STATUS_PROPERTY_KEY, EQUAL, status.name()).vertices().iterator();
+
+                while (results.hasNext()) {
+                    ret.add(toAtlasTask(results.next()));
+                }
+            }
+
+            ret.sort(Comparator.comparingLong(AtlasTask::getCreatedTime));
+        } finally {
+            graph.commit();
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return tasks having one of the given statuses, ordered by creation time, from the given offset till the limit
+     */
+    public List<AtlasTask> getByStatus(int offset, int limit, Status... statuses) {
+        List<AtlasTask> ret = new ArrayList<>();
+
+        try {
+            Iterator<AtlasVertex> results = graph.query().in(TASK_STATUS_PROPERTY_KEY, toNames(statuses))
+                                                         .orderBy(TIMESTAMP_PROPERTY_KEY, ASC)
+                                                         .vertices(offset, limit).iterator();
+
+            while (results.hasNext()) {
+                ret.add(toAtlasTask(results.next()));
+            }
+        } finally {
+            graph.commit();
+        }
+
+        return ret;
+    }
+
+    public List<AtlasTask> getAll(int offset, int limit) {
+        return getByStatus(offset, limit, Status.values());
+    }
+
+    /**
+     * Deletes COMPLETE and FAILED tasks that ended before the given time, committing every batchSize deletes.
+     * @return number of tasks deleted
+     */
+    public int deleteCompletedBefore(long endTime, int batchSize) {
+        int ret = 0;
+
+        while (true) {
+            List<AtlasVertex> taskVertices = new ArrayList<>();
+
+            try {
+                Iterator<AtlasVertex> results = graph.query().in(TASK_STATUS_PROPERTY_KEY, toNames(Status.COMPLETE, Status.FAILED))
+                                                             .has(TASK_END_TIME_PROPERTY_KEY, LESS_THAN, endTime)
+                                                             .vertices(batchSize).iterator();
+
+                while (results.hasNext()) {
+                    taskVertices.add(results.next());
+                }
+
+                for (AtlasVertex taskVertex : taskVertices) {
+                    graph.removeVertex(taskVertex);
+                }
+
+                graph.commit();
+            } catch (RuntimeException excp) {
+                graph.rollback();
+
+                throw excp;
+            }
+
+            ret += taskVertices.size();
+
+            if (taskVertices.size() < batchSize) {
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    private AtlasVertex findByGuid(String guid) {
+        Iterator<AtlasVertex> results = graph.query().has(TASK_GUID_PROPERTY_KEY, guid).vertices().iterator();
+
+        return results.hasNext() ? results.next() : null;
+    }
+
+    private static List<String> toNames(Status... statuses) {
+        List<String> ret = new ArrayList<>(statuses.length);
+
+        for (Status status : statuses) {
+            ret.add(status.name());
+        }
+
+        return ret;
+    }
+
+    private static void setTaskState(AtlasVertex taskVertex, AtlasTask task) {
+        setEncodedProperty(taskVertex, TASK_STATUS_PROPERTY_KEY, task.getStatus().name());
+        setEncodedProperty(taskVertex, TASK_ATTEMPT_COUNT_PROPERTY_KEY, task.getAttemptCount());
+        setEncodedProperty(taskVertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, task.getUpdatedTime());
+
+        if (task.getStartTime() != null) {
+            setEncodedProperty(taskVertex, TASK_START_TIME_PROPERTY_KEY, task.getStartTime());
+        }
+
+        if (task.getEndTime() != null) {
+            setEncodedProperty(taskVertex, TASK_END_TIME_PROPERTY_KEY, task.getEndTime());
+        }
+
+        if (task.getErrorMessage() != null) {
+            setEncodedProperty(taskVertex, TASK_ERROR_MESSAGE_PROPERTY_KEY, task.getErrorMessage());
+        }
+    }
+
+    private static AtlasTask toAtlasTask(AtlasVertex vertex) {
+        AtlasTask ret          = new AtlasTask();
+        String    parameters   = getEncodedProperty(vertex, TASK_PARAMETERS_PROPERTY_KEY, String.class);
+        Integer   attemptCount = getEncodedProperty(vertex, TASK_ATTEMPT_COUNT_PROPERTY_KEY, Integer.class);
+        Long      createdTime  = getEncodedProperty(vertex, TIMESTAMP_PROPERTY_KEY, Long.class);
+        Long      updatedTime  = getEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class);
+
+        ret.setGuid(getEncodedProperty(vertex, TASK_GUID_PROPERTY_KEY, String.class));
+        ret.setType(getEncodedProperty(vertex, TASK_TYPE_PROPERTY_KEY, String.class));
+        ret.setStatus(Status.valueOf(getEncodedProperty(vertex, TASK_STATUS_PROPERTY_KEY, String.class)));
+        ret.setParameters(StringUtils.isNotEmpty(parameters) ? AtlasType.fromJson(parameters, Map.class) : null);
+        ret.setCreatedBy(getEncodedProperty(vertex, CREATED_BY_KEY, String.class));
+        ret.setCreatedTime(createdTime != null ? createdTime : 0);
+        ret.setUpdatedTime(updatedTime != null ? updatedTime : 0);
+        ret.setStartTime(getEncodedProperty(vertex, TASK_START_TIME_PROPERTY_KEY, Long.class));
+        ret.setEndTime(getEncodedProperty(vertex, TASK_END_TIME_PROPERTY_KEY, Long.class));
+        ret.setAttemptCount(attemptCount != null ? attemptCount : 0);
+        ret.setErrorMessage(getEncodedProperty(vertex, TASK_ERROR_MESSAGE_PROPERTY_KEY, String.class));
+
+        return ret;
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 import static org.apache.atlas.model.metrics.AtlasMetrics.*;
 import static org.apache.atlas.repository.Constants.TYPE_NAME_INTERNAL;
@@ -50,15 +51,18 @@ public class AtlasMetricsUtil {
     private static final String STATUS_CONNECTED     = "connected";
     private static final String STATUS_NOT_CONNECTED = "not-connected";
 
-    private final AtlasGraph              graph;
-    private       long                    serverStartTime   = 0;
-    private       long                    serverActiveTime  = 0;
-    private final Map<String, TopicStats> topicStats        = new HashMap<>();
-    private final AtlasMetricsCounter     messagesProcessed = new AtlasMetricsCounter("messagesProcessed");
-    private final AtlasMetricsCounter     messagesFailed    = new AtlasMetricsCounter("messagesFailed");
-    private final AtlasMetricsCounter     entityCreates     = new AtlasMetricsCounter("entityCreates");
-    private final AtlasMetricsCounter     entityUpdates     = new AtlasMetricsCounter("entityUpdates");
-    private final AtlasMetricsCounter     entityDeletes     = new AtlasMetricsCounter("entityDeletes");
+    private final AtlasGraph                     graph;
+    private       long                           serverStartTime   = 0;
+    private       long                           serverActiveTime  = 0;
+    private final Map<String, TopicStats>        topicStats        = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> queueStats        = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Map<String, Object>>> cacheStats = new ConcurrentHashMap<>();
+    private volatile Supplier<Map<String, Object>>           auditWriterStats;
+    private final AtlasMetricsCounter            messagesProcessed = new AtlasMetricsCounter("messagesProcessed");
+    private final AtlasMetricsCounter            messagesFailed    = new AtlasMetricsCounter("messagesFailed");
+    private final AtlasMetricsCounter            entityCreates     = new AtlasMetricsCounter("entityCreates");
+    private final AtlasMetricsCounter            entityUpdates     = new AtlasMetricsCounter("entityUpdates");
+    private final AtlasMetricsCounter            entityDeletes     = new AtlasMetricsCounter("entityDeletes");
 
     @Inject
     public AtlasMetricsUtil(AtlasGraph graph) {
@@ -82,7 +86,8 @@ public class AtlasMetricsUtil {
         serverActiveTime = System.currentTimeMillis();
     }
 
-    public void onNotificationProcessingComplete(String topicName, int partition, long msgOffset, NotificationStat stats) {
+    // notifications from a consumer can be processed by multiple threads in parallel
+    public synchronized void onNotificationProcessingComplete(String topicName, int partition, long msgOffset, NotificationStat stats) {
         messagesProcessed.incrWithMeasure(stats.timeTakenMs);
         entityCreates.incrBy(stats.entityCreates);
         entityUpdates.incrBy(stats.entityUpdates);
@@ -108,7 +113,10 @@ public class AtlasMetricsUtil {
             topicStat.set(partition, partitionStat);
         }
 
-        partitionStat.setCurrentOffset(msgOffset + 1);
+        if (msgOffset + 1 > partitionStat.getCurrentOffset()) {
+            partitionStat.setCurrentOffset(msgOffset + 1);
+        }
+
         if(stats.isFailedMsg) {
             partitionStat.incrFailedMessageCount();
         }
@@ -116,6 +124,24 @@ public class AtlasMetricsUtil {
         partitionStat.setLastMessageProcessedTime(messagesProcessed.getLastIncrTime().toEpochMilli());
     }
 
+    public void onNotificationQueueStats(String consumerName, long inFlightMessageCount, long activeKeyCount, long maxKeyQueueDepth) {
+        Map<String, Long> consumerQueueStats = new HashMap<>();
+
+        consumerQueueStats.put("inFlightMessageCount", inFlightMessageCount);
+        consumerQueueStats.put("activeKeyCount", activeKeyCount);
+        consumerQueueStats.put("maxKeyQueueDepth", maxKeyQueueDepth);
+
+        queueStats.put(consumerName, consumerQueueStats);
+    }
+
+    public void registerCacheStats(String cacheName, Supplier<Map<String, Object>> statsSupplier) {
+        cacheStats.put(cacheName, statsSupplier);
+    }
+
+    public void registerAuditWriterStats(Supplier<Map<String, Object>> statsSupplier) {
+        auditWriterStats = statsSupplier;
+    }
+
     public Map<String, Object> getStats() {
         Map<String, Object> ret = new HashMap<>();
 
@@ -131,6 +157,20 @@ public class AtlasMetricsUtil {
         ret.put(STAT_SERVER_STATUS_BACKEND_STORE, getBackendStoreStatus() ? STATUS_CONNECTED : STATUS_NOT_CONNECTED);
         ret.put(STAT_SERVER_STATUS_INDEX_STORE, getIndexStoreStatus() ? STATUS_CONNECTED : STATUS_NOT_CONNECTED);
 
+        if (!cacheStats.isEmpty()) {
+            Map<String, Map<String, Object>> cacheDetails = new HashMap<>();
+
+            for (Map.Entry<String, Supplier<Map<String, Object>>> entry : cacheStats.entrySet()) {
+                cacheDetails.put(entry.getKey(), entry.getValue().get());
+            }
+
+            ret.put(STAT_SERVER_CACHE_DETAILS, cacheDetails);
+        }
+
+        if (auditWriterStats != null) {
+            ret.put(STAT_SERVER_AUDIT_WRITER_DETAILS, auditWriterStats.get());
+        }
+
         Map<String, Map<String, Long>> topicDetails = new HashMap<>();
 
         for (TopicStats tStat : topicStats.values()) {
@@ -150,6 +190,11 @@ public class AtlasMetricsUtil {
         }
 
         ret.put(STAT_NOTIFY_TOPIC_DETAILS, topicDetails);
+
+        if (!queueStats.isEmpty()) {
+            ret.put(STAT_NOTIFY_QUEUE_DETAILS, new HashMap<>(queueStats));
+        }
+
         ret.put(STAT_NOTIFY_LAST_MESSAGE_PROCESSED_TIME, this.messagesProcessed.getLastIncrTime().toEpochMilli());
 
         ret.put(STAT_NOTIFY_COUNT_TOTAL,         messagesProcessed.getCount(ALL));
@@ -333,7 +378,7 @@ public class AtlasMetricsUtil {
 
     class TopicStats {
         private final String                           topicName;
-        private final Map<Integer, TopicPartitionStat> partitionStats = new HashMap<>();
+        private final Map<Integer, TopicPartitionStat> partitionStats = new ConcurrentHashMap<>();
 
         public TopicStats(String topicName) {
             this.topicName = topicName;
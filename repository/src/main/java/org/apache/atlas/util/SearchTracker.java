@@ -17,17 +17,31 @@
  */
 package org.apache.atlas.util;
 
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.annotation.AtlasService;
 import org.apache.atlas.discovery.SearchContext;
+import org.apache.atlas.discovery.SearchCursor;
+import org.apache.commons.lang.StringUtils;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 @AtlasService
 public class SearchTracker {
     private Map<String, SearchContext> activeSearches = new HashMap<>();
 
+    // cursors of paged searches, in access order: least recently used cursor is dropped when maxCursors is exceeded,
+    // or when its user has more than maxCursorsPerUser cursors
+    private final Map<String, SearchCursor> cursors           = new LinkedHashMap<>(16, 0.75f, true);
+    private final int                       maxCursors        = AtlasConfiguration.SEARCH_CURSOR_MAX_ENTRIES.getInt();
+    private final int                       maxCursorsPerUser = AtlasConfiguration.SEARCH_CURSOR_MAX_ENTRIES_PER_USER.getInt();
+    private final long                      cursorTtlMs       = AtlasConfiguration.SEARCH_CURSOR_TTL_SECS.getLong() * 1000;
+
     /**
      *
      * @param context
@@ -70,4 +84,124 @@ public class SearchTracker {
     public Set<String> getActiveSearches() {
         return activeSearches.keySet();
     }
+
+    /**
+     * Adds a cursor, to be used for subsequent pages of the search
+     * @param cursor
+     * @return id of the cursor
+     */
+    public String addCursor(SearchCursor cursor) {
+        String cursorId = UUID.randomUUID().toString();
+
+        synchronized (cursors) {
+            removeExpiredCursors();
+
+            removeLeastRecentlyUsedCursorOfUser(cursor.getUser());
+
+            cursors.put(cursorId, cursor);
+
+            if (cursors.size() > maxCursors) {
+                Iterator<SearchCursor> iter = cursors.values().iterator();
+
+                terminate(iter.next());
+
+                iter.remove();
+            }
+        }
+
+        return cursorId;
+    }
+
+    /**
+     *
+     * @param cursorId
+     * @return the cursor, or null if the cursor doesn't exist, has expired or belongs to another user
+     */
+    public SearchCursor getCursor(String cursorId) {
+        synchronized (cursors) {
+            removeExpiredCursors();
+
+            SearchCursor ret = cursors.get(cursorId);
+
+            return isOwnedByCurrentUser(ret) ? ret : null;
+        }
+    }
+
+    /**
+     * Removes the cursor; a page being read with the cursor is terminated
+     * @param cursorId
+     * @return the removed cursor, or null if the cursor doesn't exist or belongs to another user
+     */
+    public SearchCursor removeCursor(String cursorId) {
+        SearchCursor ret;
+
+        synchronized (cursors) {
+            ret = cursors.get(cursorId);
+
+            if (isOwnedByCurrentUser(ret)) {
+                cursors.remove(cursorId);
+            } else {
+                ret = null;
+            }
+        }
+
+        terminate(ret);
+
+        return ret;
+    }
+
+    public int getCursorCount() {
+        synchronized (cursors) {
+            return cursors.size();
+        }
+    }
+
+    private void removeExpiredCursors() {
+        long expiryTime = System.currentTimeMillis() - cursorTtlMs;
+
+        // cursors are in access order, hence expired cursors are at the head
+        for (Iterator<SearchCursor> iter = cursors.values().iterator(); iter.hasNext(); ) {
+            SearchCursor cursor = iter.next();
+
+            if (cursor.getLastAccessTime() >= expiryTime || cursor.getActiveSearch() != null) {
+                break;
+            }
+
+            iter.remove();
+        }
+    }
+
+    // makes room for a new cursor of the user, so that a user can't hold more than maxCursorsPerUser cursors
+    private void removeLeastRecentlyUsedCursorOfUser(String user) {
+        SearchCursor lruCursor   = null;
+        int          cursorCount = 0;
+
+        for (SearchCursor cursor : cursors.values()) {
+            if (StringUtils.equals(cursor.getUser(), user)) {
+                if (lruCursor == null) {
+                    lruCursor = cursor;
+                }
+
+                cursorCount++;
+            }
+        }
+
+        if (lruCursor != null && cursorCount >= maxCursorsPerUser) {
+            cursors.values().remove(lruCursor);
+
+            terminate(lruCursor);
+        }
+    }
+
+    private static boolean isOwnedByCurrentUser(SearchCursor cursor) {
+        return cursor != null && StringUtils.equals(cursor.getUser(), RequestContext.getCurrentUser());
+    }
+
+    private void terminate(SearchCursor cursor) {
+        SearchContext activeSearch = cursor != null ? cursor.getActiveSearch() : null;
+
+        if (activeSearch != null) {
+            activeSearch.terminateSearch(true);
+        }
+    }
 }
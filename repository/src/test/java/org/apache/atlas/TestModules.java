@@ -28,11 +28,13 @@ import org.apache.atlas.discovery.AtlasDiscoveryService;
 import org.apache.atlas.discovery.AtlasLineageService;
 import org.apache.atlas.discovery.EntityDiscoveryService;
 import org.apache.atlas.discovery.EntityLineageService;
+import org.apache.atlas.discovery.LineageAdjacencyCache;
 import org.apache.atlas.glossary.GlossaryService;
 import org.apache.atlas.graph.GraphSandboxUtil;
 import org.apache.atlas.listener.EntityChangeListener;
 import org.apache.atlas.listener.EntityChangeListenerV2;
 import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.query.DSLQueryPlanCache;
 import org.apache.atlas.repository.audit.EntityAuditListener;
 import org.apache.atlas.repository.audit.EntityAuditListenerV2;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
@@ -52,6 +54,7 @@ import org.apache.atlas.repository.ogm.ExportImportAuditEntryDTO;
 import org.apache.atlas.repository.ogm.glossary.AtlasGlossaryCategoryDTO;
 import org.apache.atlas.repository.ogm.glossary.AtlasGlossaryDTO;
 import org.apache.atlas.repository.ogm.glossary.AtlasGlossaryTermDTO;
+import org.apache.atlas.repository.ogm.glossary.GlossaryCache;
 import org.apache.atlas.repository.ogm.profiles.AtlasSavedSearchDTO;
 import org.apache.atlas.repository.ogm.profiles.AtlasUserProfileDTO;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
@@ -63,10 +66,14 @@ import org.apache.atlas.repository.store.graph.v2.AtlasRelationshipStoreV2;
 import org.apache.atlas.repository.store.graph.v2.AtlasTypeDefGraphStoreV2;
 import org.apache.atlas.repository.store.graph.v2.BulkImporterImpl;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.repository.store.graph.v2.EntityUniqueAttributeCache;
 import org.apache.atlas.repository.store.graph.v2.IAtlasEntityChangeNotifier;
+import org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory;
 import org.apache.atlas.runner.LocalSolrRunner;
 import org.apache.atlas.service.Service;
 import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.tasks.TaskFactory;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.apache.atlas.util.SearchTracker;
@@ -142,6 +149,7 @@ public class TestModules {
             Multibinder<TypeDefChangeListener> typeDefChangeListenerMultibinder =
                     Multibinder.newSetBinder(binder(), TypeDefChangeListener.class);
             typeDefChangeListenerMultibinder.addBinding().to(GraphBackedSearchIndexer.class).asEagerSingleton();
+            typeDefChangeListenerMultibinder.addBinding().to(DSLQueryPlanCache.class);
 
             bind(SearchTracker.class).asEagerSingleton();
 
@@ -153,6 +161,10 @@ public class TestModules {
             // bind the DiscoveryService interface to an implementation
             bind(AtlasDiscoveryService.class).to(EntityDiscoveryService.class).asEagerSingleton();
 
+            bind(LineageAdjacencyCache.class).asEagerSingleton();
+            bind(EntityUniqueAttributeCache.class).asEagerSingleton();
+            bind(DSLQueryPlanCache.class).asEagerSingleton();
+            bind(GlossaryCache.class).asEagerSingleton();
             bind(AtlasLineageService.class).to(EntityLineageService.class).asEagerSingleton();
             bind(BulkImporter.class).to(BulkImporterImpl.class).asEagerSingleton();
             bind(GraphDBMigrator.class).to(GraphDBGraphSONMigrator.class).asEagerSingleton();
@@ -165,6 +177,9 @@ public class TestModules {
             Multibinder<EntityChangeListenerV2> entityChangeListenerV2Binder =
                     Multibinder.newSetBinder(binder(), EntityChangeListenerV2.class);
             entityChangeListenerV2Binder.addBinding().to(EntityAuditListenerV2.class);
+            entityChangeListenerV2Binder.addBinding().to(LineageAdjacencyCache.class);
+            entityChangeListenerV2Binder.addBinding().to(EntityUniqueAttributeCache.class);
+            entityChangeListenerV2Binder.addBinding().to(GlossaryCache.class);
 
             // OGM related mappings
             Multibinder<DataTransferObject> availableDTOs = Multibinder.newSetBinder(binder(), DataTransferObject.class);
@@ -177,6 +192,12 @@ public class TestModules {
             availableDTOs.addBinding().to(ExportImportAuditEntryDTO.class);
             availableDTOs.addBinding().to(AtlasAuditEntryDTO.class);
 
+            // background tasks
+            Multibinder<TaskFactory> taskFactoryBinder = Multibinder.newSetBinder(binder(), TaskFactory.class);
+            taskFactoryBinder.addBinding().to(ClassificationPropagateTaskFactory.class);
+
+            bind(TaskManagement.class).asEagerSingleton();
+
             bind(DTORegistry.class).asEagerSingleton();
             bind(DataAccess.class).asEagerSingleton();
 
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.BasicTestSetup;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class BasicSearchReferredEntitiesTest extends BasicTestSetup {
+    @Inject
+    private AtlasDiscoveryService discoveryService;
+
+    @Inject
+    private AtlasGraph graph;
+
+    @BeforeClass
+    public void setup() {
+        loadHiveDataset();
+    }
+
+    @Test
+    public void searchWithReferredEntities() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+
+        params.setTypeName(HIVE_TABLE_TYPE);
+        params.setAttributes(new HashSet<>(Arrays.asList("db", "columns")));
+        params.setLimit(20);
+
+        AtlasSearchResult              result           = discoveryService.searchWithParameters(params);
+        Map<String, AtlasEntityHeader> referredEntities = result.getReferredEntities();
+        EntityGraphRetriever           entityRetriever  = new EntityGraphRetriever(graph, typeRegistry);
+
+        assertTrue(CollectionUtils.isNotEmpty(result.getEntities()));
+        assertTrue(MapUtils.isNotEmpty(referredEntities));
+
+        for (AtlasEntityHeader table : result.getEntities()) {
+            assertEquals(table, entityRetriever.toAtlasEntityHeader(entityRetriever.getEntityVertex(table.getGuid()), params.getAttributes()));
+
+            AtlasObjectId db = (AtlasObjectId) table.getAttribute("db");
+
+            assertEquals(referredEntities.get(db.getGuid()), entityRetriever.toAtlasEntityHeader(db.getGuid()));
+
+            Object columns = table.getAttribute("columns");
+
+            if (columns instanceof Collection) {
+                for (Object column : (Collection) columns) {
+                    String columnGuid = ((AtlasObjectId) column).getGuid();
+
+                    assertEquals(referredEntities.get(columnGuid), entityRetriever.toAtlasEntityHeader(columnGuid));
+                }
+            }
+        }
+    }
+}
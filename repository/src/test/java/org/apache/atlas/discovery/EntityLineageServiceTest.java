@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.lineage.AtlasLineageInfo;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.impexp.ImportService;
+import org.apache.atlas.repository.impexp.ZipFileResourceTestUtils;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.lang.StringUtils;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.BOTH;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.INPUT;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.OUTPUT;
+import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.runImportWithNoParameters;
+import static org.apache.atlas.utils.TestLoadModelUtils.loadModelFromJson;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class EntityLineageServiceTest {
+    private static final String HDFS_PATH_EMPLOYEES = "a3955120-ac17-426f-a4af-972ec8690e5f";
+    private static final String ORDERS_TABLE        = "ab995a8d-1f87-4908-91e4-d4e8e376ba22";
+    private static final String IMPORT_FILE         = "tag-propagation-data.zip";
+
+    @Inject
+    private AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    private AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    private ImportService importService;
+
+    @Inject
+    private AtlasLineageService lineageService;
+
+    private EntityLineageService entityLineageService;
+
+    @BeforeClass
+    public void setup() {
+        RequestContext.clear();
+
+        entityLineageService = (EntityLineageService) lineageService;
+
+        try {
+            loadModelFromJson("0000-Area0/0010-base_model.json", typeDefStore, typeRegistry);
+            loadModelFromJson("1000-Hadoop/1020-fs_model.json", typeDefStore, typeRegistry);
+            loadModelFromJson("1000-Hadoop/1030-hive_model.json", typeDefStore, typeRegistry);
+
+            loadSampleClassificationDefs();
+
+            runImportWithNoParameters(importService, ZipFileResourceTestUtils.getFileInputStream(IMPORT_FILE));
+        } catch (AtlasBaseException | IOException e) {
+            throw new SkipException("Model loading failed!");
+        }
+    }
+
+    @AfterMethod
+    public void resetLimits() {
+        entityLineageService.setLimits(AtlasConfiguration.LINEAGE_MAX_NODES.getInt(), AtlasConfiguration.LINEAGE_MAX_EDGES.getInt());
+
+        RequestContext.clear();
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void fullLineageHasNoToken() throws AtlasBaseException {
+        AtlasLineageInfo lineage = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 3, null);
+
+        assertNull(lineage.getContinuationToken());
+        assertEquals(lineage.getGuidEntityMap().size(), 7);
+        assertEquals(lineage.getRelations().size(), 7);
+    }
+
+    @Test
+    public void truncatedLineageIsPaged() throws AtlasBaseException {
+        Set<LineageRelation> expected = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 3, null).getRelations();
+
+        entityLineageService.setLimits(2, 2);
+
+        AtlasLineageInfo     lineage   = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 3, null);
+        Set<LineageRelation> relations = new HashSet<>(lineage.getRelations());
+        int                  pageCount = 1;
+
+        // budget cut-off must return a partial lineage along with a token to fetch the rest
+        assertNotNull(lineage.getContinuationToken());
+        assertTrue(lineage.getRelations().size() < expected.size());
+
+        while (lineage.getContinuationToken() != null) {
+            assertTrue(pageCount++ < expected.size(), "too many pages");
+
+            lineage = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 3, lineage.getContinuationToken());
+
+            relations.addAll(lineage.getRelations());
+        }
+
+        assertTrue(pageCount > 1);
+        assertEquals(relations, expected);
+    }
+
+    @Test
+    public void truncatedFullLineageIsPaged() throws AtlasBaseException {
+        Set<LineageRelation> expected = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 0, null).getRelations();
+
+        entityLineageService.setLimits(2, 2);
+
+        AtlasLineageInfo     lineage   = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 0, null);
+        Set<LineageRelation> relations = new HashSet<>(lineage.getRelations());
+        int                  pageCount = 1;
+
+        // datasets traversed in earlier pages are not traversed again, hence paging ends even without a depth limit
+        while (lineage.getContinuationToken() != null) {
+            assertTrue(pageCount++ < expected.size(), "too many pages");
+
+            lineage = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 0, lineage.getContinuationToken());
+
+            relations.addAll(lineage.getRelations());
+        }
+
+        assertTrue(pageCount > 1);
+        assertEquals(relations, expected);
+    }
+
+    @Test
+    public void tamperedTokenIsRejected() throws AtlasBaseException {
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, BOTH, 3, UUID.randomUUID().toString());
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, BOTH, 3, "eyJndWlkIjoiYTM5NTUxMjAiLCJzdGF0ZXMiOltdfQ==");
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, BOTH, 3, StringUtils.repeat("x", 1024));
+    }
+
+    @Test
+    public void tokenIsBoundToRequest() throws AtlasBaseException {
+        assertInvalidToken(ORDERS_TABLE, BOTH, 3, getContinuationToken());
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, INPUT, 3, getContinuationToken());
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, OUTPUT, 3, getContinuationToken());
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, BOTH, 10, getContinuationToken());
+
+        String token = getContinuationToken();
+
+        RequestContext.get().setUser("anotherUser", null);
+
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, BOTH, 3, token);
+    }
+
+    @Test
+    public void tokenIsSingleUse() throws AtlasBaseException {
+        String token = getContinuationToken();
+
+        assertNotNull(lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 3, token));
+
+        assertInvalidToken(HDFS_PATH_EMPLOYEES, BOTH, 3, token);
+    }
+
+    private String getContinuationToken() throws AtlasBaseException {
+        entityLineageService.setLimits(2, 2);
+
+        String ret = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, 3, null).getContinuationToken();
+
+        assertNotNull(ret);
+
+        return ret;
+    }
+
+    private void assertInvalidToken(String guid, AtlasLineageInfo.LineageDirection direction, int depth, String token) {
+        try {
+            lineageService.getAtlasLineageInfo(guid, direction, depth, token);
+
+            fail("invalid continuation token must be rejected");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.INVALID_LINEAGE_CONTINUATION_TOKEN);
+        }
+    }
+
+    private void loadSampleClassificationDefs() throws AtlasBaseException {
+        AtlasClassificationDef pii = new AtlasClassificationDef("PII");
+
+        pii.addAttribute(new AtlasAttributeDef("type", "string"));
+        pii.addAttribute(new AtlasAttributeDef("valid", "boolean"));
+
+        typeDefStore.createTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(),
+                                                      Arrays.asList(new AtlasClassificationDef("tag1"), new AtlasClassificationDef("tag2"),
+                                                                    new AtlasClassificationDef("tag3"), new AtlasClassificationDef("tag4"), pii),
+                                                      Collections.emptyList(), Collections.emptyList()));
+    }
+}
@@ -119,6 +119,52 @@ public class EntitySearchProcessorTest extends BasicTestSetup {
         assertEquals(processor.execute().size(), 0);
     }
 
+    @Test
+    public void searchWithCursor_SameAsSearchWithoutCursor() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+        params.setTypeName("hive_column");
+        params.setLimit(100);
+
+        SearchContext     context  = new SearchContext(params, typeRegistry, graph, Collections.<String>emptySet());
+        List<AtlasVertex> expected = new EntitySearchProcessor(context).execute();
+
+        params.setLimit(3);
+
+        SearchCursor cursor = new SearchCursor(params);
+        List<String> actual = new ArrayList<>();
+
+        while (true) {
+            SearchContext     pageContext = new SearchContext(cursor.getSearchParameters(), typeRegistry, graph, Collections.<String>emptySet(), cursor);
+            List<AtlasVertex> page;
+
+            cursor.onPageStart(pageContext);
+
+            page = new EntitySearchProcessor(pageContext).execute();
+
+            cursor.onPageEnd(page.size());
+
+            for (AtlasVertex vertex : page) {
+                actual.add(vertex.getIdForDisplay());
+            }
+
+            assertTrue(cursor.isPositioned());
+
+            if (page.size() < params.getLimit() || cursor.isExhausted()) {
+                break;
+            }
+        }
+
+        List<String> expectedIds = new ArrayList<>();
+
+        for (AtlasVertex vertex : expected) {
+            expectedIds.add(vertex.getIdForDisplay());
+        }
+
+        assertTrue(expectedIds.size() > params.getLimit());
+        assertEquals(actual, expectedIds);
+        assertEquals(cursor.getResultCount(), expectedIds.size());
+    }
+
     @Test(expectedExceptions = AtlasBaseException.class, expectedExceptionsMessageRegExp = "NotExisting: Unknown/invalid classification")
     public void searchByNonExistingClassification() throws AtlasBaseException {
         SearchParameters params = new SearchParameters();
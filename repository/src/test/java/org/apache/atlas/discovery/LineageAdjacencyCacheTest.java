@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.discovery.LineageAdjacencyCache.LineageGraph;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ActiveStateChangeHandler.HandlerOrder;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.model.lineage.AtlasLineageInfo;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.impexp.ImportService;
+import org.apache.atlas.repository.impexp.ZipFileResourceTestUtils;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.BOTH;
+import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.runImportWithNoParameters;
+import static org.apache.atlas.utils.TestLoadModelUtils.loadModelFromJson;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class LineageAdjacencyCacheTest {
+    private static final String HDFS_PATH_EMPLOYEES = "a3955120-ac17-426f-a4af-972ec8690e5f";
+    private static final String IMPORT_FILE         = "tag-propagation-data.zip";
+    private static final int    DEPTH               = 3;
+    private static final int    MAX_NODES           = 1000;
+
+    @Inject
+    private AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    private AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    private ImportService importService;
+
+    @Inject
+    private AtlasLineageService lineageService;
+
+    @Inject
+    private AtlasGraph graph;
+
+    @BeforeClass
+    public void setup() {
+        RequestContext.clear();
+
+        try {
+            loadModelFromJson("0000-Area0/0010-base_model.json", typeDefStore, typeRegistry);
+            loadModelFromJson("1000-Hadoop/1020-fs_model.json", typeDefStore, typeRegistry);
+            loadModelFromJson("1000-Hadoop/1030-hive_model.json", typeDefStore, typeRegistry);
+
+            typeDefStore.createTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(),
+                                                          Arrays.asList(new AtlasClassificationDef("tag1"), new AtlasClassificationDef("tag2"),
+                                                                        new AtlasClassificationDef("tag3"), new AtlasClassificationDef("tag4"),
+                                                                        new AtlasClassificationDef("PII")),
+                                                          Collections.emptyList(), Collections.emptyList()));
+
+            runImportWithNoParameters(importService, ZipFileResourceTestUtils.getFileInputStream(IMPORT_FILE));
+        } catch (AtlasBaseException | IOException e) {
+            throw new SkipException("Model loading failed!");
+        }
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void lineageMatchesGraphTraversal() throws AtlasBaseException {
+        LineageAdjacencyCache cache     = getCache(MAX_NODES);
+        AtlasLineageInfo      expected  = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, DEPTH);
+        Set<LineageRelation>  relations = new HashSet<>();
+        Set<String>           guids     = new HashSet<>();
+
+        for (boolean isUpstream : new boolean[] { true, false }) {
+            LineageGraph lineage = getLineage(cache, isUpstream);
+
+            assertNotNull(lineage);
+
+            relations.addAll(lineage.getRelations());
+            guids.addAll(lineage.getVertexIds().keySet());
+        }
+
+        assertEquals(relations, expected.getRelations());
+        assertEquals(guids, expected.getGuidEntityMap().keySet());
+    }
+
+    @Test
+    public void hitAndMiss() {
+        LineageAdjacencyCache cache = getCache(MAX_NODES);
+
+        LineageGraph first     = getLineage(cache, false);
+        long         missCount = getStat(cache, "missCount");
+        long         hitCount  = getStat(cache, "hitCount");
+
+        assertTrue(missCount > 0);
+
+        LineageGraph second = getLineage(cache, false);
+
+        // adjacency of all nodes is in the cache now: no more loads from the graph
+        assertEquals(getStat(cache, "missCount"), missCount);
+        assertTrue(getStat(cache, "hitCount") > hitCount);
+        assertEquals(second.getRelations(), first.getRelations());
+        assertEquals(second.getVertexIds(), first.getVertexIds());
+    }
+
+    @Test
+    public void invalidate() {
+        LineageAdjacencyCache cache     = getCache(MAX_NODES);
+        LineageGraph          expected  = getLineage(cache, false);
+        long                  missCount = getStat(cache, "missCount");
+
+        cache.invalidate(Collections.singleton("unknown-guid"));
+
+        assertEquals(getStat(cache, "invalidationCount"), 0L);
+
+        cache.invalidate(Collections.singleton(HDFS_PATH_EMPLOYEES));
+
+        assertEquals(getStat(cache, "invalidationCount"), 1L);
+
+        LineageGraph lineage = getLineage(cache, false);
+
+        // adjacency of the invalidated node and its neighbors is loaded again
+        assertTrue(getStat(cache, "missCount") > missCount);
+        assertEquals(lineage.getRelations(), expected.getRelations());
+    }
+
+    @Test
+    public void invalidateOnLineageEdgeChange() throws AtlasBaseException {
+        LineageAdjacencyCache cache = getCache(MAX_NODES);
+
+        getLineage(cache, false);
+
+        long missCount = getStat(cache, "missCount");
+
+        RequestContext.clear();
+
+        cache.onRelationshipsAdded(Collections.singletonList(new AtlasRelationship("process_dataset_outputs",
+                                                                                   new AtlasObjectId("unknown-guid", "hive_process"),
+                                                                                   new AtlasObjectId(HDFS_PATH_EMPLOYEES, "hdfs_path"))), false);
+
+        // invalidation waits for the transaction to complete
+        assertEquals(getStat(cache, "invalidationCount"), 0L);
+
+        lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, BOTH, DEPTH);
+
+        assertEquals(getStat(cache, "invalidationCount"), 1L);
+
+        getLineage(cache, false);
+
+        assertTrue(getStat(cache, "missCount") > missCount);
+    }
+
+    @Test
+    public void entityBudget() {
+        LineageAdjacencyCache cache     = getCache(MAX_NODES);
+        AtlasVertex           vertex    = AtlasGraphUtilsV2.findByGuid(graph, HDFS_PATH_EMPLOYEES);
+        LineageGraph          lineage   = getLineage(cache, false);
+        int                   entities  = lineage.getVertexIds().size();
+        int                   relations = lineage.getRelations().size();
+
+        assertNotNull(cache.getLineage(vertex, true, false, DEPTH, entities, relations));
+        assertNull(cache.getLineage(vertex, true, false, DEPTH, entities - 1, relations));
+        assertNull(cache.getLineage(vertex, true, false, DEPTH, entities, relations - 1));
+    }
+
+    @Test
+    public void nodeBudget() {
+        LineageAdjacencyCache cache = getCache(3);
+
+        // lineage has more nodes than the cache can hold: the cache is cleared and the caller traverses the graph
+        assertNull(getLineage(cache, false));
+        assertTrue(getStat(cache, "clearCount") > 0);
+        assertTrue(getStat(cache, "nodeCount") <= 3);
+    }
+
+    @Test
+    public void clearOnActiveStateChange() {
+        LineageAdjacencyCache cache = getCache(MAX_NODES);
+
+        assertEquals(cache.getHandlerOrder(), HandlerOrder.LINEAGE_ADJACENCY_CACHE.getOrder());
+
+        getLineage(cache, false);
+
+        cache.instanceIsPassive();
+
+        assertEquals(getStat(cache, "nodeCount"), 0L);
+        assertEquals(getStat(cache, "clearCount"), 1L);
+
+        getLineage(cache, false);
+
+        long missCount = getStat(cache, "missCount");
+
+        cache.instanceIsActive();
+
+        assertEquals(getStat(cache, "nodeCount"), 0L);
+        assertEquals(getStat(cache, "clearCount"), 2L);
+
+        assertNotNull(getLineage(cache, false));
+        assertTrue(getStat(cache, "missCount") > missCount);
+    }
+
+    private LineageAdjacencyCache getCache(int maxNodes) {
+        return new LineageAdjacencyCache(graph, typeRegistry, null, true, maxNodes);
+    }
+
+    private LineageGraph getLineage(LineageAdjacencyCache cache, boolean isUpstream) {
+        AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(graph, HDFS_PATH_EMPLOYEES);
+
+        return cache.getLineage(vertex, true, isUpstream, DEPTH, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    private static long getStat(LineageAdjacencyCache cache, String name) {
+        Map<String, Object> stats = cache.getStats();
+
+        return ((Number) stats.get(name)).longValue();
+    }
+}
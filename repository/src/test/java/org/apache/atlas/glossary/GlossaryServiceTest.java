@@ -61,6 +61,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 
@@ -869,6 +870,36 @@ public class GlossaryServiceTest {
         }
     }
 
+    @Test(groups = "Glossary.GET.postUpdate", dependsOnGroups = "Glossary.UPDATE")
+    public void testGetGlossaryTermsPagesSorted() {
+        String guid = bankGlossary.getGuid();
+
+        try {
+            List<String> expected = new ArrayList<>();
+
+            for (AtlasRelatedTermHeader term : glossaryService.getGlossary(guid).getTerms()) {
+                expected.add(term.getDisplayText());
+            }
+
+            expected.sort(Comparator.reverseOrder());
+
+            List<String> actual = new ArrayList<>();
+
+            for (int offset = 0; offset < expected.size(); offset += 2) {
+                for (AtlasRelatedTermHeader term : glossaryService.getGlossaryTermsHeaders(guid, offset, 2, SortOrder.DESCENDING)) {
+                    assertNotNull(term.getTermGuid());
+                    assertNotNull(term.getRelationGuid());
+
+                    actual.add(term.getDisplayText());
+                }
+            }
+
+            assertEquals(actual, expected);
+        } catch (AtlasBaseException e) {
+            fail("Glossary term fetching should've succeeded", e);
+        }
+    }
+
     @DataProvider
     public Object[][] getGlossaryCategoriesProvider() {
         return new Object[][]{
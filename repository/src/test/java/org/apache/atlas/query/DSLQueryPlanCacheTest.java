@@ -0,0 +1,252 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.BasicTestSetup;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Verifies that DSL queries executed as graph traversal return the same results as Gremlin script, and compares time
+ * taken by: Gremlin script without plan cache, Gremlin script with plan cache, graph traversal with plan cache.
+ */
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class DSLQueryPlanCacheTest extends BasicTestSetup {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLQueryPlanCacheTest.class);
+
+    private static final int DEFAULT_LIMIT = 25;
+    private static final int RUN_COUNT     = 100;
+
+    @Inject
+    private AtlasGraph graph;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        LocalSolrRunner.start();
+        setupTestData();
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testQueryShape() throws AtlasBaseException {
+        AtlasDSL.QueryShape shape1 = AtlasDSL.QueryShape.of("hive_table where name = \"sales_fact\" limit 10");
+        AtlasDSL.QueryShape shape2 = AtlasDSL.QueryShape.of("hive_table   WHERE name='customer_dim'   LIMIT 5");
+        AtlasDSL.QueryShape shape3 = AtlasDSL.QueryShape.of("hive_table where owner = \"sales_fact\" limit 10");
+        AtlasDSL.QueryShape shape4 = AtlasDSL.QueryShape.of("hive_table where name = `sales_fact` limit 10");
+
+        assertEquals(shape1.getKey(), "hive_table where name = ?s limit ?n");
+        assertEquals(shape1.getKey(), shape2.getKey());
+        assertEquals(shape1.getLiterals(), Arrays.asList("\"sales_fact\"", "10"));
+        assertEquals(shape2.getLiterals(), Arrays.asList("'customer_dim'", "5"));
+        assertNotEquals(shape1.getKey(), shape3.getKey());
+        assertNotEquals(shape1.getKey(), shape4.getKey()); // backtick quoted ID is not a literal
+        assertEquals(shape4.getLiteralCount(), 1);
+    }
+
+    @DataProvider(name = "traversalQueries")
+    private Object[][] traversalQueries() {
+        return new Object[][] {
+                {"hive_db"},
+                {"from hive_table"},
+                {"hive_db where name = \"Sales\""},
+                {"hive_db where (name = \"Reporting\")"},
+                {"hive_db where name != \"Sales\""},
+                {"hive_db where owner = ['John ETL', 'Jane BI']"},
+                {"hive_table where name like \"sales*\""},
+                {"hive_table where name like \"*_dim\" or name = \"sales_fact\""},
+                {"hive_table where (name = \"sales_fact\" and createTime > \"2014-01-01\" ) select name as _col_0, createTime as _col_1"},
+                {"hive_table where (name = \"sales_fact\" and createTime >= \"2014-12-11T02:35:58.440Z\" ) select name as _col_0, createTime as _col_1 orderby name limit 10 offset 0"},
+                {"hive_table select name, owner orderby name desc"},
+                {"hive_table orderby name limit 3"},
+                {"hive_table orderby name limit 3 offset 2"},
+                {"hive_column where position > 0 orderby position"},
+                {"Person where (hasPets = true)"},
+                {"Person where (numberOfCars >= 1)"},
+                {"Person where (birthday > \"1975-01-01T02:35:58.440Z\" )"},
+        };
+    }
+
+    @Test(dataProvider = "traversalQueries")
+    public void testTraversalMatchesGremlin(String query) throws AtlasBaseException {
+        DSLQueryPlanCache traversalCache = new DSLQueryPlanCache(typeRegistry, null, true, false, 1000, 0);
+        DSLQueryPlanCache gremlinCache   = new DSLQueryPlanCache(typeRegistry, null, false, true, 1000, 0);
+
+        DSLQueryPlan traversalPlan = traversalCache.getQueryPlan(query, DEFAULT_LIMIT, 0);
+        DSLQueryPlan gremlinPlan   = gremlinCache.getQueryPlan(query, DEFAULT_LIMIT, 0);
+
+        assertTrue(traversalPlan.isTraversal(), query);
+        assertFalse(gremlinPlan.isTraversal(), query);
+        assertEquals(traversalPlan.hasSelectList(), gremlinPlan.hasSelectList(), query);
+
+        List<Object> expected = normalize(gremlinPlan.execute(graph));
+        List<Object> actual   = normalize(traversalPlan.execute(graph));
+
+        if (query.contains("orderby")) {
+            assertEquals(actual, expected, query);
+        } else {
+            assertEquals(actual.size(), expected.size(), query);
+            assertEquals(new HashSet<>(actual), new HashSet<>(expected), query);
+        }
+
+        // repeated query should be served from the cache
+        traversalCache.getQueryPlan(query, DEFAULT_LIMIT, 0);
+
+        assertEquals(traversalCache.getStats().get("hitCount"), 1L);
+    }
+
+    @DataProvider(name = "gremlinQueries")
+    private Object[][] gremlinQueries() {
+        return new Object[][] {
+                {"hive_db as d where d.name = \"Sales\""},
+                {"hive_table where db.name = \"Sales\""},
+                {"hive_table isa Dimension"},
+                {"from hive_db groupby (owner) select count() "},
+                {"hive_table where columns.name = \"app_id\""},
+        };
+    }
+
+    @Test(dataProvider = "gremlinQueries")
+    public void testUnsupportedShapeUsesGremlin(String query) throws AtlasBaseException {
+        DSLQueryPlanCache cache = new DSLQueryPlanCache(typeRegistry, null, true, false, 1000, 0);
+
+        assertFalse(cache.getQueryPlan(query, DEFAULT_LIMIT, 0).isTraversal(), query);
+        assertFalse(cache.getQueryPlan(query, DEFAULT_LIMIT, 0).isTraversal(), query);
+
+        assertEquals(cache.getStats().get("hitCount"), 1L);
+        assertEquals(cache.getStats().get("gremlinCount"), 2L);
+    }
+
+    @Test
+    public void testInvalidLiteralFallsBackToGremlin() throws AtlasBaseException {
+        DSLQueryPlanCache cache = new DSLQueryPlanCache(typeRegistry, null, true, false, 1000, 0);
+
+        assertTrue(cache.getQueryPlan("hive_table where createTime > \"2014-01-01\"", DEFAULT_LIMIT, 0).isTraversal());
+
+        // literal that can't be bound is handled by Gremlin translation, which reports the error
+        try {
+            cache.getQueryPlan("hive_table where createTime > \"not-a-date\"", DEFAULT_LIMIT, 0);
+
+            fail("invalid date should have failed the query");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.INVALID_DSL_QUERY);
+        }
+
+        assertEquals(cache.getStats().get("hitCount"), 1L);
+    }
+
+    @Test
+    public void testClearOnTypeChange() throws AtlasBaseException {
+        DSLQueryPlanCache cache = new DSLQueryPlanCache(typeRegistry, null, true, false, 1000, 0);
+
+        cache.getQueryPlan("hive_db where name = \"Sales\"", DEFAULT_LIMIT, 0);
+        assertEquals(cache.getStats().get("size"), 1);
+
+        cache.onChange(null);
+        assertEquals(cache.getStats().get("size"), 0);
+
+        cache.getQueryPlan("hive_db where name = \"Sales\"", DEFAULT_LIMIT, 0);
+        assertEquals(cache.getStats().get("missCount"), 2L);
+    }
+
+    @Test
+    public void benchmark() throws AtlasBaseException {
+        String[] names = new String[] { "sales_fact", "customer_dim", "time_dim", "product_dim", "log_fact_daily_mv" };
+
+        DSLQueryPlanCache noCache        = new DSLQueryPlanCache(typeRegistry, null, false, true, 1000, 0);
+        DSLQueryPlanCache gremlinCache   = new DSLQueryPlanCache(typeRegistry, null, true, true, 1000, 0);
+        DSLQueryPlanCache traversalCache = new DSLQueryPlanCache(typeRegistry, null, true, false, 1000, 0);
+
+        for (String template : new String[] { "hive_table where name = \"%s\"",
+                                              "hive_table where name = \"%s\" select name, owner orderby name limit 10" }) {
+            long noCacheTime        = run(noCache, template, names);
+            long gremlinCacheTime   = run(gremlinCache, template, names);
+            long traversalCacheTime = run(traversalCache, template, names);
+
+            LOG.info("{}: {} runs: gremlin={}ms, gremlin-with-plan-cache={}ms, traversal-with-plan-cache={}ms",
+                     template, RUN_COUNT, noCacheTime, gremlinCacheTime, traversalCacheTime);
+        }
+
+        LOG.info("gremlinCache: {}", gremlinCache.getStats());
+        LOG.info("traversalCache: {}", traversalCache.getStats());
+    }
+
+    private long run(DSLQueryPlanCache cache, String template, String[] names) throws AtlasBaseException {
+        long start = System.currentTimeMillis();
+
+        for (int i = 0; i < RUN_COUNT; i++) {
+            DSLQueryPlan plan = cache.getQueryPlan(String.format(template, names[i % names.length]), DEFAULT_LIMIT, 0);
+
+            plan.execute(graph);
+        }
+
+        return System.currentTimeMillis() - start;
+    }
+
+    // vertices are compared by guid; rows of select results are compared by value
+    private static List<Object> normalize(Object result) {
+        List<Object> ret = new ArrayList<>();
+
+        if (result instanceof List) {
+            for (Object element : (List) result) {
+                if (element instanceof AtlasVertex) {
+                    ret.add(GraphHelper.getGuid((AtlasVertex) element));
+                } else if (element instanceof List) {
+                    ret.add(normalize(element));
+                } else {
+                    ret.add(element);
+                }
+            }
+        }
+
+        return ret;
+    }
+}
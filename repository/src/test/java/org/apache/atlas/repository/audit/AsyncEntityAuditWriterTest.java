@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2.ENTITY_CREATE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncEntityAuditWriterTest {
+    private File walDir;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        walDir = Files.createTempDirectory("audit-wal").toFile();
+    }
+
+    @AfterMethod
+    public void cleanup() throws Exception {
+        FileUtils.deleteDirectory(walDir);
+    }
+
+    @Test
+    public void testSyncWhenDisabled() throws Exception {
+        CountingAuditRepository repository = new CountingAuditRepository(0);
+        AsyncEntityAuditWriter  writer     = new AsyncEntityAuditWriter(repository, null, false, walDir, true, 1024, 10, 10, 1000);
+
+        writer.start();
+
+        assertFalse(writer.isAsync());
+
+        writer.putEvents(createEvents("guid1", 3));
+
+        assertEquals(repository.eventCount, 3);
+        assertEquals(walDir.list().length, 0);
+
+        writer.stop();
+    }
+
+    @Test
+    public void testAsyncWrite() throws Exception {
+        CountingAuditRepository repository = new CountingAuditRepository(0);
+        AsyncEntityAuditWriter  writer     = new AsyncEntityAuditWriter(repository, null, true, walDir, true, 1024, 10, 25, 1000);
+
+        writer.start();
+
+        assertTrue(writer.isAsync());
+
+        for (int i = 0; i < 50; i++) {
+            writer.putEvents(createEvents("guid" + i, 2));
+        }
+
+        waitForEvents(repository, 100);
+
+        writer.stop();
+
+        assertEquals(repository.eventCount, 100);
+        assertEquals(writer.getStats().get("queueDepth"), 0L);
+        assertEquals(walDir.list().length, 0, "write-ahead log should be deleted after all events are written");
+    }
+
+    @Test
+    public void testRetryOnFailure() throws Exception {
+        CountingAuditRepository repository = new CountingAuditRepository(2);
+        AsyncEntityAuditWriter  writer     = new AsyncEntityAuditWriter(repository, null, true, walDir, false, 1024 * 1024, 10, 10, 1000);
+
+        writer.start();
+
+        writer.putEvents(createEvents("guid1", 5));
+
+        waitForEvents(repository, 5);
+
+        writer.stop();
+
+        assertEquals(repository.eventCount, 5);
+        assertEquals(writer.getStats().get("failureCount"), 2L);
+    }
+
+    @Test
+    public void testReplayOnStart() throws Exception {
+        File          walFile = new File(walDir, "audit-wal-3.log");
+        StringBuilder sb      = new StringBuilder();
+
+        sb.append(AtlasJson.toJson(createEvents("guid1", 4))).append("\n");
+        sb.append("{\"incomplete\n"); // partially written record
+        sb.append(AtlasJson.toJson(createEvents("guid2", 3))).append("\n");
+
+        Files.write(walFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        CountingAuditRepository repository = new CountingAuditRepository(0);
+        AsyncEntityAuditWriter  writer     = new AsyncEntityAuditWriter(repository, null, true, walDir, true, 1024, 10, 2, 1000);
+
+        writer.start();
+
+        waitForEvents(repository, 7);
+
+        writer.stop();
+
+        assertEquals(repository.eventCount, 7);
+        assertEquals(writer.getStats().get("replayedCount"), 7L);
+        assertFalse(walFile.exists());
+        assertEquals(repository.listEventsV2("guid2", null, null, (short) 10).size(), 3);
+    }
+
+    @Test
+    public void testEventsAreWrittenInOrderOfLog() throws Exception {
+        CountingAuditRepository repository = new CountingAuditRepository(0);
+        AsyncEntityAuditWriter  writer     = new AsyncEntityAuditWriter(repository, null, true, walDir, false, 1024 * 1024, 1000, 10, 1000);
+        List<Thread>            threads    = new ArrayList<>();
+
+        repository.writeLatch = new CountDownLatch(1); // retain the write-ahead log until all events are appended
+
+        writer.start();
+
+        for (int t = 0; t < 4; t++) {
+            String prefix = "thread" + t + "-";
+
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    try {
+                        writer.putEvents(createEvents(prefix + i, 1));
+                    } catch (Exception excp) {
+                        throw new RuntimeException(excp);
+                    }
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<String> loggedGuids = new ArrayList<>();
+
+        for (String line : Files.readAllLines(walDir.listFiles()[0].toPath(), StandardCharsets.UTF_8)) {
+            loggedGuids.add(AtlasJson.fromJson(line, EntityAuditEventV2[].class)[0].getEntityId());
+        }
+
+        repository.writeLatch.countDown();
+
+        waitForEvents(repository, 100);
+
+        writer.stop();
+
+        assertEquals(loggedGuids.size(), 100);
+        assertEquals(repository.writtenGuids, loggedGuids);
+    }
+
+    private static List<EntityAuditEventV2> createEvents(String guid, int count) {
+        List<EntityAuditEventV2> ret = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            ret.add(new EntityAuditEventV2(guid, i + 1, "user", ENTITY_CREATE, "details", null));
+        }
+
+        return ret;
+    }
+
+    private static void waitForEvents(CountingAuditRepository repository, int count) throws InterruptedException {
+        for (int i = 0; i < 100 && repository.eventCount < count; i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    private static class CountingAuditRepository extends InMemoryEntityAuditRepository {
+        private volatile int            eventCount   = 0;
+        private          int            failuresToSimulate;
+        private final    List<String>   writtenGuids = new ArrayList<>();
+        private volatile CountDownLatch writeLatch;
+
+        CountingAuditRepository(int failuresToSimulate) {
+            this.failuresToSimulate = failuresToSimulate;
+        }
+
+        @Override
+        public synchronized void putEventsV2(List<EntityAuditEventV2> events) {
+            if (writeLatch != null) {
+                try {
+                    writeLatch.await();
+                } catch (InterruptedException excp) {
+                    throw new RuntimeException(excp);
+                }
+            }
+
+            if (failuresToSimulate > 0) {
+                failuresToSimulate--;
+
+                throw new RuntimeException("simulated failure");
+            }
+
+            super.putEventsV2(events);
+
+            for (EntityAuditEventV2 event : events) {
+                writtenGuids.add(event.getEntityId());
+            }
+
+            eventCount += events.size();
+        }
+    }
+}
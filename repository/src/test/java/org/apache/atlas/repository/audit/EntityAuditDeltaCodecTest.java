@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.utils.AtlasJson;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class EntityAuditDeltaCodecTest {
+    @Test
+    public void testText() {
+        String details = "Updated: " + AtlasType.toJson(createEntity("guid1", 0));
+        byte[] encoded = EntityAuditDeltaCodec.encodeText(details);
+
+        assertTrue(EntityAuditDeltaCodec.isEncoded(encoded));
+        assertTrue(encoded.length < details.length());
+        assertEquals(EntityAuditDeltaCodec.decodeText(encoded), details);
+        assertEquals(EntityAuditDeltaCodec.decodeText(EntityAuditDeltaCodec.fromStorageText(EntityAuditDeltaCodec.toStorageText(encoded))), details);
+    }
+
+    @Test
+    public void testUnencodedValues() {
+        String json  = AtlasType.toJson(createEntity("guid1", 0));
+        byte[] value = json.getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(EntityAuditDeltaCodec.isEncoded(value));
+        assertEquals(EntityAuditDeltaCodec.decodeText(value), json);
+        assertEquals(new EntityAuditDeltaCodec.Decoder().decode(value), json);
+        assertEquals(EntityAuditDeltaCodec.toStorageText(value), json);
+        assertEquals(EntityAuditDeltaCodec.fromStorageText(json), value);
+    }
+
+    @Test
+    public void testDeltas() {
+        EntityAuditDeltaCodec         codec    = new EntityAuditDeltaCodec(4, 100);
+        EntityAuditDeltaCodec.Decoder decoder  = new EntityAuditDeltaCodec.Decoder();
+        List<AtlasEntity>             entities = new ArrayList<>();
+        List<byte[]>                  values   = new ArrayList<>();
+
+        for (int version = 0; version < 10; version++) {
+            AtlasEntity                   entity  = createEntity("guid1", version);
+            EntityAuditDeltaCodec.Encoder encoder = codec.newEncoder();
+            byte[]                        value   = encoder.encodeDefinition("key" + version, entity);
+
+            encoder.commit();
+
+            entities.add(entity);
+            values.add(value);
+        }
+
+        // a snapshot every 4 versions; deltas in between
+        for (int version = 0; version < 10; version++) {
+            byte[] value       = values.get(version);
+            String snapshotKey = decoder.getMissingSnapshotKey(value);
+
+            if (version % 4 == 0) {
+                assertNotNull(EntityAuditDeltaCodec.decodeText(value));
+                assertNull(snapshotKey);
+            } else {
+                assertNull(EntityAuditDeltaCodec.decodeText(value));
+
+                if (version % 4 == 1) { // first delta after the snapshot
+                    assertEquals(snapshotKey, "key" + (version - 1));
+                    assertNull(decoder.decode(value), "delta should not be decoded without its snapshot");
+
+                    decoder.addSnapshot(snapshotKey, values.get(version - 1));
+                } else {
+                    assertNull(snapshotKey);
+                }
+            }
+
+            assertEquals(AtlasJson.fromJson(decoder.decode(value), Map.class), AtlasJson.fromJson(AtlasType.toJson(entities.get(version)), Map.class));
+        }
+    }
+
+    @Test
+    public void testSnapshotOnlyAfterCommit() {
+        EntityAuditDeltaCodec         codec   = new EntityAuditDeltaCodec(10, 100);
+        EntityAuditDeltaCodec.Encoder encoder = codec.newEncoder();
+
+        encoder.encodeDefinition("key0", createEntity("guid1", 0));
+
+        // batch not committed, i.e. not written: next batch should not refer to its snapshot
+        byte[] value = codec.newEncoder().encodeDefinition("key1", createEntity("guid1", 1));
+
+        assertNotNull(EntityAuditDeltaCodec.decodeText(value));
+
+        // within a batch, later events of an entity refer to earlier snapshot in the batch
+        value = encoder.encodeDefinition("key1", createEntity("guid1", 1));
+
+        assertEquals(new EntityAuditDeltaCodec.Decoder().getMissingSnapshotKey(value), "key0");
+    }
+
+    @Test
+    public void testNonEntityDefinitionIsOnlyCompressed() {
+        String json  = "{\"id\":{\"id\":\"guid1\",\"typeName\":\"hive_table\"},\"values\":{\"name\":\"t1\"}}";
+        byte[] value = new EntityAuditDeltaCodec(10, 100).newEncoder().encodeDefinition("key0", json);
+
+        assertEquals(new EntityAuditDeltaCodec.Decoder().decode(value), json);
+        assertEquals(EntityAuditDeltaCodec.decodeText(value), json);
+    }
+
+    private static AtlasEntity createEntity(String guid, int version) {
+        AtlasEntity entity = new AtlasEntity("hive_table");
+
+        entity.setGuid(guid);
+        entity.setVersion((long) version);
+        entity.setUpdateTime(new Date(1000L * version));
+        entity.setAttribute("qualifiedName", "default.table1@cl1");
+        entity.setAttribute("name", "table1");
+        entity.setAttribute("comment", "version " + version);
+        entity.setAttribute("columns", Arrays.asList("col1", "col2", "col" + version));
+
+        for (int i = 0; i < 20; i++) { // unchanged across versions
+            entity.setAttribute("parameter" + i, "value of parameter " + i);
+        }
+
+        if (version % 3 == 0) {
+            entity.setAttribute("owner", "user" + version);
+        }
+
+        entity.setCustomAttributes(version % 2 == 0 ? null : Collections.singletonMap("k", "v" + version));
+
+        return entity;
+    }
+}
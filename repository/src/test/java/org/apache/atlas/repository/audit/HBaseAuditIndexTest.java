@@ -0,0 +1,325 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.audit;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.mockito.invocation.InvocationOnMock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class HBaseAuditIndexTest {
+    private static final TableName INDEX_TABLE   = TableName.valueOf("audit_index");
+    private static final TableName AUDIT_TABLE   = TableName.valueOf("audit");
+    private static final String    TAG_ADD       = "CLASSIFICATION_ADD";
+    private static final String    ENTITY_UPDATE = "ENTITY_UPDATE";
+    private static final int       BUCKETS       = 8;
+
+    private InMemoryTable indexTable;
+    private InMemoryTable auditTable;
+    private Connection    connection;
+    private Admin         admin;
+    private byte[][]      splitKeys;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        indexTable = new InMemoryTable();
+        auditTable = new InMemoryTable();
+        connection = mock(Connection.class);
+        admin      = mock(Admin.class);
+        splitKeys  = null;
+
+        when(connection.getAdmin()).thenReturn(admin);
+        when(connection.getTable(INDEX_TABLE)).thenAnswer(invocation -> indexTable.getTable());
+        when(connection.getTable(AUDIT_TABLE)).thenAnswer(invocation -> auditTable.getTable());
+        when(admin.tableExists(INDEX_TABLE)).thenReturn(false);
+
+        doAnswer((InvocationOnMock invocation) -> {
+            splitKeys = (byte[][]) invocation.getArguments()[1];
+
+            return null;
+        }).when(admin).createTable(any(TableDescriptor.class), any(byte[][].class));
+    }
+
+    @Test
+    public void createTablePreSplitsOnBuckets() throws Exception {
+        HBaseAuditIndex index = new HBaseAuditIndex(connection, INDEX_TABLE, BUCKETS);
+
+        index.createTableIfNotExists(true);
+
+        assertNotNull(splitKeys);
+        assertEquals(splitKeys.length, 2 * BUCKETS - 1);
+
+        for (int i = 1; i < splitKeys.length; i++) {
+            assertTrue(Bytes.compareTo(splitKeys[i - 1], splitKeys[i]) < 0);
+        }
+
+        assertEquals(index.getIndexedSince(), 0);
+
+        // existing table retains the number of buckets it was created with
+        HBaseAuditIndex reopened = new HBaseAuditIndex(connection, INDEX_TABLE, 4);
+
+        when(admin.tableExists(INDEX_TABLE)).thenReturn(true);
+
+        reopened.createTableIfNotExists(false);
+
+        assertEquals(reopened.getBuckets(), BUCKETS);
+    }
+
+    @Test
+    public void actionRowsAreSpreadOverBuckets() {
+        HBaseAuditIndex index         = new HBaseAuditIndex(connection, INDEX_TABLE, BUCKETS);
+        List<Put>       puts          = new ArrayList<>();
+        Set<Byte>       actionBuckets = new HashSet<>();
+        Set<Byte>       entityBuckets = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            index.addPuts(puts, auditKey("guid-1", 1000 + i, i), "guid-1", 1000 + i, TAG_ADD);
+        }
+
+        assertEquals(puts.size(), 200);
+
+        for (Put put : puts) {
+            byte[] row = put.getRow();
+
+            if (row[0] == 'A') {
+                actionBuckets.add(row[1]);
+            } else {
+                entityBuckets.add(row[1]);
+            }
+        }
+
+        assertTrue(actionBuckets.size() > BUCKETS / 2, "action rows in buckets " + actionBuckets);
+        assertEquals(entityBuckets.size(), 1); // rows of an entity are in one bucket, to be read with a single scan
+    }
+
+    @Test
+    public void getEntityIdsScansTimeRangeInAllBuckets() throws Exception {
+        HBaseAuditIndex index    = new HBaseAuditIndex(connection, INDEX_TABLE, BUCKETS);
+        List<Put>       puts     = new ArrayList<>();
+        Set<String>     expected = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            String entityId  = "guid-" + i;
+            long   timestamp = 1000 + i;
+
+            index.addPuts(puts, auditKey(entityId, timestamp, 0), entityId, timestamp, i % 2 == 0 ? TAG_ADD : ENTITY_UPDATE);
+
+            if (i % 2 == 0 && timestamp >= 1020 && timestamp < 1060) {
+                expected.add(entityId);
+            }
+        }
+
+        index.put(puts);
+
+        assertEquals(index.getEntityIds(Collections.singletonList(TAG_ADD), 1020, 1060), expected);
+        assertEquals(indexTable.scanCount, BUCKETS);
+        assertEquals(index.getEntityIds(Collections.singletonList(TAG_ADD), 2000, 3000), Collections.emptySet());
+    }
+
+    @Test
+    public void getAuditKeysLatestFirstWithPaging() throws Exception {
+        HBaseAuditIndex index = new HBaseAuditIndex(connection, INDEX_TABLE, BUCKETS);
+        List<Put>       puts  = new ArrayList<>();
+        List<String>    keys  = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            byte[] key = auditKey("guid-1", 1000 + i, 0);
+
+            index.addPuts(puts, key, "guid-1", 1000 + i, TAG_ADD);
+            index.addPuts(puts, auditKey("guid-1", 1000 + i, 1), "guid-1", 1000 + i, ENTITY_UPDATE);
+            index.addPuts(puts, auditKey("guid-2", 1000 + i, 0), "guid-2", 1000 + i, TAG_ADD);
+
+            keys.add(0, Bytes.toString(key));
+        }
+
+        index.put(puts);
+
+        List<String> page1 = toStrings(index.getAuditKeys("guid-1", TAG_ADD, null, 4));
+        List<String> page2 = toStrings(index.getAuditKeys("guid-1", TAG_ADD, page1.get(3), 4));
+        List<String> all   = toStrings(index.getAuditKeys("guid-1", TAG_ADD, null, -1));
+
+        assertEquals(page1, keys.subList(0, 4));
+        assertEquals(page2, keys.subList(3, 7)); // page starts at the given key
+        assertEquals(all, keys);
+        assertNull(index.getAuditKeys("guid-1", TAG_ADD, "not-an-audit-key", 4));
+    }
+
+    @Test
+    public void backfillIndexesExistingEvents() throws Exception {
+        HBaseAuditIndex index    = new HBaseAuditIndex(connection, INDEX_TABLE, BUCKETS);
+        List<byte[]>    progress = new ArrayList<>();
+        List<Put>       events   = new ArrayList<>();
+
+        for (int i = 0; i < 25; i++) {
+            events.add(new Put(auditKey("guid-" + i, 1000 + i, 0)).addColumn(HBaseBasedAuditRepository.COLUMN_FAMILY, HBaseBasedAuditRepository.COLUMN_ACTION, Bytes.toBytes(TAG_ADD)));
+        }
+
+        events.add(new Put(Bytes.toBytes("unexpected-key")).addColumn(HBaseBasedAuditRepository.COLUMN_FAMILY, HBaseBasedAuditRepository.COLUMN_ACTION, Bytes.toBytes(TAG_ADD)));
+
+        auditTable.getTable().put(events);
+
+        long count = index.backfill(auditTable.getTable(), null, 10, progress::add);
+
+        assertEquals(count, 25);
+        assertEquals(indexTable.rows.size(), 50);
+        assertEquals(progress.size(), 5); // after every 10 index rows i.e. 5 events
+        assertEquals(index.getEntityIds(Collections.singletonList(TAG_ADD), 0, Long.MAX_VALUE).size(), 25);
+
+        // resume from the last reported key: only events from that key are indexed again
+        indexTable.rows.clear();
+
+        long resumed = index.backfill(auditTable.getTable(), progress.get(1), 10, row -> { });
+
+        assertEquals(resumed, 16); // from the 10th event, inclusive
+        assertEquals(indexTable.rows.size(), 2 * resumed);
+    }
+
+    private static byte[] auditKey(String entityId, long timestamp, int index) {
+        return Bytes.toBytes(entityId + ":" + timestamp + ":" + index + ":" + timestamp);
+    }
+
+    private static List<String> toStrings(List<byte[]> values) {
+        List<String> ret = new ArrayList<>();
+
+        for (byte[] value : values) {
+            ret.add(Bytes.toString(value));
+        }
+
+        return ret;
+    }
+
+    // table of a single column family, kept in memory; supports put, get and forward/reversed range scans
+    private static class InMemoryTable {
+        final NavigableMap<byte[], NavigableMap<byte[], Cell>> rows = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+        int scanCount = 0;
+
+        Table getTable() throws Exception {
+            Table ret = mock(Table.class);
+
+            doAnswer((InvocationOnMock invocation) -> {
+                for (Object put : (List) invocation.getArguments()[0]) {
+                    add((Put) put);
+                }
+
+                return null;
+            }).when(ret).put(anyList());
+
+            doAnswer((InvocationOnMock invocation) -> {
+                add((Put) invocation.getArguments()[0]);
+
+                return null;
+            }).when(ret).put(any(Put.class));
+
+            when(ret.get(any(Get.class))).thenAnswer(invocation -> toResult(rows.get(((Get) invocation.getArguments()[0]).getRow())));
+            when(ret.getScanner(any(Scan.class))).thenAnswer(invocation -> scan((Scan) invocation.getArguments()[0]));
+
+            return ret;
+        }
+
+        private synchronized void add(Put put) {
+            NavigableMap<byte[], Cell> row = rows.computeIfAbsent(put.getRow(), k -> new TreeMap<>(Bytes.BYTES_COMPARATOR));
+
+            for (List<Cell> cells : put.getFamilyCellMap().values()) {
+                for (Cell cell : cells) {
+                    row.put(CellUtil.cloneQualifier(cell), cell);
+                }
+            }
+        }
+
+        private synchronized ResultScanner scan(Scan scan) {
+            byte[] start = scan.getStartRow();
+            byte[] stop  = scan.getStopRow();
+            NavigableMap<byte[], NavigableMap<byte[], Cell>> range;
+
+            scanCount++;
+
+            if (scan.isReversed()) { // start is the inclusive upper bound, stop the exclusive lower bound
+                range = rows.descendingMap();
+
+                if (start.length > 0) {
+                    range = range.tailMap(start, true);
+                }
+
+                if (stop.length > 0) {
+                    range = range.headMap(stop, false);
+                }
+            } else {
+                range = rows;
+
+                if (start.length > 0) {
+                    range = range.tailMap(start, true);
+                }
+
+                if (stop.length > 0) {
+                    range = range.headMap(stop, false);
+                }
+            }
+
+            List<Result> results = new ArrayList<>();
+
+            for (Map.Entry<byte[], NavigableMap<byte[], Cell>> entry : range.entrySet()) {
+                results.add(toResult(entry.getValue()));
+            }
+
+            Iterator<Result> iter    = results.iterator();
+            ResultScanner    scanner = mock(ResultScanner.class);
+
+            when(scanner.iterator()).thenReturn(iter);
+            when(scanner.next()).thenAnswer(invocation -> iter.hasNext() ? iter.next() : null);
+
+            return scanner;
+        }
+
+        private static Result toResult(NavigableMap<byte[], Cell> row) {
+            return row != null ? Result.create(new ArrayList<>(row.values())) : Result.EMPTY_RESULT;
+        }
+    }
+}
@@ -27,6 +27,8 @@ import org.testng.annotations.Guice;
 import org.testng.annotations.Test;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -62,6 +64,17 @@ public class DataMigrationStatusServiceTest {
         assertNotNull(dataMigrationStatusService.getCreate(expected).getCurrentIndex(), "100");
 
 
+        Map<String, Long> typeCounts = new HashMap<>();
+        typeCounts.put("hive_table", 15L);
+        typeCounts.put("hive_column", 85L);
+
+        dataMigrationStatusService.saveProgress(100, 20, 1500, typeCounts);
+        MigrationImportStatus progress = dataMigrationStatusService.getCreate(expected);
+        assertEquals(progress.getCurrentCounter().longValue(), 100L);
+        assertEquals(progress.getEntitiesPerSecond(), 20L);
+        assertEquals(progress.getStallTimeInMs(), 1500L);
+        assertEquals(progress.getTypeCounts(), typeCounts);
+
         dataMigrationStatusService.setStatus(STATUS_DONE);
         assertNotNull(dataMigrationStatusService.getCreate(expected).getOperationStatus());
         assertEquals(dataMigrationStatusService.getCreate(expected).getOperationStatus(), STATUS_DONE);
@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.impexp;
 
 
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.TestModules;
 import org.apache.atlas.TestUtilsV2;
@@ -311,6 +312,29 @@ public class ExportServiceTest extends AtlasTestBase {
         verifyExportForFullEmployeeData(zipSource);
     }
 
+    @Test
+    public void verifyTypeFullUsingWorkers_SameAsSerial() throws Exception {
+        ZipSource serial = runExportWithParameters(getRequestForTypeFull("Department,Employee,Manager"));
+        ZipSource parallel;
+
+        try {
+            ApplicationProperties.get().setProperty("atlas.export.num.workers", 4);
+            ApplicationProperties.get().setProperty("atlas.export.writer.queue.size", 1);
+
+            parallel = runExportWithParameters(getRequestForTypeFull("Department,Employee,Manager"));
+        } finally {
+            ApplicationProperties.get().clearProperty("atlas.export.num.workers");
+            ApplicationProperties.get().clearProperty("atlas.export.writer.queue.size");
+        }
+
+        verifyExportForFullEmployeeData(parallel);
+        assertEquals(parallel.getCreationOrder(), serial.getCreationOrder());
+
+        for (String guid : serial.getCreationOrder()) {
+            assertEquals(parallel.getEntityWithExtInfo(guid), serial.getEntityWithExtInfo(guid));
+        }
+    }
+
     private AtlasExportRequest getRequestForTypeFull(String type) {
         String jsonRequest = "{ \"itemsToExport\": [ { \"typeName\": \"%s\" } ], \"options\": {  \"fetchType\": \"FULL\", \"matchType\": \"forType\"} }";
         return AtlasType.fromJson(String.format(jsonRequest, type), AtlasExportRequest.class);
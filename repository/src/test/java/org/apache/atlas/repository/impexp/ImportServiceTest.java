@@ -26,6 +26,8 @@ import org.apache.atlas.discovery.EntityDiscoveryService;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasExportRequest;
 import org.apache.atlas.model.impexp.AtlasImportRequest;
+import org.apache.atlas.model.impexp.AtlasImportResult;
+import org.apache.atlas.model.instance.AtlasClassification;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
@@ -35,14 +37,18 @@ import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.AtlasTestBase;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.bulkimport.ParallelImport;
 import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.DeleteType;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.mockito.stubbing.Answer;
 import org.testng.ITestContext;
@@ -53,12 +59,17 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Guice;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
 import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.getDefaultImportRequest;
@@ -80,6 +91,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 @Guice(modules = TestModules.TestOnlyModule.class)
@@ -102,6 +114,9 @@ public class ImportServiceTest extends AtlasTestBase {
     @Inject
     private ExportImportAuditService auditService;
 
+    @Inject
+    private AtlasGraph graph;
+
     @Inject
     public ImportServiceTest(ImportService importService) {
         this.importService = importService;
@@ -403,6 +418,145 @@ public class ImportServiceTest extends AtlasTestBase {
         assertEntityCount("hive_column", "6c4f196a-4046-493b-8c3a-2b1a9ef255a2",1);
     }
 
+    @Test(dataProvider = "relationship")
+    public void importDB7UsingParallelImport(InputStream inputStream) throws AtlasBaseException, IOException {
+        loadBaseModel();
+        loadHiveModel();
+        AtlasImportRequest request = getDefaultImportRequest();
+        request.setOption(AtlasImportRequest.OPTION_KEY_NUM_WORKERS, "4");
+        request.setOption(AtlasImportRequest.OPTION_KEY_BATCH_SIZE, "2");
+        AtlasImportResult result = runImportWithParameters(importService, request, inputStream);
+
+        assertFalse(result.getProcessedEntities().isEmpty());
+        assertEntityCount("hive_db", "d7dc0848-fbba-4d63-9264-a460798361f5", 1);
+        assertEntityCount("hive_table", "2fb31eaa-4bb2-4eb8-b333-a888ba7c84fe", 1);
+        assertEntityCount("hive_column", "13422f0c-9265-4960-91a9-290ffd83b7f1",1);
+        assertEntityCount("hive_column", "c1ae870f-ce0c-44ae-832f-ff77035b1f7e",1);
+        assertEntityCount("hive_column", "b84baab3-0664-4f13-82f1-e81d043db02f",1);
+        assertEntityCount("hive_column", "53ea1991-6ca8-44f2-a75e-61b8d4866fc8",1);
+        assertEntityCount("hive_column", "a973c04c-aa42-49f4-877c-66fbe6754fb5",1);
+        assertEntityCount("hive_column", "a4550803-f18e-4072-a1e8-1201e6022a58",1);
+        assertEntityCount("hive_column", "6c4f196a-4046-493b-8c3a-2b1a9ef255a2",1);
+    }
+
+    @Test(dataProvider = "relationship")
+    public void parallelImportMatchesRegularImport(InputStream inputStream) throws AtlasBaseException, IOException {
+        loadBaseModel();
+        loadHiveModel();
+
+        byte[]       zipBytes = IOUtils.toByteArray(inputStream);
+        List<String> guids    = new ArrayList<>(new ZipSource(new ByteArrayInputStream(zipBytes)).getCreationOrder());
+
+        hardDelete(guids);
+        runImportWithParameters(importService, getDefaultImportRequest(), new ByteArrayInputStream(zipBytes));
+
+        Map<String, Map<String, Object>> expected = getGraphState(guids);
+
+        hardDelete(guids);
+
+        AtlasImportRequest request = getDefaultImportRequest();
+        request.setOption(AtlasImportRequest.OPTION_KEY_NUM_WORKERS, "4");
+        request.setOption(AtlasImportRequest.OPTION_KEY_BATCH_SIZE, "2");
+        AtlasImportResult result = runImportWithParameters(importService, request, new ByteArrayInputStream(zipBytes));
+
+        assertEquals(new HashSet<>(result.getProcessedEntities()), new HashSet<>(guids));
+        assertEquals(getGraphState(guids), expected);
+
+        // in reverse creation order, entities refer to entities that appear later in the stream: these are imported by the serial fallback for residual entities
+        hardDelete(guids);
+
+        ZipSource zipSource = new ZipSource(new ByteArrayInputStream(zipBytes));
+        Collections.reverse(zipSource.getCreationOrder());
+        zipSource.reset();
+
+        AtlasImportResult residualResult = new AtlasImportResult(request, TestUtilsV2.TEST_USER, "1.0.0.0", "localhost", System.currentTimeMillis());
+
+        RequestContext.get().setImportInProgress(true);
+
+        try {
+            new ParallelImport(graph, entityStore, typeRegistry, 4, 2).run(zipSource, residualResult);
+        } finally {
+            RequestContext.get().setImportInProgress(false);
+        }
+
+        assertEquals(new HashSet<>(residualResult.getProcessedEntities()), new HashSet<>(guids));
+        assertEquals(getGraphState(guids), expected);
+    }
+
+    private void hardDelete(List<String> guids) throws AtlasBaseException {
+        RequestContext.get().setDeleteType(DeleteType.HARD);
+
+        try {
+            entityStore.deleteByIds(guids);
+        } finally {
+            RequestContext.clear();
+            RequestContext.get().setUser(TestUtilsV2.TEST_USER, null);
+        }
+
+        for (String guid : guids) {
+            assertNull(AtlasGraphUtilsV2.findByGuid(graph, guid));
+        }
+    }
+
+    private Map<String, Map<String, Object>> getGraphState(List<String> guids) throws AtlasBaseException {
+        Map<String, Map<String, Object>> ret = new HashMap<>();
+
+        for (String guid : guids) {
+            AtlasEntity         entity          = entityStore.getById(guid).getEntity();
+            Map<String, Object> state           = new HashMap<>();
+            List<String>        classifications = new ArrayList<>();
+
+            if (entity.getClassifications() != null) {
+                for (AtlasClassification classification : entity.getClassifications()) {
+                    classifications.add(classification.getTypeName() + ":" + classification.getEntityGuid());
+                }
+            }
+
+            Collections.sort(classifications);
+
+            // timestamps and version differ between imports; relationships are compared by the related entity, relationship type and status
+            state.put("typeName", entity.getTypeName());
+            state.put("status", entity.getStatus());
+            state.put("attributes", normalize(entity.getAttributes()));
+            state.put("relationshipAttributes", normalize(entity.getRelationshipAttributes()));
+            state.put("classifications", classifications);
+
+            ret.put(guid, state);
+        }
+
+        return ret;
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof AtlasRelatedObjectId) {
+            AtlasRelatedObjectId relatedObjectId = (AtlasRelatedObjectId) value;
+
+            return relatedObjectId.getGuid() + ":" + relatedObjectId.getRelationshipType() + ":" + relatedObjectId.getRelationshipStatus();
+        } else if (value instanceof AtlasObjectId) {
+            return ((AtlasObjectId) value).getGuid();
+        } else if (value instanceof Map) {
+            Map<Object, Object> ret = new TreeMap<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                ret.put(entry.getKey(), normalize(entry.getValue()));
+            }
+
+            return ret;
+        } else if (value instanceof Collection) {
+            List<String> ret = new ArrayList<>();
+
+            for (Object element : (Collection<?>) value) {
+                ret.add(String.valueOf(normalize(element)));
+            }
+
+            Collections.sort(ret);
+
+            return ret;
+        }
+
+        return value;
+    }
+
     private List<AtlasEntityHeader>  assertEntityCount(String entityType, String guid, int expectedCount) throws AtlasBaseException {
         List<AtlasEntityHeader> result = getImportedEntities(entityType, guid);
         assertEquals(result.size(), expectedCount);
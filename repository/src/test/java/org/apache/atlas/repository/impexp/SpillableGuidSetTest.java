@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.repository.util.SpillableGuidSet;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class SpillableGuidSetTest {
+    @Test
+    public void inMemory() {
+        SpillableGuidSet guids = new SpillableGuidSet(100, null);
+
+        assertTrue(guids.add("a"));
+        assertFalse(guids.add("a"));
+        assertTrue(guids.add("b"));
+        assertEquals(guids.size(), 2);
+        assertEquals(guids.getSpilledRunCount(), 0);
+
+        assertTrue(guids.remove("a"));
+        assertFalse(guids.remove("a"));
+        assertFalse(guids.contains("a"));
+        assertTrue(guids.contains("b"));
+        assertEquals(guids.size(), 1);
+
+        guids.close();
+    }
+
+    @Test
+    public void spillAndMerge() {
+        File             directory = getDirectory();
+        SpillableGuidSet guids     = new SpillableGuidSet(10, directory.getAbsolutePath());
+        String[]         added     = new String[1000];
+
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+
+            assertTrue(guids.add(added[i]));
+        }
+
+        assertEquals(guids.size(), added.length);
+        assertTrue(guids.getSpilledRunCount() > 0);
+        assertTrue(directory.list().length > 0);
+
+        for (String guid : added) {
+            assertTrue(guids.contains(guid));
+            assertFalse(guids.add(guid));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(guids.contains(UUID.randomUUID().toString()));
+        }
+
+        guids.close();
+
+        assertEquals(directory.list().length, 0);
+
+        directory.delete();
+    }
+
+    @Test
+    public void removeSpilled() {
+        File             directory = getDirectory();
+        SpillableGuidSet guids     = new SpillableGuidSet(2, directory.getAbsolutePath());
+
+        guids.add("a");
+        guids.add("b");
+        guids.add("c");
+
+        assertTrue(guids.getSpilledRunCount() > 0);
+
+        assertTrue(guids.remove("a"));
+        assertFalse(guids.remove("a"));
+        assertFalse(guids.contains("a"));
+        assertEquals(guids.size(), 2);
+
+        assertTrue(guids.add("a"));
+        assertTrue(guids.contains("a"));
+        assertEquals(guids.size(), 3);
+
+        guids.clear();
+
+        assertEquals(guids.size(), 0);
+        assertFalse(guids.contains("b"));
+        assertEquals(directory.list().length, 0);
+
+        directory.delete();
+    }
+
+    private static File getDirectory() {
+        File ret = new File(System.getProperty("java.io.tmpdir"), "spillable-guid-set-test-" + UUID.randomUUID());
+
+        ret.mkdirs();
+
+        return ret;
+    }
+}
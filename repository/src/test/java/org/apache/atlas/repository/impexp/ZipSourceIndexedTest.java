@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.utils.TestResourceFileUtils;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ZipSourceIndexedTest {
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void improperInit() throws IOException, AtlasBaseException {
+        new ZipSourceIndexed(new ByteArrayInputStream(new byte[10]), null);
+    }
+
+    @Test
+    public void examineContents_SameAsZipSource() throws IOException, AtlasBaseException {
+        ZipSource        zipSource        = new ZipSource(ZipFileResourceTestUtils.getFileInputStream("stocks.zip"));
+        ZipSourceIndexed zipSourceIndexed = getZipSourceIndexed("stocks.zip");
+
+        try {
+            List<String> creationOrder = zipSourceIndexed.getCreationOrder();
+
+            assertEquals(creationOrder, zipSource.getCreationOrder());
+            assertEquals(zipSourceIndexed.size(), 4);
+
+            AtlasTypesDef typesDef = zipSourceIndexed.getTypesDef();
+            assertNotNull(typesDef);
+            assertEquals(typesDef.getEntityDefs().size(), 6);
+            assertNotNull(zipSourceIndexed.getExportResult());
+
+            for (String guid : creationOrder) {
+                assertEquals(zipSourceIndexed.getEntityWithExtInfo(guid), zipSource.getEntityWithExtInfo(guid));
+            }
+
+            assertNull(zipSourceIndexed.getByGuid("non-existent-guid"));
+        } finally {
+            zipSourceIndexed.close();
+        }
+    }
+
+    @Test
+    public void getByGuidUsesCache() throws IOException, AtlasBaseException {
+        ZipSourceIndexed zipSourceIndexed = getZipSourceIndexed("stocks.zip");
+
+        try {
+            String      guid    = zipSourceIndexed.getCreationOrder().get(0);
+            AtlasEntity entity1 = zipSourceIndexed.getByGuid(guid);
+
+            assertNotNull(entity1);
+            assertSame(zipSourceIndexed.getByGuid(guid), entity1);
+
+            zipSourceIndexed.onImportComplete(guid);
+
+            AtlasEntity entity2 = zipSourceIndexed.getByGuid(guid);
+
+            assertNotNull(entity2);
+            assertTrue(entity1 != entity2);
+        } finally {
+            zipSourceIndexed.close();
+        }
+    }
+
+    @Test
+    public void iteratorBehavior() throws IOException, AtlasBaseException {
+        ZipSourceIndexed zipSourceIndexed = getZipSourceIndexed("stocks.zip");
+
+        try {
+            List<String> creationOrder = zipSourceIndexed.getCreationOrder();
+
+            for (int i = 0; i < creationOrder.size(); i++) {
+                assertTrue(zipSourceIndexed.hasNext());
+
+                AtlasEntity e = zipSourceIndexed.next();
+
+                assertNotNull(e);
+                assertEquals(e.getGuid(), creationOrder.get(i));
+                assertEquals(zipSourceIndexed.getPosition(), i + 1);
+            }
+
+            assertFalse(zipSourceIndexed.hasNext());
+            assertNull(zipSourceIndexed.getNextEntityWithExtInfo());
+        } finally {
+            zipSourceIndexed.close();
+        }
+    }
+
+    @Test
+    public void setPositionSameAsZipSource() throws IOException, AtlasBaseException {
+        ZipSource        zipSource        = new ZipSource(ZipFileResourceTestUtils.getFileInputStream("sales-v1-full.zip"));
+        ZipSourceIndexed zipSourceIndexed = getZipSourceIndexed("sales-v1-full.zip");
+
+        try {
+            zipSource.setPosition(2);
+            zipSourceIndexed.setPosition(2);
+
+            assertEquals(zipSourceIndexed.getPosition(), zipSource.getPosition());
+
+            for (int i = 0; i < 3; i++) {
+                assertEquals(zipSourceIndexed.next().getGuid(), zipSource.next().getGuid());
+                assertEquals(zipSourceIndexed.getPosition(), zipSource.getPosition());
+            }
+
+            String guid = zipSource.getCreationOrder().get(5);
+
+            zipSource.setPositionUsingEntityGuid(guid);
+            zipSourceIndexed.setPositionUsingEntityGuid(guid);
+
+            assertEquals(zipSourceIndexed.next().getGuid(), zipSource.next().getGuid());
+        } finally {
+            zipSourceIndexed.close();
+        }
+    }
+
+    @Test
+    public void temporaryFileDeletedOnClose() throws IOException, AtlasBaseException {
+        File             directory        = new File(System.getProperty("java.io.tmpdir"), "zip-source-indexed-test");
+        ZipSourceIndexed zipSourceIndexed;
+
+        directory.mkdirs();
+
+        zipSourceIndexed = new ZipSourceIndexed(ZipFileResourceTestUtils.getFileInputStream("stocks.zip"), directory.getAbsolutePath());
+
+        assertEquals(directory.list().length, 1);
+
+        zipSourceIndexed.close();
+
+        assertEquals(directory.list().length, 0);
+
+        directory.delete();
+    }
+
+    private static ZipSourceIndexed getZipSourceIndexed(String fileName) throws IOException, AtlasBaseException {
+        return new ZipSourceIndexed(new File(TestResourceFileUtils.getTestFilePath(fileName)));
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.ogm.glossary;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.glossary.AtlasGlossary;
+import org.apache.atlas.model.glossary.AtlasGlossaryCategory;
+import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class GlossaryCacheTest {
+    private static final String GLOSSARY_TYPE = "AtlasGlossary";
+    private static final String TERM_TYPE     = "AtlasGlossaryTerm";
+    private static final String CATEGORY_TYPE = "AtlasGlossaryCategory";
+
+    @Test
+    public void getReturnsCopy() throws AtlasBaseException {
+        GlossaryCache cache    = getCache(1024 * 1024);
+        AtlasGlossary glossary = getGlossary("g1");
+
+        cache.put(getEntity(GLOSSARY_TYPE, "g1"), glossary, cache.getLoadTime());
+
+        AtlasGlossary ret1 = cache.get("g1", AtlasGlossary.class);
+        AtlasGlossary ret2 = cache.getByUniqueAttributes(GLOSSARY_TYPE, Collections.singletonMap("qualifiedName", "g1@qn"), AtlasGlossary.class);
+
+        assertEquals(ret1, glossary);
+        assertEquals(ret2, glossary);
+        assertNotSame(ret1, glossary);
+        assertNotSame(ret2, ret1);
+
+        assertNull(cache.get("g1", AtlasGlossaryTerm.class));
+        assertNull(cache.get("g2", AtlasGlossary.class));
+        assertNull(cache.getByUniqueAttributes(TERM_TYPE, Collections.singletonMap("qualifiedName", "g1@qn"), AtlasGlossaryTerm.class));
+    }
+
+    @Test
+    public void invalidateRelated() throws AtlasBaseException {
+        GlossaryCache cache = getCache(1024 * 1024);
+
+        cache.put(getEntity(GLOSSARY_TYPE, "g1", new AtlasObjectId("t1", TERM_TYPE), new AtlasObjectId("c1", CATEGORY_TYPE)), getGlossary("g1"), cache.getLoadTime());
+        cache.put(getEntity(TERM_TYPE, "t1", new AtlasObjectId("g1", GLOSSARY_TYPE), new AtlasObjectId("c1", CATEGORY_TYPE)), getTerm("t1"), cache.getLoadTime());
+        cache.put(getEntity(CATEGORY_TYPE, "c1", new AtlasObjectId("g1", GLOSSARY_TYPE), new AtlasObjectId("t1", TERM_TYPE)), getCategory("c1"), cache.getLoadTime());
+        cache.put(getEntity(GLOSSARY_TYPE, "g2"), getGlossary("g2"), cache.getLoadTime());
+        cache.put(getEntity(TERM_TYPE, "t2", new AtlasObjectId("g2", GLOSSARY_TYPE), new AtlasObjectId("e1", "hive_table")), getTerm("t2"), cache.getLoadTime());
+
+        // change to an entity the term is assigned to
+        cache.invalidate(Collections.singleton("e1"));
+
+        assertNull(cache.get("t2", AtlasGlossaryTerm.class));
+        assertNotNull(cache.get("g2", AtlasGlossary.class));
+        assertNotNull(cache.get("t1", AtlasGlossaryTerm.class));
+
+        // change to a term: its glossary and categories are removed as well
+        cache.invalidate(Collections.singleton("t1"));
+
+        assertNull(cache.get("t1", AtlasGlossaryTerm.class));
+        assertNull(cache.get("g1", AtlasGlossary.class));
+        assertNull(cache.get("c1", AtlasGlossaryCategory.class));
+        assertNull(cache.getByUniqueAttributes(GLOSSARY_TYPE, Collections.singletonMap("qualifiedName", "g1@qn"), AtlasGlossary.class));
+        assertNotNull(cache.get("g2", AtlasGlossary.class));
+
+        assertEquals(cache.getStats().get("entryCount"), 1);
+    }
+
+    @Test
+    public void putAfterInvalidationIsRejected() throws AtlasBaseException {
+        GlossaryCache cache    = getCache(1024 * 1024);
+        long          loadTime = cache.getLoadTime();
+
+        cache.invalidate(Collections.singleton("g1"));
+
+        cache.put(getEntity(GLOSSARY_TYPE, "g1"), getGlossary("g1"), loadTime);
+
+        assertNull(cache.get("g1", AtlasGlossary.class));
+        assertEquals(cache.getStats().get("rejectedCount"), 1L);
+    }
+
+    @Test
+    public void putAfterInvalidationOfRelatedObjectIsRejected() throws AtlasBaseException {
+        GlossaryCache cache    = getCache(1024 * 1024);
+        long          loadTime = cache.getLoadTime();
+
+        // invalidation of an unrelated object doesn't reject the put
+        cache.invalidate(Collections.singleton("g2"));
+
+        cache.put(getEntity(GLOSSARY_TYPE, "g1"), getGlossary("g1"), loadTime);
+
+        assertNotNull(cache.get("g1", AtlasGlossary.class));
+
+        loadTime = cache.getLoadTime();
+
+        cache.invalidate(Collections.singleton("e1"));
+
+        cache.put(getEntity(TERM_TYPE, "t1", new AtlasObjectId("e1", "hive_table")), getTerm("t1"), loadTime);
+
+        assertNull(cache.get("t1", AtlasGlossaryTerm.class));
+        assertEquals(cache.getStats().get("rejectedCount"), 1L);
+    }
+
+    @Test
+    public void changeToUnrelatedEntityIsIgnored() throws AtlasBaseException {
+        GlossaryCache cache = getCache(1024 * 1024);
+
+        cache.put(getEntity(TERM_TYPE, "t1", new AtlasObjectId("e1", "hive_table")), getTerm("t1"), cache.getLoadTime());
+
+        long loadTime = cache.getLoadTime();
+
+        // entity e2 is not related to a cached object: no invalidation, and the cache continues to be used in this thread
+        cache.onEntitiesUpdated(Collections.singletonList(getEntity("hive_table", "e2")), false);
+
+        cache.put(getEntity(GLOSSARY_TYPE, "g1"), getGlossary("g1"), loadTime);
+
+        assertNotNull(cache.get("t1", AtlasGlossaryTerm.class));
+        assertNotNull(cache.get("g1", AtlasGlossary.class));
+        assertEquals(cache.getStats().get("invalidationCount"), 0L);
+        assertEquals(cache.getStats().get("rejectedCount"), 0L);
+    }
+
+    @Test
+    public void putOfObjectReadBeforeInvalidationInSameTransactionIsRejected() throws Throwable {
+        GlossaryCache cache = getCache(1024 * 1024);
+
+        runInTransaction(() -> {
+            // a change committed by a concurrent request, after this transaction started
+            cache.invalidate(Collections.singleton("g1"));
+
+            cache.put(getEntity(GLOSSARY_TYPE, "g1"), getGlossary("g1"), cache.getLoadTime());
+        });
+
+        assertNull(cache.get("g1", AtlasGlossary.class));
+        assertEquals(cache.getStats().get("rejectedCount"), 1L);
+
+        runInTransaction(() -> cache.put(getEntity(GLOSSARY_TYPE, "g1"), getGlossary("g1"), cache.getLoadTime()));
+
+        assertNotNull(cache.get("g1", AtlasGlossary.class));
+    }
+
+    @Test
+    public void deletedNotCached() throws AtlasBaseException {
+        GlossaryCache cache  = getCache(1024 * 1024);
+        AtlasEntity   entity = getEntity(GLOSSARY_TYPE, "g1");
+
+        entity.setStatus(AtlasEntity.Status.DELETED);
+
+        cache.put(entity, getGlossary("g1"), cache.getLoadTime());
+
+        assertNull(cache.get("g1", AtlasGlossary.class));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws AtlasBaseException {
+        GlossaryCache cache = getCache(1024);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(getEntity(GLOSSARY_TYPE, "g" + i), getGlossary("g" + i), cache.getLoadTime());
+
+            assertNotNull(cache.get("g0", AtlasGlossary.class)); // keep g0 most recently used
+        }
+
+        assertTrue((Long) cache.getStats().get("size") <= 1024);
+        assertTrue((Long) cache.getStats().get("evictionCount") > 0);
+        assertNotNull(cache.get("g99", AtlasGlossary.class));
+        assertNull(cache.get("g1", AtlasGlossary.class));
+    }
+
+    @Test
+    public void disabled() throws AtlasBaseException {
+        GlossaryCache cache = new GlossaryCache(new AtlasTypeRegistry(), null, false, 1024 * 1024);
+
+        assertFalse(cache.isCacheable(AtlasGlossary.class));
+
+        cache.put(getEntity(GLOSSARY_TYPE, "g1"), getGlossary("g1"), cache.getLoadTime());
+
+        assertNull(cache.get("g1", AtlasGlossary.class));
+    }
+
+    @GraphTransaction
+    public void transaction() { }
+
+    private void runInTransaction(Runnable body) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+
+        when(invocation.getMethod()).thenReturn(getClass().getMethod("transaction"));
+        when(invocation.proceed()).thenAnswer(invocationOnMock -> {
+            body.run();
+
+            return null;
+        });
+
+        new GraphTransactionInterceptor(mock(AtlasGraph.class)).invoke(invocation);
+    }
+
+    private static GlossaryCache getCache(long maxSize) {
+        return new GlossaryCache(new AtlasTypeRegistry(), null, true, maxSize);
+    }
+
+    private static AtlasEntity getEntity(String typeName, String guid, AtlasObjectId... relatedObjects) {
+        AtlasEntity ret = new AtlasEntity(typeName);
+
+        ret.setGuid(guid);
+        ret.setAttribute("qualifiedName", guid + "@qn");
+        ret.setAttribute("name", guid);
+        ret.setRelationshipAttribute("related", Arrays.asList(relatedObjects));
+
+        return ret;
+    }
+
+    private static AtlasGlossary getGlossary(String guid) {
+        AtlasGlossary ret = new AtlasGlossary();
+
+        ret.setGuid(guid);
+        ret.setQualifiedName(guid + "@qn");
+        ret.setName(guid);
+
+        return ret;
+    }
+
+    private static AtlasGlossaryTerm getTerm(String guid) {
+        AtlasGlossaryTerm ret = new AtlasGlossaryTerm();
+
+        ret.setGuid(guid);
+        ret.setQualifiedName(guid + "@qn");
+        ret.setName(guid);
+
+        return ret;
+    }
+
+    private static AtlasGlossaryCategory getCategory(String guid) {
+        AtlasGlossaryCategory ret = new AtlasGlossaryCategory();
+
+        ret.setGuid(guid);
+        ret.setQualifiedName(guid + "@qn");
+        ret.setName(guid);
+
+        return ret;
+    }
+}
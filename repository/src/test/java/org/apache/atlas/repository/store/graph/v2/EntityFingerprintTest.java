@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.commons.collections.CollectionUtils;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.apache.atlas.TestUtilsV2.NAME;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class EntityFingerprintTest extends AtlasEntityTestBase {
+    @BeforeClass
+    public void setUp() throws Exception {
+        super.setUp();
+
+        createTypesDef(new AtlasTypesDef[] { TestUtilsV2.defineHiveTypes() });
+
+        init();
+    }
+
+    @Test
+    public void testUnchangedEntityIsSkipped() throws Exception {
+        AtlasEntity       dbEntity    = TestUtilsV2.createDBEntity();
+        String            dbGuid      = createOrUpdate(dbEntity).getFirstEntityCreated().getGuid();
+        AtlasVertex       dbVertex    = AtlasGraphUtilsV2.findByGuid(graph, dbGuid);
+        Map<String, Long> fingerprint = EntityFingerprint.getFingerprint(dbVertex);
+
+        assertTrue(fingerprint.containsKey(NAME));
+        assertTrue(fingerprint.containsKey("description"));
+
+        // same values, referred by unique attribute
+        AtlasEntity            dbUpdate = TestUtilsV2.createDBEntity((String) dbEntity.getAttribute(NAME));
+        EntityMutationResponse response = createOrUpdate(dbUpdate);
+
+        assertTrue(CollectionUtils.isEmpty(response.getUpdatedEntities()));
+        assertEquals(EntityFingerprint.getFingerprint(dbVertex), fingerprint);
+
+        dbUpdate.setAttribute("description", "updated description");
+
+        response = createOrUpdate(dbUpdate);
+
+        assertEquals(response.getUpdatedEntities().size(), 1);
+        assertEquals(EntityFingerprint.getFingerprint(dbVertex).get(NAME), fingerprint.get(NAME));
+        assertNotEquals(EntityFingerprint.getFingerprint(dbVertex).get("description"), fingerprint.get("description"));
+    }
+
+    @Test
+    public void testFingerprintRemovedOnEdgeChange() throws Exception {
+        AtlasEntity dbEntity = TestUtilsV2.createDBEntity();
+        String      dbGuid   = createOrUpdate(dbEntity).getFirstEntityCreated().getGuid();
+        AtlasVertex dbVertex = AtlasGraphUtilsV2.findByGuid(graph, dbGuid);
+
+        dbEntity.setGuid(dbGuid);
+
+        assertFalse(EntityFingerprint.getFingerprint(dbVertex).isEmpty());
+
+        AtlasEntity tableEntity = TestUtilsV2.createTableEntity(dbEntity);
+        String      tableGuid   = createOrUpdate(tableEntity).getFirstEntityCreated().getGuid();
+        AtlasVertex tableVertex = AtlasGraphUtilsV2.findByGuid(graph, tableGuid);
+
+        // edge from the table to the database removes fingerprint of both
+        assertTrue(EntityFingerprint.getFingerprint(dbVertex).isEmpty());
+
+        Map<String, Long> tableFingerprint = EntityFingerprint.getFingerprint(tableVertex);
+
+        assertTrue(tableFingerprint.containsKey("database"));
+        assertTrue(tableFingerprint.containsKey("partitions"));
+        assertTrue(tableFingerprint.containsKey("parametersMap"));
+
+        tableEntity.setGuid(tableGuid);
+
+        assertTrue(CollectionUtils.isEmpty(createOrUpdate(tableEntity).getUpdatedEntities()));
+
+        // unchanged database is found by comparing with stored values, and its fingerprint is restored
+        assertTrue(CollectionUtils.isEmpty(createOrUpdate(dbEntity).getUpdatedEntities()));
+        assertFalse(EntityFingerprint.getFingerprint(dbVertex).isEmpty());
+
+        tableEntity.setAttribute("parametersMap", Collections.singletonMap("key1", "value2"));
+
+        assertEquals(createOrUpdate(tableEntity).getUpdatedEntities().size(), 1);
+        assertNotEquals(EntityFingerprint.getFingerprint(tableVertex).get("parametersMap"), tableFingerprint.get("parametersMap"));
+    }
+
+    @Test
+    public void testHashIgnoresMapOrder() throws Exception {
+        AtlasEntity         dbEntity = TestUtilsV2.createDBEntity();
+        AtlasEntity         table1   = TestUtilsV2.createTableEntity(dbEntity, "table1");
+        AtlasEntity         table2   = TestUtilsV2.createTableEntity(dbEntity, "table1");
+        Map<String, String> params1  = new HashMap<>();
+        Map<String, String> params2  = new LinkedHashMap<>();
+
+        dbEntity.setGuid("db-guid");
+
+        for (int i = 0; i < 10; i++) {
+            params1.put("key" + i, "value" + i);
+            params2.put("key" + (9 - i), "value" + (9 - i));
+        }
+
+        table1.setAttribute("parametersMap", params1);
+        table2.setAttribute("parametersMap", params2);
+        table2.setAttribute("created", table1.getAttribute("created"));
+
+        EntityFingerprint fingerprint = new EntityFingerprint(typeRegistry);
+
+        assertEquals(fingerprint.compute(table1, typeRegistry.getEntityTypeByName(TestUtilsV2.TABLE_TYPE), true),
+                     fingerprint.compute(table2, typeRegistry.getEntityTypeByName(TestUtilsV2.TABLE_TYPE), true));
+    }
+
+    private EntityMutationResponse createOrUpdate(AtlasEntity entity) throws AtlasBaseException {
+        RequestContext.clear();
+        RequestContext.get().setUser(TestUtilsV2.TEST_USER, null);
+
+        return entityStore.createOrUpdate(new AtlasEntityStream(new AtlasEntityWithExtInfo(entity)), false);
+    }
+}
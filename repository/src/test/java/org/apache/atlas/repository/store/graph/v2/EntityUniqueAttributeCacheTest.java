@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ActiveStateChangeHandler.HandlerOrder;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.apache.atlas.TestUtilsV2.DATABASE_TYPE;
+import static org.apache.atlas.TestUtilsV2.NAME;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class EntityUniqueAttributeCacheTest extends AtlasEntityTestBase {
+    private AtlasEntityType dbType;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        super.setUp();
+
+        createTypesDef(new AtlasTypesDef[] { TestUtilsV2.defineHiveTypes() });
+
+        init();
+
+        dbType = typeRegistry.getEntityTypeByName(DATABASE_TYPE);
+    }
+
+    @Test
+    public void hitAndMiss() throws AtlasBaseException {
+        EntityUniqueAttributeCache cache  = getCache();
+        AtlasEntity                db     = createDb();
+        AtlasVertex                vertex = cache.findByUniqueAttributes(graph, dbType, getAttrValues(db));
+
+        assertNotNull(vertex);
+        assertEquals(AtlasGraphUtilsV2.getIdFromVertex(vertex), db.getGuid());
+        assertStats(cache, 0, 1, 0);
+
+        assertEquals(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)).getId(), vertex.getId());
+        assertStats(cache, 1, 1, 0);
+
+        // entities not found are not cached
+        assertNull(cache.findByUniqueAttributes(graph, dbType, Collections.singletonMap(NAME, "non_existing_db")));
+        assertNull(cache.findByUniqueAttributes(graph, dbType, Collections.singletonMap(NAME, "non_existing_db")));
+        assertStats(cache, 1, 3, 0);
+        assertEquals(cache.getStats().get("size"), 1);
+    }
+
+    @Test
+    public void hitIsValidatedAgainstVertex() throws AtlasBaseException {
+        EntityUniqueAttributeCache cache      = getCache();
+        AtlasEntity                db         = createDb();
+        Map<String, Object>        attrValues = getAttrValues(db);
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, attrValues));
+
+        // unique attribute updated without notifying this cache: the cached entry no longer matches the vertex
+        entityStore.updateEntityAttributeByGuid(db.getGuid(), NAME, db.getAttribute(NAME) + "_renamed");
+
+        assertNull(cache.findByUniqueAttributes(graph, dbType, attrValues));
+        assertStats(cache, 0, 2, 1);
+        assertEquals(cache.getStats().get("size"), 0);
+
+        // deleted entity, without notifying this cache
+        AtlasEntity deletedDb = createDb();
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(deletedDb)));
+
+        entityStore.deleteById(deletedDb.getGuid());
+
+        cache.findByUniqueAttributes(graph, dbType, getAttrValues(deletedDb));
+
+        // the entry is dropped, and the deleted entity is not cached again
+        assertEquals(cache.getStats().get("staleCount"), 2L);
+        assertEquals(cache.getStats().get("size"), 0);
+    }
+
+    @Test
+    public void invalidateOnUpdate() throws AtlasBaseException {
+        EntityUniqueAttributeCache cache = getCache();
+        AtlasEntity                db    = createDb();
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)));
+
+        // update of other attributes retains the entry
+        AtlasEntity update = new AtlasEntity(DATABASE_TYPE);
+
+        update.setGuid(db.getGuid());
+        update.setAttribute("description", "updated");
+
+        cache.onEntitiesUpdated(Collections.singletonList(update), false);
+
+        update.setAttribute(NAME, db.getAttribute(NAME));
+
+        cache.onEntitiesUpdated(Collections.singletonList(update), false);
+
+        assertEquals(cache.getStats().get("invalidationCount"), 0L);
+        assertEquals(cache.getStats().get("size"), 1);
+
+        // update of unique attribute removes the entry
+        update.setAttribute(NAME, db.getAttribute(NAME) + "_renamed");
+
+        cache.onEntitiesUpdated(Collections.singletonList(update), false);
+
+        assertEquals(cache.getStats().get("invalidationCount"), 1L);
+        assertEquals(cache.getStats().get("size"), 0);
+    }
+
+    @Test
+    public void invalidateOnDeleteAndPurge() throws AtlasBaseException {
+        EntityUniqueAttributeCache cache = getCache();
+        AtlasEntity                db1   = createDb();
+        AtlasEntity                db2   = createDb();
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db1)));
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db2)));
+
+        cache.onEntitiesDeleted(Collections.singletonList(db1), false);
+
+        assertEquals(cache.getStats().get("invalidationCount"), 1L);
+        assertEquals(cache.getStats().get("size"), 1);
+
+        cache.onEntitiesPurged(Collections.singletonList(db2));
+
+        assertEquals(cache.getStats().get("invalidationCount"), 2L);
+        assertEquals(cache.getStats().get("size"), 0);
+
+        // next lookup goes to the graph
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db1)));
+        assertStats(cache, 0, 3, 0);
+    }
+
+    @Test
+    public void clearOnActiveStateChange() throws AtlasBaseException {
+        EntityUniqueAttributeCache cache = getCache();
+        AtlasEntity                db    = createDb();
+
+        assertEquals(cache.getHandlerOrder(), HandlerOrder.ENTITY_UNIQUE_ATTRIBUTE_CACHE.getOrder());
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)));
+
+        cache.instanceIsPassive();
+
+        assertEquals(cache.getStats().get("size"), 0);
+        assertEquals(cache.getStats().get("clearCount"), 1L);
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)));
+
+        cache.instanceIsActive();
+
+        assertEquals(cache.getStats().get("size"), 0);
+        assertEquals(cache.getStats().get("clearCount"), 2L);
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)));
+        assertStats(cache, 0, 3, 0);
+    }
+
+    @Test
+    public void disabled() throws AtlasBaseException {
+        EntityUniqueAttributeCache cache = new EntityUniqueAttributeCache(null, false, 100);
+        AtlasEntity                db    = createDb();
+
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)));
+        assertNotNull(cache.findByUniqueAttributes(graph, dbType, getAttrValues(db)));
+        assertStats(cache, 0, 0, 0);
+        assertEquals(cache.getStats().get("size"), 0);
+    }
+
+    private AtlasEntity createDb() throws AtlasBaseException {
+        AtlasEntity            db       = TestUtilsV2.createDBEntity();
+        EntityMutationResponse response = entityStore.createOrUpdate(new AtlasEntityStream(new AtlasEntityWithExtInfo(db)), false);
+
+        db.setGuid(response.getFirstCreatedEntityByTypeName(DATABASE_TYPE).getGuid());
+
+        return db;
+    }
+
+    private static EntityUniqueAttributeCache getCache() {
+        return new EntityUniqueAttributeCache(null, true, 100);
+    }
+
+    private static Map<String, Object> getAttrValues(AtlasEntity entity) {
+        return Collections.singletonMap(NAME, entity.getAttribute(NAME));
+    }
+
+    private static void assertStats(EntityUniqueAttributeCache cache, long hitCount, long missCount, long staleCount) {
+        Map<String, Object> stats = cache.getStats();
+
+        assertEquals(stats.get("hitCount"), hitCount);
+        assertEquals(stats.get("missCount"), missCount);
+        assertEquals(stats.get("staleCount"), staleCount);
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.commons.lang.RandomStringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.atlas.TestUtilsV2.COLUMN_TYPE;
+import static org.apache.atlas.TestUtilsV2.NAME;
+import static org.apache.atlas.type.AtlasTypeUtil.getAtlasObjectId;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Compares lookup of columns of a 500-column table by unique attributes, one query per column vs bulk lookup.
+ */
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class UniqueAttributesBulkLookupTest extends AtlasEntityTestBase {
+    private static final Logger LOG = LoggerFactory.getLogger(UniqueAttributesBulkLookupTest.class);
+
+    private static final int COLUMN_COUNT = 500;
+    private static final int RUN_COUNT    = 5;
+
+    private final List<Map<String, Object>> columnAttrValues = new ArrayList<>();
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        super.setUp();
+
+        createTypesDef(new AtlasTypesDef[] { TestUtilsV2.defineHiveTypes() });
+
+        init();
+
+        AtlasEntity              dbEntity    = TestUtilsV2.createDBEntity();
+        AtlasEntity              tableEntity = TestUtilsV2.createTableEntity(dbEntity);
+        AtlasEntitiesWithExtInfo entities    = new AtlasEntitiesWithExtInfo();
+        List<AtlasObjectId>      columns     = new ArrayList<>();
+        String                   prefix      = "bulk_" + RandomStringUtils.randomAlphanumeric(8) + "_col";
+
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            AtlasEntity column = TestUtilsV2.createColumnEntity(tableEntity, prefix + i);
+
+            entities.addEntity(column);
+            columns.add(getAtlasObjectId(column));
+            columnAttrValues.add(Collections.singletonMap(NAME, prefix + i));
+        }
+
+        tableEntity.setAttribute("columns", columns);
+
+        entities.addEntity(dbEntity);
+        entities.addEntity(tableEntity);
+
+        entityStore.createOrUpdate(new AtlasEntityStream(entities), false);
+    }
+
+    @Test
+    public void testBulkLookup() {
+        AtlasEntityType           columnType     = typeRegistry.getEntityTypeByName(COLUMN_TYPE);
+        List<Map<String, Object>> attrValuesList = new ArrayList<>(columnAttrValues);
+
+        attrValuesList.add(Collections.singletonMap(NAME, "non_existing_column"));
+
+        List<AtlasVertex> vertices = AtlasGraphUtilsV2.findByUniqueAttributes(graph, columnType, attrValuesList);
+
+        assertEquals(vertices.size(), attrValuesList.size());
+        assertNull(vertices.get(COLUMN_COUNT));
+
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            AtlasVertex vertex = vertices.get(i);
+
+            assertNotNull(vertex);
+            assertEquals(vertex.getId(), AtlasGraphUtilsV2.findByUniqueAttributes(graph, columnType, attrValuesList.get(i)).getId());
+        }
+    }
+
+    @Test
+    public void testBulkLookupWithCache() {
+        AtlasEntityType            columnType = typeRegistry.getEntityTypeByName(COLUMN_TYPE);
+        EntityUniqueAttributeCache cache      = new EntityUniqueAttributeCache(null, true, COLUMN_COUNT * 2);
+
+        List<AtlasVertex> vertices1 = cache.findByUniqueAttributes(graph, columnType, columnAttrValues);
+        List<AtlasVertex> vertices2 = cache.findByUniqueAttributes(graph, columnType, columnAttrValues);
+
+        assertEquals(cache.getStats().get("missCount"), (long) COLUMN_COUNT);
+        assertEquals(cache.getStats().get("hitCount"), (long) COLUMN_COUNT);
+
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            assertEquals(vertices2.get(i).getId(), vertices1.get(i).getId());
+        }
+    }
+
+    @Test
+    public void benchmarkBulkLookup() {
+        AtlasEntityType columnType  = typeRegistry.getEntityTypeByName(COLUMN_TYPE);
+        long            minSingleMs = Long.MAX_VALUE;
+        long            minBulkMs   = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUN_COUNT; run++) {
+            long start = System.nanoTime();
+
+            for (Map<String, Object> attrValues : columnAttrValues) {
+                assertNotNull(AtlasGraphUtilsV2.findByUniqueAttributes(graph, columnType, attrValues));
+            }
+
+            minSingleMs = Math.min(minSingleMs, (System.nanoTime() - start) / 1000000);
+            start       = System.nanoTime();
+
+            List<AtlasVertex> vertices = AtlasGraphUtilsV2.findByUniqueAttributes(graph, columnType, columnAttrValues);
+
+            minBulkMs = Math.min(minBulkMs, (System.nanoTime() - start) / 1000000);
+
+            assertEquals(vertices.size(), COLUMN_COUNT);
+        }
+
+        LOG.info("lookup of {} columns by unique attribute: one query per column={}ms, bulk={}ms, speedup={}x",
+                 COLUMN_COUNT, minSingleMs, minBulkMs, String.format("%.1f", (double) minSingleMs / Math.max(1, minBulkMs)));
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.atlas.TestModules;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.metrics.AtlasMetrics;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.impexp.ImportService;
 import org.apache.atlas.repository.impexp.ZipFileResourceTestUtils;
 import org.apache.atlas.runner.LocalSolrRunner;
@@ -51,10 +52,12 @@ import static org.apache.atlas.utils.TestLoadModelUtils.loadModelFromJson;
 import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.runImportWithNoParameters;
 import static org.apache.atlas.services.MetricsService.ENTITY;
 import static org.apache.atlas.services.MetricsService.GENERAL;
+import static org.apache.atlas.services.MetricsService.METRIC_COLLECTION_TIME;
 import static org.apache.atlas.services.MetricsService.METRIC_ENTITIES_PER_TAG;
 import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_ACTIVE;
 import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_COUNT;
 import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_DELETED;
+import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_SHELL;
 import static org.apache.atlas.services.MetricsService.METRIC_TAG_COUNT;
 import static org.apache.atlas.services.MetricsService.METRIC_TYPE_COUNT;
 import static org.apache.atlas.services.MetricsService.METRIC_TYPE_UNUSED_COUNT;
@@ -81,6 +84,9 @@ public class MetricsServiceTest {
     @Inject
     private AtlasMetricsUtil metricsUtil;
 
+    @Inject
+    private AtlasGraph graph;
+
     TestClock clock = new TestClock(Clock.systemUTC(), ZoneOffset.UTC);
 
     long msgOffset = 0;
@@ -173,6 +179,42 @@ public class MetricsServiceTest {
         assertEquals(deletedEntityMetricsActual, deletedEntityMetricsExpected);
     }
 
+    @Test
+    public void testFacetedCountsMatchTypeCounts() {
+        AtlasMetrics facetMetrics = new MetricsService(graph, typeRegistry, metricsUtil, true, 0).getMetrics();
+        AtlasMetrics typeMetrics  = new MetricsService(graph, typeRegistry, metricsUtil, false, 0).getMetrics();
+
+        assertEquals(facetMetrics.getNumericMetric(GENERAL, METRIC_ENTITY_COUNT), typeMetrics.getNumericMetric(GENERAL, METRIC_ENTITY_COUNT));
+        assertEquals(facetMetrics.getNumericMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT), typeMetrics.getNumericMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT));
+        assertEquals(facetMetrics.getMetric(ENTITY, METRIC_ENTITY_ACTIVE), typeMetrics.getMetric(ENTITY, METRIC_ENTITY_ACTIVE));
+        assertEquals(facetMetrics.getMetric(ENTITY, METRIC_ENTITY_DELETED), typeMetrics.getMetric(ENTITY, METRIC_ENTITY_DELETED));
+        assertEquals(facetMetrics.getMetric(ENTITY, METRIC_ENTITY_SHELL), typeMetrics.getMetric(ENTITY, METRIC_ENTITY_SHELL));
+        assertEquals(facetMetrics.getMetric(TAG, METRIC_ENTITIES_PER_TAG), typeMetrics.getMetric(TAG, METRIC_ENTITIES_PER_TAG));
+    }
+
+    @Test
+    public void testCachedCounts() throws InterruptedException {
+        MetricsService cachingMetricsService = new MetricsService(graph, typeRegistry, metricsUtil, true, 60 * 1000);
+
+        Number collectionTime1 = cachingMetricsService.getMetrics().getNumericMetric(GENERAL, METRIC_COLLECTION_TIME);
+
+        Thread.sleep(10);
+
+        Number collectionTime2 = cachingMetricsService.getMetrics().getNumericMetric(GENERAL, METRIC_COLLECTION_TIME);
+
+        assertEquals(collectionTime2, collectionTime1);
+
+        MetricsService nonCachingMetricsService = new MetricsService(graph, typeRegistry, metricsUtil, true, 0);
+
+        collectionTime1 = nonCachingMetricsService.getMetrics().getNumericMetric(GENERAL, METRIC_COLLECTION_TIME);
+
+        Thread.sleep(10);
+
+        collectionTime2 = nonCachingMetricsService.getMetrics().getNumericMetric(GENERAL, METRIC_COLLECTION_TIME);
+
+        assertTrue(collectionTime2.longValue() > collectionTime1.longValue());
+    }
+
     @Test
     public void testNotificationMetrics() {
         Instant now           = Clock.systemUTC().instant();
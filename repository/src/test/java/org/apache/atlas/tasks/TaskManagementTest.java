@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.commons.configuration.Configuration;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.atlas.AtlasConfiguration.TASKS_COMPLETED_RETENTION_MS;
+import static org.apache.atlas.AtlasConfiguration.TASKS_MAX_ATTEMPTS;
+import static org.apache.atlas.AtlasConfiguration.TASKS_RETRY_INITIAL_DELAY_MS;
+import static org.apache.atlas.AtlasConfiguration.TASKS_RETRY_MAX_DELAY_MS;
+import static org.testng.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertTrue;
+
+public class TaskManagementTest {
+    private static final String TASK_TYPE = "TEST_TASK";
+
+    @Mock
+    private Configuration configuration;
+
+    @Mock
+    private TaskRegistry registry;
+
+    private TestTaskFactory factory;
+    private TaskManagement  taskManagement;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        factory        = new TestTaskFactory();
+        taskManagement = new TaskManagement(configuration, registry, new HashSet<>(Collections.singletonList(factory)));
+
+        taskManagement.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        taskManagement.stop();
+    }
+
+    @Test
+    public void testTasksWithSameKeyAreExecutedInOrder() throws Exception {
+        AtlasTask task1 = createTask("key1", 200, 0);
+        AtlasTask task2 = createTask("key1", 0, 0);
+
+        taskManagement.submit(task1);
+        taskManagement.submit(task2).get(10, TimeUnit.SECONDS);
+
+        assertEquals(factory.executed, Arrays.asList(task1.getGuid(), task2.getGuid()));
+        assertEquals(task1.getStatus(), AtlasTask.Status.COMPLETE);
+        assertEquals(task2.getStatus(), AtlasTask.Status.COMPLETE);
+    }
+
+    @Test
+    public void testTasksWithDifferentKeysAreExecutedInParallel() throws Exception {
+        AtlasTask task1 = createTask("key1", 500, 0);
+        AtlasTask task2 = createTask("key2", 0, 0);
+
+        taskManagement.submit(task1);
+        taskManagement.submit(task2).get(10, TimeUnit.SECONDS);
+
+        assertEquals(factory.executed, Collections.singletonList(task2.getGuid()));
+    }
+
+    @Test
+    public void testFailedTaskIsRetried() throws Exception {
+        AtlasTask task = createTask("key1", 0, Integer.MAX_VALUE);
+
+        taskManagement.submit(task);
+
+        for (int i = 0; i < 100 && task.getStatus() != AtlasTask.Status.FAILED; i++) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(task.getStatus(), AtlasTask.Status.FAILED);
+        assertEquals(task.getAttemptCount(), TASKS_MAX_ATTEMPTS.getInt());
+        assertEquals(task.getErrorMessage(), "failed " + task.getGuid());
+    }
+
+    @Test
+    public void testTaskSucceedsOnRetry() throws Exception {
+        AtlasTask task      = createTask("key1", 0, 1);
+        long      startTime = System.currentTimeMillis();
+
+        taskManagement.submit(task).get(10, TimeUnit.SECONDS);
+
+        assertEquals(task.getStatus(), AtlasTask.Status.COMPLETE);
+        assertEquals(task.getAttemptCount(), 2);
+        assertEquals(factory.executed, Collections.singletonList(task.getGuid()));
+        assertTrue(System.currentTimeMillis() - startTime >= TASKS_RETRY_INITIAL_DELAY_MS.getLong(), "task retried without delay");
+    }
+
+    @Test
+    public void testRetryPreservesOrderOfTasksWithSameKey() throws Exception {
+        AtlasTask task1 = createTask("key1", 0, 1);
+        AtlasTask task2 = createTask("key1", 0, 0);
+
+        taskManagement.submit(task1);
+        taskManagement.submit(task2).get(10, TimeUnit.SECONDS);
+
+        assertEquals(factory.executed, Arrays.asList(task1.getGuid(), task2.getGuid()));
+        assertEquals(task1.getAttemptCount(), 2);
+        assertEquals(task2.getAttemptCount(), 1);
+    }
+
+    @Test
+    public void testRetryDelayIsExponential() {
+        long initialDelay = TASKS_RETRY_INITIAL_DELAY_MS.getLong();
+        long maxDelay     = TASKS_RETRY_MAX_DELAY_MS.getLong();
+
+        assertEquals(taskManagement.getRetryDelayMs(1), initialDelay);
+        assertEquals(taskManagement.getRetryDelayMs(2), Math.min(initialDelay * 2, maxDelay));
+        assertEquals(taskManagement.getRetryDelayMs(3), Math.min(initialDelay * 4, maxDelay));
+        assertEquals(taskManagement.getRetryDelayMs(100), maxDelay);
+    }
+
+    @Test
+    public void testPurgeDeletesTasksEndedBeforeRetention() {
+        ArgumentCaptor<Long> endTime   = ArgumentCaptor.forClass(Long.class);
+        long                 startTime = System.currentTimeMillis();
+
+        taskManagement.purgeCompletedTasks();
+
+        verify(registry).deleteCompletedBefore(endTime.capture(), anyInt());
+
+        assertTrue(endTime.getValue() >= startTime - TASKS_COMPLETED_RETENTION_MS.getLong());
+        assertTrue(endTime.getValue() <= System.currentTimeMillis() - TASKS_COMPLETED_RETENTION_MS.getLong());
+    }
+
+    private static AtlasTask createTask(String key, long durationMs, int failures) {
+        Map<String, Object> params = new HashMap<>();
+
+        params.put("key", key);
+        params.put("durationMs", durationMs);
+        params.put("failures", failures);
+
+        return new AtlasTask(UUID.randomUUID().toString(), TASK_TYPE, "test", params);
+    }
+
+    private static class TestTaskFactory implements TaskFactory {
+        final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public List<String> getSupportedTypes() {
+            return Collections.singletonList(TASK_TYPE);
+        }
+
+        @Override
+        public AbstractTask create(AtlasTask task) {
+            return new AbstractTask(task) {
+                @Override
+                public String getSerializationKey() {
+                    return (String) getParameters().get("key");
+                }
+
+                @Override
+                public void run() throws AtlasBaseException {
+                    try {
+                        Thread.sleep((Long) getParameters().get("durationMs"));
+                    } catch (InterruptedException excp) {
+                        return;
+                    }
+
+                    if (getTask().getAttemptCount() <= (Integer) getParameters().get("failures")) {
+                        throw new AtlasBaseException("failed " + getTask().getGuid());
+                    }
+
+                    executed.add(getTask().getGuid());
+                }
+            };
+        }
+    }
+}
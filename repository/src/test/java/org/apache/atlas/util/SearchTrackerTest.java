@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.util;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.discovery.SearchCursor;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.atlas.AtlasConfiguration.SEARCH_CURSOR_MAX_ENTRIES_PER_USER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class SearchTrackerTest {
+    @AfterMethod
+    public void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    public void cursorIsBoundToUser() {
+        SearchTracker tracker = new SearchTracker();
+
+        setUser("user1");
+
+        SearchCursor cursor   = new SearchCursor(new SearchParameters());
+        String       cursorId = tracker.addCursor(cursor);
+
+        setUser("user2");
+
+        assertNull(tracker.getCursor(cursorId));
+        assertNull(tracker.removeCursor(cursorId));
+
+        setUser("user1");
+
+        assertSame(tracker.getCursor(cursorId), cursor);
+        assertSame(tracker.removeCursor(cursorId), cursor);
+        assertNull(tracker.getCursor(cursorId));
+    }
+
+    @Test
+    public void cursorsPerUserAreCapped() {
+        SearchTracker tracker    = new SearchTracker();
+        int           maxPerUser = SEARCH_CURSOR_MAX_ENTRIES_PER_USER.getInt();
+
+        setUser("user2");
+
+        String otherUserCursorId = tracker.addCursor(new SearchCursor(new SearchParameters()));
+
+        setUser("user1");
+
+        List<String> cursorIds = new ArrayList<>();
+
+        for (int i = 0; i <= maxPerUser; i++) {
+            cursorIds.add(tracker.addCursor(new SearchCursor(new SearchParameters())));
+        }
+
+        // least recently used cursor of user1 is dropped; cursor of user2 is retained
+        assertNull(tracker.getCursor(cursorIds.get(0)));
+        assertNotNull(tracker.getCursor(cursorIds.get(1)));
+        assertNotNull(tracker.getCursor(cursorIds.get(maxPerUser)));
+        assertEquals(tracker.getCursorCount(), maxPerUser + 1);
+
+        setUser("user2");
+
+        assertNotNull(tracker.getCursor(otherUserCursorId));
+    }
+
+    private static void setUser(String user) {
+        RequestContext.clear();
+        RequestContext.get().setUser(user, null);
+    }
+}
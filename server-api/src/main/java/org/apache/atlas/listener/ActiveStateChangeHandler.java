@@ -32,7 +32,11 @@ public interface ActiveStateChangeHandler {
         TYPEDEF_STORE_INITIALIZER(2),
         ATLAS_PATCH_SERVICE(3),
         DEFAULT_METADATA_SERVICE(4),
-        NOTIFICATION_HOOK_CONSUMER(5);
+        NOTIFICATION_HOOK_CONSUMER(5),
+        TASK_MANAGEMENT(6),
+        ENTITY_UNIQUE_ATTRIBUTE_CACHE(7),
+        GLOSSARY_CACHE(8),
+        LINEAGE_ADJACENCY_CACHE(9);
 
 
         private final int order;
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.tools;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.repository.audit.AbstractStorageBasedAuditRepository;
+import org.apache.atlas.repository.audit.EntityAuditDeltaCodec;
+import org.apache.atlas.repository.audit.EntityAuditRepository;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rewrites entity audit events stored before delta encoding was enabled (atlas.audit.delta.encoding.enabled) in the
+ * delta-encoded, compressed format. Works with the configured audit repository - HBase or Cassandra.
+ */
+public class AuditDeltaMigration {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditDeltaMigration.class);
+
+    private static final int EXIT_CODE_SUCCESS  = 0;
+    private static final int EXIT_CODE_FAILED   = 1;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    public static void main(String[] args) {
+        int exitCode = EXIT_CODE_FAILED;
+
+        LOG.info("Started audit delta encoding migration");
+
+        try {
+            CommandLine cmd       = getCommandLine(args);
+            String      startKey  = cmd.getOptionValue("s");
+            int         batchSize = Integer.parseInt(cmd.getOptionValue("b", String.valueOf(DEFAULT_BATCH_SIZE)));
+
+            process(startKey, batchSize);
+
+            LOG.info("Completed audit delta encoding migration!");
+
+            exitCode = EXIT_CODE_SUCCESS;
+        } catch (Exception e) {
+            LOG.error("Failed!", e);
+
+            System.out.println("Failed: " + e.getMessage());
+        }
+
+        System.exit(exitCode);
+    }
+
+    private static void process(String startKey, int batchSize) throws Exception {
+        Configuration                          atlasConf        = ApplicationProperties.get();
+        int                                    snapshotInterval = atlasConf.getInt(EntityAuditDeltaCodec.CONFIG_SNAPSHOT_INTERVAL, EntityAuditDeltaCodec.DEFAULT_SNAPSHOT_INTERVAL);
+        Class<? extends EntityAuditRepository> repositoryClass  = AtlasRepositoryConfiguration.getAuditRepositoryImpl();
+
+        if (!AbstractStorageBasedAuditRepository.class.isAssignableFrom(repositoryClass)) {
+            throw new IllegalStateException("audit repository " + repositoryClass.getName() + " does not support delta encoding");
+        }
+
+        if (!atlasConf.getBoolean(EntityAuditDeltaCodec.CONFIG_ENABLED, false)) {
+            LOG.warn("{} is not enabled; events written by Atlas server will continue to be stored without encoding", EntityAuditDeltaCodec.CONFIG_ENABLED);
+        }
+
+        AbstractStorageBasedAuditRepository repository = (AbstractStorageBasedAuditRepository) repositoryClass.newInstance();
+
+        repository.start();
+
+        try {
+            System.out.println("Encoding audit events in " + repositoryClass.getSimpleName() + ", with a snapshot every " + snapshotInterval + " versions");
+
+            long startTime = System.currentTimeMillis();
+            long count     = repository.encodeStoredEvents(startKey, batchSize, snapshotInterval, lastKey -> {
+                // logged so that an interrupted migration can be resumed with -s
+                LOG.info("Encoded audit events up to {}", lastKey);
+            });
+
+            System.out.println("Encoded " + count + " audit events. Time taken: " + (System.currentTimeMillis() - startTime) + " ms");
+        } finally {
+            repository.stop();
+        }
+    }
+
+    private static CommandLine getCommandLine(String[] args) throws ParseException {
+        Options options = new Options();
+
+        options.addOption("s", "startKey", true, "key of the audit event (entity-id, for Cassandra) to start from, to resume an interrupted migration.");
+        options.addOption("b", "batchSize", true, "number of audit events to write in a batch.");
+
+        return new DefaultParser().parse(options, args);
+    }
+}
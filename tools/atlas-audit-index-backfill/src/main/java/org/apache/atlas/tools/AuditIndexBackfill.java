@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.tools;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.repository.audit.HBaseAuditIndex;
+import org.apache.atlas.repository.audit.HBaseBasedAuditRepository;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes the audit events that were written to the HBase audit table before its index was enabled. Atlas server
+ * should be running with the index enabled, so that events written while the tool runs are indexed by the server.
+ */
+public class AuditIndexBackfill {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditIndexBackfill.class);
+
+    private static final int EXIT_CODE_SUCCESS  = 0;
+    private static final int EXIT_CODE_FAILED   = 1;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    public static void main(String[] args) {
+        int exitCode = EXIT_CODE_FAILED;
+
+        LOG.info("Started audit index backfill");
+
+        try {
+            CommandLine cmd       = getCommandLine(args);
+            String      startRow  = cmd.getOptionValue("s");
+            int         batchSize = Integer.parseInt(cmd.getOptionValue("b", String.valueOf(DEFAULT_BATCH_SIZE)));
+
+            process(StringUtils.isNotEmpty(startRow) ? Bytes.toBytes(startRow) : null, batchSize);
+
+            LOG.info("Completed audit index backfill!");
+
+            exitCode = EXIT_CODE_SUCCESS;
+        } catch (Exception e) {
+            LOG.error("Failed!", e);
+
+            System.out.println("Failed: " + e.getMessage());
+        }
+
+        System.exit(exitCode);
+    }
+
+    private static void process(byte[] startRow, int batchSize) throws Exception {
+        Configuration atlasConf      = ApplicationProperties.get();
+        TableName     auditTableName = TableName.valueOf(atlasConf.getString(HBaseBasedAuditRepository.CONFIG_TABLE_NAME, HBaseBasedAuditRepository.DEFAULT_TABLE_NAME));
+        TableName     indexTableName = TableName.valueOf(atlasConf.getString(HBaseAuditIndex.CONFIG_INDEX_TABLE_NAME, HBaseAuditIndex.DEFAULT_INDEX_TABLE_NAME));
+
+        try (Connection connection = ConnectionFactory.createConnection(HBaseBasedAuditRepository.getHBaseConfiguration(atlasConf))) {
+            try (Admin admin = connection.getAdmin()) {
+                if (!admin.tableExists(auditTableName)) {
+                    throw new IllegalStateException("audit table " + auditTableName.getNameAsString() + " does not exist");
+                }
+            }
+
+            HBaseAuditIndex auditIndex = new HBaseAuditIndex(connection, indexTableName, atlasConf.getInt(HBaseAuditIndex.CONFIG_INDEX_BUCKETS, HBaseAuditIndex.DEFAULT_INDEX_BUCKETS));
+
+            auditIndex.createTableIfNotExists(false);
+
+            System.out.println("Indexing audit events in " + auditTableName.getNameAsString() + " into " + indexTableName.getNameAsString());
+
+            long startTime = System.currentTimeMillis();
+            long count;
+
+            try (Table auditTable = connection.getTable(auditTableName)) {
+                count = auditIndex.backfill(auditTable, startRow, batchSize, lastRow -> {
+                    // logged so that an interrupted backfill can be resumed with -s
+                    LOG.info("Indexed audit events up to {}", Bytes.toString(lastRow));
+                });
+            }
+
+            auditIndex.setIndexedSince(0);
+
+            System.out.println("Indexed " + count + " audit events. Time taken: " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+    }
+
+    private static CommandLine getCommandLine(String[] args) throws ParseException {
+        Options options = new Options();
+
+        options.addOption("s", "startRow", true, "key of the audit event to start from, to resume an interrupted backfill.");
+        options.addOption("b", "batchSize", true, "number of index rows to write in a batch.");
+
+        return new DefaultParser().parse(options, args);
+    }
+}
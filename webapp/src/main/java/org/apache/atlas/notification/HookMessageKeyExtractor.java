@@ -0,0 +1,341 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.apache.atlas.v1.model.instance.Id;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the set of entity keys (qualifiedName) that a hook notification creates, updates, deletes or references.
+ * Messages with overlapping keys must be processed in the order they were received; messages with disjoint keys can be
+ * processed in parallel.
+ *
+ * An empty set is returned when keys can't be determined for the message; such messages must be processed only after
+ * all earlier messages are processed, and before any later message is processed. This includes messages that identify
+ * an entity only by its guid: a guid and a qualifiedName of the same entity can't be matched without a lookup, hence
+ * such messages are processed serially to retain their order with messages that use the qualifiedName.
+ */
+public final class HookMessageKeyExtractor {
+    private static final String ATTRIBUTE_QUALIFIED_NAME = "qualifiedName";
+
+    private HookMessageKeyExtractor() { }
+
+    public static Set<String> getKeys(HookNotification message) {
+        if (message == null || message.getType() == null) {
+            return Collections.emptySet();
+        }
+
+        Set<String> ret = new HashSet<>();
+
+        switch (message.getType()) {
+            case ENTITY_CREATE:
+            case ENTITY_FULL_UPDATE: {
+                // EntityUpdateRequest extends EntityCreateRequest
+                EntityCreateRequest request = (EntityCreateRequest) message;
+
+                if (!addReferenceableKeys(request.getEntities(), ret)) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            case ENTITY_PARTIAL_UPDATE: {
+                EntityPartialUpdateRequest request = (EntityPartialUpdateRequest) message;
+
+                boolean isKeyed = addUniqueAttributeKey(request.getAttribute(), request.getAttributeValue(), ret);
+
+                if (isKeyed && request.getEntity() != null) {
+                    // the entity is identified by the unique attribute; a qualifiedName being updated is keyed as well
+                    addReferenceableKey(request.getEntity(), ret);
+
+                    isKeyed = addReferenceableValueKeys(request.getEntity(), ret);
+                }
+
+                if (!isKeyed) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            case ENTITY_DELETE: {
+                EntityDeleteRequest request = (EntityDeleteRequest) message;
+
+                if (!addUniqueAttributeKey(request.getAttribute(), request.getAttributeValue(), ret)) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            case ENTITY_CREATE_V2: {
+                if (!addEntitiesKeys(((EntityCreateRequestV2) message).getEntities(), ret)) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            case ENTITY_FULL_UPDATE_V2: {
+                if (!addEntitiesKeys(((EntityUpdateRequestV2) message).getEntities(), ret)) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            case ENTITY_PARTIAL_UPDATE_V2: {
+                EntityPartialUpdateRequestV2 request = (EntityPartialUpdateRequestV2) message;
+                AtlasEntityWithExtInfo       entity  = request.getEntity();
+
+                boolean isKeyed = addObjectIdKey(request.getEntityId(), ret);
+
+                if (isKeyed && entity != null) {
+                    isKeyed = addEntityReferenceKeys(entity.getEntity(), ret);
+
+                    if (MapUtils.isNotEmpty(entity.getReferredEntities())) {
+                        for (AtlasEntity referredEntity : entity.getReferredEntities().values()) {
+                            isKeyed = addEntityKey(referredEntity, ret) && isKeyed;
+                        }
+                    }
+                }
+
+                if (!isKeyed) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            case ENTITY_DELETE_V2: {
+                EntityDeleteRequestV2 request = (EntityDeleteRequestV2) message;
+                boolean               isKeyed = CollectionUtils.isNotEmpty(request.getEntities());
+
+                if (isKeyed) {
+                    for (AtlasObjectId objectId : request.getEntities()) {
+                        isKeyed = addObjectIdKey(objectId, ret) && isKeyed;
+                    }
+                }
+
+                if (!isKeyed) {
+                    ret.clear();
+                }
+            }
+            break;
+
+            default:
+                ret.clear();
+            break;
+        }
+
+        return ret;
+    }
+
+    private static boolean addEntitiesKeys(AtlasEntitiesWithExtInfo entities, Set<String> keys) {
+        if (entities == null || CollectionUtils.isEmpty(entities.getEntities())) {
+            return false;
+        }
+
+        boolean ret = true;
+
+        for (AtlasEntity entity : entities.getEntities()) {
+            ret = addEntityKey(entity, keys) && ret;
+            ret = addEntityReferenceKeys(entity, keys) && ret;
+        }
+
+        if (MapUtils.isNotEmpty(entities.getReferredEntities())) {
+            for (AtlasEntity referredEntity : entities.getReferredEntities().values()) {
+                ret = addEntityKey(referredEntity, keys) && ret;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean addEntityKey(AtlasEntity entity, Set<String> keys) {
+        if (entity == null) {
+            return true;
+        }
+
+        Object qualifiedName = entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME);
+
+        if (qualifiedName != null && StringUtils.isNotEmpty(qualifiedName.toString())) {
+            keys.add(qualifiedName.toString());
+
+            return true;
+        }
+
+        return false;
+    }
+
+    // entities referred by unique-attributes (for example, inputs/outputs of a process) must be ordered with
+    // messages that create them; otherwise the reference could be resolved before the referred entity is created.
+    // Returns false if an entity is referred by its guid only.
+    private static boolean addEntityReferenceKeys(AtlasEntity entity, Set<String> keys) {
+        if (entity == null) {
+            return true;
+        }
+
+        boolean ret = true;
+
+        if (MapUtils.isNotEmpty(entity.getAttributes())) {
+            for (Object attrValue : entity.getAttributes().values()) {
+                ret = addReferenceKeys(attrValue, keys) && ret;
+            }
+        }
+
+        if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+            for (Object attrValue : entity.getRelationshipAttributes().values()) {
+                ret = addReferenceKeys(attrValue, keys) && ret;
+            }
+        }
+
+        return ret;
+    }
+
+    // references by unassigned guid are to entities in the same message, which are keyed by their qualifiedName
+    private static boolean addReferenceKeys(Object value, Set<String> keys) {
+        boolean ret = true;
+
+        if (value instanceof AtlasObjectId) {
+            AtlasObjectId objectId = (AtlasObjectId) value;
+
+            ret = addObjectIdKey(objectId, keys) || !AtlasTypeUtil.isAssignedGuid(objectId.getGuid());
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                ret = addReferenceKeys(element, keys) && ret;
+            }
+        } else if (value instanceof Map) {
+            Map    map         = (Map) value;
+            Object uniqueAttrs = map.get(AtlasObjectId.KEY_UNIQUE_ATTRIBUTES);
+            Object guid        = map.get(AtlasObjectId.KEY_GUID);
+
+            if (uniqueAttrs instanceof Map && ((Map) uniqueAttrs).get(ATTRIBUTE_QUALIFIED_NAME) != null) {
+                keys.add(((Map) uniqueAttrs).get(ATTRIBUTE_QUALIFIED_NAME).toString());
+            } else if (guid instanceof String && AtlasTypeUtil.isAssignedGuid((String) guid)) {
+                ret = false;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean addObjectIdKey(AtlasObjectId objectId, Set<String> keys) {
+        if (objectId == null) {
+            return false;
+        }
+
+        Map<String, Object> uniqueAttributes = objectId.getUniqueAttributes();
+        Object              qualifiedName    = uniqueAttributes != null ? uniqueAttributes.get(ATTRIBUTE_QUALIFIED_NAME) : null;
+
+        if (qualifiedName != null) {
+            keys.add(qualifiedName.toString());
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private static boolean addUniqueAttributeKey(String attrName, String attrValue, Set<String> keys) {
+        if (StringUtils.equals(attrName, ATTRIBUTE_QUALIFIED_NAME) && StringUtils.isNotEmpty(attrValue)) {
+            keys.add(attrValue);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private static boolean addReferenceableKeys(Collection<Referenceable> entities, Set<String> keys) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return false;
+        }
+
+        boolean ret = true;
+
+        for (Referenceable entity : entities) {
+            ret = addReferenceableKey(entity, keys) && ret;
+            ret = addReferenceableValueKeys(entity, keys) && ret;
+        }
+
+        return ret;
+    }
+
+    // returns false if an entity is referred by its guid only
+    private static boolean addReferenceableValueKeys(Referenceable entity, Set<String> keys) {
+        boolean ret = true;
+
+        if (entity != null && MapUtils.isNotEmpty(entity.getValues())) {
+            for (Object attrValue : entity.getValues().values()) {
+                ret = addNestedReferenceableKeys(attrValue, keys) && ret;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean addNestedReferenceableKeys(Object value, Set<String> keys) {
+        boolean ret = true;
+
+        if (value instanceof Referenceable) {
+            ret = addReferenceableKey((Referenceable) value, keys);
+        } else if (value instanceof Id) {
+            ret = !AtlasTypeUtil.isAssignedGuid(((Id) value)._getId());
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                ret = addNestedReferenceableKeys(element, keys) && ret;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean addReferenceableKey(Referenceable entity, Set<String> keys) {
+        if (entity == null) {
+            return true;
+        }
+
+        Object qualifiedName = entity.get(ATTRIBUTE_QUALIFIED_NAME);
+
+        if (qualifiedName != null && StringUtils.isNotEmpty(qualifiedName.toString())) {
+            keys.add(qualifiedName.toString());
+
+            return true;
+        }
+
+        return false;
+    }
+}
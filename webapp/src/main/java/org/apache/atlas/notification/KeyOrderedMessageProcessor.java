@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes messages received by a single consumer on a pool of worker threads, while retaining the order of messages
+ * that share a key. A message with no keys acts as a barrier: it is processed only after all earlier messages are
+ * processed, and later messages are processed only after it is processed.
+ *
+ * Offsets of processed messages are tracked per topic-partition; getCommittableOffsets() returns, for each partition,
+ * the offset up to which all messages have been processed. The returned offsets are expected to be committed by the
+ * thread that owns the Kafka consumer.
+ */
+public class KeyOrderedMessageProcessor {
+    private static final Logger LOG = LoggerFactory.getLogger(KeyOrderedMessageProcessor.class);
+
+    private final String                                      name;
+    private final int                                         maxInFlightMessages;
+    private final ExecutorService                             executor;
+    private final Set<CompletableFuture<Void>>                inFlightTasks  = new HashSet<>();
+    private final Map<String, CompletableFuture<Void>>        lastTaskForKey = new HashMap<>();
+    private final Map<String, Integer>                        keyQueueDepth  = new HashMap<>();
+    private final Map<TopicPartition, TreeMap<Long, Boolean>> pendingOffsets = new HashMap<>();
+    private       CompletableFuture<Void>                     lastBarrier    = CompletableFuture.completedFuture(null);
+
+    public KeyOrderedMessageProcessor(String name, int numWorkers, int maxInFlightMessages) {
+        this.name                = name;
+        this.maxInFlightMessages = Math.max(maxInFlightMessages, numWorkers);
+        this.executor            = Executors.newFixedThreadPool(numWorkers, new ThreadFactoryBuilder().setNameFormat(name + " worker-%d").setDaemon(true).build());
+
+        LOG.info("{}: numWorkers={}, maxInFlightMessages={}", name, numWorkers, this.maxInFlightMessages);
+    }
+
+    /**
+     * Schedules the given task to process the message. Blocks when the number of messages in flight reaches the limit.
+     * @param kafkaMsg message to process
+     * @param keys keys of entities the message touches; empty or null for messages that must be processed in isolation
+     * @param task task to process the message
+     */
+    public void submit(AtlasKafkaMessage<?> kafkaMsg, Set<String> keys, Runnable task) throws InterruptedException {
+        final Set<String>             msgKeys   = keys != null ? keys : Collections.<String>emptySet();
+        final boolean                 isBarrier = msgKeys.isEmpty();
+        final CompletableFuture<Void> future;
+
+        synchronized (this) {
+            while (inFlightTasks.size() >= maxInFlightMessages) {
+                wait();
+            }
+
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+
+            dependencies.add(lastBarrier);
+
+            if (isBarrier) {
+                dependencies.addAll(inFlightTasks);
+            } else {
+                for (String key : msgKeys) {
+                    CompletableFuture<Void> lastTask = lastTaskForKey.get(key);
+
+                    if (lastTask != null) {
+                        dependencies.add(lastTask);
+                    }
+                }
+            }
+
+            pendingOffsets.computeIfAbsent(kafkaMsg.getTopicPartition(), k -> new TreeMap<>()).put(kafkaMsg.getOffset(), Boolean.FALSE);
+
+            future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[dependencies.size()]))
+                                      .thenRunAsync(() -> runTask(kafkaMsg, task), executor);
+
+            inFlightTasks.add(future);
+
+            if (isBarrier) {
+                lastBarrier = future;
+            } else {
+                for (String key : msgKeys) {
+                    lastTaskForKey.put(key, future);
+                    keyQueueDepth.merge(key, 1, Integer::sum);
+                }
+            }
+        }
+
+        future.whenComplete((r, t) -> onTaskComplete(kafkaMsg, msgKeys, future, t));
+    }
+
+    /**
+     * @return for each partition with newly processed messages, the offset to commit i.e. offset of the next message to read
+     */
+    public synchronized Map<TopicPartition, Long> getCommittableOffsets() {
+        Map<TopicPartition, Long> ret = new HashMap<>();
+
+        for (Map.Entry<TopicPartition, TreeMap<Long, Boolean>> entry : pendingOffsets.entrySet()) {
+            Long lastProcessedOffset = null;
+
+            for (Iterator<Map.Entry<Long, Boolean>> iter = entry.getValue().entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<Long, Boolean> offsetEntry = iter.next();
+
+                if (!offsetEntry.getValue()) {
+                    break;
+                }
+
+                lastProcessedOffset = offsetEntry.getKey();
+
+                iter.remove();
+            }
+
+            if (lastProcessedOffset != null) {
+                ret.put(entry.getKey(), lastProcessedOffset + 1);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Waits for all messages in flight to be processed.
+     * @return true if all messages were processed before the timeout
+     */
+    public synchronized boolean awaitCompletion(long timeoutMs) throws InterruptedException {
+        long waitUntil = System.currentTimeMillis() + timeoutMs;
+
+        while (!inFlightTasks.isEmpty()) {
+            long waitTime = waitUntil - System.currentTimeMillis();
+
+            if (waitTime <= 0) {
+                return false;
+            }
+
+            wait(waitTime);
+        }
+
+        return true;
+    }
+
+    public void shutdown(long timeoutMs) {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                LOG.warn("{}: timed out waiting for worker threads to shut down", name);
+
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("{}: interrupted while waiting for worker threads to shut down", name);
+
+            executor.shutdownNow();
+        }
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlightTasks.size();
+    }
+
+    public synchronized int getActiveKeyCount() {
+        return keyQueueDepth.size();
+    }
+
+    public synchronized int getMaxKeyQueueDepth() {
+        int ret = 0;
+
+        for (Integer depth : keyQueueDepth.values()) {
+            if (depth > ret) {
+                ret = depth;
+            }
+        }
+
+        return ret;
+    }
+
+    private void runTask(AtlasKafkaMessage<?> kafkaMsg, Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            LOG.error("{}: failed to process message: topic={}, partition={}, offset={}", name, kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getOffset(), t);
+        }
+    }
+
+    private synchronized void onTaskComplete(AtlasKafkaMessage<?> kafkaMsg, Set<String> keys, CompletableFuture<Void> future, Throwable excp) {
+        if (excp != null) { // task was not run, for example when the executor is shutdown; message will be redelivered
+            LOG.warn("{}: message not processed: topic={}, partition={}, offset={}", name, kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getOffset(), excp);
+        }
+
+        inFlightTasks.remove(future);
+
+        if (CollectionUtils.isNotEmpty(keys)) {
+            for (String key : keys) {
+                if (lastTaskForKey.get(key) == future) {
+                    lastTaskForKey.remove(key);
+                }
+
+                Integer depth = keyQueueDepth.get(key);
+
+                if (depth == null || depth <= 1) {
+                    keyQueueDepth.remove(key);
+                } else {
+                    keyQueueDepth.put(key, depth - 1);
+                }
+            }
+        }
+
+        if (excp == null) {
+            TreeMap<Long, Boolean> offsets = pendingOffsets.get(kafkaMsg.getTopicPartition());
+
+            if (offsets != null && offsets.containsKey(kafkaMsg.getOffset())) {
+                offsets.put(kafkaMsg.getOffset(), Boolean.TRUE);
+            }
+        }
+
+        notifyAll();
+    }
+}
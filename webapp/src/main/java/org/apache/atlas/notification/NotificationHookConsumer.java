@@ -53,7 +53,6 @@ import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityUpdateReq
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
-import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.service.Service;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
@@ -67,6 +66,7 @@ import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.DependsOn;
@@ -93,6 +93,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static org.apache.atlas.model.instance.AtlasObjectId.*;
@@ -133,6 +134,8 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_MAX_RETRY_INTERVAL       = "atlas.notification.consumer.max.retry.interval";
     public static final String CONSUMER_COMMIT_BATCH_SIZE        = "atlas.notification.consumer.commit.batch.size";
     public static final String CONSUMER_DISABLED                 = "atlas.notification.consumer.disabled";
+    public static final String CONSUMER_PARALLEL_WORKERS         = "atlas.notification.consumer.parallel.workers";
+    public static final String CONSUMER_PARALLEL_MAX_IN_FLIGHT   = "atlas.notification.consumer.parallel.max.inflight.messages";
 
 
     public static final String CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633                  = "atlas.notification.consumer.skip.hive_column_lineage.hive-20633";
@@ -164,6 +167,8 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final int                           minWaitDuration;
     private final int                           maxWaitDuration;
     private final int                           commitBatchSize;
+    private final int                           parallelWorkers;
+    private final int                           parallelMaxInFlightMessages;
     private final boolean                       skipHiveColumnLineageHive20633;
     private final int                           skipHiveColumnLineageHive20633InputsThreshold;
     private final boolean                       updateHiveProcessNameWithQualifiedName;
@@ -185,7 +190,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final NotificationInterface         notificationInterface;
     private final Configuration                 applicationProperties;
     private       ExecutorService               executors;
-    private       Instant                       nextStatsLogTime = AtlasMetricsCounter.getNextHourStartTime(Instant.now());
+    private final AtomicReference<Instant>      nextStatsLogTime = new AtomicReference<>(AtlasMetricsCounter.getNextHourStartTime(Instant.now()));
 
     @VisibleForTesting
     final int consumerRetryInterval;
@@ -212,6 +217,9 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         maxWaitDuration       = applicationProperties.getInt(CONSUMER_MAX_RETRY_INTERVAL, minWaitDuration * 60);  //  30 sec by default
         commitBatchSize       = applicationProperties.getInt(CONSUMER_COMMIT_BATCH_SIZE, 50);
 
+        parallelWorkers             = applicationProperties.getInt(CONSUMER_PARALLEL_WORKERS, 0); // 0: messages are processed in the consumer thread
+        parallelMaxInFlightMessages = applicationProperties.getInt(CONSUMER_PARALLEL_MAX_IN_FLIGHT, parallelWorkers * 10);
+
         skipHiveColumnLineageHive20633                = applicationProperties.getBoolean(CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633, false);
         skipHiveColumnLineageHive20633InputsThreshold = applicationProperties.getInt(CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD, 15); // skip if avg # of inputs is > 15
         updateHiveProcessNameWithQualifiedName        = applicationProperties.getBoolean(CONSUMER_PREPROCESS_HIVE_PROCESS_UPD_NAME_WITH_QUALIFIED_NAME, true);
@@ -222,7 +230,8 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
         int authnCacheTtlSeconds = applicationProperties.getInt(CONSUMER_AUTHORIZE_AUTHN_CACHE_TTL_SECONDS, 300);
 
-        authnCache = (authorizeUsingMessageUser && authnCacheTtlSeconds > 0) ? new PassiveExpiringMap<>(authnCacheTtlSeconds * 1000) : null;
+        // caches are shared by parallel workers of the consumer, hence are synchronized
+        authnCache = (authorizeUsingMessageUser && authnCacheTtlSeconds > 0) ? Collections.synchronizedMap(new PassiveExpiringMap<>(authnCacheTtlSeconds * 1000)) : null;
 
         String[] patternHiveTablesToIgnore = applicationProperties.getStringArray(CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN);
         String[] patternHiveTablesToPrune  = applicationProperties.getStringArray(CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN);
@@ -254,7 +263,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
 
         if (!hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty()) {
-            hiveTablesCache = new LruCache<>(applicationProperties.getInt(CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE, 10000), 0);
+            hiveTablesCache = Collections.synchronizedMap(new LruCache<>(applicationProperties.getInt(CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE, 10000), 0));
         } else {
             hiveTablesCache = Collections.emptyMap();
         }
@@ -309,6 +318,8 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         LOG.info("{}={}", CONSUMER_PREPROCESS_RDBMS_TYPES_REMOVE_OWNEDREF_ATTRS, rdbmsTypesRemoveOwnedRefAttrs);
         LOG.info("{}={}", CONSUMER_COMMIT_BATCH_SIZE, commitBatchSize);
         LOG.info("{}={}", CONSUMER_DISABLED, consumerDisabled);
+        LOG.info("{}={}", CONSUMER_PARALLEL_WORKERS, parallelWorkers);
+        LOG.info("{}={}", CONSUMER_PARALLEL_MAX_IN_FLIGHT, parallelMaxInFlightMessages);
     }
 
     @Override
@@ -512,8 +523,9 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     class HookConsumer extends ShutdownableThread {
         private final NotificationConsumer<HookNotification> consumer;
         private final AtomicBoolean                          shouldRun      = new AtomicBoolean(false);
-        private final List<String>                           failedMessages = new ArrayList<>();
+        private final List<String>                           failedMessages = Collections.synchronizedList(new ArrayList<>());
         private final AdaptiveWaiter                         adaptiveWaiter = new AdaptiveWaiter(minWaitDuration, maxWaitDuration, minWaitDuration);
+        private volatile KeyOrderedMessageProcessor          parallelProcessor;
 
         @VisibleForTesting
         final FailedCommitOffsetRecorder failedCommitOffsetRecorder;
@@ -535,13 +547,25 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 return;
             }
 
+            if (parallelWorkers > 0) {
+                parallelProcessor = new KeyOrderedMessageProcessor(Thread.currentThread().getName(), parallelWorkers, parallelMaxInFlightMessages);
+            }
+
             try {
                 while (shouldRun.get()) {
                     try {
                         List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
 
                         for (AtlasKafkaMessage<HookNotification> msg : messages) {
-                            handleMessage(msg);
+                            if (parallelProcessor != null) {
+                                parallelProcessor.submit(msg, HookMessageKeyExtractor.getKeys(msg.getMessage()), () -> handleMessageInWorker(msg));
+                            } else {
+                                handleMessage(msg);
+                            }
+                        }
+
+                        if (parallelProcessor != null) {
+                            commitProcessedOffsets();
                         }
                     } catch (IllegalStateException ex) {
                         adaptiveWaiter.pause(ex);
@@ -556,6 +580,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     }
                 }
             } finally {
+                if (parallelProcessor != null) {
+                    stopParallelProcessor();
+                }
+
                 if (consumer != null) {
                     LOG.info("closing NotificationConsumer");
 
@@ -566,6 +594,47 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             }
         }
 
+        private void handleMessageInWorker(AtlasKafkaMessage<HookNotification> kafkaMsg) {
+            try {
+                handleMessage(kafkaMsg);
+            } catch (Exception e) {
+                LOG.warn("Exception in NotificationHookConsumer worker: topic-offset={}, partition={}", kafkaMsg.getOffset(), kafkaMsg.getPartition(), e);
+            }
+        }
+
+        // offsets are committed from the consumer thread, as KafkaConsumer is not safe for multi-threaded access
+        private void commitProcessedOffsets() {
+            Map<TopicPartition, Long> offsets = parallelProcessor.getCommittableOffsets();
+
+            for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+                try {
+                    consumer.commit(entry.getKey(), entry.getValue());
+                } catch (Exception e) {
+                    LOG.warn("failed to commit offset {} for {}; messages after last committed offset could be processed again", entry.getValue(), entry.getKey(), e);
+                }
+            }
+
+            metricsUtil.onNotificationQueueStats(Thread.currentThread().getName(), parallelProcessor.getInFlightCount(), parallelProcessor.getActiveKeyCount(), parallelProcessor.getMaxKeyQueueDepth());
+        }
+
+        private void stopParallelProcessor() {
+            try {
+                if (!parallelProcessor.awaitCompletion(maxWaitDuration)) {
+                    LOG.warn("Timed out waiting for {} in-flight messages to be processed", parallelProcessor.getInFlightCount());
+                }
+
+                commitProcessedOffsets();
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while waiting for in-flight messages to be processed");
+            } catch (Exception e) {
+                LOG.warn("Failed to commit offsets of processed messages", e);
+            } finally {
+                parallelProcessor.shutdown(maxWaitDuration);
+
+                parallelProcessor = null;
+            }
+        }
+
         @VisibleForTesting
         void handleMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) throws AtlasServiceException, AtlasException {
             AtlasPerfTracer  perf           = null;
@@ -666,7 +735,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                                 }
 
                                 AtlasEntityType entityType = typeRegistry.getEntityTypeByName(partialUpdateRequest.getTypeName());
-                                String          guid       = AtlasGraphUtilsV2.getGuidByUniqueAttributes(entityType, Collections.singletonMap(partialUpdateRequest.getAttribute(), (Object)partialUpdateRequest.getAttributeValue()));
+                                String          guid       = atlasEntityStore.getGuidByUniqueAttributes(entityType, Collections.singletonMap(partialUpdateRequest.getAttribute(), (Object)partialUpdateRequest.getAttributeValue()));
 
                                 // There should only be one root entity
                                 entities.getEntities().get(0).setGuid(guid);
@@ -838,12 +907,12 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     AuditFilter.audit(auditLog);
                 }
 
-                Instant now = Instant.now();
+                Instant now          = Instant.now();
+                Instant statsLogTime = nextStatsLogTime.get();
 
-                if (now.isAfter(nextStatsLogTime)) {
+                // messages are processed by multiple workers; only the one that advances the time logs the stats
+                if (now.isAfter(statsLogTime) && nextStatsLogTime.compareAndSet(statsLogTime, AtlasMetricsCounter.getNextHourStartTime(now))) {
                     LOG.info("STATS: {}", AtlasJson.toJson(metricsUtil.getStats()));
-
-                    nextStatsLogTime = AtlasMetricsCounter.getNextHourStartTime(now);
                 }
             }
         }
@@ -893,15 +962,23 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
 
         private void recordFailedMessages() {
-            //logging failed messages
-            for (String message : failedMessages) {
-                FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", message);
-            }
+            synchronized (failedMessages) {
+                //logging failed messages
+                for (String message : failedMessages) {
+                    FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", message);
+                }
 
-            failedMessages.clear();
+                failedMessages.clear();
+            }
         }
 
         private void commit(AtlasKafkaMessage<HookNotification> kafkaMessage) {
+            if (parallelProcessor != null) { // offset will be committed by the consumer thread, once all earlier messages are processed
+                recordFailedMessages();
+
+                return;
+            }
+
             boolean commitSucceessStatus = false;
             try {
                 recordFailedMessages();
@@ -47,6 +47,7 @@ import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.metrics.AtlasMetrics;
 import org.apache.atlas.model.patches.AtlasPatch.AtlasPatches;
+import org.apache.atlas.model.tasks.AtlasTask;
 import org.apache.atlas.repository.audit.AtlasAuditService;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.impexp.AtlasServerService;
@@ -58,6 +59,7 @@ import org.apache.atlas.repository.impexp.ZipSink;
 import org.apache.atlas.repository.patches.AtlasPatchManager;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.services.MetricsService;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.SearchTracker;
@@ -157,6 +159,7 @@ public class AdminResource {
     private final  AtlasAuditService        auditService;
     private final  String                   defaultUIVersion;
     private final  EntityAuditRepository    auditRepository;
+    private final  TaskManagement           taskManagement;
 
     static {
         try {
@@ -172,7 +175,8 @@ public class AdminResource {
                          MigrationProgressService migrationProgressService,
                          AtlasServerService serverService,
                          ExportImportAuditService exportImportAuditService, AtlasEntityStore entityStore,
-                         AtlasPatchManager patchManager, AtlasAuditService auditService, EntityAuditRepository auditRepository) {
+                         AtlasPatchManager patchManager, AtlasAuditService auditService, EntityAuditRepository auditRepository,
+                         TaskManagement taskManagement) {
         this.serviceState              = serviceState;
         this.metricsService            = metricsService;
         this.exportService             = exportService;
@@ -187,6 +191,7 @@ public class AdminResource {
         this.patchManager              = patchManager;
         this.auditService              = auditService;
         this.auditRepository           = auditRepository;
+        this.taskManagement            = taskManagement;
 
         if (atlasProperties != null) {
             defaultUIVersion = atlasProperties.getString(DEFAULT_UI_VERSION, UI_VERSION_V2);
@@ -700,6 +705,52 @@ public class AdminResource {
         return ret;
     }
 
+    /**
+     * Fetches background tasks, like deferred classification propagation.
+     * @param status status of the tasks to return; tasks of all statuses are returned if not specified
+     * @param limit  maximum number of tasks to return
+     * @param offset number of tasks to skip, in order of creation
+     */
+    @GET
+    @Path("tasks")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public List<AtlasTask> getTasks(@QueryParam("status") AtlasTask.Status status,
+                                    @QueryParam("limit") @DefaultValue("100") int limit,
+                                    @QueryParam("offset") @DefaultValue("0") int offset) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.getTasks({}, {}, {})", status, limit, offset);
+        }
+
+        List<AtlasTask> ret = status != null ? taskManagement.getByStatus(status, offset, limit) : taskManagement.getAll(offset, limit);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.getTasks({}, {}, {}): {} tasks", status, limit, offset, ret.size());
+        }
+
+        return ret;
+    }
+
+    @GET
+    @Path("tasks/{guid}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask getTask(@PathParam("guid") String guid) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.getTask({})", guid);
+        }
+
+        AtlasTask ret = taskManagement.getByGuid(guid);
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_FOUND, guid);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.getTask({}): {}", guid, ret);
+        }
+
+        return ret;
+    }
+
     private String getEditableEntityTypes(Configuration config) {
         String ret = DEFAULT_EDITABLE_ENTITY_TYPES;
 
@@ -322,19 +322,94 @@ public class DiscoveryREST {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.searchWithParameters(" + parameters + ")");
             }
 
-            if (parameters.getLimit() < 0 || parameters.getOffset() < 0) {
-                throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "Limit/offset should be non-negative");
+            validateBasicSearchParameters(parameters);
+
+            return discoveryService.searchWithParameters(parameters);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Attribute based search for entities satisfying the search parameters, returning the first page of results.
+     * Subsequent pages are read using nextCursor in the result, which is set when more results might be available.
+     * Unlike reading subsequent pages using offset, a page read using the cursor continues the search from where the
+     * previous page ended.
+     *
+     * @param parameters Search parameters; offset is ignored
+     * @return Atlas search result
+     * @throws AtlasBaseException
+     * @HTTP 200 On successful search
+     * @HTTP 400 Tag/Entity doesn't exist or Tag/entity filter is present without tag/type name
+     */
+    @Path("basic/cursor")
+    @POST
+    public AtlasSearchResult searchWithCursor(SearchParameters parameters) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.searchWithCursor(" + parameters + ")");
             }
 
-            if (StringUtils.isEmpty(parameters.getTypeName()) && StringUtils.isEmpty(parameters.getClassification()) &&
-                StringUtils.isEmpty(parameters.getQuery()) && StringUtils.isEmpty(parameters.getTermName()) &&
-                isEmpty(parameters.getEntityFilters()) && isEmpty(parameters.getTagFilters())) {
-                throw new AtlasBaseException(AtlasErrorCode.INVALID_SEARCH_PARAMS);
+            validateBasicSearchParameters(parameters);
+
+            parameters.setOffset(0);
+
+            return discoveryService.searchWithCursor(parameters);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Next page of a search started with POST basic/cursor
+     *
+     * @param cursor nextCursor in the previous page
+     * @return Atlas search result
+     * @throws AtlasBaseException
+     * @HTTP 200 On successful search
+     * @HTTP 404 Cursor is invalid or has expired
+     */
+    @Path("basic/cursor/{cursor}")
+    @GET
+    public AtlasSearchResult searchWithCursor(@PathParam("cursor") String cursor) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("cursor", cursor);
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.searchWithCursor(cursor=" + cursor + ")");
             }
 
-            validateSearchParameters(parameters);
+            return discoveryService.searchWithCursor(cursor);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
 
-            return discoveryService.searchWithParameters(parameters);
+    /**
+     * Release a search cursor before reading all pages
+     *
+     * @param cursor nextCursor in a page
+     * @throws AtlasBaseException
+     * @HTTP 204 On successful removal
+     * @HTTP 404 Cursor is invalid or has expired
+     */
+    @Path("basic/cursor/{cursor}")
+    @DELETE
+    public void removeSearchCursor(@PathParam("cursor") String cursor) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("cursor", cursor);
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.removeSearchCursor(cursor=" + cursor + ")");
+            }
+
+            discoveryService.removeSearchCursor(cursor);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -688,6 +763,20 @@ public class DiscoveryREST {
         }
     }
 
+    private void validateBasicSearchParameters(SearchParameters parameters) throws AtlasBaseException {
+        if (parameters.getLimit() < 0 || parameters.getOffset() < 0) {
+            throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "Limit/offset should be non-negative");
+        }
+
+        if (StringUtils.isEmpty(parameters.getTypeName()) && StringUtils.isEmpty(parameters.getClassification()) &&
+            StringUtils.isEmpty(parameters.getQuery()) && StringUtils.isEmpty(parameters.getTermName()) &&
+            isEmpty(parameters.getEntityFilters()) && isEmpty(parameters.getTagFilters())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_SEARCH_PARAMS);
+        }
+
+        validateSearchParameters(parameters);
+    }
+
     private void validateSearchParameters(SearchParameters parameters) throws AtlasBaseException {
         if (parameters != null) {
             Servlets.validateQueryParamLength("typeName", parameters.getTypeName());
@@ -81,6 +81,7 @@ public class LineageREST {
      * @param guid - unique entity id
      * @param direction - input, output or both
      * @param depth - number of hops for lineage
+     * @param continuationToken - token returned in a truncated lineage, to fetch the remaining lineage
      * @return AtlasLineageInfo
      * @throws AtlasBaseException
      * @HTTP 200 If Lineage exists for the given entity
@@ -91,8 +92,10 @@ public class LineageREST {
     @Path("/{guid}")
     public AtlasLineageInfo getLineageGraph(@PathParam("guid") String guid,
                                             @QueryParam("direction") @DefaultValue(DEFAULT_DIRECTION)  LineageDirection direction,
-                                            @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth) throws AtlasBaseException {
+                                            @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth,
+                                            @QueryParam("continuationToken") String continuationToken) throws AtlasBaseException {
         Servlets.validateQueryParamLength("guid", guid);
+        Servlets.validateQueryParamLength("continuationToken", continuationToken);
 
         AtlasPerfTracer perf = null;
 
@@ -102,7 +105,7 @@ public class LineageREST {
                                                                "," + depth + ")");
             }
 
-            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth);
+            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth, continuationToken);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -120,6 +123,7 @@ public class LineageREST {
      * @param typeName - typeName of entity
      * @param direction - input, output or both
      * @param depth - number of hops for lineage
+     * @param continuationToken - token returned in a truncated lineage, to fetch the remaining lineage
      * @return AtlasLineageInfo
      * @throws AtlasBaseException
      * @HTTP 200 If Lineage exists for the given entity
@@ -131,8 +135,10 @@ public class LineageREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasLineageInfo getLineageByUniqueAttribute(@PathParam("typeName") String typeName, @QueryParam("direction") @DefaultValue(DEFAULT_DIRECTION) LineageDirection direction,
-                                                        @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth, @Context HttpServletRequest servletRequest) throws AtlasBaseException {
+                                                        @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth, @QueryParam("continuationToken") String continuationToken,
+                                                        @Context HttpServletRequest servletRequest) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
+        Servlets.validateQueryParamLength("continuationToken", continuationToken);
         AtlasPerfTracer perf = null;
 
         try {
@@ -145,7 +151,7 @@ public class LineageREST {
                         "," + depth + ")");
             }
 
-            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth);
+            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth, continuationToken);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.v1.model.instance.Id;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageKeyExtractorTest {
+    private static final String GUID = "a3955120-ac17-426f-a4af-972ec8690e5f";
+
+    @Test
+    public void keyedByQualifiedName() {
+        AtlasEntity table = entity("hive_table", "db.tbl@cl1");
+
+        table.setRelationshipAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", "db@cl1"));
+
+        EntityCreateRequestV2 request = new EntityCreateRequestV2("user", new AtlasEntitiesWithExtInfo(table));
+
+        assertEquals(HookMessageKeyExtractor.getKeys(request), new HashSet<>(Arrays.asList("db.tbl@cl1", "db@cl1")));
+    }
+
+    @Test
+    public void entityIdentifiedByGuidIsProcessedSerially() {
+        AtlasEntity table = entity("hive_table", null);
+
+        table.setGuid(GUID);
+
+        assertTrue(HookMessageKeyExtractor.getKeys(new EntityCreateRequestV2("user", new AtlasEntitiesWithExtInfo(table))).isEmpty());
+        assertTrue(HookMessageKeyExtractor.getKeys(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId(GUID, "hive_table")))).isEmpty());
+    }
+
+    @Test
+    public void referenceByGuidIsProcessedSerially() {
+        AtlasEntity table = entity("hive_table", "db.tbl@cl1");
+
+        table.setRelationshipAttribute("db", new AtlasObjectId(GUID, "hive_db"));
+
+        assertTrue(HookMessageKeyExtractor.getKeys(new EntityCreateRequestV2("user", new AtlasEntitiesWithExtInfo(table))).isEmpty());
+
+        Referenceable tableV1 = new Referenceable("hive_table");
+
+        tableV1.set("qualifiedName", "db.tbl@cl1");
+        tableV1.set("db", new Id(GUID, 0, "hive_db"));
+
+        assertTrue(HookMessageKeyExtractor.getKeys(new EntityCreateRequest("user", tableV1)).isEmpty());
+    }
+
+    @Test
+    public void referenceToEntityInSameMessageIsKeyed() {
+        AtlasEntity db    = entity("hive_db", "db@cl1");
+        AtlasEntity table = entity("hive_table", "db.tbl@cl1");
+
+        db.setGuid("-1");
+        table.setRelationshipAttribute("db", new AtlasObjectId("-1", "hive_db"));
+
+        EntityCreateRequestV2 request = new EntityCreateRequestV2("user", new AtlasEntitiesWithExtInfo(Arrays.asList(db, table)));
+
+        assertEquals(HookMessageKeyExtractor.getKeys(request), new HashSet<>(Arrays.asList("db.tbl@cl1", "db@cl1")));
+    }
+
+    @Test
+    public void partialUpdateV1IsKeyedByReferences() {
+        Referenceable db      = new Referenceable("hive_db");
+        Referenceable tableV1 = new Referenceable("hive_table");
+
+        db.set("qualifiedName", "db@cl1");
+        tableV1.set("db", db);
+
+        EntityPartialUpdateRequest request = new EntityPartialUpdateRequest("user", "hive_table", "qualifiedName", "db.tbl@cl1", tableV1);
+
+        assertEquals(HookMessageKeyExtractor.getKeys(request), new HashSet<>(Arrays.asList("db.tbl@cl1", "db@cl1")));
+
+        tableV1.set("db", new Id(GUID, 0, "hive_db"));
+
+        assertTrue(HookMessageKeyExtractor.getKeys(request).isEmpty());
+    }
+
+    private static AtlasEntity entity(String typeName, String qualifiedName) {
+        AtlasEntity ret = new AtlasEntity(typeName);
+
+        if (qualifiedName != null) {
+            ret.setAttribute("qualifiedName", qualifiedName);
+        }
+
+        return ret;
+    }
+}
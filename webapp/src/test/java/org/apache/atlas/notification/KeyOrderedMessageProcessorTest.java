@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.kafka.common.TopicPartition;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class KeyOrderedMessageProcessorTest {
+    private static final String TOPIC = "ATLAS_HOOK";
+
+    private KeyOrderedMessageProcessor processor;
+
+    @BeforeMethod
+    public void setup() {
+        processor = new KeyOrderedMessageProcessor("test", 4, 100);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        processor.shutdown(1000);
+    }
+
+    @Test
+    public void messagesWithSameKeyAreProcessedInOrder() throws Exception {
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+        for (long offset = 0; offset < 50; offset++) {
+            final long msgOffset = offset;
+
+            processor.submit(message(offset), Collections.singleton("db.tbl@cl1"), () -> {
+                sleep(msgOffset % 3);
+
+                processed.add(msgOffset);
+            });
+        }
+
+        assertTrue(processor.awaitCompletion(10000));
+        assertEquals(processed.size(), 50);
+
+        for (int i = 0; i < processed.size(); i++) {
+            assertEquals(processed.get(i).longValue(), i);
+        }
+
+        assertEquals(processor.getCommittableOffsets().get(new TopicPartition(TOPIC, 0)), Long.valueOf(50));
+    }
+
+    @Test
+    public void messagesWithDifferentKeysAreProcessedInParallel() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done    = new CountDownLatch(1);
+
+        processor.submit(message(0), Collections.singleton("db.tbl1@cl1"), () -> await(blocker));
+        processor.submit(message(1), Collections.singleton("db.tbl2@cl1"), done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // offset 1 is processed, but offset 0 is not - nothing should be committable yet
+        assertTrue(processor.getCommittableOffsets().isEmpty());
+        assertEquals(processor.getMaxKeyQueueDepth(), 1);
+
+        blocker.countDown();
+
+        assertTrue(processor.awaitCompletion(10000));
+        assertEquals(processor.getCommittableOffsets().get(new TopicPartition(TOPIC, 0)), Long.valueOf(2));
+        assertEquals(processor.getActiveKeyCount(), 0);
+    }
+
+    @Test
+    public void messageWithNoKeysIsABarrier() throws Exception {
+        CountDownLatch blocker   = new CountDownLatch(1);
+        List<String>   processed = Collections.synchronizedList(new ArrayList<>());
+
+        processor.submit(message(0), Collections.singleton("db.tbl1@cl1"), () -> { await(blocker); processed.add("first"); });
+        processor.submit(message(1), Collections.emptySet(), () -> processed.add("barrier"));
+        processor.submit(message(2), Collections.singleton("db.tbl2@cl1"), () -> processed.add("last"));
+
+        Thread.sleep(100);
+
+        assertTrue(processed.isEmpty());
+        assertFalse(processor.awaitCompletion(10));
+
+        blocker.countDown();
+
+        assertTrue(processor.awaitCompletion(10000));
+        assertEquals(processed, Arrays.asList("first", "barrier", "last"));
+    }
+
+    @Test
+    public void failedMessageDoesNotBlockCommit() throws Exception {
+        processor.submit(message(0), new HashSet<>(Collections.singleton("db.tbl1@cl1")), () -> { throw new RuntimeException("test failure"); });
+        processor.submit(message(1), new HashSet<>(Collections.singleton("db.tbl1@cl1")), () -> { });
+
+        assertTrue(processor.awaitCompletion(10000));
+
+        Map<TopicPartition, Long> offsets = processor.getCommittableOffsets();
+
+        assertEquals(offsets.get(new TopicPartition(TOPIC, 0)), Long.valueOf(2));
+        assertTrue(processor.getCommittableOffsets().isEmpty());
+    }
+
+    private static AtlasKafkaMessage<String> message(long offset) {
+        return new AtlasKafkaMessage<>("msg-" + offset, offset, TOPIC, 0);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}